@@ -7,11 +7,11 @@ cp -r src/imr lib
 cd lib
 javac imr/math/*.java imr/math/matrix/*.java imr/math/matrix/complex/*.java imr/math/polynomial/*.java imr/math/polynomial/division/*.java imr/math/stat/*.java   
 javac imr/plot/*.java imr/sigslot/*.java imr/sound/*.java
-javac imr/sound/audio/*.java imr/sound/audio/analysis/*.java imr/sound/audio/filter/*.java
+javac imr/sound/audio/*.java imr/sound/audio/analysis/*.java imr/sound/audio/filter/*.java imr/sound/audio/graph/*.java
 javac imr/sound/audio/synthesis/*.java imr/sound/audio/window/*.java imr/sound/midi/*.java imr/util/*.java
 rm imr/math/*.java imr/math/matrix/*.java imr/math/matrix/complex/*.java imr/math/polynomial/*.java imr/math/polynomial/division/*.java imr/math/stat/*.java 
 rm imr/plot/*.java imr/sigslot/*.java imr/sound/*.java
-rm imr/sound/audio/*.java imr/sound/audio/analysis/*.java imr/sound/audio/filter/*.java
+rm imr/sound/audio/*.java imr/sound/audio/analysis/*.java imr/sound/audio/filter/*.java imr/sound/audio/graph/*.java
 rm imr/sound/audio/synthesis/*.java imr/sound/audio/window/*.java imr/sound/midi/*.java imr/util/*.java
 jar cvf imr-lib.jar imr
 rm -r imr
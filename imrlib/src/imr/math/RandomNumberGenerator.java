@@ -28,9 +28,16 @@
 
 package imr.math;
 
+import java.util.concurrent.ThreadLocalRandom;
+
 /**
 * The <code>RandomNumberGenerator</code> class generates random numbers in a [min..max] range.
 * It has public static overloaded methods to do the task.
+* <p>
+* Each thread uses its own generator, so threads generating numbers at the same time do not contend for a shared seed.
+* To get reproducible sequences, or to fill whole arrays faster, use a <code>Xoshiro256</code> object.
+*
+* @see imr.math.Xoshiro256
 *
 * @author: Ismael Mosquera Rivera
 *
@@ -50,7 +57,7 @@ public static int generate(int min, int max)
 {
 	assert (min < max): "Bad range: min must be lower than max.";
 int range = (max - min) + 1;
-int retval = (int)(Math.random() * range);
+int retval = (int)(ThreadLocalRandom.current().nextDouble() * range);
 return retval + min;
 }
 
@@ -66,7 +73,7 @@ public static double generate(double min, double max)
 {
 	assert (min < max): "Bad range: min must be lower than max.";
 double range = (max - min);
-double retval = (Math.random() * range);
+double retval = (ThreadLocalRandom.current().nextDouble() * range);
 return retval + min;
 }
 
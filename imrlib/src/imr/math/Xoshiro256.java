@@ -0,0 +1,299 @@
+/*
+ * Copyright (c) 2026 Ismael Mosquera Rivera
+ *
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+/*
+* Xoshiro256.java
+*
+* imr-lib
+*
+* Author: Ismael Mosquera Rivera
+*/
+
+package imr.math;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+* The <code>Xoshiro256</code> class is a fast pseudo random number generator, implementing the xoshiro256++ algorithm
+* by David Blackman and Sebastiano Vigna.
+* <p>
+* Unlike <code>Math.random()</code>, which shares one generator among all the threads,
+* each <code>Xoshiro256</code> object has its own state, so there is no contention between threads,
+* and the same seed always generates the same sequence, so results can be reproduced.
+* <p>
+* The <code>split</code> method makes a new generator whose sequence does not overlap with the one of this generator
+* ( it is 2^128 numbers away ), so one generator can be split to give an independent one to each thread.
+* <p>
+* An object of this class must not be shared among threads without synchronization.
+* <p>
+* Example:
+* <code>
+* Xoshiro256 rng = new Xoshiro256(1234L);
+* Xoshiro256 other = rng.split();  // for another thread
+* float[] noise = new float[1024];
+* rng.fill(noise, -1.0f, 1.0f);
+* </code>
+*
+* @see imr.math.RandomNumberGenerator
+*
+* @author Ismael Mosquera Rivera
+*
+*/
+public final class Xoshiro256
+{
+
+/**
+* Constructor.
+* Makes a new instance of a <code>Xoshiro256</code> object with a seed taken from the system clock.
+*
+*/
+public Xoshiro256()
+{
+this(System.nanoTime() ^ (SEEDS.getAndAdd(0x9e3779b97f4a7c15L)));
+}
+
+/**
+* Constructor.
+* Makes a new instance of a <code>Xoshiro256</code> object.
+* @param seed Seed; the same seed always generates the same sequence.
+*
+*/
+public Xoshiro256(long seed)
+{
+setSeed(seed);
+}
+
+/**
+* Sets the seed of this generator.
+* <p>
+* The state is initialized from the seed through the splitmix64 generator, as recommended by the authors of the algorithm.
+* @param seed Seed.
+*
+*/
+public void setSeed(long seed)
+{
+long x = seed;
+x += 0x9e3779b97f4a7c15L;
+_s0 = mix(x);
+x += 0x9e3779b97f4a7c15L;
+_s1 = mix(x);
+x += 0x9e3779b97f4a7c15L;
+_s2 = mix(x);
+x += 0x9e3779b97f4a7c15L;
+_s3 = mix(x);
+}
+
+/**
+* Generates a random long value.
+*
+* @return a random long, uniformly distributed among all the long values.
+*/
+public long nextLong()
+{
+long result = Long.rotateLeft(_s0 + _s3, 23) + _s0;
+long t = _s1 << 17;
+_s2 ^= _s0;
+_s3 ^= _s1;
+_s1 ^= _s2;
+_s0 ^= _s3;
+_s2 ^= t;
+_s3 = Long.rotateLeft(_s3, 45);
+return result;
+}
+
+/**
+* Generates a random int value.
+*
+* @return a random int, uniformly distributed among all the int values.
+*/
+public int nextInt()
+{
+return (int)(nextLong() >>> 32);
+}
+
+/**
+* Generates a random integer number in the [min..max] range.
+* @param min Minimum value in the range.
+* @param max Maximum value in the range.
+*
+* @return a random integer value in the [min..max] range.
+*/
+public int nextInt(int min, int max)
+{
+assert (min < max): "Bad range: min must be lower than max.";
+long range = (long)max - (long)min + 1L;
+return (int)(min + (((nextLong() >>> 32) * range) >>> 32));
+}
+
+/**
+* Generates a random double value in the [0..1) range.
+*
+* @return a random double value.
+*/
+public double nextDouble()
+{
+return (nextLong() >>> 11) * 0x1.0p-53;
+}
+
+/**
+* Generates a random floating point number in the [min..max) range.
+* @param min Minimum value in the range.
+* @param max Maximum value in the range.
+*
+* @return a random double value in the [min..max) range.
+*/
+public double nextDouble(double min, double max)
+{
+assert (min < max): "Bad range: min must be lower than max.";
+return min + nextDouble() * (max - min);
+}
+
+/**
+* Generates a random float value in the [0..1) range.
+*
+* @return a random float value.
+*/
+public float nextFloat()
+{
+return (nextLong() >>> 40) * 0x1.0p-24f;
+}
+
+/**
+* Fills an array with random float values in the [min..max) range.
+* @param x Array to be filled.
+* @param min Minimum value in the range.
+* @param max Maximum value in the range.
+*
+*/
+public void fill(float[] x, float min, float max)
+{
+fill(x, 0, x.length, min, max);
+}
+
+/**
+* Fills a segment of an array with random float values in the [min..max) range.
+* <p>
+* Each generated long value gives two float values, so this method is faster than calling <code>nextFloat</code> for each one.
+* @param x Array to be filled.
+* @param offset Index of the first value.
+* @param n Number of values.
+* @param min Minimum value in the range.
+* @param max Maximum value in the range.
+*
+*/
+public void fill(float[] x, int offset, int n, float min, float max)
+{
+assert (min < max): "Bad range: min must be lower than max.";
+float scale = (max - min) * 0x1.0p-24f;
+int end = offset + n;
+int i = offset;
+for(; i + 1 < end; i += 2)
+{
+	long r = nextLong();
+	x[i] = min + (float)((r >>> 40)) * scale;
+	x[i+1] = min + (float)((r >>> 8) & 0xffffffL) * scale;
+}
+if(i < end) x[i] = min + (float)(nextLong() >>> 40) * scale;
+}
+
+/**
+* Fills an array with random double values in the [min..max) range.
+* @param x Array to be filled.
+* @param min Minimum value in the range.
+* @param max Maximum value in the range.
+*
+*/
+public void fill(double[] x, double min, double max)
+{
+assert (min < max): "Bad range: min must be lower than max.";
+double range = max - min;
+for(int i = 0; i < x.length; i++) x[i] = min + nextDouble() * range;
+}
+
+/**
+* Makes a new generator whose sequence does not overlap with the one of this generator.
+* <p>
+* The new generator takes the current state, and this one jumps 2^128 numbers ahead.
+* So, calling this method n times gives n + 1 independent sequences, and the whole process is reproducible.
+*
+* @return a new <code>Xoshiro256</code> object.
+*/
+public Xoshiro256 split()
+{
+Xoshiro256 g = new Xoshiro256(0L);
+g._s0 = _s0;
+g._s1 = _s1;
+g._s2 = _s2;
+g._s3 = _s3;
+jump();
+return g;
+}
+
+
+/*
+* Advances the state 2^128 steps.
+*/
+private void jump()
+{
+long s0 = 0;
+long s1 = 0;
+long s2 = 0;
+long s3 = 0;
+for(int i = 0; i < JUMP.length; i++)
+{
+	for(int b = 0; b < 64; b++)
+	{
+		if((JUMP[i] & (1L << b)) != 0)
+		{
+			s0 ^= _s0;
+			s1 ^= _s1;
+			s2 ^= _s2;
+			s3 ^= _s3;
+		}
+		nextLong();
+	}
+}
+_s0 = s0;
+_s1 = s1;
+_s2 = s2;
+_s3 = s3;
+}
+
+/*
+* splitmix64 output function.
+*/
+private static long mix(long z)
+{
+z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+return z ^ (z >>> 31);
+}
+
+
+private long _s0;
+private long _s1;
+private long _s2;
+private long _s3;
+
+private static final long[] JUMP = { 0x180ec6d33cfd0abaL, 0xd5a61266f0c9392cL, 0xa9582618e03fc9aaL, 0x39abdc4529b1661cL };
+private static final AtomicLong SEEDS = new AtomicLong(0x5deece66dL);
+}
+
+// END
@@ -24,6 +24,7 @@
 * <li>Range</li>
 * <li>RationalNumber</li>
 * <li>RationalFunction</li>
+* <li>Xoshiro256 ( a fast, seedable and splittable random number generator )</li>
 * </ul>
 * All of them are self explanatory.
 * <p>
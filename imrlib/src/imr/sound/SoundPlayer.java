@@ -30,12 +30,15 @@ package imr.sound;
 
 import imr.sound.audio.AudioPlayer;
 import imr.sound.midi.MIDIPlayer;
+import imr.sigslot.Slot1;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.FileNotFoundException;
 import java.util.ArrayList;
 import java.util.Scanner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import javax.sound.sampled.LineListener;
 import javax.sound.sampled.LineEvent;
@@ -61,6 +64,13 @@ import javax.sound.midi.MetaMessage;
 * directory or a *.m3u file as parameter
 * having files supported by this player.
 * This class also provides methods to loop and shuffle.
+* <p>
+* Audio files in a playing list are played without gaps: while a file plays, the head of the next one
+* is decoded in background, and if both have the same format, the next one follows through the same line.
+* <p>
+* The methods of this class can be called from any thread. The events of the players, such as the end of a file,
+* are posted to a control thread owned by this player, so the playing list is only changed while holding its lock
+* and the playback threads never wait for it.
 * @author Ismael Mosquera Rivera
 */
 public final class SoundPlayer implements Player
@@ -76,11 +86,20 @@ public SoundPlayer()
 	shuffleRequested = false;
 	playingListCount = 0;
 	currentFile = null;
+nextIndex = -1;
 player = null;
 audioPlayer = new AudioPlayer(new AudioLineListener());
+((AudioPlayer)audioPlayer).setSlot(new NextFileSlot());
 midiPlayer = new MIDIPlayer(new MIDIPlaybackListener());
 playingList = new PlayingList();
 listenerList = new ArrayList<PlayingListListener>();
+preparedNext = null;
+control = Executors.newSingleThreadExecutor(r ->
+{
+	Thread t = new Thread(r, "SoundPlayer");
+	t.setDaemon(true);
+	return t;
+});
 }
 
 /**
@@ -88,7 +107,7 @@ listenerList = new ArrayList<PlayingListListener>();
 * @param listener a <code>PlayingListListener</code> object to be added.
 * @see imr.sound.PlayingListListener
 */
-public void addPlayingListListener(PlayingListListener listener)
+public synchronized void addPlayingListListener(PlayingListListener listener)
 {
 listenerList.add(listener);
 }
@@ -98,7 +117,7 @@ listenerList.add(listener);
 * @param fileName path to a regular file or to a directory
 * having an arbitrary number of files supported by this class.
 */
-public void set(String fileName)
+public synchronized void set(String fileName)
 {
 currentFile = null;
 if(player != null) player.stop();
@@ -129,6 +148,7 @@ return;
 }
 currentFile = fileName;
 player.set(fileName);
+prepareNext();
 if(playNext) play();
 }
 }
@@ -143,7 +163,7 @@ else if(f.isDirectory())
 * @param index a valid index in the playing list.
 * @return <code>true</code> if there was a success or <code>false</code> otherwise.
 */
-public boolean set(int index)
+public synchronized boolean set(int index)
 {
 if(playingList.empty()) return false;
 if(index < 0 || index > playingList.size()-1) return false;
@@ -158,7 +178,7 @@ return true;
 /**
 * Starts playing data.
 */
-public void play()
+public synchronized void play()
 {
 	if(player == null) return;
 if(currentFile == null) return;
@@ -169,7 +189,7 @@ player.play();
 /**
 * Pauses playing data.
 */
-public void pause()
+public synchronized void pause()
 {
 	if(player == null) return;
 if(currentFile == null) return;
@@ -179,7 +199,7 @@ player.pause();
 /**
 * Stops playing data.
 */
-public void stop()
+public synchronized void stop()
 {
 	if(player == null) return;
 if(currentFile == null) return;
@@ -207,9 +227,10 @@ player.stop();
 * Sets loop to <code>true</code> or <code>false</code>
 * @param b a boolean value, default is false.
 */
-public void loop(boolean b)
+public synchronized void loop(boolean b)
 {
 loopRequested = b;
+prepareNext();
 }
 
 /**
@@ -218,16 +239,17 @@ loopRequested = b;
 * @param b a boolean value, default is false.
 * Is shuffle is set to false the files in the list are played sequentially.
 */
-public void shuffle(boolean b)
+public synchronized void shuffle(boolean b)
 {
 shuffleRequested = b;
+prepareNext();
 }
 
 /**
 * Retrieves a list containing the files in the playing list.
 * @return an array having all the file names in the playing list.
 */
-public String[] files()
+public synchronized String[] files()
 {
 if(currentFile == null) return new String[0];
 String[] s = null;
@@ -257,7 +279,7 @@ return s;
 * To avoid unexpected behaviour is better that you call this method
 * always before calling the set method.
 */
-public void clear()
+public synchronized void clear()
 {
 playingListCount = 0;
 playingList.reset();
@@ -268,7 +290,7 @@ playingList.clear();
 * Returns the first indexafter loading files.
 * @return first index in the list.
 */
-public int firstIndex()
+public synchronized int firstIndex()
 {
 return playingList.getCurrentIndex();
 }
@@ -354,11 +376,50 @@ return MIDI_FILE;
 return -1;
 }
 
+/*
+* Chooses the file to play after the current one, the same way handlePlayback does,
+* and lets the audio player decode it in advance.
+*/
+private void prepareNext()
+{
+nextIndex = -1;
+preparedNext = null;
+if(currentFile == null || player != audioPlayer)
+{
+	((AudioPlayer)audioPlayer).setNext(null);
+	return;
+}
+String next = null;
+if(playingList.empty())
+{
+	if(loopRequested) next = currentFile;
+}
+else
+{
+	if(shuffleRequested)
+	{
+		nextIndex = (int)(playingList.size()*Math.random());
+	}
+	else if(playingListCount > 0)
+	{
+		nextIndex = playingList.peek();
+	}
+	else if(loopRequested)
+	{
+		nextIndex = 0;
+	}
+	if(nextIndex >= 0) next = playingList.path(nextIndex);
+}
+if(next != null && getFileType(next) != AUDIO_FILE) next = null;
+preparedNext = next;
+((AudioPlayer)audioPlayer).setNext(next);
+}
+
 private void handlePlayback()
 {
 if(shuffleRequested)
 {
-int i =  (int)(playingList.size()*Math.random());
+int i = (nextIndex >= 0) ? nextIndex : (int)(playingList.size()*Math.random());
 set(playingList.get(i).getPath());
 }
 else
@@ -390,16 +451,84 @@ listenerList.get(i).listItemChanged(index, fileName);
 }
 }
 
+/*
+* Called from the control thread when the audio player stops.
+*/
+private synchronized void audioStopped()
+{
+if(player != audioPlayer || !((AudioPlayer)audioPlayer).completed()) return;
+if(playingList.empty())
+{
+	if(loopRequested) play();
+}
+else
+{
+	handlePlayback();
+}
+}
+
+/*
+* Called from the control thread when the audio player started the next file without gap;
+* it updates the playing list as handlePlayback does.
+*/
+private synchronized void nextFileStarted(String file)
+{
+// the file was changed after the next one was set
+if(player != audioPlayer || !file.equals(preparedNext)) return;
+currentFile = file;
+if(!playingList.empty())
+{
+	if(shuffleRequested)
+	{
+		playingList.get(nextIndex);
+	}
+	else
+	{
+		if(playingListCount > 0)
+		{
+			playingListCount--;
+		}
+		else
+		{
+			playingListCount = playingList.size()-1;
+			playingList.reset();
+		}
+		playingList.next();
+	}
+	notifyAllPlayListListeners();
+}
+prepareNext();
+}
+
+/*
+* Called from the control thread at the end of a MIDI file.
+*/
+private synchronized void midiEnded()
+{
+if(player != midiPlayer) return;
+if(playingList.empty())
+{
+	if(loopRequested) play();
+}
+else
+{
+	handlePlayback();
+}
+}
+
 private boolean playNext;
 private boolean loopRequested;
 private boolean shuffleRequested;
 private int playingListCount;
 private String currentFile;
+private int nextIndex;
+private String preparedNext;
 private Player player;
 private Player audioPlayer;
 private Player midiPlayer;
 private PlayingList playingList;
 private ArrayList<PlayingListListener> listenerList;
+private final ExecutorService control;
 private static final int AUDIO_FILE = 0;
 private static final int MIDI_FILE = 1;
 
@@ -407,38 +536,27 @@ private class AudioLineListener implements LineListener
 {
 public void update(LineEvent event)
 {
-	if(event.getType() == LineEvent.Type.STOP)
-	{
-		if(((AudioPlayer)player).completed())
-		{
-			if(playingList.empty())		{
-				if(loopRequested) play();
-			}
-			else
-			{
-				handlePlayback();
-			}
-			}
-	}
+	if(event.getType() == LineEvent.Type.STOP) control.execute(() -> audioStopped());
 }
 
 }
 
-private class MIDIPlaybackListener implements MetaEventListener
-{
-public void meta(MetaMessage event)
+/*
+* Receives the file started without gap by the audio player, from its playback thread.
+*/
+private class NextFileSlot implements Slot1<String>
 {
-	if(event.getType() == END_OF_TRACK)
-	{
-if(playingList.empty())
+public void receive(String file)
 {
-	if(loopRequested) play();
+	control.execute(() -> nextFileStarted(file));
 }
-else
-{
-	handlePlayback();
 }
-	}
+
+private class MIDIPlaybackListener implements MetaEventListener
+{
+public void meta(MetaMessage event)
+{
+	if(event.getType() == END_OF_TRACK) control.execute(() -> midiEnded());
 }
 
 private static final int END_OF_TRACK = 47;
@@ -470,6 +588,16 @@ currentIndex = index;
 return list.get(index++);
 }
 
+public int peek()
+{
+return (index == list.size()) ? 0 : index;
+}
+
+public String path(int i)
+{
+return list.get(i).getPath();
+}
+
 public File get(int i)
 {
 	currentIndex = i;
@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2026 Ismael Mosquera Rivera
+ *
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+/*
+* AudioExecutor.java
+*
+* imr-lib
+*
+* Author: Ismael Mosquera Rivera
+*/
+
+package imr.sound.audio;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+* The <code>AudioExecutor</code> class runs the background tasks of the players and the recorder of this package.
+* <p>
+* Short tasks, which always finish by themselves, such as decoding the head of a file or rendering a chunk,
+* are run by a shared executor through the <code>submit</code> method:
+* on JDK 21 or later, it starts a virtual thread per task; otherwise, it is a bounded pool of daemon threads
+* which are released after some seconds of inactivity. So, the number of threads does not grow when many tasks are submitted.
+* <p>
+* Long-lived loops, such as playback and recording, which can wait without limit while paused, must be started
+* with the <code>start</code> method instead: each one runs in its own thread, a virtual one when available,
+* so they never hold a thread of the pool and the short tasks are never queued behind them.
+* <p>
+* Players wait for their previous task to finish, through the <code>await</code> method, before starting a new one.
+*
+* @see imr.sound.audio.AudioPlayer
+* @see imr.sound.audio.AudioRecorder
+*
+* @author Ismael Mosquera Rivera
+*/
+public final class AudioExecutor
+{
+
+/**
+* Submits a short task to the shared executor.
+* The task must finish by itself in a bounded time; otherwise, use the <code>start</code> method.
+* @param task Task to run.
+*
+* @return a <code>Future</code> representing the task.
+*/
+public static Future<?> submit(Runnable task)
+{
+return EXECUTOR.submit(task);
+}
+
+/**
+* Starts a long-lived task, such as a playback loop, in its own daemon thread.
+* On JDK 21 or later the thread is a virtual one.
+* @param task Task to run.
+*
+* @return a <code>Future</code> representing the task.
+*/
+public static Future<?> start(Runnable task)
+{
+if(VIRTUAL) return EXECUTOR.submit(task);
+FutureTask<Object> future = new FutureTask<Object>(task, null);
+Thread t = new Thread(future, "imr-audio-loop-" + LOOPS.getAndIncrement());
+t.setDaemon(true);
+t.start();
+return future;
+}
+
+/**
+* Waits for a task to finish.
+* <p>
+* The task must have been asked to finish before, for example setting a stop flag; this method does not interrupt it.
+* Any exception thrown by the task is printed.
+* @param task Task to wait for; if it is <code>null</code>, this method returns at once.
+* @param timeout Maximum time to wait, expressed in ms. ( milliseconds ).
+*
+* @return <code>true</code> if the task is finished or <code>false</code> if the time was over.
+*/
+public static boolean await(Future<?> task, long timeout)
+{
+if(task == null) return true;
+try
+{
+	task.get(timeout, TimeUnit.MILLISECONDS);
+}
+catch(TimeoutException e)
+{
+	return false;
+}
+catch(ExecutionException e)
+{
+	System.out.println("AudioExecutor::await: " + e.getCause());
+}
+catch(InterruptedException e)
+{
+	Thread.currentThread().interrupt();
+	return task.isDone();
+}
+return true;
+}
+
+/**
+* Tells whether the tasks are run in virtual threads.
+*
+* @return <code>true</code> if virtual threads are used or <code>false</code> if a pool of platform threads is used.
+*/
+public static boolean isVirtual()
+{
+return VIRTUAL;
+}
+
+/**
+* Gets the maximum number of platform threads used when virtual threads are not available.
+*
+* @return size of the pool.
+*/
+public static int getPoolSize()
+{
+return POOL_SIZE;
+}
+
+
+/*
+* Makes a virtual thread per task executor when the JVM supports it.
+* This library is compiled for JDK 17, so the method is looked up by reflection.
+*/
+private static ExecutorService newVirtualExecutor()
+{
+try
+{
+	Method m = java.util.concurrent.Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+	return (ExecutorService)m.invoke(null);
+}
+catch(ReflectiveOperationException | RuntimeException e)
+{
+	// JDK 17 to 20, or preview features not enabled
+	return null;
+}
+}
+
+private static ExecutorService newPoolExecutor()
+{
+final AtomicInteger count = new AtomicInteger(0);
+ThreadPoolExecutor pool = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE, KEEP_ALIVE, TimeUnit.SECONDS,
+new LinkedBlockingQueue<Runnable>(), r ->
+{
+	Thread t = new Thread(r, "imr-audio-" + count.getAndIncrement());
+	t.setDaemon(true);
+	return t;
+});
+pool.allowCoreThreadTimeOut(true);
+return pool;
+}
+
+private AudioExecutor() {}
+
+
+private static final int POOL_SIZE = Math.max(8, 2 * Runtime.getRuntime().availableProcessors());
+private static final long KEEP_ALIVE = 30;
+private static final ExecutorService EXECUTOR;
+private static final AtomicInteger LOOPS = new AtomicInteger(0);
+private static final boolean VIRTUAL;
+
+static
+{
+ExecutorService executor = newVirtualExecutor();
+VIRTUAL = (executor != null);
+EXECUTOR = VIRTUAL ? executor : newPoolExecutor();
+}
+}
+
+// END
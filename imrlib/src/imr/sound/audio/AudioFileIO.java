@@ -57,6 +57,10 @@ import javax.sound.sampled.UnsupportedAudioFileException;
 * <li>WAVE ( *.wav )</li>
 * </ul>
 * To load *.mp3 files you must have the mp3plugin.jar file in your classpath.
+* <p>
+* If a <code>PCMCache</code> object is set, mp3 files are decoded just once and then loaded from the cache.
+*
+* @see imr.sound.audio.PCMCache
 *
 * @author Ismael Mosquera Rivera
 *
@@ -87,29 +91,43 @@ public final class AudioFileIO
 */
 public static AudioInputStream load(String filename) throws UnsupportedAudioFileException
 {
-int i = filename.lastIndexOf(".")+1;
-	String ext = filename.substring(i).toLowerCase();
-if(!ext.equals("mp3") && !ext.equals("wav") && !ext.equals("aif") && !ext.equals("au")) throw new UnsupportedAudioFileException(filename + " cannot be loaded. Supported extensions: *.mp3, *.aif, *.au, *.wav");
-AudioInputStream rawInput = null;
-AudioFormat decodedFormat = null;
-try
+PCMCache cache = _cache;
+if(cache != null && isCompressed(filename))
+{
+	try
 	{
-	rawInput	= AudioSystem.getAudioInputStream(new File(filename));
-	AudioFormat baseFormat = rawInput.getFormat();
-	decodedFormat = new AudioFormat(
-		AudioFormat.Encoding.PCM_SIGNED,
-		baseFormat.getSampleRate(),
-		16,
-		baseFormat.getChannels(),
-		baseFormat.getChannels()*2,
-		baseFormat.getSampleRate(),
-		false);
+		return cache.open(filename);
 	}
 	catch(IOException e)
 	{
-		e.printStackTrace();
+		System.out.println("AudioFileIO::load(String filename): " + e);
 	}
-	return AudioSystem.getAudioInputStream(decodedFormat, rawInput);
+}
+return decode(filename);
+}
+
+/**
+* Sets a cache for decoded mp3 files.
+* <p>
+* Once set, the <code>load</code> method and the <code>AudioPlayer</code> class get mp3 files through the cache.
+* @param cache A <code>PCMCache</code> object, or <code>null</code> to not use a cache.
+*
+* @see imr.sound.audio.PCMCache
+*
+*/
+public static void setCache(PCMCache cache)
+{
+_cache = cache;
+}
+
+/**
+* Gets the cache for decoded mp3 files.
+*
+* @return the <code>PCMCache</code> object set, or <code>null</code> if there is no one.
+*/
+public static PCMCache getCache()
+{
+return _cache;
 }
 
 /**
@@ -144,7 +162,45 @@ catch(IOException e)
 }
 
 
-private static AudioFileFormat.Type getFileType(String audioFile)
+/*
+* Decodes an audio file to 16 bit PCM, without using the cache.
+*/
+static AudioInputStream decode(String filename) throws UnsupportedAudioFileException
+{
+int i = filename.lastIndexOf(".")+1;
+	String ext = filename.substring(i).toLowerCase();
+if(!ext.equals("mp3") && !ext.equals("wav") && !ext.equals("aif") && !ext.equals("au")) throw new UnsupportedAudioFileException(filename + " cannot be loaded. Supported extensions: *.mp3, *.aif, *.au, *.wav");
+AudioInputStream rawInput = null;
+AudioFormat decodedFormat = null;
+try
+	{
+	rawInput	= AudioSystem.getAudioInputStream(new File(filename));
+	AudioFormat baseFormat = rawInput.getFormat();
+	decodedFormat = new AudioFormat(
+		AudioFormat.Encoding.PCM_SIGNED,
+		baseFormat.getSampleRate(),
+		16,
+		baseFormat.getChannels(),
+		baseFormat.getChannels()*2,
+		baseFormat.getSampleRate(),
+		false);
+	}
+	catch(IOException e)
+	{
+		e.printStackTrace();
+	}
+	return AudioSystem.getAudioInputStream(decodedFormat, rawInput);
+}
+
+/*
+* Tells whether a file is compressed, so that it is worth to keep it decoded in a cache.
+*/
+static boolean isCompressed(String filename)
+{
+return filename.toLowerCase().endsWith(".mp3");
+}
+
+static AudioFileFormat.Type getFileType(String audioFile)
 {
 int i = audioFile.lastIndexOf(".")+1;
 	String ext = audioFile.substring(i).toLowerCase();
@@ -167,6 +223,9 @@ return new AudioFileFormat.Type("AU", "au");
 // private constructor, so that this class cannot be instantiated
 private AudioFileIO() {}
 
+
+private static volatile PCMCache _cache = null;
+
 }
 
 // END
@@ -29,11 +29,15 @@
 package imr.sound.audio;
 
 import imr.sound.Player;
+import imr.sigslot.Signal1;
+import imr.sigslot.Slot1;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
 
-import javax.sound.sampled.SourceDataLine;
 import javax.sound.sampled.AudioFormat;
 import javax.sound.sampled.AudioInputStream;
 import javax.sound.sampled.AudioSystem;
@@ -52,6 +56,26 @@ import javax.sound.sampled.LineListener;
 * </ul>
 * Also provides a method to know if the audio data loaded
 * was completely played.
+* <p>
+* By default, the audio is played through the sound card. Passing an <code>AudioSink</code> to the constructor,
+* it can be played to a <code>NullSink</code> or to the sink of a <code>LoopbackBuffer</code> instead,
+* so the whole decoding and playback pipeline can run in a machine without audio hardware.
+* <p>
+* While playing, the player measures how it feeds the device: buffer fill level, underruns, write and decode times, and latency.
+* These metrics are reset each time playback starts, and can be polled through the <code>getMetrics</code> method.
+* <p>
+* Gapless playback: calling the <code>setNext</code> method, the head of the next file is decoded in background while the current one plays.
+* When the current file ends, if both files have the same format, the next one follows at the sample boundary
+* through the same open line, and its file name is emitted through the slot set with the <code>setSlot</code> method.
+* <p>
+* Playback runs in its own thread, started through the <code>AudioExecutor</code> class. Pausing keeps the thread waiting, and stopping waits for it to finish,
+* so starting and stopping quickly does not leave threads behind. A task which does not finish in time is cancelled, so it cannot play the next file.
+* <p>
+* If a <code>PCMCache</code> object is set to the <code>AudioFileIO</code> class, mp3 files are played from the cache, without decoding them again.
+* @see imr.sound.audio.AudioSink
+* @see imr.sound.audio.PlaybackMetrics
+* @see imr.sound.audio.AudioExecutor
+* @see imr.sound.audio.PCMCache
 * @author Ismael Mosquera Rivera
 */
 public class AudioPlayer implements Player
@@ -62,13 +86,29 @@ public class AudioPlayer implements Player
 */
 public AudioPlayer()
 {
+this(new LineSink());
+}
+
+/**
+* Makes a new instance of an <code>AudioPlayer</code> object
+* playing to the given sink.
+* @param audioSink the <code>AudioSink</code> where the audio is played.
+*/
+public AudioPlayer(AudioSink audioSink)
+{
+sink = audioSink;
+metrics = new PlaybackMetrics();
 bufferSize = 0;
 hasAudio = false;
 isCompleted = false;
-isStopped = false;
+state = PLAYING;
+task = null;
+runner = null;
 newFileRequested = false;
 currentFile = "";
 lineListener = null;
+queued = new AtomicReference<Track>(null);
+signal = new Signal1<>();
 }
 
 /**
@@ -79,56 +119,120 @@ lineListener = null;
 */
 public AudioPlayer(LineListener listener)
 {
-this();
+this(new LineSink(), listener);
+}
+
+/**
+* Makes a new instance of an <code>AudioPlayer</code> object
+* playing to the given sink, and sets a <code>LineListener</code> to it.
+* The listener only receives events if the sink is a <code>LineSink</code>.
+* @param audioSink the <code>AudioSink</code> where the audio is played.
+* @param listener a listener to this object.
+@see javax.sound.sampled.LineListener
+*/
+public AudioPlayer(AudioSink audioSink, LineListener listener)
+{
+this(audioSink);
 lineListener = listener;
+if(sink instanceof LineSink) ((LineSink)sink).addLineListener(listener);
+}
+
+/**
+* Gets the <code>AudioSink</code> where this player plays.
+* @return the sink of this player.
+*/
+public AudioSink getSink()
+{
+return sink;
+}
+
+/**
+* Gets the playback metrics of this player.
+* @return the <code>PlaybackMetrics</code> object updated by this player.
+*/
+public PlaybackMetrics getMetrics()
+{
+return metrics;
 }
 
 /**
 * Sets the audio data to be played.
 * @param audioFile path to an audio file.
 */
-public void set(String audioFile)
+public synchronized void set(String audioFile)
 {
-newFileRequested = true;
-stop();
-	loadAudio(audioFile);
-hasAudio = true;
-currentFile = audioFile;
+setNext(null);
+reload(audioFile);
+}
+
+/**
+* Sets the audio file to be played after the current one, without any gap.
+* <p>
+* The head of the file is decoded in background right now, so the switch costs nothing when the current file ends.
+* If the formats of both files do not match, the current file just completes, as if no file was set.
+* Calling the <code>set</code> method cancels the next file.
+* @param audioFile path to an audio file, or <code>null</code> to cancel the file already set.
+*/
+public void setNext(String audioFile)
+{
+Track next = null;
+if(audioFile != null)
+{
+	next = new Track(audioFile, bufferSize);
+	AudioExecutor.submit(next);
+}
+Track old = queued.getAndSet(next);
+if(old != null) old.discard();
+}
+
+/**
+* Sets a <code>Slot1</code> object to wrap to an encapsulated <code>Signal1</code> object.
+* <p>
+* The path of the file set with the <code>setNext</code> method is emitted when it starts playing without gap.
+* @param slot a <code>Slot1</code> with a String as generic parameter.
+*/
+public void setSlot(Slot1<String> slot)
+{
+signal.wrap(slot);
 }
 
 /**
 * Starts playing data.
 */
-public void play()
+public synchronized void play()
 {
 	if(!hasAudio) return;
-	if(!isStopped) set(currentFile);
+	if(state == PAUSED && resume()) return;
+	if(state != STOPPED) reload(currentFile);
 	isCompleted = false;
-	isStopped = false;
-	Thread t = new Thread(new thread_code());
-	t.start();
+	state = PLAYING;
+	task = AudioExecutor.start(new thread_code());
 }
 
 /**
 * Pauses playing data.
 */
-public void pause()
+public synchronized void pause()
 {
 if(!hasAudio) return;
+if(state != PLAYING) return;
 isCompleted = false;
-	isStopped = true;
-	if(player.isActive()) player.stop();
+	state = PAUSED;
+	if(sink.isActive()) sink.stop();
 }
 
 /**
 * Stops playing data.
 */
-public void stop()
+public synchronized void stop()
 {
 if(!hasAudio) return;
 isCompleted = false;
-isStopped = true;
-if(player.isActive()) player.stop();
+state = STOPPED;
+if(sink.isActive()) sink.stop();
+// a write blocked in the stopped line returns when it is flushed
+sink.flush();
+awaitTask();
 if(!newFileRequested)
 {
 loadAudio(currentFile);
@@ -146,36 +250,55 @@ public boolean completed()
 return isCompleted;
 }
 
+/*
+* Resumes the paused playback task, if it is still alive.
+*/
+private boolean resume()
+{
+if(task == null || task.isDone()) return false;
+state = PLAYING;
+sink.start();
+LockSupport.unpark(runner);
+return true;
+}
+
+/*
+* Waits for the playback task to finish, after it was asked to stop.
+*/
+private void awaitTask()
+{
+Thread t = runner;
+if(t != null) LockSupport.unpark(t);
+if(Thread.currentThread() == t) return;
+if(!AudioExecutor.await(task, STOP_TIMEOUT))
+{
+	System.out.println("AudioPlayer::stop(): the playback task did not finish in " + STOP_TIMEOUT + " ms.");
+	// it is interrupted, so that it does not go on with the audio loaded next
+	task.cancel(true);
+}
+task = null;
+}
+
+private void reload(String audioFile)
+{
+newFileRequested = true;
+stop();
+	loadAudio(audioFile);
+hasAudio = true;
+currentFile = audioFile;
+}
+
 private void loadAudio(String audioFile)
 {
-	int i = audioFile.lastIndexOf(".")+1;
-	String ext = audioFile.substring(i).toLowerCase();
 	try
 	{
-		if(hasAudio) player.flush();
-	AudioInputStream rawInput	= AudioSystem.getAudioInputStream(new File(audioFile));
-	AudioFormat baseFormat = rawInput.getFormat();
-	AudioFormat decodedFormat = new AudioFormat(
-		AudioFormat.Encoding.PCM_SIGNED,
-		baseFormat.getSampleRate(),
-		16,
-		baseFormat.getChannels(),
-		baseFormat.getChannels()*2,
-		baseFormat.getSampleRate(),
-		baseFormat.isBigEndian());
-		bufferSize = (int)baseFormat.getSampleRate();
+		if(hasAudio) sink.flush();
+		Track track = new Track(audioFile, 0);
+		track.open();
+		audio = track.stream;
+		bufferSize = (int)track.format.getSampleRate();
 		bufferSize -= (bufferSize % 4);
-		if(ext.equals("wav"))
-		{
-			audio = rawInput;
-}
-else
-{
-	audio = AudioSystem.getAudioInputStream(decodedFormat, rawInput);
-}
-	player = AudioSystem.getSourceDataLine(decodedFormat);
-	if(lineListener != null) player.addLineListener(lineListener);
-	player.open(decodedFormat);
+	sink.open(track.format, AudioSystem.NOT_SPECIFIED);
 }
 catch(LineUnavailableException e)
 {
@@ -196,44 +319,211 @@ catch(IOException ioe)
 
 private int bufferSize;
 private boolean hasAudio;
-private boolean isStopped;
-private boolean isCompleted;
+private volatile int state;
+private volatile boolean isCompleted;
 private boolean newFileRequested;
-private String currentFile;
+private volatile String currentFile;
+private Future<?> task;
+private volatile Thread runner;
 private LineListener lineListener;
-private SourceDataLine player;
+private AudioSink sink;
 private AudioInputStream audio;
+private PlaybackMetrics metrics;
+private AtomicReference<Track> queued;
+private Signal1<String> signal;
+
+private static final int PLAYING = 0;
+private static final int PAUSED = 1;
+private static final int STOPPED = 2;
+private static final long STOP_TIMEOUT = 2000;
+
+/*
+* Goes on with the file set by the setNext method, if any, when the current one ends.
+* Called from the playback thread.
+*/
+private boolean nextTrack()
+{
+Track next = queued.getAndSet(null);
+if(next == null) return false;
+if(!next.await() || !next.format.matches(sink.getFormat()))
+{
+	next.discard();
+	return false;
+}
+try
+{
+	audio.close();
+}
+catch(IOException e) {}
+audio = next.stream;
+currentFile = next.file;
+int available = sink.available();
+long t = System.nanoTime();
+int written = sink.write(next.head, 0, next.headSize);
+metrics.recordWrite(written, System.nanoTime() - t, available, sink.available());
+signal.emit(currentFile);
+return true;
+}
+
+/*
+* An audio file decoded to 16 bit PCM.
+* When run, it opens the file and decodes its head, so that it is ready to be played.
+*/
+private static final class Track implements Runnable
+{
+public Track(String audioFile, int headSize)
+{
+	file = audioFile;
+	head = new byte[headSize];
+	ok = false;
+	ready = false;
+	discarded = false;
+}
+
+public void open() throws IOException, UnsupportedAudioFileException
+{
+	int i = file.lastIndexOf(".")+1;
+	String ext = file.substring(i).toLowerCase();
+	PCMCache cache = AudioFileIO.getCache();
+	if(cache != null && AudioFileIO.isCompressed(file))
+	{
+		stream = cache.open(file);
+		format = stream.getFormat();
+		return;
+	}
+	AudioInputStream rawInput	= AudioSystem.getAudioInputStream(new File(file));
+	AudioFormat baseFormat = rawInput.getFormat();
+	format = new AudioFormat(
+		AudioFormat.Encoding.PCM_SIGNED,
+		baseFormat.getSampleRate(),
+		16,
+		baseFormat.getChannels(),
+		baseFormat.getChannels()*2,
+		baseFormat.getSampleRate(),
+		baseFormat.isBigEndian());
+	if(ext.equals("wav"))
+	{
+		stream = rawInput;
+	}
+	else
+	{
+		stream = AudioSystem.getAudioInputStream(format, rawInput);
+	}
+}
+
+public void run()
+{
+	try
+	{
+		open();
+		headSize = 0;
+		int n = 0;
+		while(headSize < head.length && (n = stream.read(head, headSize, head.length - headSize)) > 0) headSize += n;
+		ok = true;
+	}
+	catch(IOException | UnsupportedAudioFileException e)
+	{
+		System.out.println("AudioPlayer::setNext(String audioFile): " + e);
+	}
+	synchronized(this)
+	{
+		ready = true;
+		notifyAll();
+		if(discarded) close();
+	}
+}
+
+public synchronized boolean await()
+{
+	while(!ready)
+	{
+		try
+		{
+			wait();
+		}
+		catch(InterruptedException e)
+		{
+			return false;
+		}
+	}
+	return ok;
+}
+
+public synchronized void discard()
+{
+	// if it is still decoding, the stream is closed when it finishes
+	discarded = true;
+	if(ready) close();
+}
+
+private void close()
+{
+	if(stream == null) return;
+	try
+	{
+		stream.close();
+	}
+	catch(IOException e) {}
+}
+
+private String file;
+private AudioInputStream stream;
+private AudioFormat format;
+private byte[] head;
+private int headSize;
+private boolean ok;
+private boolean ready;
+private boolean discarded;
+}
 
 private class thread_code implements Runnable
 {
 	public void run()
 	{
-player.start();
+runner = Thread.currentThread();
+sink.start();
+metrics.begin(sink.getFormat(), sink.getBufferSize());
 int bytesRead = 0;
 byte[] data = new byte[bufferSize];
-while(!isStopped)
+while(state != STOPPED && !Thread.currentThread().isInterrupted())
 {
 	try
 	{
+		long t = System.nanoTime();
 	bytesRead = audio.read(data,0,data.length);
-	if(bytesRead == -1) break;
-		player.write(data,0,bytesRead);
+	if(bytesRead == -1)
+	{
+		if(state != STOPPED && nextTrack()) continue;
+		break;
+	}
+	metrics.recordDecode(System.nanoTime() - t);
+	int offset = 0;
+	while(offset < bytesRead && state != STOPPED && !Thread.currentThread().isInterrupted())
+	{
+		int available = sink.available();
+		t = System.nanoTime();
+		int written = sink.write(data,offset,bytesRead-offset);
+		metrics.recordWrite(written, System.nanoTime() - t, available, sink.available());
+		offset += written;
+		// paused: wait here, keeping the data not written yet
+		while(state == PAUSED && !Thread.currentThread().isInterrupted()) LockSupport.park(this);
+		if(written == 0 && state == PLAYING && !sink.isOpen()) state = STOPPED;
+	}
 }
 catch(IOException e)
 {
 	System.out.println("AudioPlayer::play(): IOException");
 	System.out.println(e);
+	break;
 }
 }
 
-try
-{
-	Thread.sleep(1000);
-}
-catch(InterruptedException e) {}
-
-if(!isStopped) isCompleted = true;
-if(player.isActive()) player.stop();
+if(Thread.currentThread().isInterrupted()) return;  // cancelled: the player was already stopped
+// let the device play the data still in its buffer
+if(state == PLAYING) sink.drain();
+if(state == PLAYING) isCompleted = true;
+if(sink.isActive()) sink.stop();
+runner = null;
 	}
 }
 
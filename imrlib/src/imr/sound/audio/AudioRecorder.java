@@ -35,9 +35,9 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-import javax.sound.sampled.TargetDataLine;
-import javax.sound.sampled.SourceDataLine;
 import javax.sound.sampled.AudioFormat;
 import javax.sound.sampled.AudioInputStream;
 import javax.sound.sampled.AudioSystem;
@@ -56,6 +56,15 @@ import javax.sound.sampled.UnsupportedAudioFileException;
 * </ul>
 * You can record audio, listen the recorded audio using the play method,
 * and save your recorded audio in a file ( *.wav, *.aif, *.au ).
+* <p>
+* By default, the audio is captured from and played through the sound card.
+* Passing an <code>AudioSource</code> and an <code>AudioSink</code> to the constructor, other devices can be used,
+* for example a <code>NullSource</code> and a <code>NullSink</code> in a machine without audio hardware.
+* <p>
+* Recording and playing run in their own thread, started through the <code>AudioExecutor</code> class; the stop method waits for them to finish.
+* @see imr.sound.audio.AudioSource
+* @see imr.sound.audio.AudioSink
+* @see imr.sound.audio.AudioExecutor
 * @author Ismael Mosquera Rivera
 */
 public class AudioRecorder
@@ -78,6 +87,19 @@ this(44100.0f);
 * Allowed sr values: 11025.0f, 22050.0f, 44100.0f
 */
 public AudioRecorder(float sampleRate)
+{
+this(sampleRate, new LineSource(), new LineSink());
+}
+
+/**
+* Constructor.
+* Makes a new instance of an AudioRecorder object using the given devices.
+* @param sampleRate The sample rate value for recording.
+* Allowed sr values: 11025.0f, 22050.0f, 44100.0f
+* @param source The <code>AudioSource</code> from where the audio is recorded.
+* @param sink The <code>AudioSink</code> where the recorded audio is played.
+*/
+public AudioRecorder(float sampleRate, AudioSource source, AudioSink sink)
 {
 	assert ((int)sampleRate == 11025 || (int)sampleRate == 22050 || (int)sampleRate == 44100): "Allowed sample rate values: 11025 | 22050 | 44100.";
 _sampleRate = sampleRate;
@@ -85,6 +107,8 @@ _hasRecordedAudio = false;
 _stopRequested = false;
 _isRecording = false;
 _isPlaying = false;
+_busy = new AtomicBoolean(false);
+_task = null;
 _totalBytesRec = 0;
 _signal = new Signal1<>();
 try
@@ -109,8 +133,8 @@ else
 {
 _bufferSize = 44100;
 }
-_recorder = AudioSystem.getTargetDataLine(format);
-_player = AudioSystem.getSourceDataLine(format);
+_recorder = source;
+_player = sink;
 _player.open(format, _bufferSize);
 _recorder.open(format, _bufferSize);
 }
@@ -127,8 +151,9 @@ catch(LineUnavailableException e)
 */
 public void rec()
 {
-if(_isPlaying || _isRecording) return;
-(new Thread(new rec_thread_code())).start();
+if(!_busy.compareAndSet(false, true)) return;
+_stopRequested = false;
+_task = AudioExecutor.start(new task(new rec_thread_code()));
 }
 
 /**
@@ -138,8 +163,9 @@ if(_isPlaying || _isRecording) return;
 public void play()
 {
 	if(!_hasRecordedAudio) return;
-if(_isPlaying || _isRecording) return;
-(new Thread(new play_thread_code())).start();
+if(!_busy.compareAndSet(false, true)) return;
+_stopRequested = false;
+_task = AudioExecutor.start(new task(new play_thread_code()));
 }
 
 /**
@@ -148,6 +174,10 @@ if(_isPlaying || _isRecording) return;
 public void stop()
 {
 _stopRequested = true;
+if(!AudioExecutor.await(_task, STOP_TIMEOUT))
+{
+	System.out.println("AudioRecorder::stop(): the task did not finish in " + STOP_TIMEOUT + " ms.");
+}
 }
 
 /**
@@ -214,18 +244,45 @@ return new AudioFileFormat.Type("AU", "au");
 private int _bufferSize;
 private long _totalBytesRec;
 private float _sampleRate;
-private boolean _hasRecordedAudio;
-private boolean _stopRequested;
-private boolean _isRecording;
-private boolean _isPlaying;
+private volatile boolean _hasRecordedAudio;
+private volatile boolean _stopRequested;
+private volatile boolean _isRecording;
+private volatile boolean _isPlaying;
+private AtomicBoolean _busy;
+private volatile Future<?> _task;
 
 private ByteArrayOutputStream _recBuffer;
-private TargetDataLine _recorder;
-private SourceDataLine _player;
+private AudioSource _recorder;
+private AudioSink _player;
 
 private Signal1<float[]> _signal;
 
 
+/*
+* Runs a recording or playing task, and lets a new one start when it finishes.
+*/
+private class task implements Runnable
+{
+public task(Runnable code)
+{
+	_code = code;
+}
+
+public void run()
+{
+	try
+	{
+		_code.run();
+	}
+	finally
+	{
+		_busy.set(false);
+	}
+}
+
+private Runnable _code;
+}
+
 private class rec_thread_code implements Runnable
 {
 public void run()
@@ -233,7 +290,6 @@ public void run()
 	_recorder.flush();
 _recorder.start();
 _isRecording = true;
-_stopRequested = false;
 
 int bytesRead = 0;
 byte[] data = new byte[_bufferSize];
@@ -263,7 +319,6 @@ public void run()
 	_player.flush();
 _player.start();
 _isPlaying = true;
-_stopRequested = false;
 
 int bytesRead = 0;
 long totalBytesRead = 0;
@@ -285,6 +340,7 @@ _signal.emit(FrameFactory.getFrame(_recBuffer.toByteArray()));
 }
 }
 
+private static final long STOP_TIMEOUT = 2000;
 private static final int NUM_CHANNELS = 2;
 private static final int BITS_PER_SAMPLE = 16;
 }
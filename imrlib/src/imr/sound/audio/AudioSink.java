@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2026 Ismael Mosquera Rivera
+ *
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+/*
+* AudioSink.java
+*
+* imr-lib
+*
+* Author: Ismael Mosquera Rivera
+*/
+
+package imr.sound.audio;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.LineUnavailableException;
+
+/**
+* An <code>AudioSink</code> is the device where a player writes the audio data to be played.
+* <p>
+* Its methods follow the ones of <code>javax.sound.sampled.SourceDataLine</code>, so the players of this library
+* can play to a sound card, to a null device or to a memory buffer in the same way.
+* The available implementations are:
+* <ul>
+* <li><code>LineSink</code>: a <code>SourceDataLine</code> of the sound card.</li>
+* <li><code>NullSink</code>: discards the data at realtime pace or as fast as possible.</li>
+* <li>the sink of a <code>LoopbackBuffer</code>: keeps the data to be read back from its source.</li>
+* </ul>
+* The last two do not need any audio hardware, so the players can run, be tested and be timed in headless machines.
+*
+* @see imr.sound.audio.AudioSource
+* @see javax.sound.sampled.SourceDataLine
+*
+* @author Ismael Mosquera Rivera
+*/
+public interface AudioSink
+{
+
+/**
+* Opens this sink.
+* @param format Format of the audio data.
+* @param bufferSize Size of the buffer in bytes; if it is not greater than zero, a default size is used.
+*
+* @throws javax.sound.sampled.LineUnavailableException if the sink cannot be opened.
+*/
+void open(AudioFormat format, int bufferSize) throws LineUnavailableException;
+
+/**
+* Closes this sink, releasing its resources.
+*/
+void close();
+
+/**
+* Tells whether this sink is open.
+* @return <code>true</code> if it is open or <code>false</code> otherwise.
+*/
+boolean isOpen();
+
+/**
+* Starts consuming data.
+*/
+void start();
+
+/**
+* Stops consuming data. The data in the buffer is kept.
+*/
+void stop();
+
+/**
+* Tells whether this sink is started.
+* @return <code>true</code> if it is active or <code>false</code> otherwise.
+*/
+boolean isActive();
+
+/**
+* Discards the data in the buffer.
+*/
+void flush();
+
+/**
+* Blocks until all the data in the buffer has been consumed.
+*/
+void drain();
+
+/**
+* Writes audio data, blocking while the buffer is full.
+* @param data Audio data.
+* @param offset Index of the first byte to write.
+* @param length Number of bytes to write; it must be a multiple of the frame size.
+*
+* @return number of bytes written. It can be less than length if the sink is stopped or closed.
+*/
+int write(byte[] data, int offset, int length);
+
+/**
+* Gets the number of bytes that can be written without blocking.
+* @return free bytes in the buffer.
+*/
+int available();
+
+/**
+* Gets the size of the buffer.
+* @return buffer size in bytes.
+*/
+int getBufferSize();
+
+/**
+* Gets the format of this sink.
+* @return audio format; it is <code>null</code> if the sink was never opened.
+*/
+AudioFormat getFormat();
+
+/**
+* Gets the number of frames consumed since this sink was opened.
+* @return frame position.
+*/
+long getLongFramePosition();
+}
+
+// END
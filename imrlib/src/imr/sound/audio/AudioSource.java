@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2026 Ismael Mosquera Rivera
+ *
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+/*
+* AudioSource.java
+*
+* imr-lib
+*
+* Author: Ismael Mosquera Rivera
+*/
+
+package imr.sound.audio;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.LineUnavailableException;
+
+/**
+* An <code>AudioSource</code> is the device from where a recorder reads audio data.
+* <p>
+* Its methods follow the ones of <code>javax.sound.sampled.TargetDataLine</code>.
+* The available implementations are:
+* <ul>
+* <li><code>LineSource</code>: a <code>TargetDataLine</code> of the sound card.</li>
+* <li><code>NullSource</code>: produces silence at realtime pace or as fast as possible.</li>
+* <li>the source of a <code>LoopbackBuffer</code>: gives back the data written to its sink.</li>
+* </ul>
+*
+* @see imr.sound.audio.AudioSink
+* @see javax.sound.sampled.TargetDataLine
+*
+* @author Ismael Mosquera Rivera
+*/
+public interface AudioSource
+{
+
+/**
+* Opens this source.
+* @param format Format of the audio data.
+* @param bufferSize Size of the buffer in bytes; if it is not greater than zero, a default size is used.
+*
+* @throws javax.sound.sampled.LineUnavailableException if the source cannot be opened.
+*/
+void open(AudioFormat format, int bufferSize) throws LineUnavailableException;
+
+/**
+* Closes this source, releasing its resources.
+*/
+void close();
+
+/**
+* Tells whether this source is open.
+* @return <code>true</code> if it is open or <code>false</code> otherwise.
+*/
+boolean isOpen();
+
+/**
+* Starts capturing data.
+*/
+void start();
+
+/**
+* Stops capturing data.
+*/
+void stop();
+
+/**
+* Tells whether this source is started.
+* @return <code>true</code> if it is active or <code>false</code> otherwise.
+*/
+boolean isActive();
+
+/**
+* Discards the captured data not read yet.
+*/
+void flush();
+
+/**
+* Reads audio data, blocking until the requested bytes are captured.
+* @param data Array where the data is stored.
+* @param offset Index of the first byte to store.
+* @param length Number of bytes to read; it must be a multiple of the frame size.
+*
+* @return number of bytes read. It can be less than length if the source is stopped or closed.
+*/
+int read(byte[] data, int offset, int length);
+
+/**
+* Gets the number of bytes that can be read without blocking.
+* @return captured bytes.
+*/
+int available();
+
+/**
+* Gets the format of this source.
+* @return audio format; it is <code>null</code> if the source was never opened.
+*/
+AudioFormat getFormat();
+}
+
+// END
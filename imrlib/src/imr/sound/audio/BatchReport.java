@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2026 Ismael Mosquera Rivera
+ *
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+/*
+* BatchReport.java
+*
+* imr-lib
+*
+* Author: Ismael Mosquera Rivera
+*/
+
+package imr.sound.audio;
+
+/**
+* The <code>BatchReport</code> class tells the progress and the throughput of a <code>BatchTranscoder</code> object.
+* <p>
+* A report is emitted each time a file is done, and another one is returned when the whole batch is done.
+* Its values do not change afterwards.
+*
+* @see imr.sound.audio.BatchTranscoder
+*
+* @author Ismael Mosquera Rivera
+*/
+public final class BatchReport
+{
+
+/**
+* Constructor.
+* Makes a new instance of a <code>BatchReport</code> object.
+* It is made by a <code>BatchTranscoder</code> object.
+*
+*/
+BatchReport(String file, int total, int done, int failed, long bytesRead, double audioSeconds, long elapsed)
+{
+_file = file;
+_total = total;
+_done = done;
+_failed = failed;
+_bytesRead = bytesRead;
+_audioSeconds = audioSeconds;
+_elapsed = elapsed;
+}
+
+/**
+* Gets the last file done.
+*
+* @return path of the file, or <code>null</code> in the final report.
+*/
+public String getFile()
+{
+return _file;
+}
+
+/**
+* Gets the number of files in the batch.
+*
+* @return number of files.
+*/
+public int getTotal()
+{
+return _total;
+}
+
+/**
+* Gets the number of files done, including the failed ones.
+*
+* @return number of files done.
+*/
+public int getDone()
+{
+return _done;
+}
+
+/**
+* Gets the number of files which could not be transcoded.
+*
+* @return number of failed files.
+*/
+public int getFailed()
+{
+return _failed;
+}
+
+/**
+* Gets the progress of the batch.
+*
+* @return files done / total files, in the range [0 .. 1].
+*/
+public float getProgress()
+{
+return (_total == 0) ? 1.0f : (float)_done / (float)_total;
+}
+
+/**
+* Gets the number of bytes read from the source files.
+*
+* @return number of bytes.
+*/
+public long getBytesRead()
+{
+return _bytesRead;
+}
+
+/**
+* Gets the duration of the audio transcoded.
+*
+* @return duration in seconds.
+*/
+public double getAudioSeconds()
+{
+return _audioSeconds;
+}
+
+/**
+* Gets the time elapsed since the batch started.
+*
+* @return elapsed time in seconds.
+*/
+public double getElapsedTime()
+{
+return (double)_elapsed / 1.0e9;
+}
+
+/**
+* Gets the number of files done per second.
+*
+* @return files per second.
+*/
+public double getFilesPerSecond()
+{
+return (_elapsed <= 0) ? 0.0 : _done / getElapsedTime();
+}
+
+/**
+* Gets the number of source bytes read per second.
+*
+* @return megabytes per second.
+*/
+public double getMegabytesPerSecond()
+{
+return (_elapsed <= 0) ? 0.0 : _bytesRead / 1.0e6 / getElapsedTime();
+}
+
+/**
+* Gets the transcoding speed as a multiple of realtime.
+*
+* @return audio duration divided by elapsed time.
+*/
+public double getSpeed()
+{
+return (_elapsed <= 0) ? 0.0 : _audioSeconds / getElapsedTime();
+}
+
+/**
+* Gets a text description of this report.
+*
+* @return description.
+*/
+public String toString()
+{
+return String.format("%d/%d files ( %d failed ) in %.1f s: %.1f files/s, %.1f MB/s, %.1fx realtime",
+_done, _total, _failed, getElapsedTime(), getFilesPerSecond(), getMegabytesPerSecond(), getSpeed());
+}
+
+
+private String _file;
+private int _total;
+private int _done;
+private int _failed;
+private long _bytesRead;
+private double _audioSeconds;
+private long _elapsed;
+}
+
+// END
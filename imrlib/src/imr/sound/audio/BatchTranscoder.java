@@ -0,0 +1,455 @@
+/*
+ * Copyright (c) 2026 Ismael Mosquera Rivera
+ *
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+/*
+* BatchTranscoder.java
+*
+* imr-lib
+*
+* Author: Ismael Mosquera Rivera
+*/
+
+package imr.sound.audio;
+
+import imr.sigslot.Signal1;
+import imr.sigslot.Slot1;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+/**
+* The <code>BatchTranscoder</code> class converts all the audio files in a directory tree.
+* <p>
+* Each file is decoded, optionally resampled and normalized, and written in the output directory,
+* keeping the relative path of the source file and changing its extension.
+* Several files are transcoded at the same time, on a fixed number of threads.
+* <p>
+* The audio is processed as a stream, block by block, so the memory used by each thread does not depend on the length of the files.
+* To normalize a file, it is decoded twice: first to measure its peak or RMS level, and then to write it with the right gain.
+* <p>
+* Supported audio file formats for loading: *.mp3, *.wav, *.aif, *.au
+* <p>
+* Supported audio file formats for storage: *.wav, *.aif, *.au
+* <p>
+* The progress can be followed setting a slot, which receives a <code>BatchReport</code> object each time a file is done.
+* <p>
+* Example:
+* <code>
+* BatchTranscoder t = new BatchTranscoder(8);
+* t.setSampleRate(44100.0f);
+* t.setNormalization(NormalizeType.nPeak, -1.0f);
+* t.setSlot(r -&gt; System.out.println(r));
+* BatchReport report = t.run("music", "converted", "wav");
+* </code>
+* To load *.mp3 files you must have the mp3plugin.jar file in your classpath.
+*
+* @see imr.sound.audio.AudioFileIO
+* @see imr.sound.audio.Resampler
+* @see imr.sound.audio.BatchReport
+*
+* @author Ismael Mosquera Rivera
+*/
+public final class BatchTranscoder
+{
+
+/**
+* Constructor.
+* Makes a new instance of a <code>BatchTranscoder</code> object using as many threads as available processors.
+*
+*/
+public BatchTranscoder()
+{
+this(Runtime.getRuntime().availableProcessors());
+}
+
+/**
+* Constructor.
+* Makes a new instance of a <code>BatchTranscoder</code> object.
+* @param threads Number of files transcoded at the same time.
+*
+*/
+public BatchTranscoder(int threads)
+{
+assert (threads > 0): "bad number of threads; it must be greater than zero.";
+_threads = threads;
+_sampleRate = 0.0f;
+_normalize = NormalizeType.nNone;
+_level = 0.0f;
+_signal = new Signal1<>();
+}
+
+/**
+* Sets the sample rate of the output files.
+* @param sr Sample rate, or zero to keep the sample rate of each source file.
+*
+*/
+public void setSampleRate(float sr)
+{
+assert (sr >= 0.0f): "bad sample rate; it must be zero or greater than zero.";
+_sampleRate = sr;
+}
+
+/**
+* Sets how the level of the files is normalized.
+* <p>
+* The level is measured on the decoded signal, before resampling.
+* When normalizing the RMS level, the gain is limited so that the peak level does not go beyond full scale.
+* @param type One of the constants in <code>NormalizeType</code>.
+* @param level Target level expressed in dBFS, for example -1 for peak or -20 for RMS normalization.
+*
+* @see imr.sound.audio.NormalizeType
+*/
+public void setNormalization(int type, float level)
+{
+assert (type >= NormalizeType.nNone && type <= NormalizeType.nRms): "bad normalization type.";
+assert (level <= 0.0f): "bad level; it must be less or equal than 0 dBFS.";
+_normalize = type;
+_level = level;
+}
+
+/**
+* Sets a <code>Slot1</code> object to wrap to an encapsulated <code>Signal1</code> object.
+* <p>
+* A <code>BatchReport</code> is emitted each time a file is done. The slot is called from the transcoding threads, one call at a time.
+* @param slot a <code>Slot1</code> with a <code>BatchReport</code> as generic parameter.
+*
+*/
+public void setSlot(Slot1<BatchReport> slot)
+{
+_signal.wrap(slot);
+}
+
+/**
+* Gets the number of files transcoded at the same time.
+*
+* @return number of threads.
+*/
+public int getThreads()
+{
+return _threads;
+}
+
+/**
+* Transcodes all the supported audio files in a directory and its subdirectories.
+* <p>
+* This method returns when all the files are done.
+* @param inputDir Directory with the source files.
+* @param outputDir Directory where the files are written; it is made if it does not exist.
+* @param extension Extension of the output files: wav, aif or au.
+*
+* @throws javax.sound.sampled.UnsupportedAudioFileException Not supported output format.
+*
+* @return a report with the result of the batch.
+*/
+public BatchReport run(String inputDir, String outputDir, String extension) throws UnsupportedAudioFileException
+{
+final AudioFileFormat.Type type = AudioFileIO.getFileType("." + extension);
+if(type == null) throw new UnsupportedAudioFileException(extension + " files cannot be saved. Supported extensions: *.aif, *.au, *.wav");
+final Path in = Paths.get(inputDir);
+final Path out = Paths.get(outputDir);
+List<Path> files = list(in);
+_total = files.size();
+_done = 0;
+_failed = 0;
+_bytesRead = 0;
+_audioSeconds = 0.0;
+_start = System.nanoTime();
+
+final AtomicInteger count = new AtomicInteger(0);
+ExecutorService pool = Executors.newFixedThreadPool(_threads, r ->
+{
+	Thread t = new Thread(r, "imr-transcoder-" + count.getAndIncrement());
+	t.setDaemon(true);
+	return t;
+});
+List<Future<?>> tasks = new ArrayList<Future<?>>(files.size());
+for(final Path source : files)
+{
+	String name = in.relativize(source).toString();
+	int i = name.lastIndexOf(".");
+	final File target = out.resolve(name.substring(0, i+1) + extension).toFile();
+	tasks.add(pool.submit(() -> transcode(source.toFile(), target, type)));
+}
+for(int i = 0; i < tasks.size(); i++)
+{
+	try
+	{
+		tasks.get(i).get();
+	}
+	catch(InterruptedException e)
+	{
+		Thread.currentThread().interrupt();
+		break;
+	}
+	catch(ExecutionException e)
+	{
+		System.out.println("BatchTranscoder::run: " + e.getCause());
+	}
+}
+pool.shutdownNow();
+return report(null);
+}
+
+
+/*
+* Lists the supported audio files in a directory tree.
+*/
+private List<Path> list(Path dir)
+{
+try(Stream<Path> s = Files.walk(dir))
+{
+	return s.filter(p -> Files.isRegularFile(p) && isSupported(p.toString())).sorted().collect(Collectors.toList());
+}
+catch(IOException e)
+{
+	System.out.println("BatchTranscoder::run: " + e);
+	return new ArrayList<Path>();
+}
+}
+
+private boolean isSupported(String filename)
+{
+int i = filename.lastIndexOf(".")+1;
+String ext = filename.substring(i).toLowerCase();
+return (ext.equals("mp3") || ext.equals("wav") || ext.equals("aif") || ext.equals("au"));
+}
+
+/*
+* Transcodes one file. Called from the transcoding threads.
+*/
+private void transcode(File source, File target, AudioFileFormat.Type type)
+{
+boolean ok = false;
+double seconds = 0.0;
+try
+{
+	float gain = (_normalize == NormalizeType.nNone) ? 1.0f : gain(source);
+	AudioInputStream input = AudioFileIO.load(source.getPath());
+	AudioFormat format = input.getFormat();
+	int channels = format.getChannels();
+	float inRate = format.getSampleRate();
+	float outRate = (_sampleRate > 0.0f) ? _sampleRate : inRate;
+	Resampler resampler = (outRate != inRate) ? new Resampler(inRate, outRate, channels) : null;
+	Pipeline pipeline = new Pipeline(input, channels, resampler, gain);
+	AudioFormat outFormat = new AudioFormat(outRate, 16, channels, true, false);
+	File dir = target.getParentFile();
+	if(dir != null) dir.mkdirs();
+	try
+	{
+		AudioSystem.write(new AudioInputStream(pipeline, outFormat, AudioSystem.NOT_SPECIFIED), type, target);
+	}
+	finally
+	{
+		input.close();
+	}
+	seconds = (double)pipeline.getFrames() / (double)inRate;
+	ok = true;
+}
+catch(IOException | UnsupportedAudioFileException | RuntimeException e)
+{
+	System.out.println("BatchTranscoder: " + source + ": " + e);
+}
+finished(source, ok, seconds);
+}
+
+/*
+* Decodes a file to measure its level, and gets the gain to normalize it.
+*/
+private float gain(File source) throws IOException, UnsupportedAudioFileException
+{
+AudioInputStream input = AudioFileIO.load(source.getPath());
+byte[] data = new byte[BLOCK_SIZE * input.getFormat().getFrameSize()];
+float peak = 0.0f;
+double sum = 0.0;
+long n = 0;
+try
+{
+	int bytesRead;
+	while((bytesRead = input.read(data, 0, data.length)) > 0)
+	{
+		for(int i = 0; i+1 < bytesRead; i += 2)
+		{
+			float x = (float)(short)((data[i] & 0xff) | (data[i+1] << 8)) / 32768.0f;
+			float a = Math.abs(x);
+			if(a > peak) peak = a;
+			sum += (double)x * (double)x;
+		}
+		n += bytesRead / 2;
+	}
+}
+finally
+{
+	input.close();
+}
+if(peak == 0.0f) return 1.0f;
+float target = (float)Math.pow(10.0, _level / 20.0);
+if(_normalize == NormalizeType.nPeak) return target / peak;
+float rms = (float)Math.sqrt(sum / n);
+return Math.min(target / rms, 1.0f / peak);
+}
+
+private synchronized void finished(File source, boolean ok, double seconds)
+{
+_done++;
+if(!ok) _failed++;
+_bytesRead += source.length();
+_audioSeconds += seconds;
+_signal.emit(report(source.getPath()));
+}
+
+private synchronized BatchReport report(String file)
+{
+return new BatchReport(file, _total, _done, _failed, _bytesRead, _audioSeconds, System.nanoTime() - _start);
+}
+
+
+private int _threads;
+private float _sampleRate;
+private int _normalize;
+private float _level;
+private Signal1<BatchReport> _signal;
+
+// progress of the current batch
+private int _total;
+private int _done;
+private int _failed;
+private long _bytesRead;
+private double _audioSeconds;
+private long _start;
+
+private static final int BLOCK_SIZE = 4096;
+
+
+/*
+* Decodes, resamples and scales a 16 bit little endian stream, block by block, as it is read.
+*/
+private static final class Pipeline extends InputStream
+{
+public Pipeline(AudioInputStream input, int channels, Resampler resampler, float gain)
+{
+	_input = input;
+	_channels = channels;
+	_resampler = resampler;
+	_gain = gain;
+	_data = new byte[BLOCK_SIZE * channels * 2];
+	_x = new float[BLOCK_SIZE * channels];
+	_y = (resampler == null) ? _x : new float[resampler.maxOutput(BLOCK_SIZE) * channels];
+	_out = new byte[_y.length * 2];
+	_position = 0;
+	_length = 0;
+	_frames = 0;
+	_eof = false;
+}
+
+public long getFrames()
+{
+	return _frames;
+}
+
+public int read() throws IOException
+{
+	byte[] b = new byte[1];
+	return (read(b, 0, 1) == -1) ? -1 : (b[0] & 0xff);
+}
+
+public int read(byte[] b, int offset, int length) throws IOException
+{
+	while(_position == _length)
+	{
+		if(_eof) return -1;
+		fill();
+	}
+	int n = Math.min(length, _length - _position);
+	System.arraycopy(_out, _position, b, offset, n);
+	_position += n;
+	return n;
+}
+
+public void close() throws IOException
+{
+	_input.close();
+}
+
+private void fill() throws IOException
+{
+	int bytesRead = 0;
+	int n;
+	while(bytesRead < _data.length && (n = _input.read(_data, bytesRead, _data.length - bytesRead)) > 0) bytesRead += n;
+	int frames = bytesRead / (_channels * 2);
+	for(int i = 0; i < frames * _channels; i++)
+	{
+		_x[i] = (float)(short)((_data[2*i] & 0xff) | (_data[2*i+1] << 8)) / 32768.0f;
+	}
+	_frames += frames;
+	int m = frames;
+	if(_resampler != null)
+	{
+		m = (frames > 0) ? _resampler.process(_x, frames, _y) : _resampler.flush(_y);
+	}
+	if(frames == 0) _eof = true;
+	int k = 0;
+	for(int i = 0; i < m * _channels; i++)
+	{
+		float v = _y[i] * _gain;
+		if(v > 1.0f) v = 1.0f;
+		else if(v < -1.0f) v = -1.0f;
+		short s = (short)(v * 32767.0f);
+		_out[k++] = (byte)(s & 0xff);
+		_out[k++] = (byte)((s >> 8) & 0xff);
+	}
+	_position = 0;
+	_length = k;
+}
+
+private AudioInputStream _input;
+private int _channels;
+private Resampler _resampler;
+private float _gain;
+private byte[] _data;
+private float[] _x;
+private float[] _y;
+private byte[] _out;
+private int _position;
+private int _length;
+private long _frames;
+private boolean _eof;
+}
+}
+
+// END
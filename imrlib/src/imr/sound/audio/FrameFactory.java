@@ -114,12 +114,13 @@ public static float[] getFrame(byte[] frame)
 */
 public static float getMax(byte[] frame)
 {
-float max = 0.0f;
+int max = 0;
 for(int i = 0; i < frame.length; i++)
 {
-if((float)Math.abs((double)frame[i]) > max) max = (float)Math.abs((double)frame[i]);
+int a = Math.abs((int)frame[i]);
+if(a > max) max = a;
 }
-return max;
+return (float)max;
 }
 
 /**
@@ -135,7 +136,8 @@ public static float getMax(float[] frame)
 float max = 0.0f;
 for(int i = 0; i < frame.length; i++)
 {
-if((float)Math.abs((double)frame[i]) > max) max = (float)Math.abs((double)frame[i]);
+float a = Math.abs(frame[i]);
+if(a > max) max = a;
 }
 return max;
 }
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2026 Ismael Mosquera Rivera
+ *
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+/*
+* LineSink.java
+*
+* imr-lib
+*
+* Author: Ismael Mosquera Rivera
+*/
+
+package imr.sound.audio;
+
+import java.util.ArrayList;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineListener;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+
+/**
+* The <code>LineSink</code> class is an <code>AudioSink</code> that plays through a <code>SourceDataLine</code> of the sound card.
+* <p>
+* The line is acquired when the sink is opened, not when it is made, so a <code>LineSink</code> object can be made
+* in a machine without audio hardware; only opening it fails.
+* This is the sink used by default by the players of this library.
+*
+* @see imr.sound.audio.AudioSink
+* @see javax.sound.sampled.SourceDataLine
+*
+* @author Ismael Mosquera Rivera
+*/
+public class LineSink implements AudioSink
+{
+
+/**
+* Constructor.
+* Makes a new instance of a <code>LineSink</code> object.
+*
+*/
+public LineSink()
+{
+_line = null;
+_listeners = new ArrayList<LineListener>();
+}
+
+/**
+* Adds a <code>LineListener</code> to this sink.
+* <p>
+* The listener is added to the current line, if any, and to every line opened later.
+* @param listener Listener to add.
+*
+*/
+public void addLineListener(LineListener listener)
+{
+_listeners.add(listener);
+if(_line != null) _line.addLineListener(listener);
+}
+
+/**
+* Removes a <code>LineListener</code> from this sink.
+* @param listener Listener to remove.
+*
+*/
+public void removeLineListener(LineListener listener)
+{
+_listeners.remove(listener);
+if(_line != null) _line.removeLineListener(listener);
+}
+
+/**
+* Gets the line used by this sink.
+*
+* @return the line, or <code>null</code> if the sink was never opened.
+*/
+public SourceDataLine getLine()
+{
+return _line;
+}
+
+public void open(AudioFormat format, int bufferSize) throws LineUnavailableException
+{
+close();
+_line = AudioSystem.getSourceDataLine(format);
+for(int i = 0; i < _listeners.size(); i++) _line.addLineListener(_listeners.get(i));
+if(bufferSize > 0)
+{
+	_line.open(format, bufferSize);
+}
+else
+{
+	_line.open(format);
+}
+}
+
+public void close()
+{
+if(_line != null && _line.isOpen()) _line.close();
+}
+
+public boolean isOpen()
+{
+return (_line != null && _line.isOpen());
+}
+
+public void start()
+{
+if(_line != null) _line.start();
+}
+
+public void stop()
+{
+if(_line != null && _line.isActive()) _line.stop();
+}
+
+public boolean isActive()
+{
+return (_line != null && _line.isActive());
+}
+
+public void flush()
+{
+if(_line != null) _line.flush();
+}
+
+public void drain()
+{
+if(_line != null) _line.drain();
+}
+
+public int write(byte[] data, int offset, int length)
+{
+if(_line == null) return 0;
+return _line.write(data, offset, length);
+}
+
+public int available()
+{
+if(_line == null) return 0;
+return _line.available();
+}
+
+public int getBufferSize()
+{
+if(_line == null) return 0;
+return _line.getBufferSize();
+}
+
+public AudioFormat getFormat()
+{
+if(_line == null) return null;
+return _line.getFormat();
+}
+
+public long getLongFramePosition()
+{
+if(_line == null) return 0;
+return _line.getLongFramePosition();
+}
+
+
+private SourceDataLine _line;
+private ArrayList<LineListener> _listeners;
+}
+
+// END
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2026 Ismael Mosquera Rivera
+ *
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+/*
+* LineSource.java
+*
+* imr-lib
+*
+* Author: Ismael Mosquera Rivera
+*/
+
+package imr.sound.audio;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.TargetDataLine;
+
+/**
+* The <code>LineSource</code> class is an <code>AudioSource</code> that captures from a <code>TargetDataLine</code> of the sound card.
+* <p>
+* The line is acquired when the source is opened, not when it is made.
+* This is the source used by default by the <code>AudioRecorder</code> class.
+*
+* @see imr.sound.audio.AudioSource
+* @see javax.sound.sampled.TargetDataLine
+*
+* @author Ismael Mosquera Rivera
+*/
+public class LineSource implements AudioSource
+{
+
+/**
+* Constructor.
+* Makes a new instance of a <code>LineSource</code> object.
+*
+*/
+public LineSource()
+{
+_line = null;
+}
+
+/**
+* Gets the line used by this source.
+*
+* @return the line, or <code>null</code> if the source was never opened.
+*/
+public TargetDataLine getLine()
+{
+return _line;
+}
+
+public void open(AudioFormat format, int bufferSize) throws LineUnavailableException
+{
+close();
+_line = AudioSystem.getTargetDataLine(format);
+if(bufferSize > 0)
+{
+	_line.open(format, bufferSize);
+}
+else
+{
+	_line.open(format);
+}
+}
+
+public void close()
+{
+if(_line != null && _line.isOpen()) _line.close();
+}
+
+public boolean isOpen()
+{
+return (_line != null && _line.isOpen());
+}
+
+public void start()
+{
+if(_line != null) _line.start();
+}
+
+public void stop()
+{
+if(_line != null && _line.isActive()) _line.stop();
+}
+
+public boolean isActive()
+{
+return (_line != null && _line.isActive());
+}
+
+public void flush()
+{
+if(_line != null) _line.flush();
+}
+
+public int read(byte[] data, int offset, int length)
+{
+if(_line == null) return 0;
+return _line.read(data, offset, length);
+}
+
+public int available()
+{
+if(_line == null) return 0;
+return _line.available();
+}
+
+public AudioFormat getFormat()
+{
+if(_line == null) return null;
+return _line.getFormat();
+}
+
+
+private TargetDataLine _line;
+}
+
+// END
@@ -0,0 +1,360 @@
+/*
+ * Copyright (c) 2026 Ismael Mosquera Rivera
+ *
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+/*
+* LoopbackBuffer.java
+*
+* imr-lib
+*
+* Author: Ismael Mosquera Rivera
+*/
+
+package imr.sound.audio;
+
+import javax.sound.sampled.AudioFormat;
+
+/**
+* The <code>LoopbackBuffer</code> class is a memory buffer with two sides: an <code>AudioSink</code> and an <code>AudioSource</code>.
+* The data written to its sink, given by the <code>getSink</code> method, can be read back from its source, given by the <code>getSource</code> method.
+* <p>
+* It is useful to check in a test what a player plays, or to connect a player to a recorder without any audio hardware.
+* The buffer is circular: <code>write</code> blocks while it is full, as long as the sink is started,
+* and <code>read</code> blocks while it is empty, as long as the source is started.
+* When a side is stopped, its method transfers what it can and returns.
+* Each side has its own <code>available</code> method: the free bytes for the sink and the bytes to be read for the source.
+* <p>
+* Example:
+* <code>
+* LoopbackBuffer loopback = new LoopbackBuffer();
+* RawDataPlayer player = new RawDataPlayer(44100.0f, loopback.getSink());
+* AudioSource source = loopback.getSource();
+* source.open(format, 0);
+* source.start();
+* player.start();
+* player.play(data); // in a thread
+* source.read(buffer, 0, buffer.length); // in another thread
+* </code>
+*
+* @see imr.sound.audio.AudioSink
+* @see imr.sound.audio.AudioSource
+*
+* @author Ismael Mosquera Rivera
+*/
+public class LoopbackBuffer
+{
+
+/**
+* Constructor.
+* Makes a new instance of a <code>LoopbackBuffer</code> object.
+*
+*/
+public LoopbackBuffer()
+{
+_format = null;
+_buffer = null;
+_open = false;
+_sink = new Sink();
+_source = new Source();
+}
+
+/**
+* Gets the sink side of this buffer, where the data is written.
+*
+* @return an <code>AudioSink</code> object.
+*/
+public AudioSink getSink()
+{
+return _sink;
+}
+
+/**
+* Gets the source side of this buffer, from where the written data is read.
+*
+* @return an <code>AudioSource</code> object.
+*/
+public AudioSource getSource()
+{
+return _source;
+}
+
+/**
+* Gets the number of bytes written and not read yet.
+*
+* @return bytes in the buffer.
+*/
+public synchronized int size()
+{
+return _size;
+}
+
+
+/*
+* Opens the buffer. If it is already open with a matching format, it is kept as it is, so both sides can open it.
+*/
+private synchronized void open(AudioFormat format, int bufferSize)
+{
+if(_open && _format.matches(format)) return;
+_format = format;
+_frameSize = Math.max(1, format.getFrameSize());
+if(bufferSize <= 0) bufferSize = (int)format.getFrameRate() * _frameSize;
+bufferSize -= (bufferSize % _frameSize);
+_buffer = new byte[bufferSize];
+_readIndex = 0;
+_size = 0;
+_totalRead = 0;
+_sink.active = false;
+_source.active = false;
+_open = true;
+}
+
+private synchronized void close()
+{
+_open = false;
+_sink.active = false;
+_source.active = false;
+notifyAll();
+}
+
+private synchronized void setActive(Side side, boolean active)
+{
+side.active = active && _open;
+notifyAll();
+}
+
+private synchronized void flush()
+{
+_readIndex = 0;
+_size = 0;
+notifyAll();
+}
+
+private synchronized void drain()
+{
+// the data can only be drained while the source is reading it
+while(_size > 0 && _sink.active && _source.active)
+{
+	try
+	{
+		wait();
+	}
+	catch(InterruptedException e)
+	{
+		Thread.currentThread().interrupt();
+		return;
+	}
+}
+}
+
+private synchronized int write(byte[] data, int offset, int length)
+{
+if(!_open) return 0;
+length -= (length % _frameSize);
+int done = 0;
+while(done < length)
+{
+	int n = Math.min(_buffer.length - _size, length - done);
+	if(n > 0)
+	{
+		int w = (_readIndex + _size) % _buffer.length;
+		int first = Math.min(n, _buffer.length - w);
+		System.arraycopy(data, offset+done, _buffer, w, first);
+		System.arraycopy(data, offset+done+first, _buffer, 0, n-first);
+		_size += n;
+		done += n;
+		notifyAll();
+	}
+	else
+	{
+		if(!_sink.active || !_open) break;
+		try
+		{
+			wait();
+		}
+		catch(InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			break;
+		}
+	}
+}
+return done;
+}
+
+private synchronized int read(byte[] data, int offset, int length)
+{
+if(!_open) return 0;
+length -= (length % _frameSize);
+int done = 0;
+while(done < length)
+{
+	int n = Math.min(_size, length - done);
+	if(n > 0)
+	{
+		int first = Math.min(n, _buffer.length - _readIndex);
+		System.arraycopy(_buffer, _readIndex, data, offset+done, first);
+		System.arraycopy(_buffer, 0, data, offset+done+first, n-first);
+		_readIndex = (_readIndex + n) % _buffer.length;
+		_size -= n;
+		_totalRead += n;
+		done += n;
+		notifyAll();
+	}
+	else
+	{
+		if(!_source.active || !_open) break;
+		try
+		{
+			wait();
+		}
+		catch(InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			break;
+		}
+	}
+}
+return done;
+}
+
+private synchronized int free()
+{
+return _open ? _buffer.length - _size : 0;
+}
+
+private synchronized int filled()
+{
+return _open ? _size : 0;
+}
+
+private synchronized long getLongFramePosition()
+{
+return _open ? _totalRead / _frameSize : 0;
+}
+
+
+/*
+* The state of a side of the buffer.
+*/
+private abstract class Side
+{
+public void open(AudioFormat format, int bufferSize)
+{
+	LoopbackBuffer.this.open(format, bufferSize);
+}
+
+public void close()
+{
+	LoopbackBuffer.this.close();
+}
+
+public boolean isOpen()
+{
+	return _open;
+}
+
+public void start()
+{
+	setActive(this, true);
+}
+
+public void stop()
+{
+	setActive(this, false);
+}
+
+public boolean isActive()
+{
+	return active;
+}
+
+public void flush()
+{
+	LoopbackBuffer.this.flush();
+}
+
+public AudioFormat getFormat()
+{
+	return _format;
+}
+
+volatile boolean active;
+}
+
+/*
+* The sink side: available gives the free bytes.
+*/
+private final class Sink extends Side implements AudioSink
+{
+public void drain()
+{
+	LoopbackBuffer.this.drain();
+}
+
+public int write(byte[] data, int offset, int length)
+{
+	return LoopbackBuffer.this.write(data, offset, length);
+}
+
+public int available()
+{
+	return free();
+}
+
+public int getBufferSize()
+{
+	byte[] b = _buffer;
+	return (b == null) ? 0 : b.length;
+}
+
+public long getLongFramePosition()
+{
+	return LoopbackBuffer.this.getLongFramePosition();
+}
+}
+
+/*
+* The source side: available gives the bytes to be read.
+*/
+private final class Source extends Side implements AudioSource
+{
+public int read(byte[] data, int offset, int length)
+{
+	return LoopbackBuffer.this.read(data, offset, length);
+}
+
+public int available()
+{
+	return filled();
+}
+}
+
+
+private AudioFormat _format;
+private volatile byte[] _buffer;
+private int _frameSize;
+private int _readIndex;
+private int _size;
+private long _totalRead;
+private volatile boolean _open;
+private final Sink _sink;
+private final Source _source;
+}
+
+// END
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2026 Ismael Mosquera Rivera
+ *
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+/*
+* NormalizeType.java
+*
+* imr-lib
+*
+* Author: Ismael Mosquera Rivera
+*/
+
+package imr.sound.audio;
+
+/**
+* The <code>NormalizeType</code> class is a utility class with just 3 public constant fields.
+* They set how a <code>BatchTranscoder</code> object normalizes the level of the files.
+*
+* @see imr.sound.audio.BatchTranscoder
+*
+* @author Ismael Mosquera Rivera
+*
+*/
+public class NormalizeType
+{
+
+/**
+* Constant to keep the level of the files.
+*
+*/
+public static final int nNone = 0;
+
+/**
+* Constant to normalize the peak level of the files.
+*
+*/
+public static final int nPeak = 1;
+
+/**
+* Constant to normalize the RMS level of the files.
+*
+*/
+public static final int nRms = 2;
+
+}
+
+// END
@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2026 Ismael Mosquera Rivera
+ *
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+/*
+* NullSink.java
+*
+* imr-lib
+*
+* Author: Ismael Mosquera Rivera
+*/
+
+package imr.sound.audio;
+
+import java.util.concurrent.locks.LockSupport;
+
+import javax.sound.sampled.AudioFormat;
+
+/**
+* The <code>NullSink</code> class is an <code>AudioSink</code> that discards all the data written to it.
+* <p>
+* It works in two modes:
+* <ul>
+* <li>realtime: the data is consumed at the rate given by the audio format, like a sound card does,
+* so <code>write</code> blocks while the buffer is full and <code>available</code> behaves as in a real line.</li>
+* <li>unthrottled: the data is consumed as soon as it is written, so a player runs as fast as it can.</li>
+* </ul>
+* The first mode is useful to test players in machines without audio hardware, and the second one to benchmark them.
+*
+* @see imr.sound.audio.AudioSink
+*
+* @author Ismael Mosquera Rivera
+*/
+public class NullSink implements AudioSink
+{
+
+/**
+* Constructor.
+* Makes a new instance of a <code>NullSink</code> object consuming data at realtime pace.
+*
+*/
+public NullSink()
+{
+this(true);
+}
+
+/**
+* Constructor.
+* Makes a new instance of a <code>NullSink</code> object.
+* @param realtime <code>true</code> to consume data at realtime pace or <code>false</code> to consume it as fast as possible.
+*
+*/
+public NullSink(boolean realtime)
+{
+_realtime = realtime;
+_format = null;
+_open = false;
+_active = false;
+}
+
+/**
+* Tells whether this sink consumes data at realtime pace.
+*
+* @return <code>true</code> if it is realtime or <code>false</code> if it is unthrottled.
+*/
+public boolean isRealtime()
+{
+return _realtime;
+}
+
+public synchronized void open(AudioFormat format, int bufferSize)
+{
+_format = format;
+_frameSize = Math.max(1, format.getFrameSize());
+_bytesPerNano = (double)format.getFrameRate() * (double)_frameSize / 1.0e9;
+// half a second by default
+if(bufferSize <= 0) bufferSize = (int)(format.getFrameRate() / 2.0f) * _frameSize;
+_bufferSize = bufferSize - (bufferSize % _frameSize);
+_written = 0;
+_base = 0;
+_start = System.nanoTime();
+_active = false;
+_open = true;
+}
+
+public synchronized void close()
+{
+_active = false;
+_open = false;
+}
+
+public boolean isOpen()
+{
+return _open;
+}
+
+public synchronized void start()
+{
+if(!_open || _active) return;
+_start = System.nanoTime();
+_active = true;
+}
+
+public synchronized void stop()
+{
+if(!_active) return;
+_base = consumed();
+_active = false;
+}
+
+public boolean isActive()
+{
+return _active;
+}
+
+public synchronized void flush()
+{
+_base = consumed();
+_written = _base;
+_start = System.nanoTime();
+}
+
+public void drain()
+{
+while(_active)
+{
+	long pending;
+	synchronized(this)
+	{
+		pending = _written - consumed();
+	}
+	if(pending <= 0) return;
+	LockSupport.parkNanos((long)(pending / _bytesPerNano));
+}
+}
+
+public int write(byte[] data, int offset, int length)
+{
+if(!_open) return 0;
+length -= (length % _frameSize);
+int done = 0;
+while(done < length)
+{
+	synchronized(this)
+	{
+		if(!_open) break;
+		long used = _written - consumed();
+		if(used == 0 && _active)
+		{
+			// underrun: the clock restarts from the new data
+			_base = _written;
+			_start = System.nanoTime();
+		}
+		int free = (int)(_bufferSize - used);
+		int n = Math.min(free, length - done);
+		n -= (n % _frameSize);
+		_written += n;
+		done += n;
+	}
+	if(done < length)
+	{
+		if(!_active) break;
+		LockSupport.parkNanos((long)(_frameSize * 64 / _bytesPerNano));
+	}
+}
+return done;
+}
+
+public synchronized int available()
+{
+if(!_open) return 0;
+return (int)(_bufferSize - (_written - consumed()));
+}
+
+public int getBufferSize()
+{
+return _bufferSize;
+}
+
+public AudioFormat getFormat()
+{
+return _format;
+}
+
+public synchronized long getLongFramePosition()
+{
+if(!_open) return 0;
+return consumed() / _frameSize;
+}
+
+
+/*
+* Gets the number of bytes consumed since the sink was opened.
+* Must be called holding the lock.
+*/
+private long consumed()
+{
+if(!_realtime) return _written;
+if(!_active) return _base;
+long c = _base + (long)((System.nanoTime() - _start) * _bytesPerNano);
+c -= (c % _frameSize);
+return (c < _written) ? c : _written;
+}
+
+
+private boolean _realtime;
+private AudioFormat _format;
+private int _frameSize;
+private int _bufferSize;
+private double _bytesPerNano;
+private long _written;
+private long _base;
+private long _start;
+private volatile boolean _open;
+private volatile boolean _active;
+}
+
+// END
@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2026 Ismael Mosquera Rivera
+ *
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+/*
+* NullSource.java
+*
+* imr-lib
+*
+* Author: Ismael Mosquera Rivera
+*/
+
+package imr.sound.audio;
+
+import java.util.concurrent.locks.LockSupport;
+
+import javax.sound.sampled.AudioFormat;
+
+/**
+* The <code>NullSource</code> class is an <code>AudioSource</code> that captures silence.
+* <p>
+* In realtime mode the data is captured at the rate given by the audio format, so <code>read</code> blocks
+* as it does in a real line; in unthrottled mode the data is available as soon as it is requested.
+*
+* @see imr.sound.audio.AudioSource
+* @see imr.sound.audio.NullSink
+*
+* @author Ismael Mosquera Rivera
+*/
+public class NullSource implements AudioSource
+{
+
+/**
+* Constructor.
+* Makes a new instance of a <code>NullSource</code> object capturing data at realtime pace.
+*
+*/
+public NullSource()
+{
+this(true);
+}
+
+/**
+* Constructor.
+* Makes a new instance of a <code>NullSource</code> object.
+* @param realtime <code>true</code> to capture data at realtime pace or <code>false</code> to capture it as fast as possible.
+*
+*/
+public NullSource(boolean realtime)
+{
+_realtime = realtime;
+_format = null;
+_open = false;
+_active = false;
+}
+
+/**
+* Tells whether this source captures data at realtime pace.
+*
+* @return <code>true</code> if it is realtime or <code>false</code> if it is unthrottled.
+*/
+public boolean isRealtime()
+{
+return _realtime;
+}
+
+public synchronized void open(AudioFormat format, int bufferSize)
+{
+_format = format;
+_frameSize = Math.max(1, format.getFrameSize());
+_bytesPerNano = (double)format.getFrameRate() * (double)_frameSize / 1.0e9;
+_read = 0;
+_base = 0;
+_active = false;
+_open = true;
+}
+
+public synchronized void close()
+{
+_active = false;
+_open = false;
+}
+
+public boolean isOpen()
+{
+return _open;
+}
+
+public synchronized void start()
+{
+if(!_open || _active) return;
+_start = System.nanoTime();
+_active = true;
+}
+
+public synchronized void stop()
+{
+if(!_active) return;
+if(_realtime) _base = captured();
+_active = false;
+}
+
+public boolean isActive()
+{
+return _active;
+}
+
+public synchronized void flush()
+{
+if(!_realtime) return;
+_base = captured();
+_read = _base;
+_start = System.nanoTime();
+}
+
+public int read(byte[] data, int offset, int length)
+{
+if(!_open) return 0;
+length -= (length % _frameSize);
+int done = 0;
+while(done < length)
+{
+	synchronized(this)
+	{
+		if(!_open) break;
+		int n = (int)Math.min(captured() - _read, (long)(length - done));
+		n -= (n % _frameSize);
+		for(int i = 0; i < n; i++) data[offset+done+i] = 0;
+		_read += n;
+		done += n;
+	}
+	if(done < length)
+	{
+		if(!_active) break;
+		LockSupport.parkNanos((long)((length - done) / _bytesPerNano));
+	}
+}
+return done;
+}
+
+public synchronized int available()
+{
+if(!_open || !_realtime) return 0;
+return (int)(captured() - _read);
+}
+
+public AudioFormat getFormat()
+{
+return _format;
+}
+
+
+/*
+* Gets the number of bytes captured since the source was opened.
+* Must be called holding the lock.
+*/
+private long captured()
+{
+if(!_realtime) return _active ? Long.MAX_VALUE : _read;
+if(!_active) return _base;
+long c = _base + (long)((System.nanoTime() - _start) * _bytesPerNano);
+return c - (c % _frameSize);
+}
+
+
+private boolean _realtime;
+private AudioFormat _format;
+private int _frameSize;
+private double _bytesPerNano;
+private long _read;
+private long _base;
+private long _start;
+private volatile boolean _open;
+private volatile boolean _active;
+}
+
+// END
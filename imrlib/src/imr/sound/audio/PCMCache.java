@@ -0,0 +1,499 @@
+/*
+ * Copyright (c) 2026 Ismael Mosquera Rivera
+ *
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+/*
+* PCMCache.java
+*
+* imr-lib
+*
+* Author: Ismael Mosquera Rivera
+*/
+
+package imr.sound.audio;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.DataOutputStream;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+/**
+* The <code>PCMCache</code> class keeps decoded audio files on disk, so that they are decoded just once.
+* <p>
+* Decoding a compressed file, like an mp3 one, takes much more time than reading raw PCM data.
+* The first time a file is opened through a <code>PCMCache</code> object, it is decoded to 16 bit PCM and stored in the cache directory;
+* the next times, the stored data is served directly through a memory mapped file, without decoding anything.
+* <p>
+* An entry is identified by the path, the size and the modification time of its source file,
+* so a modified file is decoded again. Each entry has a small header followed by the raw PCM data.
+* <p>
+* The cache has a disk budget: when it is exceeded, the least recently used entries are deleted.
+* Files can be decoded in advance, in background, calling the <code>warm</code> method.
+* <p>
+* A cache can be set to the <code>AudioFileIO</code> class, so that <code>AudioFileIO.load</code> and the <code>AudioPlayer</code> class use it for mp3 files.
+* <p>
+* Example:
+* <code>
+* PCMCache cache = new PCMCache("pcmcache", 1L &lt;&lt; 30); // 1 GB
+* AudioFileIO.setCache(cache);
+* cache.warm("song.mp3");
+* AudioInputStream audio = AudioFileIO.load("song.mp3");
+* </code>
+*
+* @see imr.sound.audio.AudioFileIO
+*
+* @author Ismael Mosquera Rivera
+*/
+public final class PCMCache
+{
+
+/**
+* Constructor.
+* Makes a new instance of a <code>PCMCache</code> object.
+* <p>
+* The entries already in the directory are kept, so a cache can be used again by later runs.
+* @param directory Directory where the entries are stored; it is made if it does not exist.
+* @param budget Maximum number of bytes used by the entries.
+*
+*/
+public PCMCache(String directory, long budget)
+{
+assert (budget > 0): "bad budget; it must be greater than zero.";
+_dir = new File(directory);
+_dir.mkdirs();
+_budget = budget;
+_used = 0;
+_hits = 0;
+_misses = 0;
+_entries = new LinkedHashMap<String, Long>(16, 0.75f, true);
+_pending = new ConcurrentHashMap<String, FutureTask<File>>();
+_pinned = new HashMap<String, Integer>();
+scan();
+}
+
+/**
+* Opens an audio file through this cache.
+* <p>
+* If the file is in the cache, its data is served from the cache; otherwise, it is decoded and stored first.
+* @param filename Path to an audio file.
+*
+* @throws javax.sound.sampled.UnsupportedAudioFileException Not supported audio format.
+* @throws java.io.IOException if the file or the cache cannot be read or written.
+*
+* @return an <code>AudioInputStream</code> object with 16 bit PCM data.
+*/
+public AudioInputStream open(String filename) throws UnsupportedAudioFileException, IOException
+{
+File source = new File(filename).getAbsoluteFile();
+if(!source.isFile()) throw new IOException(filename + ": no such file.");
+String key = key(source);
+File entry = new File(_dir, key);
+synchronized(this)
+{
+	// get, unlike containsKey, moves the entry to the most recently used end
+	if(_entries.get(key) != null && entry.isFile())
+	{
+		_hits++;
+		entry.setLastModified(System.currentTimeMillis());
+		return map(entry, source);
+	}
+	_misses++;
+	// the new entry is not evicted by other threads until it is mapped
+	pin(key, 1);
+}
+try
+{
+	return map(store(source, key), source);
+}
+finally
+{
+	pin(key, -1);
+}
+}
+
+/**
+* Decodes a file in background and stores it in this cache, if it is not already stored.
+* @param filename Path to an audio file.
+*
+* @return a <code>Future</code> representing the task.
+*/
+public Future<?> warm(final String filename)
+{
+return AudioExecutor.submit(() ->
+{
+	try
+	{
+		File source = new File(filename).getAbsoluteFile();
+		String key = key(source);
+		if(!stored(key)) store(source, key);
+	}
+	catch(IOException | UnsupportedAudioFileException e)
+	{
+		System.out.println("PCMCache::warm(String filename): " + e);
+	}
+});
+}
+
+/**
+* Tells whether a file is stored in this cache, with its current size and modification time.
+* @param filename Path to an audio file.
+*
+* @return <code>true</code> if it is stored or <code>false</code> otherwise.
+*/
+public boolean contains(String filename)
+{
+File source = new File(filename).getAbsoluteFile();
+if(!source.isFile()) return false;
+return stored(key(source));
+}
+
+/**
+* Gets the number of bytes used by the entries of this cache.
+*
+* @return bytes used.
+*/
+public synchronized long size()
+{
+return _used;
+}
+
+/**
+* Gets the disk budget of this cache.
+*
+* @return maximum number of bytes.
+*/
+public synchronized long getBudget()
+{
+return _budget;
+}
+
+/**
+* Sets the disk budget of this cache, deleting entries if needed.
+* @param budget Maximum number of bytes.
+*
+*/
+public synchronized void setBudget(long budget)
+{
+assert (budget > 0): "bad budget; it must be greater than zero.";
+_budget = budget;
+evict(null);
+}
+
+/**
+* Gets the number of opened files found in this cache.
+*
+* @return number of hits.
+*/
+public synchronized long getHits()
+{
+return _hits;
+}
+
+/**
+* Gets the number of opened files which had to be decoded.
+*
+* @return number of misses.
+*/
+public synchronized long getMisses()
+{
+return _misses;
+}
+
+/**
+* Deletes all the entries of this cache.
+*
+*/
+public synchronized void clear()
+{
+for(String key : _entries.keySet()) new File(_dir, key).delete();
+_entries.clear();
+_used = 0;
+}
+
+
+/*
+* Reads the entries in the cache directory, from the least to the most recently used.
+*/
+private synchronized void scan()
+{
+File[] files = _dir.listFiles((d, name) -> name.endsWith(EXTENSION));
+if(files == null) return;
+Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+for(File f : files)
+{
+	_entries.put(f.getName(), f.length());
+	_used += f.length();
+}
+evict(null);
+}
+
+private synchronized boolean stored(String key)
+{
+return _entries.get(key) != null;
+}
+
+/*
+* Adds to or subtracts from the number of threads using an entry which must not be evicted.
+*/
+private synchronized void pin(String key, int n)
+{
+int count = _pinned.getOrDefault(key, 0) + n;
+if(count > 0) _pinned.put(key, count);
+else _pinned.remove(key);
+}
+
+/*
+* Decodes a file and stores it as a cache entry.
+* If the same file is being stored by another thread, waits for it instead.
+*/
+private File store(File source, String key) throws IOException, UnsupportedAudioFileException
+{
+FutureTask<File> task = new FutureTask<File>(() -> write(source, key));
+FutureTask<File> running = _pending.putIfAbsent(key, task);
+if(running == null)
+{
+	running = task;
+	try
+	{
+		task.run();
+	}
+	finally
+	{
+		_pending.remove(key);
+	}
+}
+try
+{
+	return running.get();
+}
+catch(InterruptedException e)
+{
+	Thread.currentThread().interrupt();
+	throw new IOException(e);
+}
+catch(ExecutionException e)
+{
+	Throwable cause = e.getCause();
+	if(cause instanceof IOException) throw (IOException)cause;
+	if(cause instanceof UnsupportedAudioFileException) throw (UnsupportedAudioFileException)cause;
+	throw new IOException(cause);
+}
+}
+
+private File write(File source, String key) throws IOException, UnsupportedAudioFileException
+{
+File entry = new File(_dir, key);
+File tmp = new File(_dir, key + "." + Thread.currentThread().getId() + ".tmp");
+AudioInputStream input = AudioFileIO.decode(source.getPath());
+AudioFormat format = input.getFormat();
+try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp), 1 << 16)))
+{
+	byte[] path = source.getPath().getBytes(StandardCharsets.UTF_8);
+	out.writeInt(MAGIC);
+	out.writeInt(VERSION);
+	out.writeFloat(format.getSampleRate());
+	out.writeInt(format.getChannels());
+	out.writeInt(format.getSampleSizeInBits());
+	out.writeBoolean(format.isBigEndian());
+	out.writeLong(source.length());
+	out.writeLong(source.lastModified());
+	out.writeInt(path.length);
+	out.write(path);
+	byte[] data = new byte[1 << 16];
+	int n;
+	while((n = input.read(data, 0, data.length)) > 0)
+	{
+		out.write(data, 0, n);
+
+	}
+}
+catch(IOException e)
+{
+	tmp.delete();
+	throw e;
+}
+finally
+{
+	input.close();
+}
+Files.move(tmp.toPath(), entry.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+synchronized(this)
+{
+	Long old = _entries.put(key, entry.length());
+	if(old != null) _used -= old;
+	_used += entry.length();
+	evict(key);
+}
+return entry;
+}
+
+/*
+* Deletes the least recently used entries while the budget is exceeded, but the one just stored and the pinned ones.
+*/
+private void evict(String keep)
+{
+Iterator<Map.Entry<String, Long>> it = _entries.entrySet().iterator();
+while(_used > _budget && it.hasNext())
+{
+	Map.Entry<String, Long> e = it.next();
+	if(e.getKey().equals(keep) || _pinned.containsKey(e.getKey())) continue;
+	new File(_dir, e.getKey()).delete();
+	_used -= e.getValue();
+	it.remove();
+}
+}
+
+/*
+* Serves the data of an entry through a memory mapped file.
+*/
+private AudioInputStream map(File entry, File source) throws IOException
+{
+try(FileChannel channel = FileChannel.open(entry.toPath(), StandardOpenOption.READ))
+{
+	long size = channel.size();
+	if(size > Integer.MAX_VALUE) throw new IOException(entry + ": too big to be mapped.");
+	MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+	buffer.order(ByteOrder.BIG_ENDIAN);
+	if(buffer.getInt() != MAGIC || buffer.getInt() != VERSION) throw new IOException(entry + ": not a cache entry.");
+	float sampleRate = buffer.getFloat();
+	int channels = buffer.getInt();
+	int bits = buffer.getInt();
+	boolean bigEndian = (buffer.get() != 0);
+	buffer.getLong();
+	buffer.getLong();
+	byte[] path = new byte[buffer.getInt()];
+	buffer.get(path);
+	if(!source.getPath().equals(new String(path, StandardCharsets.UTF_8))) throw new IOException(entry + ": belongs to another file.");
+	AudioFormat format = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, sampleRate, bits, channels,
+	channels * bits / 8, sampleRate, bigEndian);
+	long frames = buffer.remaining() / format.getFrameSize();
+	return new AudioInputStream(new MappedInputStream(buffer.slice()), format, frames);
+}
+}
+
+/*
+* The name of an entry: a hash of the path of the source file, its size and its modification time.
+*/
+private static String key(File source)
+{
+String path = source.getPath();
+long h = 0xcbf29ce484222325L;
+for(int i = 0; i < path.length(); i++)
+{
+	h ^= path.charAt(i);
+	h *= 0x100000001b3L;
+}
+return Long.toHexString(h) + "-" + Long.toHexString(source.length()) + "-" + Long.toHexString(source.lastModified()) + EXTENSION;
+}
+
+
+private File _dir;
+private long _budget;
+private long _used;
+private long _hits;
+private long _misses;
+private LinkedHashMap<String, Long> _entries;  // in access order: least recently used first
+private ConcurrentHashMap<String, FutureTask<File>> _pending;
+private HashMap<String, Integer> _pinned;  // entries being mapped after a miss
+
+private static final String EXTENSION = ".pcm";
+private static final int MAGIC = 0x49504331;  // IPC1
+private static final int VERSION = 1;
+
+
+/*
+* Reads a mapped buffer as a stream.
+*/
+private static final class MappedInputStream extends InputStream
+{
+public MappedInputStream(java.nio.ByteBuffer buffer)
+{
+	_buffer = buffer;
+	_mark = 0;
+}
+
+public int read()
+{
+	return _buffer.hasRemaining() ? (_buffer.get() & 0xff) : -1;
+}
+
+public int read(byte[] b, int offset, int length)
+{
+	if(length == 0) return 0;
+	if(!_buffer.hasRemaining()) return -1;
+	int n = Math.min(length, _buffer.remaining());
+	_buffer.get(b, offset, n);
+	return n;
+}
+
+public long skip(long n)
+{
+	int k = (int)Math.max(0, Math.min(n, (long)_buffer.remaining()));
+	_buffer.position(_buffer.position() + k);
+	return k;
+}
+
+public int available()
+{
+	return _buffer.remaining();
+}
+
+public boolean markSupported()
+{
+	return true;
+}
+
+public void mark(int limit)
+{
+	_mark = _buffer.position();
+}
+
+public void reset()
+{
+	_buffer.position(_mark);
+}
+
+private java.nio.ByteBuffer _buffer;
+private int _mark;
+}
+}
+
+// END
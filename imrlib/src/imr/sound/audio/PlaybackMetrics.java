@@ -0,0 +1,274 @@
+/*
+ * Copyright (c) 2026 Ismael Mosquera Rivera
+ *
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+/*
+* PlaybackMetrics.java
+*
+* imr-lib
+*
+* Author: Ismael Mosquera Rivera
+*/
+
+package imr.sound.audio;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.sound.sampled.AudioFormat;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+import jdk.jfr.DataAmount;
+
+/**
+* The <code>PlaybackMetrics</code> class measures how a player feeds its audio device.
+* <p>
+* The players of this package update it from their playback thread for every block written, and it can be polled
+* from any other thread through the <code>getSnapshot</code> method. It measures:
+* <ul>
+* <li>the fill level of the device buffer, from its <code>available</code> method.</li>
+* <li>the number of underruns: writes that found the device buffer empty.</li>
+* <li>a histogram of the time each write blocked.</li>
+* <li>the time spent to decode, or produce, each block.</li>
+* <li>an estimate of the end to end latency.</li>
+* </ul>
+* Optionally, it can also emit Java Flight Recorder events: one for each block and one for each underrun,
+* named <code>imr.sound.audio.PlaybackBlock</code> and <code>imr.sound.audio.PlaybackUnderrun</code>.
+* They are recorded only while a flight recording is running.
+* <p>
+* Example:
+* <code>
+* AudioPlayer player = new AudioPlayer();
+* player.set("song.wav");
+* player.play();
+* // later, in another thread
+* System.out.println(player.getMetrics().getSnapshot());
+* </code>
+*
+* @see imr.sound.audio.PlaybackSnapshot
+* @see imr.sound.audio.AudioPlayer
+* @see imr.sound.audio.RawDataPlayer
+*
+* @author Ismael Mosquera Rivera
+*/
+public final class PlaybackMetrics
+{
+
+/**
+* Constructor.
+* Makes a new instance of a <code>PlaybackMetrics</code> object.
+*
+*/
+public PlaybackMetrics()
+{
+_histogram = new AtomicLongArray(BINS);
+_events = false;
+_bytesPerNano = 0.0;
+reset();
+}
+
+/**
+* Gets the current values of the metrics.
+* <p>
+* The values are read while the player updates them, so a value can be one block ahead of another.
+*
+* @return a snapshot of the metrics.
+*/
+public PlaybackSnapshot getSnapshot()
+{
+long[] histogram = new long[BINS];
+for(int i = 0; i < BINS; i++) histogram[i] = _histogram.get(i);
+int minFill = (_minFillLevel == Integer.MAX_VALUE) ? 0 : _minFillLevel;
+return new PlaybackSnapshot(_blocks, _bytes, _underruns, _bufferSize, _fillLevel, minFill,
+_writeTime, _maxWriteTime, _decodes, _decodeTime, _maxDecodeTime, _latency, _maxLatency, histogram);
+}
+
+/**
+* Sets all the metrics to zero.
+*
+*/
+public void reset()
+{
+_blocks = 0;
+_bytes = 0;
+_underruns = 0;
+_fillLevel = 0;
+_minFillLevel = Integer.MAX_VALUE;
+_writeTime = 0;
+_maxWriteTime = 0;
+_decodes = 0;
+_decodeTime = 0;
+_maxDecodeTime = 0;
+_lastDecodeTime = 0;
+_latency = 0;
+_maxLatency = 0;
+for(int i = 0; i < BINS; i++) _histogram.set(i, 0);
+}
+
+/**
+* Enables or disables the Java Flight Recorder events.
+* <p>
+* They are disabled by default. If the running JVM has no flight recorder, they remain disabled.
+* @param b <code>true</code> to emit events or <code>false</code> otherwise.
+*
+*/
+public void setEventsEnabled(boolean b)
+{
+_events = b;
+}
+
+/**
+* Tells whether the Java Flight Recorder events are enabled.
+*
+* @return <code>true</code> if the events are emitted or <code>false</code> otherwise.
+*/
+public boolean getEventsEnabled()
+{
+return _events;
+}
+
+
+/*
+* Called by a player when the playback starts.
+*/
+void begin(AudioFormat format, int bufferSize)
+{
+reset();
+_bufferSize = bufferSize;
+_bytesPerNano = (format == null) ? 0.0 : (double)format.getFrameRate() * (double)format.getFrameSize() / 1.0e9;
+}
+
+/*
+* Called by a player when a block has been decoded or produced.
+*/
+void recordDecode(long nanos)
+{
+_lastDecodeTime = nanos;
+_decodeTime += nanos;
+_decodes++;
+if(nanos > _maxDecodeTime) _maxDecodeTime = nanos;
+}
+
+/*
+* Called by a player when a block has been written to the device.
+* The available bytes are read from the device just before and after the write.
+*/
+void recordWrite(int bytes, long nanos, int availableBefore, int availableAfter)
+{
+int fillBefore = _bufferSize - availableBefore;
+boolean underrun = (_blocks > 0 && fillBefore <= 0);
+if(underrun) _underruns++;
+if(_blocks > 0 && fillBefore < _minFillLevel) _minFillLevel = fillBefore;
+_fillLevel = _bufferSize - availableAfter;
+long latency = _lastDecodeTime + ((_bytesPerNano > 0.0) ? (long)(_fillLevel / _bytesPerNano) : 0);
+_latency = latency;
+if(latency > _maxLatency) _maxLatency = latency;
+_writeTime += nanos;
+if(nanos > _maxWriteTime) _maxWriteTime = nanos;
+long us = nanos / 1000;
+int bin = (us <= 0) ? 0 : 63 - Long.numberOfLeadingZeros(us);
+if(bin >= BINS) bin = BINS-1;
+_histogram.incrementAndGet(bin);
+_bytes += bytes;
+_blocks++;
+if(_events) emit(bytes, nanos, latency, underrun);
+}
+
+/*
+* Emits the flight recorder events for a block.
+*/
+private void emit(int bytes, long nanos, long latency, boolean underrun)
+{
+try
+{
+	BlockEvent e = new BlockEvent();
+	if(e.shouldCommit())
+	{
+		e.bytes = bytes;
+		e.fillLevel = _fillLevel;
+		e.writeTime = nanos;
+		e.decodeTime = _lastDecodeTime;
+		e.latency = latency;
+		e.commit();
+	}
+	if(underrun)
+	{
+		UnderrunEvent u = new UnderrunEvent();
+		u.count = _underruns;
+		u.commit();
+	}
+}
+catch(LinkageError e)
+{
+	// no flight recorder in this JVM
+	_events = false;
+}
+}
+
+
+// written by the playback thread only, read by any thread
+private volatile long _blocks;
+private volatile long _bytes;
+private volatile long _underruns;
+private volatile int _bufferSize;
+private volatile int _fillLevel;
+private volatile int _minFillLevel;
+private volatile long _writeTime;
+private volatile long _maxWriteTime;
+private volatile long _decodes;
+private volatile long _decodeTime;
+private volatile long _maxDecodeTime;
+private volatile long _lastDecodeTime;
+private volatile long _latency;
+private volatile long _maxLatency;
+private volatile boolean _events;
+private double _bytesPerNano;
+private final AtomicLongArray _histogram;
+
+private static final int BINS = 24;
+
+
+@Name("imr.sound.audio.PlaybackBlock")
+@Label("Playback Block")
+@Category({"imr", "Audio"})
+@Description("A block written to an audio device")
+static final class BlockEvent extends Event
+{
+@Label("Bytes") @DataAmount int bytes;
+@Label("Fill Level") @DataAmount int fillLevel;
+@Label("Write Time") @Timespan long writeTime;
+@Label("Decode Time") @Timespan long decodeTime;
+@Label("Latency") @Timespan long latency;
+}
+
+@Name("imr.sound.audio.PlaybackUnderrun")
+@Label("Playback Underrun")
+@Category({"imr", "Audio"})
+@Description("The audio device buffer was found empty")
+static final class UnderrunEvent extends Event
+{
+@Label("Underruns") long count;
+}
+}
+
+// END
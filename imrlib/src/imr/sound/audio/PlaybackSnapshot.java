@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) 2026 Ismael Mosquera Rivera
+ *
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+/*
+* PlaybackSnapshot.java
+*
+* imr-lib
+*
+* Author: Ismael Mosquera Rivera
+*/
+
+package imr.sound.audio;
+
+/**
+* The <code>PlaybackSnapshot</code> class holds the playback metrics of a player at a given moment.
+* <p>
+* A snapshot is obtained calling the <code>getSnapshot</code> method of a <code>PlaybackMetrics</code> object,
+* and it does not change afterwards, so it can be polled periodically, for example to plot the buffer fill level,
+* or to choose a buffer size from what really happens in a machine.
+* <p>
+* Times are expressed in microseconds and sizes in bytes.
+* The write time histogram has one bin per power of two: bin i counts the writes which blocked
+* from 2^i to 2^(i+1) microseconds ( bin 0 also counts the ones below 1 microsecond ).
+*
+* @see imr.sound.audio.PlaybackMetrics
+*
+* @author Ismael Mosquera Rivera
+*/
+public final class PlaybackSnapshot
+{
+
+/**
+* Constructor.
+* Makes a new instance of a <code>PlaybackSnapshot</code> object.
+* It is made by a <code>PlaybackMetrics</code> object.
+*
+*/
+PlaybackSnapshot(long blocks, long bytes, long underruns, int bufferSize, int fillLevel, int minFillLevel,
+long writeTime, long maxWriteTime, long decodes, long decodeTime, long maxDecodeTime, long latency, long maxLatency, long[] histogram)
+{
+_blocks = blocks;
+_bytes = bytes;
+_underruns = underruns;
+_bufferSize = bufferSize;
+_fillLevel = fillLevel;
+_minFillLevel = minFillLevel;
+_writeTime = writeTime;
+_maxWriteTime = maxWriteTime;
+_decodes = decodes;
+_decodeTime = decodeTime;
+_maxDecodeTime = maxDecodeTime;
+_latency = latency;
+_maxLatency = maxLatency;
+_histogram = histogram;
+}
+
+/**
+* Gets the number of blocks written to the device.
+*
+* @return number of blocks.
+*/
+public long getBlocks()
+{
+return _blocks;
+}
+
+/**
+* Gets the number of bytes written to the device.
+*
+* @return number of bytes.
+*/
+public long getBytes()
+{
+return _bytes;
+}
+
+/**
+* Gets the number of underruns, that is, the number of times the device buffer was found empty
+* when a block was going to be written, once the playback had started.
+* Each underrun is usually heard as a click.
+*
+* @return number of underruns.
+*/
+public long getUnderruns()
+{
+return _underruns;
+}
+
+/**
+* Gets the size of the device buffer.
+*
+* @return buffer size in bytes.
+*/
+public int getBufferSize()
+{
+return _bufferSize;
+}
+
+/**
+* Gets the number of bytes queued in the device buffer after the last write.
+*
+* @return fill level in bytes.
+*/
+public int getFillLevel()
+{
+return _fillLevel;
+}
+
+/**
+* Gets the fill level as a fraction of the buffer size.
+*
+* @return fill level in the range [0 .. 1].
+*/
+public float getFillRatio()
+{
+if(_bufferSize <= 0) return 0.0f;
+return (float)_fillLevel / (float)_bufferSize;
+}
+
+/**
+* Gets the lowest number of bytes found queued in the device buffer before a write.
+*
+* @return minimum fill level in bytes.
+*/
+public int getMinFillLevel()
+{
+return _minFillLevel;
+}
+
+/**
+* Gets the mean time a write blocked.
+*
+* @return mean write time in microseconds.
+*/
+public double getMeanWriteTime()
+{
+return (_blocks == 0) ? 0.0 : (double)_writeTime / (double)_blocks / 1000.0;
+}
+
+/**
+* Gets the longest time a write blocked.
+*
+* @return maximum write time in microseconds.
+*/
+public double getMaxWriteTime()
+{
+return (double)_maxWriteTime / 1000.0;
+}
+
+/**
+* Gets the mean time spent to produce a block.
+* <p>
+* For an <code>AudioPlayer</code> this is the time to decode the block from the file;
+* for a <code>RawDataPlayer</code> it is the time elapsed between two calls to play, that is, the time the caller spent producing the block.
+*
+* @return mean decode time in microseconds.
+*/
+public double getMeanDecodeTime()
+{
+return (_decodes == 0) ? 0.0 : (double)_decodeTime / (double)_decodes / 1000.0;
+}
+
+/**
+* Gets the longest time spent to produce a block.
+*
+* @return maximum decode time in microseconds.
+*/
+public double getMaxDecodeTime()
+{
+return (double)_maxDecodeTime / 1000.0;
+}
+
+/**
+* Gets an estimate of the end to end latency of the last block:
+* the time spent to produce it plus the duration of the audio queued in the device when it was written.
+*
+* @return latency in microseconds.
+*/
+public double getLatency()
+{
+return (double)_latency / 1000.0;
+}
+
+/**
+* Gets the highest latency estimate.
+*
+* @return maximum latency in microseconds.
+*/
+public double getMaxLatency()
+{
+return (double)_maxLatency / 1000.0;
+}
+
+/**
+* Gets the write time histogram.
+*
+* @return a copy of the histogram bins.
+*/
+public long[] getWriteTimeHistogram()
+{
+return _histogram.clone();
+}
+
+/**
+* Gets a text description of this snapshot.
+*
+* @return description.
+*/
+public String toString()
+{
+return String.format("blocks=%d underruns=%d fill=%d/%d (min %d) write=%.1f/%.1f us decode=%.1f/%.1f us latency=%.1f/%.1f ms",
+_blocks, _underruns, _fillLevel, _bufferSize, _minFillLevel, getMeanWriteTime(), getMaxWriteTime(),
+getMeanDecodeTime(), getMaxDecodeTime(), getLatency() / 1000.0, getMaxLatency() / 1000.0);
+}
+
+
+private long _blocks;
+private long _bytes;
+private long _underruns;
+private int _bufferSize;
+private int _fillLevel;
+private int _minFillLevel;
+private long _writeTime;
+private long _maxWriteTime;
+private long _decodes;
+private long _decodeTime;
+private long _maxDecodeTime;
+private long _latency;
+private long _maxLatency;
+private long[] _histogram;
+}
+
+// END
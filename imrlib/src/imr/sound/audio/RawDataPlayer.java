@@ -29,8 +29,6 @@
 package imr.sound.audio;
 
 import javax.sound.sampled.AudioFormat;
-import javax.sound.sampled.SourceDataLine;
-import javax.sound.sampled.AudioSystem;
 import javax.sound.sampled.LineUnavailableException;
 
 /**
@@ -44,6 +42,11 @@ import javax.sound.sampled.LineUnavailableException;
 * <li>when all the data is played, call the stop method. </li>
 * </ul>
 * Do not worry about closing the device, since the <code>SourceDataLine</code> class implements the autoclosable interface.
+* <p>
+* By default, the data is played through the sound card. Passing an <code>AudioSink</code> to the constructor,
+* the data can be played to a <code>NullSink</code> or to the sink of a <code>LoopbackBuffer</code> instead, in a machine without audio hardware.
+* <p>
+* Each call to play updates the playback metrics of this player, which can be polled through the <code>getMetrics</code> method.
 * Example:
 * <code>
 * RawDataPlayer player = new RawDataPlayer();
@@ -56,6 +59,8 @@ import javax.sound.sampled.LineUnavailableException;
 * which enables assertions.
 *
 * @see javax.sound.sampled.SourceDataLine
+* @see imr.sound.audio.AudioSink
+* @see imr.sound.audio.PlaybackMetrics
 * @see imr.sound.audio.synthesis.Oscillator
 * @see imr.sound.audio.RawDataStorage
 *
@@ -83,6 +88,18 @@ this(44100.0f);
 */
 public RawDataPlayer(float sr)
 {
+this(sr, new LineSink());
+}
+
+/**
+* Constructor.
+* Makes a new instance of a <code>RawDataPlayer</code> object playing to the given sink.
+* @param sr Sample Rate value; allowed values: 11025, 22050 and 44100.
+* @param sink The <code>AudioSink</code> where the data is played.
+*
+*/
+public RawDataPlayer(float sr, AudioSink sink)
+{
 boolean condition = ((int)sr == 11025 || (int)sr == 22050 || (int)sr == 44100);
 assert condition: "bad value for sample rate; allowed values: 11025, 22050 and 44100";
 AudioFormat format = new AudioFormat(
@@ -94,10 +111,12 @@ AudioFormat format = new AudioFormat(
 		sr,
 		false);
 		int bufferSize = (int)sr * 80;
+_sink = sink;
+_metrics = new PlaybackMetrics();
+_lastPlay = 0;
 try
 {
-_line = AudioSystem.getSourceDataLine(format);
-_line.open(format, bufferSize);
+_sink.open(format, bufferSize);
 }
 catch(LineUnavailableException e)
 {
@@ -113,8 +132,10 @@ catch(LineUnavailableException e)
 */
 public void start()
 {
-_line.flush();
-_line.start();
+_sink.flush();
+_sink.start();
+_metrics.begin(_sink.getFormat(), _sink.getBufferSize());
+_lastPlay = 0;
 }
 
 /**
@@ -126,7 +147,15 @@ _line.start();
 */
 public int play(byte[] data)
 {
-return _line.write(data, 0, data.length);
+long t = System.nanoTime();
+// the time elapsed since the last call is the time spent producing this frame
+if(_lastPlay != 0) _metrics.recordDecode(t - _lastPlay);
+int available = _sink.available();
+t = System.nanoTime();
+int n = _sink.write(data, 0, data.length);
+_lastPlay = System.nanoTime();
+_metrics.recordWrite(n, _lastPlay - t, available, _sink.available());
+return n;
 }
 
 /**
@@ -135,7 +164,7 @@ return _line.write(data, 0, data.length);
 */
 public void stop()
 {
-if(_line.isActive()) _line.stop();
+if(_sink.isActive()) _sink.stop();
 }
 
 /**
@@ -145,11 +174,33 @@ if(_line.isActive()) _line.stop();
 */
 public AudioFormat getFormat()
 {
-return _line.getFormat();
+return _sink.getFormat();
+}
+
+/**
+* Gets the <code>AudioSink</code> where this player plays.
+*
+* @return the sink of this player.
+*/
+public AudioSink getSink()
+{
+return _sink;
+}
+
+/**
+* Gets the playback metrics of this player.
+*
+* @return the <code>PlaybackMetrics</code> object updated by this player.
+*/
+public PlaybackMetrics getMetrics()
+{
+return _metrics;
 }
 
 
-private SourceDataLine _line;
+private AudioSink _sink;
+private PlaybackMetrics _metrics;
+private long _lastPlay;
 
 private static final int BITS_PER_SAMPLE = 16;
 private static final int NUM_CHANNELS = 2;
@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2026 Ismael Mosquera Rivera
+ *
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+/*
+* Resampler.java
+*
+* imr-lib
+*
+* Author: Ismael Mosquera Rivera
+*/
+
+package imr.sound.audio;
+
+/**
+* The <code>Resampler</code> class converts the sample rate of an audio stream.
+* <p>
+* It uses band limited interpolation: each output sample is computed convolving the input samples with a windowed sinc function,
+* whose cut off frequency is set to avoid aliasing when the sample rate is reduced.
+* The kernel is precomputed in a table, so no trigonometric function is evaluated while processing.
+* <p>
+* The data is processed as a stream, block by block, with interleaved frames of any number of channels.
+* The memory used does not depend on the length of the stream.
+* <p>
+* Example:
+* <code>
+* Resampler r = new Resampler(48000.0f, 44100.0f, 2);
+* float[] out = new float[r.maxOutput(n) * 2];
+* int m = r.process(in, n, out); // for each block
+* m = r.flush(out); // at the end
+* </code>
+*
+* @author Ismael Mosquera Rivera
+*/
+public class Resampler
+{
+
+/**
+* Constructor.
+* Makes a new instance of a <code>Resampler</code> object.
+* @param inRate Sample rate of the input stream.
+* @param outRate Sample rate of the output stream.
+* @param channels Number of interleaved channels.
+*
+*/
+public Resampler(float inRate, float outRate, int channels)
+{
+assert (inRate > 0.0f && outRate > 0.0f): "bad sample rate; it must be greater than zero.";
+assert (channels > 0): "bad number of channels; it must be greater than zero.";
+_channels = channels;
+_ratio = (double)inRate / (double)outRate;
+_cutoff = Math.min(1.0, (double)outRate / (double)inRate);
+_table = new float[TAPS*PHASES+2];
+for(int i = 0; i < _table.length; i++) _table[i] = (float)kernel((double)i / PHASES);
+_buf = new float[0];
+reset();
+}
+
+/**
+* Clears the history of this resampler, so that a new stream can be processed.
+*
+*/
+public void reset()
+{
+// history of zeros before the first sample
+_size = TAPS;
+ensure(_size);
+for(int i = 0; i < _size*_channels; i++) _buf[i] = 0.0f;
+_t = TAPS;
+_inFrames = 0;
+_outFrames = 0;
+}
+
+/**
+* Gets the ratio between the input and the output sample rates.
+*
+* @return input rate / output rate.
+*/
+public double getRatio()
+{
+return _ratio;
+}
+
+/**
+* Gets the maximum number of frames the process method can give for an input block.
+* @param nframes Number of input frames.
+*
+* @return maximum number of output frames.
+*/
+public int maxOutput(int nframes)
+{
+return (int)Math.ceil((nframes + 2*TAPS) / _ratio) + 1;
+}
+
+/**
+* Processes a block of input frames.
+* @param in Interleaved input samples.
+* @param nframes Number of input frames.
+* @param out Array where the interleaved output samples are stored; it must hold <code>maxOutput(nframes)</code> frames.
+*
+* @return number of output frames.
+*/
+public int process(float[] in, int nframes, float[] out)
+{
+ensure(_size + nframes);
+System.arraycopy(in, 0, _buf, _size*_channels, nframes*_channels);
+_size += nframes;
+_inFrames += nframes;
+return produce(out, Long.MAX_VALUE);
+}
+
+/**
+* Gives the last output frames, once all the input frames were processed.
+* @param out Array where the interleaved output samples are stored; it must hold <code>maxOutput(0)</code> frames.
+*
+* @return number of output frames.
+*/
+public int flush(float[] out)
+{
+ensure(_size + TAPS);
+for(int i = _size*_channels; i < (_size+TAPS)*_channels; i++) _buf[i] = 0.0f;
+_size += TAPS;
+long expected = (long)Math.ceil(_inFrames / _ratio);
+return produce(out, expected);
+}
+
+
+/*
+* Computes output frames while there are enough input frames, up to a total of limit frames.
+*/
+private int produce(float[] out, long limit)
+{
+int n = 0;
+while(_outFrames < limit)
+{
+	int center = (int)_t;
+	if(center + TAPS >= _size) break;
+	double frac = _t - center;
+	int k = (n*_channels);
+	for(int c = 0; c < _channels; c++) out[k+c] = 0.0f;
+	for(int j = -TAPS+1; j <= TAPS; j++)
+	{
+		float h = lookup(frac - j);
+		int b = (center+j)*_channels;
+		for(int c = 0; c < _channels; c++) out[k+c] += h * _buf[b+c];
+	}
+	n++;
+	_outFrames++;
+	_t += _ratio;
+}
+// keep just the history needed for the next output
+int drop = (int)_t - TAPS;
+if(drop > 0)
+{
+	System.arraycopy(_buf, drop*_channels, _buf, 0, (_size-drop)*_channels);
+	_size -= drop;
+	_t -= drop;
+}
+return n;
+}
+
+private float lookup(double d)
+{
+double a = Math.abs(d) * PHASES;
+int i = (int)a;
+if(i >= TAPS*PHASES) return 0.0f;
+float f = (float)(a - i);
+return _table[i] + (_table[i+1] - _table[i]) * f;
+}
+
+/*
+* Windowed sinc function, d expressed in input samples.
+*/
+private double kernel(double d)
+{
+if(d >= TAPS) return 0.0;
+double x = Math.PI * _cutoff * d;
+double sinc = (x == 0.0) ? 1.0 : Math.sin(x) / x;
+double w = 0.5 + 0.5 * Math.cos(Math.PI * d / TAPS);
+return _cutoff * sinc * w;
+}
+
+private void ensure(int frames)
+{
+if(_buf.length >= frames*_channels) return;
+float[] b = new float[frames*_channels*2];
+System.arraycopy(_buf, 0, b, 0, _buf.length);
+_buf = b;
+}
+
+
+private int _channels;
+private double _ratio;
+private double _cutoff;
+private float[] _table;
+private float[] _buf;
+private int _size;
+private double _t;
+private long _inFrames;
+private long _outFrames;
+
+private static final int TAPS = 16;
+private static final int PHASES = 256;
+}
+
+// END
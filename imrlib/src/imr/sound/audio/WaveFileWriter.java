@@ -0,0 +1,305 @@
+/*
+ * Copyright (c) 2026 Ismael Mosquera Rivera
+ *
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+/*
+* WaveFileWriter.java
+*
+* imr-lib
+*
+* Author: Ismael Mosquera Rivera
+*/
+
+package imr.sound.audio;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+/**
+* The <code>WaveFileWriter</code> class writes 16 bit PCM audio to a *.wav file as it is produced.
+* <p>
+* Unlike <code>RawDataStorage</code>, the data is not accumulated in memory:
+* each block is converted and written to the file, and the sizes in the header are set when the file is closed.
+* So, it is suitable to store long renders with a fixed amount of memory.
+* <p>
+* The steps are:
+* <ul>
+* <li>Instantiate a <code>WaveFileWriter</code> object.</li>
+* <li>call the open method passing the file name as parameter.</li>
+* <li>call the write method for each block of floating point samples in the range [-1 .. 1].</li>
+* <li>when all the data is written, call the close method.</li>
+* </ul>
+* Example:
+* <code>
+* WaveFileWriter writer = new WaveFileWriter(44100.0f, 1);
+* writer.open("out.wav");
+* writer.write(block, block.length);
+* writer.close();
+* </code>
+*
+* @see imr.sound.audio.RawDataStorage
+*
+* @author Ismael Mosquera Rivera
+*/
+public class WaveFileWriter
+{
+
+/**
+* Constructor.
+* Makes a new instance of a <code>WaveFileWriter</code> object.
+* Default values: sample rate = 44100, channels = 2.
+*
+*/
+public WaveFileWriter()
+{
+this(44100.0f, 2);
+}
+
+/**
+* Constructor.
+* Makes a new instance of a <code>WaveFileWriter</code> object.
+* @param sampleRate Sample rate.
+* @param channels Number of channels ( 1 or 2 ).
+*
+*/
+public WaveFileWriter(float sampleRate, int channels)
+{
+assert (channels == 1 || channels == 2): "bad number of channels; allowed values: 1 and 2.";
+_sampleRate = sampleRate;
+_channels = channels;
+_frames = 0;
+_filename = null;
+_output = null;
+_buffer = new byte[0];
+}
+
+/**
+* Opens a file to write.
+* <p>
+* If the file exists it is overwritten.
+* @param filename Name of the file. The extension must be *.wav
+*
+* @return <code>true</code> if there was a success or <code>false</code> otherwise.
+*/
+public boolean open(String filename)
+{
+if(_output != null) close();
+int i = filename.lastIndexOf(".")+1;
+String ext = filename.substring(i).toLowerCase();
+if(!ext.equals("wav"))
+{
+	System.out.println("WaveFileWriter::open(String filename): " + filename + " cannot be written. Supported extensions: *.wav");
+	return false;
+}
+try
+{
+	_output = new BufferedOutputStream(new FileOutputStream(filename), BUFFER_SIZE);
+	_output.write(header(0));
+}
+catch(IOException e)
+{
+	System.out.println("WaveFileWriter::open(String filename): " + e);
+	_output = null;
+	return false;
+}
+_filename = filename;
+_frames = 0;
+return true;
+}
+
+/**
+* Writes a block of samples.
+* <p>
+* If this writer has two channels, the same samples are written to both of them.
+* @param x Samples in the range [-1 .. 1]; values out of range are clipped.
+* @param nframes Number of samples to write.
+*
+* @return the number of frames written or -1 if there was an error.
+*/
+public int write(float[] x, int nframes)
+{
+return write(x, x, nframes);
+}
+
+/**
+* Writes a stereo block of samples.
+* <p>
+* If this writer has just one channel, only the left samples are written.
+* @param left Left channel samples in the range [-1 .. 1].
+* @param right Right channel samples in the range [-1 .. 1].
+* @param nframes Number of samples to write.
+*
+* @return the number of frames written or -1 if there was an error.
+*/
+public int write(float[] left, float[] right, int nframes)
+{
+if(_output == null) return -1;
+int size = nframes * _channels * 2;
+if(_buffer.length < size) _buffer = new byte[size];
+int k = 0;
+for(int i = 0; i < nframes; i++)
+{
+	k = put(left[i], k);
+	if(_channels == 2) k = put(right[i], k);
+}
+try
+{
+	_output.write(_buffer, 0, size);
+}
+catch(IOException e)
+{
+	System.out.println("WaveFileWriter::write: " + e);
+	return -1;
+}
+_frames += nframes;
+return nframes;
+}
+
+/**
+* Closes the file, setting the sizes in its header.
+*
+* @return <code>true</code> if there was a success or <code>false</code> otherwise.
+*/
+public boolean close()
+{
+if(_output == null) return false;
+boolean ok = true;
+RandomAccessFile file = null;
+try
+{
+	_output.close();
+	file = new RandomAccessFile(_filename, "rw");
+	file.write(header(_frames * _channels * 2));
+}
+catch(IOException e)
+{
+	System.out.println("WaveFileWriter::close(): " + e);
+	ok = false;
+}
+finally
+{
+	try
+	{
+		if(file != null) file.close();
+	}
+	catch(IOException e) {}
+}
+_output = null;
+return ok;
+}
+
+/**
+* Gets the number of frames written to the current file.
+*
+* @return number of frames.
+*/
+public long getFrames()
+{
+return _frames;
+}
+
+/**
+* Gets the sample rate of this writer.
+*
+* @return sample rate.
+*/
+public float getSampleRate()
+{
+return _sampleRate;
+}
+
+/**
+* Gets the number of channels of this writer.
+*
+* @return number of channels.
+*/
+public int getChannels()
+{
+return _channels;
+}
+
+
+/*
+* Converts a sample to 16 bit little endian and stores it in the conversion buffer.
+*/
+private int put(float x, int k)
+{
+if(x > 1.0f) x = 1.0f;
+else if(x < -1.0f) x = -1.0f;
+short s = (short)(x * 32767.0f);
+_buffer[k++] = (byte)(s & 0xff);
+_buffer[k++] = (byte)((s >> 8) & 0xff);
+return k;
+}
+
+/*
+* Builds the 44 bytes header of a canonical PCM wave file.
+*/
+private byte[] header(long dataSize)
+{
+byte[] h = new byte[HEADER_SIZE];
+int sr = (int)_sampleRate;
+int blockAlign = _channels * 2;
+putText(h, 0, "RIFF");
+putInt(h, 4, (int)(36 + dataSize));
+putText(h, 8, "WAVE");
+putText(h, 12, "fmt ");
+putInt(h, 16, 16);
+putShort(h, 20, 1); // PCM
+putShort(h, 22, _channels);
+putInt(h, 24, sr);
+putInt(h, 28, sr * blockAlign);
+putShort(h, 32, blockAlign);
+putShort(h, 34, 16);
+putText(h, 36, "data");
+putInt(h, 40, (int)dataSize);
+return h;
+}
+
+private void putText(byte[] h, int offset, String s)
+{
+for(int i = 0; i < 4; i++) h[offset+i] = (byte)s.charAt(i);
+}
+
+private void putInt(byte[] h, int offset, int v)
+{
+for(int i = 0; i < 4; i++) h[offset+i] = (byte)((v >> (8*i)) & 0xff);
+}
+
+private void putShort(byte[] h, int offset, int v)
+{
+h[offset] = (byte)(v & 0xff);
+h[offset+1] = (byte)((v >> 8) & 0xff);
+}
+
+
+private float _sampleRate;
+private int _channels;
+private long _frames;
+private String _filename;
+private BufferedOutputStream _output;
+private byte[] _buffer;
+
+private static final int HEADER_SIZE = 44;
+private static final int BUFFER_SIZE = 1 << 16;
+}
+
+// END
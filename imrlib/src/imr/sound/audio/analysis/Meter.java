@@ -0,0 +1,529 @@
+/*
+ * Copyright (c) 2026 Ismael Mosquera Rivera
+ *
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+/*
+* Meter.java
+*
+* imr-lib
+*
+* Author: Ismael Mosquera Rivera
+*/
+
+package imr.sound.audio.analysis;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+* The <code>Meter</code> class measures the level of a multichannel signal while it is being processed, block by block.
+* <p>
+* The following measures are available:
+* <ul>
+* <li>Sample peak per channel: the max absolute sample value since the peaks were reset.</li>
+* <li>True peak per channel: the max absolute value of the signal oversampled 4 times, as described in ITU-R BS.1770, since the peaks were reset.</li>
+* <li>RMS per channel over a sliding window ( 300 ms by default ).</li>
+* <li>Momentary ( 400 ms ) and short-term ( 3 s ) loudness in LUFS, K-weighted as specified in EBU R 128.</li>
+* </ul>
+* <p>
+* All the memory is allocated in the constructor, so the <code>process</code> methods do not allocate memory.
+* <p>
+* The measures are meant to be written by just one thread, the one calling <code>process</code>,
+* and they can be read from any other thread, like a user interface one, without locking.
+* Loudness values are updated every 100 ms of signal.
+* <p>
+* Samples are expected to be in the range [-1 .. 1].
+* <p>
+* Example:
+* <code>
+* Meter meter = new Meter(44100.0f, 2);
+* meter.process(left, right, n);  // in the audio thread
+* float lufs = meter.getMomentaryLoudness();  // in the UI thread
+* </code>
+*
+* @author Ismael Mosquera Rivera
+*
+*/
+public final class Meter
+{
+
+/**
+* Constructor.
+* Makes a new instance of a <code>Meter</code> object with a RMS window of 300 ms.
+* @param sampleRate Sample rate.
+* @param channels Number of channels.
+*
+*/
+public Meter(float sampleRate, int channels)
+{
+this(sampleRate, channels, 300.0f);
+}
+
+/**
+* Constructor.
+* Makes a new instance of a <code>Meter</code> object.
+* <p>
+* If there are 6 channels, they are taken as 5.1 audio ( L, R, C, LFE, Ls, Rs ) for loudness:
+* the LFE channel is ignored and the surround ones are weighted by 1.41.
+* @param sampleRate Sample rate.
+* @param channels Number of channels.
+* @param rmsWindow RMS window length in ms.
+*
+*/
+public Meter(float sampleRate, int channels, float rmsWindow)
+{
+assert (sampleRate > 0.0f): "bad sample rate; it must be greater than zero.";
+assert (channels > 0): "bad number of channels; it must be greater than zero.";
+assert (rmsWindow > 0.0f): "bad RMS window; it must be greater than zero.";
+_sampleRate = sampleRate;
+_channels = channels;
+
+_peak = new float[channels];
+_truePeak = new float[channels];
+_publishedPeak = new AtomicIntegerArray(channels);
+_publishedTruePeak = new AtomicIntegerArray(channels);
+_publishedRms = new AtomicIntegerArray(channels);
+
+_rmsLength = Math.max(1, (int)(rmsWindow * sampleRate / 1000.0f));
+_rmsSquares = new float[_rmsLength * channels];
+_rmsSum = new double[channels];
+
+_history = new float[2 * TAPS * channels];
+_phases = buildPhases();
+
+_weight = new double[channels];
+for(int c = 0; c < channels; c++) _weight[c] = 1.0;
+if(channels == 6)
+{
+	_weight[3] = 0.0;
+	_weight[4] = 1.41;
+	_weight[5] = 1.41;
+}
+_shelf = new double[2 * channels];
+_highPass = new double[2 * channels];
+buildKWeighting();
+
+_blockLength = Math.max(1, Math.round(sampleRate / 10.0f));
+_blocks = new double[SHORT_TERM_BLOCKS];
+
+reset();
+}
+
+/**
+* Processes a block of interleaved frames.
+* @param x Interleaved samples; its length must be at least <code>n * getChannels()</code>.
+* @param n Number of frames.
+*
+*/
+public void process(float[] x, int n)
+{
+assert (x.length >= n * _channels): "bad block size; the array is too short.";
+checkReset();
+int k = 0;
+for(int i = 0; i < n; i++)
+{
+	for(int c = 0; c < _channels; c++) sample(c, x[k++]);
+	endFrame();
+}
+publish();
+}
+
+/**
+* Processes a block of a stereo signal, one array per channel.
+* This method can only be used if this meter has 2 channels.
+* @param left Left channel samples.
+* @param right Right channel samples.
+* @param n Number of frames.
+*
+*/
+public void process(float[] left, float[] right, int n)
+{
+assert (_channels == 2): "this meter has not 2 channels.";
+checkReset();
+for(int i = 0; i < n; i++)
+{
+	sample(0, left[i]);
+	sample(1, right[i]);
+	endFrame();
+}
+publish();
+}
+
+/**
+* Processes a block of a multichannel signal, one array per channel.
+* @param x Array of channels; it must have <code>getChannels()</code> arrays.
+* @param n Number of frames.
+*
+*/
+public void process(float[][] x, int n)
+{
+assert (x.length == _channels): "bad number of channels.";
+checkReset();
+for(int i = 0; i < n; i++)
+{
+	for(int c = 0; c < _channels; c++) sample(c, x[c][i]);
+	endFrame();
+}
+publish();
+}
+
+/**
+* Gets the sample peak of a channel since the peaks were reset.
+* @param channel Channel index.
+*
+* @return sample peak, in the range [0 .. 1] for a not clipped signal.
+*/
+public float getSamplePeak(int channel)
+{
+return Float.intBitsToFloat(_publishedPeak.get(channel));
+}
+
+/**
+* Gets the true peak of a channel since the peaks were reset.
+* <p>
+* The true peak is measured oversampling the signal 4 times, so it finds the peaks between samples,
+* and it can be greater than 1 even when no sample is clipped.
+* @param channel Channel index.
+*
+* @return true peak.
+*/
+public float getTruePeak(int channel)
+{
+return Float.intBitsToFloat(_publishedTruePeak.get(channel));
+}
+
+/**
+* Gets the RMS value of a channel over the last RMS window.
+* @param channel Channel index.
+*
+* @return RMS value.
+*/
+public float getRms(int channel)
+{
+return Float.intBitsToFloat(_publishedRms.get(channel));
+}
+
+/**
+* Gets the momentary loudness: the K-weighted loudness over the last 400 ms.
+*
+* @return loudness in LUFS, or <code>Float.NEGATIVE_INFINITY</code> for silence.
+*/
+public float getMomentaryLoudness()
+{
+return _momentary;
+}
+
+/**
+* Gets the short-term loudness: the K-weighted loudness over the last 3 s.
+*
+* @return loudness in LUFS, or <code>Float.NEGATIVE_INFINITY</code> for silence.
+*/
+public float getShortTermLoudness()
+{
+return _shortTerm;
+}
+
+/**
+* Gets the number of channels of this meter.
+*
+* @return number of channels.
+*/
+public int getChannels()
+{
+return _channels;
+}
+
+/**
+* Gets the sample rate of this meter.
+*
+* @return sample rate.
+*/
+public float getSampleRate()
+{
+return _sampleRate;
+}
+
+/**
+* Resets the sample and true peaks.
+* <p>
+* This method can be called from any thread; the peaks are reset when the next block is processed.
+*
+*/
+public void resetPeaks()
+{
+_resetPeaks = true;
+}
+
+/**
+* Resets all the measures and the filter states.
+* <p>
+* This method must not be called while a block is being processed.
+*
+*/
+public void reset()
+{
+for(int i = 0; i < _rmsSquares.length; i++) _rmsSquares[i] = 0.0f;
+for(int i = 0; i < _history.length; i++) _history[i] = 0.0f;
+for(int c = 0; c < _channels; c++)
+{
+	_rmsSum[c] = 0.0;
+	_peak[c] = 0.0f;
+	_truePeak[c] = 0.0f;
+}
+for(int i = 0; i < _shelf.length; i++)
+{
+	_shelf[i] = 0.0;
+	_highPass[i] = 0.0;
+}
+for(int i = 0; i < _blocks.length; i++) _blocks[i] = 0.0;
+_rmsIndex = 0;
+_historyIndex = 0;
+_blockSum = 0.0;
+_blockFrames = 0;
+_blockIndex = 0;
+_blocksFilled = 0;
+_resetPeaks = false;
+publish();
+_momentary = Float.NEGATIVE_INFINITY;
+_shortTerm = Float.NEGATIVE_INFINITY;
+}
+
+/**
+* Converts a linear value, like a peak or a RMS one, to dBFS.
+* @param value Linear value.
+*
+* @return value in dBFS, or <code>Float.NEGATIVE_INFINITY</code> for zero.
+*/
+public static float toDecibels(float value)
+{
+if(value <= 0.0f) return Float.NEGATIVE_INFINITY;
+return (float)(20.0 * Math.log10((double)value));
+}
+
+
+/*
+* Measures one sample of a channel.
+*/
+private void sample(int c, float x)
+{
+// sample peak
+float a = Math.abs(x);
+if(a > _peak[c]) _peak[c] = a;
+
+// true peak: 4 phases of a polyphase interpolator
+int base = c * 2 * TAPS;
+_history[base + _historyIndex] = x;
+_history[base + _historyIndex + TAPS] = x;
+int start = base + _historyIndex + 1;  // oldest sample
+float tp = a;
+for(int p = 0; p < OVERSAMPLING; p++)
+{
+	int h = p * TAPS;
+	float y = 0.0f;
+	for(int j = 0; j < TAPS; j++) y += _phases[h + j] * _history[start + j];
+	y = Math.abs(y);
+	if(y > tp) tp = y;
+}
+if(tp > _truePeak[c]) _truePeak[c] = tp;
+
+// windowed RMS
+int r = _rmsIndex * _channels + c;
+float square = x * x;
+_rmsSum[c] += (double)(square - _rmsSquares[r]);
+_rmsSquares[r] = square;
+
+// K-weighting: high shelf followed by high pass, transposed direct form II
+if(_weight[c] != 0.0)
+{
+	int s = 2 * c;
+	double in = (double)x;
+	double y1 = _b0 * in + _shelf[s];
+	_shelf[s] = _b1 * in - _a1 * y1 + _shelf[s + 1];
+	_shelf[s + 1] = _b2 * in - _a2 * y1;
+	double y2 = y1 + _highPass[s];
+	_highPass[s] = -2.0 * y1 - _c1 * y2 + _highPass[s + 1];
+	_highPass[s + 1] = y1 - _c2 * y2;
+	_blockSum += _weight[c] * y2 * y2;
+}
+}
+
+/*
+* Advances the windows after all the channels of a frame were measured.
+*/
+private void endFrame()
+{
+if(++_historyIndex == TAPS) _historyIndex = 0;
+if(++_rmsIndex == _rmsLength)
+{
+	_rmsIndex = 0;
+	// recompute the sums once per window, so the rounding errors do not accumulate
+	for(int c = 0; c < _channels; c++)
+	{
+		double sum = 0.0;
+		for(int i = c; i < _rmsSquares.length; i += _channels) sum += (double)_rmsSquares[i];
+		_rmsSum[c] = sum;
+	}
+}
+if(++_blockFrames == _blockLength)
+{
+	_blocks[_blockIndex] = _blockSum;
+	if(++_blockIndex == SHORT_TERM_BLOCKS) _blockIndex = 0;
+	if(_blocksFilled < SHORT_TERM_BLOCKS) _blocksFilled++;
+	_blockSum = 0.0;
+	_blockFrames = 0;
+	_momentary = loudness(MOMENTARY_BLOCKS);
+	_shortTerm = loudness(SHORT_TERM_BLOCKS);
+}
+}
+
+/*
+* Loudness over the last blocks of 100 ms.
+*/
+private float loudness(int count)
+{
+int n = Math.min(count, _blocksFilled);
+double sum = 0.0;
+int k = _blockIndex;
+for(int i = 0; i < n; i++)
+{
+	if(--k < 0) k = SHORT_TERM_BLOCKS - 1;
+	sum += _blocks[k];
+}
+if(n == 0 || sum <= 0.0) return Float.NEGATIVE_INFINITY;
+return (float)(-0.691 + 10.0 * Math.log10(sum / ((double)n * _blockLength)));
+}
+
+private void checkReset()
+{
+if(_resetPeaks)
+{
+	_resetPeaks = false;
+	for(int c = 0; c < _channels; c++)
+	{
+		_peak[c] = 0.0f;
+		_truePeak[c] = 0.0f;
+	}
+}
+}
+
+private void publish()
+{
+for(int c = 0; c < _channels; c++)
+{
+	_publishedPeak.set(c, Float.floatToRawIntBits(_peak[c]));
+	_publishedTruePeak.set(c, Float.floatToRawIntBits(_truePeak[c]));
+	double ms = Math.max(0.0, _rmsSum[c] / _rmsLength);
+	_publishedRms.set(c, Float.floatToRawIntBits((float)Math.sqrt(ms)));
+}
+}
+
+/*
+* Builds the 4 phases of a 48 taps windowed sinc interpolator, each one in order from the oldest to the newest sample.
+*/
+private static float[] buildPhases()
+{
+int length = OVERSAMPLING * TAPS;
+double center = (length - 1) / 2.0;
+float[] phases = new float[length];
+for(int p = 0; p < OVERSAMPLING; p++)
+{
+	double sum = 0.0;
+	double[] h = new double[TAPS];
+	for(int j = 0; j < TAPS; j++)
+	{
+		int k = j * OVERSAMPLING + p;
+		double t = (k - center) / OVERSAMPLING;
+		double sinc = (t == 0.0) ? 1.0 : Math.sin(Math.PI * t) / (Math.PI * t);
+		double w = 0.54 - 0.46 * Math.cos(2.0 * Math.PI * (k + 0.5) / length);
+		h[j] = sinc * w;
+		sum += h[j];
+	}
+	// h[j] applies to x[n-j]; stored reversed to be applied from the oldest sample
+	for(int j = 0; j < TAPS; j++) phases[p * TAPS + (TAPS - 1 - j)] = (float)(h[j] / sum);
+}
+return phases;
+}
+
+/*
+* K-weighting filter coefficients for the sample rate of this meter, as in ITU-R BS.1770.
+*/
+private void buildKWeighting()
+{
+double f0 = 1681.974450955533;
+double g = 3.999843853973347;
+double q = 0.7071752369554196;
+double k = Math.tan(Math.PI * f0 / _sampleRate);
+double vh = Math.pow(10.0, g / 20.0);
+double vb = Math.pow(vh, 0.4996667741545416);
+double a0 = 1.0 + k / q + k * k;
+_b0 = (vh + vb * k / q + k * k) / a0;
+_b1 = 2.0 * (k * k - vh) / a0;
+_b2 = (vh - vb * k / q + k * k) / a0;
+_a1 = 2.0 * (k * k - 1.0) / a0;
+_a2 = (1.0 - k / q + k * k) / a0;
+
+f0 = 38.13547087602444;
+q = 0.5003270373238773;
+k = Math.tan(Math.PI * f0 / _sampleRate);
+a0 = 1.0 + k / q + k * k;
+_c1 = 2.0 * (k * k - 1.0) / a0;
+_c2 = (1.0 - k / q + k * k) / a0;
+}
+
+
+private float _sampleRate;
+private int _channels;
+
+private float[] _peak;
+private float[] _truePeak;
+private AtomicIntegerArray _publishedPeak;
+private AtomicIntegerArray _publishedTruePeak;
+private AtomicIntegerArray _publishedRms;
+private volatile boolean _resetPeaks;
+
+private int _rmsLength;
+private int _rmsIndex;
+private float[] _rmsSquares;  // interleaved ring of squared samples
+private double[] _rmsSum;
+
+private float[] _history;  // per channel, the last samples written twice, so they are contiguous
+private int _historyIndex;
+private float[] _phases;
+
+private double[] _weight;
+private double[] _shelf;
+private double[] _highPass;
+private double _b0, _b1, _b2, _a1, _a2;  // high shelf
+private double _c1, _c2;  // high pass ( numerator: 1, -2, 1 )
+
+private int _blockLength;
+private int _blockFrames;
+private double _blockSum;
+private double[] _blocks;  // ring of 100 ms blocks
+private int _blockIndex;
+private int _blocksFilled;
+private volatile float _momentary;
+private volatile float _shortTerm;
+
+private static final int OVERSAMPLING = 4;
+private static final int TAPS = 12;
+private static final int MOMENTARY_BLOCKS = 4;
+private static final int SHORT_TERM_BLOCKS = 30;
+}
+
+// END
@@ -10,6 +10,9 @@
 * The <code>SpectralAnalyzer</code> implements windowing automatically but, in order to manage 'hop size' there is the <code>FrameShifter</code> available.
 * <p>
 * There is also a spectrum list class to act as a container for spectral data.
+* <p>
+* The <code>Meter</code> class measures sample peak, true peak, RMS and EBU R 128 loudness of a signal block by block,
+* and its values can be read from another thread without locking.
 *
 * @author Ismael Mosquera Rivera.
 *
@@ -28,6 +28,7 @@
 
 package imr.sound.audio.filter;
 
+import imr.util.iArray;
 import imr.math.Range;
 import imr.sound.audio.window.Window;
 import imr.sound.audio.window.HammingWindow;
@@ -207,6 +208,24 @@ public float[] filter(float[] x)
 	return _conv.convolve(x, getFilter(x.length));
 }
 
+/**
+* Gets the impulse response ( filter kernel ) of this filter.
+* <p>
+* The kernel has <code>getSize()</code> coefficients and it can be used to filter a signal in the time domain,
+* for example block by block in an <code>imr.sound.audio.graph.FilterNode</code> object.
+*
+* @return a copy of the filter kernel.
+*
+*/
+public float[] getKernel()
+{
+_mustUpdate = true;
+float[] kernel = (float[])iArray.clone(getFilter(_size));
+// the kernel built here has not the size of the signal, so it must be rebuilt next time filter is called
+_currentSize = -1;
+return kernel;
+}
+
 
 /**
 * This method must be implementted in subclasses of <code>Filter</code> in order to get the desired filter kernel.
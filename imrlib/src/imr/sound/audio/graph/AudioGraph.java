@@ -0,0 +1,482 @@
+/*
+ * Copyright (c) 2026 Ismael Mosquera Rivera
+ *
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+/*
+* AudioGraph.java
+*
+* imr-lib
+*
+* Author: Ismael Mosquera Rivera
+*/
+
+package imr.sound.audio.graph;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+* The <code>AudioGraph</code> class processes a set of connected <code>AudioNode</code> objects block by block.
+* <p>
+* The steps are:
+* <ul>
+* <li>Instantiate an <code>AudioGraph</code> object with the wanted block size and sample rate.</li>
+* <li>Add the nodes calling the <code>add</code> method.</li>
+* <li>Connect output ports to input ports calling the <code>connect</code> method.</li>
+* <li>Call the <code>prepare</code> method.</li>
+* <li>Call the <code>process</code> method once for each block.</li>
+* </ul>
+* The <code>prepare</code> method sorts the nodes in topological order, so that a node is always processed after the nodes it reads from,
+* and allocates all the block buffers. After that, processing a block does not allocate any memory.
+* <p>
+* Nodes having the same depth in the graph do not depend on each other, so they can be processed in parallel.
+* Call the <code>setThreads</code> method with a value greater than one to enable it.
+* The worker threads are started when the graph is prepared and they are stopped calling the <code>close</code> method.
+* Parallel processing only pays off when independent branches have a noticeable amount of work per block.
+* <p>
+* Example:
+* <p>
+* <code>
+* AudioGraph graph = new AudioGraph(512, 44100.0f);
+* OscillatorNode osc = (OscillatorNode)graph.add(new OscillatorNode(new Oscillator(0.8f, 440.0f, 44100.0f)));
+* PlayerNode out = (PlayerNode)graph.add(new PlayerNode(new RawDataPlayer()));
+* graph.connect(osc, 0, out, 0);
+* graph.prepare();
+* for(int i = 0; i < nblocks; i++) graph.process();
+* </code>
+* <p>
+* This class uses assertions. so, you have to start your application with the '-ea' modifier
+* which enables assertions.
+*
+* @see imr.sound.audio.graph.AudioNode
+*
+* @author Ismael Mosquera Rivera
+*
+*/
+public final class AudioGraph
+{
+
+/**
+* Constructor.
+* Makes a new instance of an <code>AudioGraph</code> object.
+* Default values: block size = 512, sample rate = 44100.
+*
+*/
+public AudioGraph()
+{
+this(512, 44100.0f);
+}
+
+/**
+* Constructor.
+* Makes a new instance of an <code>AudioGraph</code> object.
+* @param blockSize Number of samples per block ( must be greater than zero ).
+* @param sampleRate Sample rate.
+*
+*/
+public AudioGraph(int blockSize, float sampleRate)
+{
+assert (blockSize > 0): "bad block size: it must be greater than zero.";
+_blockSize = blockSize;
+_sampleRate = sampleRate;
+_threads = 1;
+_prepared = false;
+_nodeList = new ArrayList<AudioNode>();
+_nodes = new AudioNode[0];
+_plan = new AudioNode[0][][];
+_workers = new Worker[0];
+_pending = new AtomicInteger(0);
+_generation = 0;
+_closed = false;
+}
+
+/**
+* Adds a node to this graph.
+* @param node Node to be added.
+*
+* @return the added node.
+*/
+public AudioNode add(AudioNode node)
+{
+if(!_nodeList.contains(node)) _nodeList.add(node);
+_prepared = false;
+return node;
+}
+
+/**
+* Removes a node from this graph.
+* All the connections from and to the node are removed too.
+* @param node Node to be removed.
+*
+*/
+public void remove(AudioNode node)
+{
+if(!_nodeList.remove(node)) return;
+for(int i = 0; i < node.inputs(); i++) node.getInput(i).setSource(null);
+for(int k = 0; k < _nodeList.size(); k++)
+{
+	AudioNode n = _nodeList.get(k);
+	for(int i = 0; i < n.inputs(); i++)
+	{
+		OutputPort src = n.getInput(i).getSource();
+		if(src != null && src.getOwner() == node) n.getInput(i).setSource(null);
+	}
+}
+_prepared = false;
+}
+
+/**
+* Connects an output port to an input port.
+* <p>
+* Both ports must have the same type; an input port already connected is reconnected to the new source.
+* @param src Source node.
+* @param output Index of the output port in the source node.
+* @param dst Destination node.
+* @param input Index of the input port in the destination node.
+*
+*/
+public void connect(AudioNode src, int output, AudioNode dst, int input)
+{
+assert (_nodeList.contains(src) && _nodeList.contains(dst)): "connect: both nodes must be added to the graph.";
+OutputPort out = src.getOutput(output);
+InputPort in = dst.getInput(input);
+assert (out.getType() == in.getType()): "connect: port types do not match.";
+in.setSource(out);
+_prepared = false;
+}
+
+/**
+* Disconnects an input port.
+* @param dst Node owning the input port.
+* @param input Index of the input port.
+*
+*/
+public void disconnect(AudioNode dst, int input)
+{
+dst.getInput(input).setSource(null);
+_prepared = false;
+}
+
+/**
+* Sets the number of threads used to process a block.
+* <p>
+* The calling thread is one of them, so a value of 1 means serial processing ( default ).
+* @param n Number of threads ( must be greater than zero ).
+*
+*/
+public void setThreads(int n)
+{
+assert (n > 0): "bad number of threads: it must be greater than zero.";
+if(n == _threads) return;
+stopWorkers();
+_threads = n;
+_prepared = false;
+}
+
+/**
+* Gets the number of threads used to process a block.
+*
+* @return number of threads.
+*/
+public int getThreads()
+{
+return _threads;
+}
+
+/**
+* Gets the block size.
+*
+* @return block size.
+*/
+public int getBlockSize()
+{
+return _blockSize;
+}
+
+/**
+* Gets the sample rate.
+*
+* @return sample rate.
+*/
+public float getSampleRate()
+{
+return _sampleRate;
+}
+
+/**
+* Gets the number of nodes in this graph.
+*
+* @return number of nodes.
+*/
+public int size()
+{
+return _nodeList.size();
+}
+
+/**
+* Prepares this graph for processing.
+* <p>
+* Sorts the nodes in topological order, groups them by depth and allocates all the buffers.
+* This method is automatically called by <code>process</code> if the graph was modified.
+*
+* @return <code>true</code> if there was a success or <code>false</code> if the graph has a cycle.
+*/
+public boolean prepare()
+{
+int n = _nodeList.size();
+int[] depth = new int[n];
+int[] indegree = new int[n];
+for(int k = 0; k < n; k++)
+{
+	AudioNode node = _nodeList.get(k);
+	for(int i = 0; i < node.inputs(); i++)
+	{
+		if(sourceIndex(node.getInput(i)) >= 0) indegree[k]++;
+	}
+}
+// Kahn's algorithm; the depth of a node is the length of the longest path reaching it.
+int[] queue = new int[n];
+int head = 0;
+int tail = 0;
+for(int k = 0; k < n; k++)
+{
+	if(indegree[k] == 0) queue[tail++] = k;
+}
+int maxDepth = 0;
+while(head < tail)
+{
+	int k = queue[head++];
+	AudioNode node = _nodeList.get(k);
+	for(int j = 0; j < n; j++)
+	{
+		AudioNode next = _nodeList.get(j);
+		for(int i = 0; i < next.inputs(); i++)
+		{
+			OutputPort src = next.getInput(i).getSource();
+			if(src == null || src.getOwner() != node) continue;
+			if(depth[k]+1 > depth[j]) depth[j] = depth[k]+1;
+			if(--indegree[j] == 0)
+			{
+				queue[tail++] = j;
+				if(depth[j] > maxDepth) maxDepth = depth[j];
+			}
+		}
+	}
+}
+if(tail != n) return false;
+
+_nodes = new AudioNode[n];
+for(int k = 0; k < n; k++)
+{
+	_nodes[k] = _nodeList.get(queue[k]);
+	_nodes[k].prepare(_blockSize, _sampleRate);
+}
+buildPlan(depth, maxDepth);
+startWorkers();
+_prepared = true;
+return true;
+}
+
+/**
+* Processes one block.
+* <p>
+* Every node in the graph is processed once, in topological order.
+*
+*/
+public void process()
+{
+if(!_prepared && !prepare()) return;
+if(_threads == 1)
+{
+	for(int k = 0; k < _nodes.length; k++) _nodes[k].process(_blockSize);
+	return;
+}
+for(int level = 0; level < _plan.length; level++)
+{
+	AudioNode[][] share = _plan[level];
+	if(share.length == 1)
+	{
+		AudioNode[] list = share[0];
+		for(int k = 0; k < list.length; k++) list[k].process(_blockSize);
+		continue;
+	}
+	_caller = Thread.currentThread();
+	_level = level;
+	_pending.set(_workers.length);
+	_generation++;
+	for(int w = 0; w < _workers.length; w++) LockSupport.unpark(_workers[w]);
+	AudioNode[] list = share[share.length-1];
+	for(int k = 0; k < list.length; k++) list[k].process(_blockSize);
+	while(_pending.get() != 0) LockSupport.park(this);
+}
+}
+
+/**
+* Processes a number of consecutive blocks.
+* @param nblocks Number of blocks to process.
+*
+*/
+public void process(int nblocks)
+{
+for(int i = 0; i < nblocks; i++) process();
+}
+
+/**
+* Stops the worker threads, if any.
+* <p>
+* The graph can still be used; the workers are started again the next time it is prepared.
+*
+*/
+public void close()
+{
+stopWorkers();
+_prepared = false;
+}
+
+
+/*
+* Gets the index in the node list of the node feeding the port passed as parameter, or -1.
+*/
+private int sourceIndex(InputPort port)
+{
+OutputPort src = port.getSource();
+if(src == null) return -1;
+return _nodeList.indexOf(src.getOwner());
+}
+
+/*
+* Groups the sorted nodes by depth and splits every group among the threads.
+* A group is only split when it has more than one node.
+*/
+private void buildPlan(int[] depth, int maxDepth)
+{
+int n = _nodes.length;
+_plan = new AudioNode[(n == 0) ? 0 : maxDepth+1][][];
+for(int level = 0; level < _plan.length; level++)
+{
+	ArrayList<AudioNode> group = new ArrayList<AudioNode>();
+	for(int k = 0; k < n; k++)
+	{
+		if(depth[_nodeList.indexOf(_nodes[k])] == level) group.add(_nodes[k]);
+	}
+	int nshares = Math.min(_threads, group.size());
+	if(nshares < 1) nshares = 1;
+	_plan[level] = new AudioNode[nshares][];
+	for(int s = 0; s < nshares; s++)
+	{
+		int count = 0;
+		for(int k = s; k < group.size(); k += nshares) count++;
+		_plan[level][s] = new AudioNode[count];
+		for(int k = s, j = 0; k < group.size(); k += nshares) _plan[level][s][j++] = group.get(k);
+	}
+}
+}
+
+private void startWorkers()
+{
+if(_threads == 1 || _workers.length == _threads-1) return;
+stopWorkers();
+_closed = false;
+_workers = new Worker[_threads-1];
+for(int w = 0; w < _workers.length; w++)
+{
+	_workers[w] = new Worker(w);
+	_workers[w].start();
+}
+}
+
+private void stopWorkers()
+{
+if(_workers.length == 0) return;
+_closed = true;
+for(int w = 0; w < _workers.length; w++) LockSupport.unpark(_workers[w]);
+for(int w = 0; w < _workers.length; w++)
+{
+	try
+	{
+		_workers[w].join();
+	}
+	catch(InterruptedException e)
+	{
+		Thread.currentThread().interrupt();
+	}
+}
+_workers = new Worker[0];
+}
+
+
+private int _blockSize;
+private float _sampleRate;
+private int _threads;
+private boolean _prepared;
+private ArrayList<AudioNode> _nodeList;
+private AudioNode[] _nodes;
+private AudioNode[][][] _plan;  // [level][share][node]
+private Worker[] _workers;
+
+// state shared with the workers; _generation is written last so that the others are visible
+private final AtomicInteger _pending;
+private volatile int _level;
+private volatile Thread _caller;
+private volatile long _generation;
+private volatile boolean _closed;
+
+
+/*
+* A worker processes its share of every level of the graph.
+* It waits parked for a new generation, processes its nodes, if any, and notifies the calling thread when it is the last one.
+* Every worker takes part in every generation, so that the pending counter always matches.
+*/
+private final class Worker extends Thread
+{
+public Worker(int index)
+{
+	super("imr-audio-graph-" + index);
+	_index = index;
+	// read here, in the thread preparing the graph, so that no generation can be missed
+	_seen = _generation;
+	setDaemon(true);
+}
+
+public void run()
+{
+long seen = _seen;
+while(true)
+{
+	while(_generation == seen && !_closed) LockSupport.park(this);
+	if(_closed) return;
+	seen = _generation;
+	AudioNode[][] share = _plan[_level];
+	if(_index < share.length-1)
+	{
+		AudioNode[] list = share[_index];
+		for(int k = 0; k < list.length; k++) list[k].process(_blockSize);
+	}
+	if(_pending.decrementAndGet() == 0) LockSupport.unpark(_caller);
+}
+}
+
+private final int _index;
+private final long _seen;
+}
+
+}
+
+// END
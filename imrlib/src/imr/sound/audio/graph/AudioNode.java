@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2026 Ismael Mosquera Rivera
+ *
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+/*
+* AudioNode.java
+*
+* imr-lib
+*
+* Author: Ismael Mosquera Rivera
+*/
+
+package imr.sound.audio.graph;
+
+import java.util.ArrayList;
+
+/**
+* The <code>AudioNode</code> abstract class is the base class for all the nodes in an <code>AudioGraph</code>.
+* <p>
+* A node declares its input and output ports in its constructor, and implements the <code>process</code> method,
+* where it reads the blocks of its input ports and writes the blocks of its output ports.
+* <p>
+* All the buffers are allocated when the graph is prepared, so a node must not allocate memory in its <code>process</code> method.
+* If a node needs some extra work memory, it can override the <code>prepare</code> method to allocate it.
+* <p>
+* Example:
+* <p>
+* <code>
+* public class GainNode extends AudioNode
+* {
+* public GainNode() { addInput("in", PortType.pAudio); addOutput("out", PortType.pAudio); }
+* public void process(int nframes)
+* {
+* float[] x = getInput(0).getBuffer();
+* float[] y = getOutput(0).getBuffer();
+* for(int i = 0; i < nframes; i++) y[i] = 0.5f * x[i];
+* }
+* }
+* </code>
+*
+* @see imr.sound.audio.graph.AudioGraph
+* @see imr.sound.audio.graph.PortType
+*
+* @author Ismael Mosquera Rivera
+*
+*/
+public abstract class AudioNode
+{
+
+/**
+* Constructor.
+* Makes a new instance of an <code>AudioNode</code> object.
+* Since this is an abstract class, it cannot be instantiated directly, but through a class derived from this one.
+*
+*/
+public AudioNode()
+{
+_inputs = new ArrayList<InputPort>();
+_outputs = new ArrayList<OutputPort>();
+_blockSize = 0;
+_sampleRate = 0.0f;
+}
+
+/**
+* Gets an input port by index.
+* @param i index of the port.
+*
+* @return input port.
+*/
+public InputPort getInput(int i)
+{
+return _inputs.get(i);
+}
+
+/**
+* Gets an output port by index.
+* @param i index of the port.
+*
+* @return output port.
+*/
+public OutputPort getOutput(int i)
+{
+return _outputs.get(i);
+}
+
+/**
+* Gets the number of input ports of this node.
+*
+* @return number of input ports.
+*/
+public int inputs()
+{
+return _inputs.size();
+}
+
+/**
+* Gets the number of output ports of this node.
+*
+* @return number of output ports.
+*/
+public int outputs()
+{
+return _outputs.size();
+}
+
+/**
+* Gets the block size this node was prepared for.
+*
+* @return block size ( number of samples ).
+*/
+public int getBlockSize()
+{
+return _blockSize;
+}
+
+/**
+* Gets the sample rate this node was prepared for.
+*
+* @return sample rate.
+*/
+public float getSampleRate()
+{
+return _sampleRate;
+}
+
+/**
+* Prepares this node to process blocks.
+* <p>
+* This method is called by the graph before processing starts, and allocates the port buffers.
+* Subclasses overriding it must call <code>super.prepare(blockSize, sampleRate)</code>.
+* @param blockSize Number of samples per block.
+* @param sampleRate Sample rate.
+*
+*/
+public void prepare(int blockSize, float sampleRate)
+{
+_blockSize = blockSize;
+_sampleRate = sampleRate;
+for(int i = 0; i < _inputs.size(); i++) _inputs.get(i).allocate(blockSize);
+for(int i = 0; i < _outputs.size(); i++) _outputs.get(i).allocate(blockSize);
+}
+
+/**
+* Processes a block.
+* <p>
+* Reads the input port buffers and fills the output port buffers.
+* @param nframes Number of samples to process ( the block size ).
+*
+*/
+public abstract void process(int nframes);
+
+
+/**
+* Adds an input port to this node.
+* @param name Name of the port.
+* @param type Port type.
+*
+* @return the new input port.
+*
+* @see imr.sound.audio.graph.PortType
+*/
+protected InputPort addInput(String name, int type)
+{
+InputPort port = new InputPort(this, name, type);
+_inputs.add(port);
+return port;
+}
+
+/**
+* Adds an output port to this node.
+* @param name Name of the port.
+* @param type Port type.
+*
+* @return the new output port.
+*
+* @see imr.sound.audio.graph.PortType
+*/
+protected OutputPort addOutput(String name, int type)
+{
+OutputPort port = new OutputPort(this, name, type);
+_outputs.add(port);
+return port;
+}
+
+
+protected int _blockSize;
+protected float _sampleRate;
+
+private ArrayList<InputPort> _inputs;
+private ArrayList<OutputPort> _outputs;
+}
+
+// END
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2026 Ismael Mosquera Rivera
+ *
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+/*
+* ConstantNode.java
+*
+* imr-lib
+*
+* Author: Ismael Mosquera Rivera
+*/
+
+package imr.sound.audio.graph;
+
+/**
+* The <code>ConstantNode</code> class outputs a constant control value.
+* <p>
+* It is useful to drive control ports, for example the frequency port of an <code>OscillatorNode</code> object.
+* The value can be set from any thread; the new value is output from the next block on.
+* <p>
+* Ports:
+* <ul>
+* <li>output 0: "out", control port.</li>
+* </ul>
+*
+* @see imr.sound.audio.graph.OscillatorNode
+* @see imr.sound.audio.graph.PortType
+*
+* @author Ismael Mosquera Rivera
+*
+*/
+public class ConstantNode extends AudioNode
+{
+
+/**
+* Constructor.
+* Makes a new instance of a <code>ConstantNode</code> object.
+* @param value Initial value.
+*
+*/
+public ConstantNode(float value)
+{
+super();
+_value = value;
+addOutput("out", PortType.pControl);
+}
+
+/**
+* Gets the current value.
+*
+* @return value.
+*/
+public float getValue()
+{
+return _value;
+}
+
+/**
+* Sets the value to output.
+* @param value New value.
+*
+*/
+public void setValue(float value)
+{
+_value = value;
+}
+
+/**
+* Processes a block.
+* @param nframes Number of samples to process.
+*
+*/
+public void process(int nframes)
+{
+float[] out = getOutput(0).getBuffer();
+float v = _value;
+for(int i = 0; i < nframes; i++) out[i] = v;
+}
+
+
+private volatile float _value;
+}
+
+// END
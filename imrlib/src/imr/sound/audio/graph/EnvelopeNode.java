@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2026 Ismael Mosquera Rivera
+ *
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+/*
+* EnvelopeNode.java
+*
+* imr-lib
+*
+* Author: Ismael Mosquera Rivera
+*/
+
+package imr.sound.audio.graph;
+
+import imr.sound.audio.synthesis.Envelope;
+
+/**
+* The <code>EnvelopeNode</code> class adapts an <code>Envelope</code> object as a node of an <code>AudioGraph</code>.
+* <p>
+* The envelope is applied to the incoming signal block by block, starting at the first value of the envelope.
+* Once the envelope is over, the node outputs silence until the <code>trigger</code> method is called again.
+* <p>
+* Ports:
+* <ul>
+* <li>input 0: "in", audio port.</li>
+* <li>output 0: "out", audio port.</li>
+* </ul>
+*
+* @see imr.sound.audio.synthesis.Envelope
+* @see imr.sound.audio.graph.AudioGraph
+*
+* @author Ismael Mosquera Rivera
+*
+*/
+public class EnvelopeNode extends AudioNode
+{
+
+/**
+* Constructor.
+* Makes a new instance of an <code>EnvelopeNode</code> object.
+* @param env <code>Envelope</code> object to be adapted.
+*
+*/
+public EnvelopeNode(Envelope env)
+{
+super();
+_env = env;
+_position = 0;
+_triggered = true;
+addInput("in", PortType.pAudio);
+addOutput("out", PortType.pAudio);
+}
+
+/**
+* Gets the adapted envelope.
+*
+* @return <code>Envelope</code> object.
+*/
+public Envelope getEnvelope()
+{
+return _env;
+}
+
+/**
+* Restarts the envelope from its first value at the next block.
+* <p>
+* This method can be called from any thread.
+*
+*/
+public void trigger()
+{
+_triggered = true;
+}
+
+/**
+* Processes a block.
+* @param nframes Number of samples to process.
+*
+*/
+public void process(int nframes)
+{
+if(_triggered)
+{
+	_triggered = false;
+	_position = 0;
+}
+float[] in = getInput(0).getBuffer();
+float[] out = getOutput(0).getBuffer();
+System.arraycopy(in, 0, out, 0, nframes);
+_env.apply(out, _position);
+_position += nframes;
+}
+
+
+private Envelope _env;
+private int _position;
+private volatile boolean _triggered;
+}
+
+// END
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2026 Ismael Mosquera Rivera
+ *
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+/*
+* FilterNode.java
+*
+* imr-lib
+*
+* Author: Ismael Mosquera Rivera
+*/
+
+package imr.sound.audio.graph;
+
+import imr.sound.audio.filter.Filter;
+
+/**
+* The <code>FilterNode</code> class adapts a <code>Filter</code> object as a node of an <code>AudioGraph</code>.
+* <p>
+* The <code>filter</code> method of <code>Filter</code> works on a whole signal.
+* To process a stream block by block, this node takes the kernel of the filter and performs the convolution
+* in the time domain, keeping the last input samples from one block to the next one.
+* So, the output is the same as filtering the whole signal at once, but no memory is allocated per block.
+* <p>
+* If you change the parameters of the filter, call the <code>update</code> method so that the new kernel is used.
+* <p>
+* Ports:
+* <ul>
+* <li>input 0: "in", audio port.</li>
+* <li>output 0: "out", audio port.</li>
+* </ul>
+*
+* @see imr.sound.audio.filter.Filter
+* @see imr.sound.audio.graph.AudioGraph
+*
+* @author Ismael Mosquera Rivera
+*
+*/
+public class FilterNode extends AudioNode
+{
+
+/**
+* Constructor.
+* Makes a new instance of a <code>FilterNode</code> object.
+* @param filter <code>Filter</code> object to be adapted.
+*
+*/
+public FilterNode(Filter filter)
+{
+super();
+_filter = filter;
+_kernel = null;
+_history = null;
+_pos = 0;
+addInput("in", PortType.pAudio);
+addOutput("out", PortType.pAudio);
+}
+
+/**
+* Gets the adapted filter.
+*
+* @return <code>Filter</code> object.
+*/
+public Filter getFilter()
+{
+return _filter;
+}
+
+/**
+* Takes the kernel of the filter again and clears the filter state.
+* <p>
+* Call this method after changing the parameters of the filter.
+* It must not be called while the graph is processing a block.
+*
+*/
+public void update()
+{
+_kernel = _filter.getKernel();
+_history = new float[2*_kernel.length];
+_pos = 0;
+}
+
+/**
+* Prepares this node to process blocks.
+* @param blockSize Number of samples per block.
+* @param sampleRate Sample rate.
+*
+*/
+public void prepare(int blockSize, float sampleRate)
+{
+super.prepare(blockSize, sampleRate);
+update();
+}
+
+/**
+* Processes a block.
+* @param nframes Number of samples to process.
+*
+*/
+public void process(int nframes)
+{
+float[] in = getInput(0).getBuffer();
+float[] out = getOutput(0).getBuffer();
+float[] h = _kernel;
+float[] x = _history;
+int taps = h.length;
+for(int i = 0; i < nframes; i++)
+{
+	// the history is stored twice, so that x[_pos+k] is the input sample k samples ago without wrapping
+	_pos = (_pos == 0) ? taps-1 : _pos-1;
+	x[_pos] = x[_pos+taps] = in[i];
+	float sum = 0.0f;
+	for(int k = 0; k < taps; k++) sum += h[k] * x[_pos+k];
+	out[i] = sum;
+}
+}
+
+
+private Filter _filter;
+private float[] _kernel;
+private float[] _history;
+private int _pos;
+}
+
+// END
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2026 Ismael Mosquera Rivera
+ *
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+/*
+* InputPort.java
+*
+* imr-lib
+*
+* Author: Ismael Mosquera Rivera
+*/
+
+package imr.sound.audio.graph;
+
+/**
+* The <code>InputPort</code> class reads the block produced by the <code>OutputPort</code> connected to it.
+* <p>
+* An input port is connected at most to one output port.
+* If it is not connected, it reads a block of silence.
+* <p>
+* No data is copied; the input port just serves the buffer of its source.
+*
+* @see imr.sound.audio.graph.AudioNode
+* @see imr.sound.audio.graph.OutputPort
+*
+* @author Ismael Mosquera Rivera
+*
+*/
+public final class InputPort
+{
+
+/**
+* Constructor.
+* Makes a new instance of an <code>InputPort</code> object.
+* @param owner Node owning this port.
+* @param name Name of the port.
+* @param type Port type.
+*
+* @see imr.sound.audio.graph.PortType
+*/
+public InputPort(AudioNode owner, String name, int type)
+{
+_owner = owner;
+_name = name;
+_type = type;
+_source = null;
+_silence = new float[0];
+}
+
+/**
+* Gets the node owning this port.
+*
+* @return owner node.
+*/
+public AudioNode getOwner()
+{
+return _owner;
+}
+
+/**
+* Gets the name of this port.
+*
+* @return port name.
+*/
+public String getName()
+{
+return _name;
+}
+
+/**
+* Gets the type of this port.
+*
+* @return port type.
+*
+* @see imr.sound.audio.graph.PortType
+*/
+public int getType()
+{
+return _type;
+}
+
+/**
+* Gets the output port connected to this one.
+*
+* @return source port or <code>null</code> if this port is not connected.
+*/
+public OutputPort getSource()
+{
+return _source;
+}
+
+/**
+* Checks if this port is connected.
+*
+* @return <code>true</code> if connected or <code>false</code> otherwise.
+*/
+public boolean isConnected()
+{
+return (_source != null);
+}
+
+/**
+* Gets the block to be read by the owner node.
+*
+* @return the buffer of the connected output port, or a block of silence if this port is not connected.
+*/
+public float[] getBuffer()
+{
+return (_source != null) ? _source.getBuffer() : _silence;
+}
+
+
+/*
+* Sets the source port; called by the graph.
+*/
+void setSource(OutputPort source)
+{
+_source = source;
+}
+
+/*
+* Allocates the silence block; called when the graph is prepared.
+*/
+void allocate(int blockSize)
+{
+if(_silence.length != blockSize) _silence = new float[blockSize];
+}
+
+
+private AudioNode _owner;
+private String _name;
+private int _type;
+private OutputPort _source;
+private float[] _silence;
+}
+
+// END
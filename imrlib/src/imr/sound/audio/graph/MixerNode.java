@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2026 Ismael Mosquera Rivera
+ *
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+/*
+* MixerNode.java
+*
+* imr-lib
+*
+* Author: Ismael Mosquera Rivera
+*/
+
+package imr.sound.audio.graph;
+
+/**
+* The <code>MixerNode</code> class mixes n-tracks into one, in the same way as an <code>AudioMixer</code> object does,
+* but block by block.
+* <p>
+* The mixed block is the average of the connected inputs; inputs which are not connected are not taken in account.
+* <p>
+* Ports:
+* <ul>
+* <li>inputs 0 .. n-1: "in0" .. "in(n-1)", audio ports.</li>
+* <li>output 0: "out", audio port.</li>
+* </ul>
+*
+* @see imr.sound.audio.AudioMixer
+* @see imr.sound.audio.graph.AudioGraph
+*
+* @author Ismael Mosquera Rivera
+*
+*/
+public class MixerNode extends AudioNode
+{
+
+/**
+* Constructor.
+* Makes a new instance of a <code>MixerNode</code> object.
+* @param ntracks Number of tracks to mix ( must be greater than zero ).
+*
+*/
+public MixerNode(int ntracks)
+{
+super();
+assert (ntracks > 0): "bad number of tracks: it must be greater than zero.";
+for(int i = 0; i < ntracks; i++) addInput("in" + i, PortType.pAudio);
+addOutput("out", PortType.pAudio);
+}
+
+/**
+* Processes a block.
+* @param nframes Number of samples to process.
+*
+*/
+public void process(int nframes)
+{
+float[] out = getOutput(0).getBuffer();
+for(int i = 0; i < nframes; i++) out[i] = 0.0f;
+int count = 0;
+for(int k = 0; k < inputs(); k++)
+{
+	InputPort port = getInput(k);
+	if(!port.isConnected()) continue;
+	float[] in = port.getBuffer();
+	for(int i = 0; i < nframes; i++) out[i] += in[i];
+	count++;
+}
+if(count < 2) return;
+// normalize the result
+float t = 1.0f/(float)count;
+for(int i = 0; i < nframes; i++) out[i] *= t;
+}
+
+}
+
+// END
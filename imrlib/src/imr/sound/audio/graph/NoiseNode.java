@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2026 Ismael Mosquera Rivera
+ *
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+/*
+* NoiseNode.java
+*
+* imr-lib
+*
+* Author: Ismael Mosquera Rivera
+*/
+
+package imr.sound.audio.graph;
+
+import imr.sound.audio.synthesis.RandomNoise;
+
+/**
+* The <code>NoiseNode</code> class adapts a <code>RandomNoise</code> object as a node of an <code>AudioGraph</code>.
+* <p>
+* Ports:
+* <ul>
+* <li>output 0: "out", audio port.</li>
+* </ul>
+*
+* @see imr.sound.audio.synthesis.RandomNoise
+* @see imr.sound.audio.graph.AudioGraph
+*
+* @author Ismael Mosquera Rivera
+*
+*/
+public class NoiseNode extends AudioNode
+{
+
+/**
+* Constructor.
+* Makes a new instance of a <code>NoiseNode</code> object.
+* @param noise <code>RandomNoise</code> object to be adapted.
+*
+*/
+public NoiseNode(RandomNoise noise)
+{
+super();
+_noise = noise;
+addOutput("out", PortType.pAudio);
+}
+
+/**
+* Gets the adapted noise generator.
+*
+* @return <code>RandomNoise</code> object.
+*/
+public RandomNoise getNoise()
+{
+return _noise;
+}
+
+/**
+* Processes a block.
+* @param nframes Number of samples to process.
+*
+*/
+public void process(int nframes)
+{
+_noise.read(getOutput(0).getBuffer(), 0, nframes);
+}
+
+
+private RandomNoise _noise;
+}
+
+// END
@@ -0,0 +1,259 @@
+/*
+ * Copyright (c) 2026 Ismael Mosquera Rivera
+ *
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+/*
+* OfflineRenderer.java
+*
+* imr-lib
+*
+* Author: Ismael Mosquera Rivera
+*/
+
+package imr.sound.audio.graph;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import imr.sound.audio.WaveFileWriter;
+
+/**
+* The <code>OfflineRenderer</code> class renders audio graphs to *.wav files faster than realtime.
+* <p>
+* No sound device is used: the graph of a <code>RenderJob</code> is processed block by block as fast as possible,
+* and each block is written to the file as soon as it is produced, so the memory used does not depend on the duration.
+* <p>
+* Independent jobs can be rendered in parallel on a fixed number of threads,
+* and each job gives a <code>RenderReport</code> telling its render speed as a multiple of realtime.
+* <p>
+* Example:
+* <p>
+* <code>
+* OfflineRenderer renderer = new OfflineRenderer();
+* List&lt;RenderReport&gt; reports = renderer.renderAll(jobs);
+* for(RenderReport r : reports) System.out.println(r);
+* renderer.shutdown();
+* </code>
+*
+* @see imr.sound.audio.graph.RenderJob
+* @see imr.sound.audio.graph.RenderReport
+* @see imr.sound.audio.WaveFileWriter
+*
+* @author Ismael Mosquera Rivera
+*
+*/
+public final class OfflineRenderer
+{
+
+/**
+* Constructor.
+* Makes a new instance of an <code>OfflineRenderer</code> object.
+* Default values: as many threads as available processors, block size = 512, sample rate = 44100.
+*
+*/
+public OfflineRenderer()
+{
+this(Runtime.getRuntime().availableProcessors(), 512, 44100.0f);
+}
+
+/**
+* Constructor.
+* Makes a new instance of an <code>OfflineRenderer</code> object.
+* @param threads Maximum number of jobs rendered at the same time.
+* @param blockSize Number of samples per block.
+* @param sampleRate Sample rate.
+*
+*/
+public OfflineRenderer(int threads, int blockSize, float sampleRate)
+{
+assert (threads > 0): "bad number of threads; it must be greater than zero.";
+assert (blockSize > 0): "bad block size; it must be greater than zero.";
+assert (sampleRate > 0.0f): "bad sample rate; it must be greater than zero.";
+_threads = threads;
+_blockSize = blockSize;
+_sampleRate = sampleRate;
+_pool = null;
+}
+
+/**
+* Gets the maximum number of jobs rendered at the same time.
+*
+* @return number of threads.
+*/
+public int getThreads()
+{
+return _threads;
+}
+
+/**
+* Gets the block size used to render.
+*
+* @return block size.
+*/
+public int getBlockSize()
+{
+return _blockSize;
+}
+
+/**
+* Gets the sample rate used to render.
+*
+* @return sample rate.
+*/
+public float getSampleRate()
+{
+return _sampleRate;
+}
+
+/**
+* Renders a job in the calling thread.
+* @param job Job to render.
+*
+* @return a report with the result.
+*/
+public RenderReport render(RenderJob job)
+{
+AudioGraph graph = new AudioGraph(_blockSize, _sampleRate);
+AudioNode output = job.build(graph);
+if(!graph.prepare())
+{
+	System.out.println("OfflineRenderer::render(RenderJob job): the graph of " + job.getFileName() + " has a cycle.");
+	graph.close();
+	return new RenderReport(job.getFileName(), 0, _sampleRate, 0, false);
+}
+if(output == null || output.outputs() == 0)
+{
+	System.out.println("OfflineRenderer::render(RenderJob job): the output node of " + job.getFileName() + " has no outputs.");
+	graph.close();
+	return new RenderReport(job.getFileName(), 0, _sampleRate, 0, false);
+}
+boolean stereo = (output.outputs() > 1);
+WaveFileWriter writer = new WaveFileWriter(_sampleRate, stereo ? 2 : 1);
+if(!writer.open(job.getFileName()))
+{
+	graph.close();
+	return new RenderReport(job.getFileName(), 0, _sampleRate, 0, false);
+}
+float[] left = output.getOutput(0).getBuffer();
+float[] right = stereo ? output.getOutput(1).getBuffer() : left;
+long remaining = (long)Math.ceil((double)job.getDuration() * (double)_sampleRate);
+boolean ok = true;
+long start = System.nanoTime();
+try
+{
+	while(remaining > 0 && ok)
+	{
+		graph.process();
+		int n = (remaining < _blockSize) ? (int)remaining : _blockSize;
+		ok = (writer.write(left, right, n) == n);
+		remaining -= n;
+	}
+}
+finally
+{
+	graph.close();
+	ok = writer.close() && ok;
+}
+long elapsed = System.nanoTime() - start;
+return new RenderReport(job.getFileName(), writer.getFrames(), _sampleRate, elapsed, ok);
+}
+
+/**
+* Submits a job to be rendered in background.
+* @param job Job to render.
+*
+* @return a <code>Future</code> giving the report when the job is done.
+*/
+public Future<RenderReport> submit(final RenderJob job)
+{
+return getPool().submit(() -> render(job));
+}
+
+/**
+* Renders a list of jobs in parallel and waits for all of them.
+* @param jobs Jobs to render.
+*
+* @return the reports, in the same order as the jobs.
+*/
+public List<RenderReport> renderAll(List<RenderJob> jobs)
+{
+List<Future<RenderReport>> futures = new ArrayList<Future<RenderReport>>(jobs.size());
+for(RenderJob job : jobs) futures.add(submit(job));
+List<RenderReport> reports = new ArrayList<RenderReport>(jobs.size());
+for(int i = 0; i < futures.size(); i++)
+{
+	try
+	{
+		reports.add(futures.get(i).get());
+	}
+	catch(InterruptedException e)
+	{
+		Thread.currentThread().interrupt();
+		reports.add(new RenderReport(jobs.get(i).getFileName(), 0, _sampleRate, 0, false));
+	}
+	catch(ExecutionException e)
+	{
+		System.out.println("OfflineRenderer::renderAll: " + e.getCause());
+		reports.add(new RenderReport(jobs.get(i).getFileName(), 0, _sampleRate, 0, false));
+	}
+}
+return reports;
+}
+
+/**
+* Stops the rendering threads.
+* <p>
+* Jobs already submitted are finished; the renderer can still be used, and new threads will be started if needed.
+*
+*/
+public synchronized void shutdown()
+{
+if(_pool != null) _pool.shutdown();
+_pool = null;
+}
+
+
+private synchronized ExecutorService getPool()
+{
+if(_pool == null)
+{
+	final AtomicInteger count = new AtomicInteger(0);
+	_pool = Executors.newFixedThreadPool(_threads, r ->
+	{
+		Thread t = new Thread(r, "imr-offline-renderer-" + count.getAndIncrement());
+		t.setDaemon(true);
+		return t;
+	});
+}
+return _pool;
+}
+
+
+private int _threads;
+private int _blockSize;
+private float _sampleRate;
+private ExecutorService _pool;
+}
+
+// END
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2026 Ismael Mosquera Rivera
+ *
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+/*
+* OscillatorNode.java
+*
+* imr-lib
+*
+* Author: Ismael Mosquera Rivera
+*/
+
+package imr.sound.audio.graph;
+
+import imr.sound.audio.synthesis.Oscillator;
+
+/**
+* The <code>OscillatorNode</code> class adapts an <code>Oscillator</code> object as a node of an <code>AudioGraph</code>.
+* <p>
+* Ports:
+* <ul>
+* <li>input 0: "frequency", control port. If connected, its first value in the block sets the oscillator frequency in Hz.</li>
+* <li>output 0: "out", audio port.</li>
+* </ul>
+* The phase of the oscillator goes on from block to block.
+*
+* @see imr.sound.audio.synthesis.Oscillator
+* @see imr.sound.audio.graph.AudioGraph
+*
+* @author Ismael Mosquera Rivera
+*
+*/
+public class OscillatorNode extends AudioNode
+{
+
+/**
+* Constructor.
+* Makes a new instance of an <code>OscillatorNode</code> object.
+* @param osc <code>Oscillator</code> object to be adapted.
+*
+*/
+public OscillatorNode(Oscillator osc)
+{
+super();
+_osc = osc;
+addInput("frequency", PortType.pControl);
+addOutput("out", PortType.pAudio);
+}
+
+/**
+* Gets the adapted oscillator.
+*
+* @return <code>Oscillator</code> object.
+*/
+public Oscillator getOscillator()
+{
+return _osc;
+}
+
+/**
+* Processes a block.
+* @param nframes Number of samples to process.
+*
+*/
+public void process(int nframes)
+{
+InputPort freq = getInput(0);
+if(freq.isConnected())
+{
+	float f = freq.getBuffer()[0];
+	if(f > 0.0f && f != _osc.getFrequency()) _osc.setFrequency(f);
+}
+_osc.read(getOutput(0).getBuffer());
+}
+
+
+private Oscillator _osc;
+}
+
+// END
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2026 Ismael Mosquera Rivera
+ *
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+/*
+* OutputPort.java
+*
+* imr-lib
+*
+* Author: Ismael Mosquera Rivera
+*/
+
+package imr.sound.audio.graph;
+
+/**
+* The <code>OutputPort</code> class owns the block buffer where an <code>AudioNode</code> writes its output.
+* <p>
+* The buffer is allocated once, when the graph is prepared, and it is reused for every block.
+* <p>
+* Any number of input ports can read from the same output port.
+*
+* @see imr.sound.audio.graph.AudioNode
+* @see imr.sound.audio.graph.InputPort
+*
+* @author Ismael Mosquera Rivera
+*
+*/
+public final class OutputPort
+{
+
+/**
+* Constructor.
+* Makes a new instance of an <code>OutputPort</code> object.
+* @param owner Node owning this port.
+* @param name Name of the port.
+* @param type Port type.
+*
+* @see imr.sound.audio.graph.PortType
+*/
+public OutputPort(AudioNode owner, String name, int type)
+{
+_owner = owner;
+_name = name;
+_type = type;
+_buffer = new float[0];
+}
+
+/**
+* Gets the node owning this port.
+*
+* @return owner node.
+*/
+public AudioNode getOwner()
+{
+return _owner;
+}
+
+/**
+* Gets the name of this port.
+*
+* @return port name.
+*/
+public String getName()
+{
+return _name;
+}
+
+/**
+* Gets the type of this port.
+*
+* @return port type.
+*
+* @see imr.sound.audio.graph.PortType
+*/
+public int getType()
+{
+return _type;
+}
+
+/**
+* Gets the block buffer of this port.
+* <p>
+* The owner node fills it in its <code>process</code> method.
+*
+* @return block buffer.
+*/
+public float[] getBuffer()
+{
+return _buffer;
+}
+
+
+/*
+* Allocates the block buffer; called when the graph is prepared.
+*/
+void allocate(int blockSize)
+{
+if(_buffer.length != blockSize) _buffer = new float[blockSize];
+}
+
+
+private AudioNode _owner;
+private String _name;
+private int _type;
+private float[] _buffer;
+}
+
+// END
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2026 Ismael Mosquera Rivera
+ *
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+/*
+* PlayerNode.java
+*
+* imr-lib
+*
+* Author: Ismael Mosquera Rivera
+*/
+
+package imr.sound.audio.graph;
+
+import imr.sound.audio.RawDataPlayer;
+
+/**
+* The <code>PlayerNode</code> class adapts a <code>RawDataPlayer</code> object as the output of an <code>AudioGraph</code>.
+* <p>
+* Each block is converted to 16 bit stereo PCM, the format of the player, and played.
+* The conversion buffer is allocated once, when the graph is prepared.
+* <p>
+* You must call the <code>start</code> method of the player before processing the first block,
+* and its <code>stop</code> method when all the blocks are played.
+* <p>
+* Ports:
+* <ul>
+* <li>input 0: "in", audio port.</li>
+* </ul>
+*
+* @see imr.sound.audio.RawDataPlayer
+* @see imr.sound.audio.graph.AudioGraph
+*
+* @author Ismael Mosquera Rivera
+*
+*/
+public class PlayerNode extends AudioNode
+{
+
+/**
+* Constructor.
+* Makes a new instance of a <code>PlayerNode</code> object.
+* @param player <code>RawDataPlayer</code> object to be adapted.
+*
+*/
+public PlayerNode(RawDataPlayer player)
+{
+super();
+_player = player;
+_frame = new byte[0];
+addInput("in", PortType.pAudio);
+}
+
+/**
+* Gets the adapted player.
+*
+* @return <code>RawDataPlayer</code> object.
+*/
+public RawDataPlayer getPlayer()
+{
+return _player;
+}
+
+/**
+* Prepares this node to process blocks.
+* @param blockSize Number of samples per block.
+* @param sampleRate Sample rate.
+*
+*/
+public void prepare(int blockSize, float sampleRate)
+{
+super.prepare(blockSize, sampleRate);
+_frame = new byte[blockSize * NUM_CHANNELS * 2];
+}
+
+/**
+* Processes a block.
+* @param nframes Number of samples to process.
+*
+*/
+public void process(int nframes)
+{
+float[] in = getInput(0).getBuffer();
+int k = 0;
+for(int i = 0; i < nframes; i++)
+{
+	float x = in[i];
+	if(x > 1.0f) x = 1.0f;
+	else if(x < -1.0f) x = -1.0f;
+	short s = (short)(x * 32767.0f);
+	for(int c = 0; c < NUM_CHANNELS; c++)
+	{
+		// little endian
+		_frame[k++] = (byte)(s & 0xff);
+		_frame[k++] = (byte)((s >> 8) & 0xff);
+	}
+}
+_player.play(_frame);
+}
+
+
+private RawDataPlayer _player;
+private byte[] _frame;
+
+private static final int NUM_CHANNELS = 2;
+}
+
+// END
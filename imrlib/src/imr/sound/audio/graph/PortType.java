@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2026 Ismael Mosquera Rivera
+ *
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+/*
+* PortType.java
+*
+* imr-lib
+*
+* Author: Ismael Mosquera Rivera
+*/
+
+package imr.sound.audio.graph;
+
+/**
+* The <code>PortType</code> class is a utility class with just 2 public constant fields.
+* <p>
+* An output port can only be connected to an input port of the same type.
+* <ul>
+* <li>pAudio: audio samples in the range [-1 .. 1]</li>
+* <li>pControl: control values, for example a frequency in Hz or a gain factor.</li>
+* </ul>
+*
+* @see imr.sound.audio.graph.InputPort
+* @see imr.sound.audio.graph.OutputPort
+*
+* @author Ismael Mosquera Rivera
+*
+*/
+public class PortType
+{
+
+/**
+* Constant to set an audio port.
+*
+*/
+public static final int pAudio = 0;
+
+/**
+* Constant to set a control port.
+*
+*/
+public static final int pControl = 1;
+
+}
+
+// END
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2026 Ismael Mosquera Rivera
+ *
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+/*
+* RenderJob.java
+*
+* imr-lib
+*
+* Author: Ismael Mosquera Rivera
+*/
+
+package imr.sound.audio.graph;
+
+/**
+* The <code>RenderJob</code> abstract class describes a piece of audio to be rendered by an <code>OfflineRenderer</code> object.
+* <p>
+* A job has a file name and a duration, and builds the audio graph to render in its <code>build</code> method.
+* The graph is built in the thread that renders the job, so several jobs can be rendered at the same time
+* as long as they do not share node objects.
+* <p>
+* The node returned by <code>build</code> is the output of the job:
+* if it has two or more output ports, the first two are written as a stereo file; otherwise, a mono file is written.
+* <p>
+* Example:
+* <p>
+* <code>
+* RenderJob job = new RenderJob("sine.wav", 10.0f)
+* {
+* public AudioNode build(AudioGraph graph)
+* {
+* return graph.add(new OscillatorNode(new Oscillator(0.8f, 440.0f, 44100.0f)));
+* }
+* };
+* </code>
+*
+* @see imr.sound.audio.graph.OfflineRenderer
+*
+* @author Ismael Mosquera Rivera
+*
+*/
+public abstract class RenderJob
+{
+
+/**
+* Constructor.
+* Makes a new instance of a <code>RenderJob</code> object.
+* Since this is an abstract class, it cannot be instantiated directly, but through a class derived from this one.
+* @param filename Name of the *.wav file to write.
+* @param duration Duration to render, expressed in seconds.
+*
+*/
+public RenderJob(String filename, float duration)
+{
+assert (duration > 0.0f): "bad duration; it must be greater than zero.";
+_filename = filename;
+_duration = duration;
+}
+
+/**
+* Gets the name of the file to write.
+*
+* @return file name.
+*/
+public String getFileName()
+{
+return _filename;
+}
+
+/**
+* Gets the duration to render.
+*
+* @return duration in seconds.
+*/
+public float getDuration()
+{
+return _duration;
+}
+
+/**
+* Builds the audio graph for this job.
+* <p>
+* Add the needed nodes to the graph, connect them, and return the node whose outputs must be written.
+* @param graph An empty graph, with the block size and sample rate of the renderer.
+*
+* @return output node.
+*/
+public abstract AudioNode build(AudioGraph graph);
+
+
+private String _filename;
+private float _duration;
+}
+
+// END
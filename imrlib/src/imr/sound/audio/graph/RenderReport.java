@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2026 Ismael Mosquera Rivera
+ *
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+/*
+* RenderReport.java
+*
+* imr-lib
+*
+* Author: Ismael Mosquera Rivera
+*/
+
+package imr.sound.audio.graph;
+
+/**
+* The <code>RenderReport</code> class holds the result of rendering a <code>RenderJob</code>.
+* <p>
+* Besides the number of frames written, it tells how fast the job was rendered:
+* a speed of 20 means that one second of audio was rendered in 1/20 seconds, that is, 20x realtime.
+*
+* @see imr.sound.audio.graph.OfflineRenderer
+*
+* @author Ismael Mosquera Rivera
+*
+*/
+public final class RenderReport
+{
+
+/**
+* Constructor.
+* Makes a new instance of a <code>RenderReport</code> object.
+* @param filename Name of the rendered file.
+* @param frames Number of frames written.
+* @param sampleRate Sample rate.
+* @param elapsed Time spent rendering, expressed in nanoseconds.
+* @param success <code>true</code> if the file was written successfully.
+*
+*/
+public RenderReport(String filename, long frames, float sampleRate, long elapsed, boolean success)
+{
+_filename = filename;
+_frames = frames;
+_sampleRate = sampleRate;
+_elapsed = elapsed;
+_success = success;
+}
+
+/**
+* Gets the name of the rendered file.
+*
+* @return file name.
+*/
+public String getFileName()
+{
+return _filename;
+}
+
+/**
+* Gets the number of frames written.
+*
+* @return number of frames.
+*/
+public long getFrames()
+{
+return _frames;
+}
+
+/**
+* Gets the duration of the rendered audio.
+*
+* @return duration in seconds.
+*/
+public double getDuration()
+{
+return (double)_frames / (double)_sampleRate;
+}
+
+/**
+* Gets the time spent rendering.
+*
+* @return elapsed time in seconds.
+*/
+public double getElapsedTime()
+{
+return (double)_elapsed / 1.0e9;
+}
+
+/**
+* Gets the render speed, as a multiple of realtime.
+*
+* @return audio duration divided by elapsed time.
+*/
+public double getSpeed()
+{
+if(_elapsed <= 0) return 0.0;
+return getDuration() / getElapsedTime();
+}
+
+/**
+* Tells whether the job was rendered successfully.
+*
+* @return <code>true</code> on success or <code>false</code> otherwise.
+*/
+public boolean succeeded()
+{
+return _success;
+}
+
+/**
+* Gets a text description of this report.
+*
+* @return description.
+*/
+public String toString()
+{
+if(!_success) return _filename + ": failed";
+return String.format("%s: %.2f s rendered in %.3f s ( %.1fx realtime )", _filename, getDuration(), getElapsedTime(), getSpeed());
+}
+
+
+private String _filename;
+private long _frames;
+private float _sampleRate;
+private long _elapsed;
+private boolean _success;
+}
+
+// END
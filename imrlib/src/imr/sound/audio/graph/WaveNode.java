@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2026 Ismael Mosquera Rivera
+ *
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+/*
+* WaveNode.java
+*
+* imr-lib
+*
+* Author: Ismael Mosquera Rivera
+*/
+
+package imr.sound.audio.graph;
+
+import imr.sound.audio.synthesis.Wave;
+
+/**
+* The <code>WaveNode</code> class adapts a <code>Wave</code> object as a node of an <code>AudioGraph</code>.
+* <p>
+* So, any wave derived from <code>Wave</code> can be a source of the graph:
+* <ul>
+* <li>SawWave</li>
+* <li>SineWave</li>
+* <li>SquareWave</li>
+* <li>TriangularWave</li>
+* <li>MusicalNote</li>
+* </ul>
+* Ports:
+* <ul>
+* <li>output 0: "out", audio port.</li>
+* </ul>
+*
+* @see imr.sound.audio.synthesis.Wave
+* @see imr.sound.audio.graph.AudioGraph
+*
+* @author Ismael Mosquera Rivera
+*
+*/
+public class WaveNode extends AudioNode
+{
+
+/**
+* Constructor.
+* Makes a new instance of a <code>WaveNode</code> object.
+* @param wave <code>Wave</code> object to be adapted.
+*
+*/
+public WaveNode(Wave wave)
+{
+super();
+_wave = wave;
+addOutput("out", PortType.pAudio);
+}
+
+/**
+* Gets the adapted wave.
+*
+* @return <code>Wave</code> object.
+*/
+public Wave getWave()
+{
+return _wave;
+}
+
+/**
+* Processes a block.
+* @param nframes Number of samples to process.
+*
+*/
+public void process(int nframes)
+{
+_wave.get(getOutput(0).getBuffer(), 0, nframes);
+}
+
+
+private Wave _wave;
+}
+
+// END
@@ -0,0 +1,33 @@
+/**
+* The imr.sound.audio.graph package provides an audio graph to process audio block by block.
+* <p>
+* An <code>AudioGraph</code> holds a set of <code>AudioNode</code> objects connected through typed ports.
+* Each node reads fixed size blocks from its input ports and writes fixed size blocks to its output ports.
+* The graph sorts the nodes in topological order and allocates all the block buffers when it is prepared,
+* so processing a block does not allocate any memory. Independent branches can be processed in parallel.
+* <p>
+* The following nodes adapt existing classes of the library:
+* <ul>
+* <li>OscillatorNode: an <code>Oscillator</code> object.</li>
+* <li>WaveNode: any <code>Wave</code> object ( saw, sine, square, triangular, musical note ).</li>
+* <li>NoiseNode: a <code>RandomNoise</code> object.</li>
+* <li>EnvelopeNode: an <code>Envelope</code> object.</li>
+* <li>FilterNode: any <code>Filter</code> object ( low pass, high pass, band pass, band reject ).</li>
+* <li>MixerNode: mixes n-tracks into one, like an <code>AudioMixer</code> object.</li>
+* <li>PlayerNode: a <code>RawDataPlayer</code> object.</li>
+* </ul>
+* There is also a <code>ConstantNode</code> to drive control ports.
+* <p>
+* An <code>OfflineRenderer</code> renders graphs described by <code>RenderJob</code> objects to wav files faster than realtime,
+* without any sound device, and reports the render speed of each job.
+* <p>
+* Some classes in this package use assertions. so, you have to run them with the 'ea' modifier
+* which enables assertions.
+* Example:
+* <code>java -ea MyApp</code>
+*
+* @author Ismael Mosquera Rivera
+*
+*/
+
+package imr.sound.audio.graph;
@@ -34,6 +34,30 @@
  * <code>RawDataStorage</code>
  * Using this class, you are able to store raw data in an audio file.
  *
+ * <code>WaveFileWriter</code>
+ * Writes floating point audio to a wav file block by block, without keeping the data in memory.
+ *
+ * <code>AudioSink</code> and <code>AudioSource</code>
+ * The devices where players write and recorders read audio data:
+ * <code>LineSink</code> and <code>LineSource</code> use the sound card,
+ * <code>NullSink</code> and <code>NullSource</code> work at realtime pace or unthrottled without any audio hardware,
+ * and <code>LoopbackBuffer</code> gives back from its source side the data written to its sink side.
+ *
+ * <code>PlaybackMetrics</code>
+ * Measures how a player feeds its device: buffer fill level, underruns, write and decode times, and latency.
+ * Its values can be polled as <code>PlaybackSnapshot</code> objects or recorded as flight recorder events.
+ *
+ * <code>AudioExecutor</code>
+ * Runs the background tasks of the players: short tasks in a shared executor, virtual threads on JDK 21 or later and a bounded pool otherwise,
+ * and playback and recording loops each in its own thread.
+ *
+ * <code>BatchTranscoder</code>
+ * Converts all the audio files in a directory tree in parallel: decoding, resampling with a <code>Resampler</code>,
+ * peak or RMS normalization and storage, reporting its progress and throughput through <code>BatchReport</code> objects.
+ *
+ * <code>PCMCache</code>
+ * Keeps decoded mp3 files on disk as raw PCM, served through memory mapped files, so that repeated loads do not decode them again.
+ *
  * <code>FrameFactory</code>
  * This class is useful to generate empty data frames with a concrete duration.
  *
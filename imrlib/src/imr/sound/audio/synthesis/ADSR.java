@@ -0,0 +1,416 @@
+/*
+ * Copyright (c) 2026 Ismael Mosquera Rivera
+ *
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+/*
+* ADSR.java
+*
+* imr-lib
+*
+* Author: Ismael Mosquera Rivera
+*/
+
+package imr.sound.audio.synthesis;
+
+/**
+* The <code>ADSR</code> class implements a streaming ADSR envelope generator, driven by a gate.
+* <p>
+* Unlike the <code>Envelope</code> class, which builds the whole envelope for a given duration,
+* this one computes its value sample by sample, so it needs no memory and it can be used for notes of any length:
+* <ul>
+* <li><code>gateOn</code> starts the attack; the level goes up to 1 and then decays to the sustain level, where it stays.</li>
+* <li><code>gateOff</code> starts the release at once, from the current level, down to zero.</li>
+* </ul>
+* Times are given in ms. Segments can be linear or exponential; see the <code>CurveType</code> class.
+* Starting a segment from a level different from its usual start ( for example, a new attack while releasing ) does not produce clicks.
+* <p>
+* The envelope can be generated into a buffer or applied to a signal, block by block; no memory is allocated.
+* <p>
+* Example:
+* <code>
+* ADSR adsr = new ADSR(44100.0f, 10.0f, 100.0f, 0.7f, 300.0f);
+* adsr.gateOn();
+* adsr.apply(block, 0, block.length);
+* adsr.gateOff();
+* while(adsr.isActive()) adsr.apply(block, 0, block.length);
+* </code>
+*
+* @see imr.sound.audio.synthesis.CurveType
+* @see imr.sound.audio.synthesis.Envelope
+*
+* @author Ismael Mosquera Rivera
+*
+*/
+public class ADSR
+{
+
+/**
+* Constructor.
+* Makes a new instance of an <code>ADSR</code> object.
+* Default values: attack = 10 ms, decay = 100 ms, sustain level = 0.7, release = 200 ms.
+* @param sampleRate Sample rate.
+*
+*/
+public ADSR(float sampleRate)
+{
+this(sampleRate, 10.0f, 100.0f, 0.7f, 200.0f);
+}
+
+/**
+* Constructor.
+* Makes a new instance of an <code>ADSR</code> object with linear segments.
+* @param sampleRate Sample rate.
+* @param attack Attack time in ms.
+* @param decay Decay time in ms.
+* @param sustain Sustain level, in the range [0..1].
+* @param release Release time in ms.
+*
+*/
+public ADSR(float sampleRate, float attack, float decay, float sustain, float release)
+{
+assert (sampleRate > 0.0f): "bad value for sample rate; it must be greater than zero.";
+_sampleRate = sampleRate;
+_curve = CurveType.cLinear;
+setAttack(attack);
+setDecay(decay);
+setSustainLevel(sustain);
+setRelease(release);
+reset();
+}
+
+/**
+* Opens the gate: starts the attack from the current level.
+*
+*/
+public void gateOn()
+{
+enter(ATTACK);
+}
+
+/**
+* Closes the gate: starts the release from the current level.
+* If the envelope is already idle, it does nothing.
+*
+*/
+public void gateOff()
+{
+if(_stage != IDLE) enter(RELEASE);
+}
+
+/**
+* Stops the envelope at once, setting its level to zero.
+*
+*/
+public void reset()
+{
+_stage = IDLE;
+_level = 0.0f;
+_base = 0.0f;
+_coef = 1.0f;
+}
+
+/**
+* Tells whether the envelope is running, that is, whether its level is not zero or the gate is open.
+*
+* @return <code>true</code> if it is active or <code>false</code> otherwise.
+*/
+public boolean isActive()
+{
+return _stage != IDLE;
+}
+
+/**
+* Tells whether the envelope is releasing.
+*
+* @return <code>true</code> if the gate was closed and the level is still going down.
+*/
+public boolean isReleasing()
+{
+return _stage == RELEASE;
+}
+
+/**
+* Gets the current level of the envelope.
+*
+* @return level, in the range [0..1].
+*/
+public float getLevel()
+{
+return _level;
+}
+
+/**
+* Gets the next value of the envelope, advancing it one sample.
+*
+* @return envelope value.
+*/
+public float next()
+{
+switch(_stage)
+{
+	case ATTACK:
+	_level = _base + _level * _coef;
+	if(_level >= 1.0f)
+	{
+		_level = 1.0f;
+		enter(DECAY);
+	}
+	break;
+	case DECAY:
+	_level = _base + _level * _coef;
+	if(_level <= _sustain)
+	{
+		_level = _sustain;
+		enter(SUSTAIN);
+	}
+	break;
+	case SUSTAIN:
+	_level = _sustain;
+	break;
+	case RELEASE:
+	_level = _base + _level * _coef;
+	if(_level <= 0.0f) reset();
+	break;
+	default:
+	break;
+}
+return _level;
+}
+
+/**
+* Generates envelope values into a buffer.
+* @param data Float array to be filled.
+* @param offset Index of the first value.
+* @param n Number of values.
+*
+* @return number of values generated.
+*/
+public int process(float[] data, int offset, int n)
+{
+int end = offset + n;
+for(int i = offset; i < end; i++) data[i] = next();
+return n;
+}
+
+/**
+* Applies the envelope to a signal, multiplying each sample by the next envelope value.
+* @param data Float array with the signal.
+* @param offset Index of the first sample.
+* @param n Number of samples.
+*
+* @return number of samples processed.
+*/
+public int apply(float[] data, int offset, int n)
+{
+int end = offset + n;
+for(int i = offset; i < end; i++) data[i] *= next();
+return n;
+}
+
+/**
+* Sets the attack time.
+* @param ms Attack time in ms.
+*
+*/
+public void setAttack(float ms)
+{
+assert (ms >= 0.0f): "bad attack time; it must not be negative.";
+_attack = ms;
+if(_stage == ATTACK) enter(ATTACK);
+}
+
+/**
+* Sets the decay time.
+* @param ms Decay time in ms.
+*
+*/
+public void setDecay(float ms)
+{
+assert (ms >= 0.0f): "bad decay time; it must not be negative.";
+_decay = ms;
+if(_stage == DECAY) enter(DECAY);
+}
+
+/**
+* Sets the sustain level.
+* @param level Sustain level, in the range [0..1].
+*
+*/
+public void setSustainLevel(float level)
+{
+assert (level >= 0.0f && level <= 1.0f): "bad sustain level; it must be in the range [0..1].";
+_sustain = level;
+if(_stage == DECAY) enter(DECAY);
+}
+
+/**
+* Sets the release time.
+* @param ms Release time in ms.
+*
+*/
+public void setRelease(float ms)
+{
+assert (ms >= 0.0f): "bad release time; it must not be negative.";
+_release = ms;
+if(_stage == RELEASE) enter(RELEASE);
+}
+
+/**
+* Sets the shape of the segments.
+* @param curve Curve type; see the <code>CurveType</code> class.
+*
+*/
+public void setCurve(int curve)
+{
+assert (curve == CurveType.cLinear || curve == CurveType.cExponential): "bad curve type; see the CurveType class.";
+_curve = curve;
+if(_stage != IDLE && _stage != SUSTAIN) enter(_stage);
+}
+
+/**
+* Sets the sample rate.
+* @param sr Sample rate.
+*
+*/
+public void setSampleRate(float sr)
+{
+assert (sr > 0.0f): "bad value for sample rate; it must be greater than zero.";
+_sampleRate = sr;
+if(_stage != IDLE && _stage != SUSTAIN) enter(_stage);
+}
+
+/**
+* Gets the attack time.
+*
+* @return attack time in ms.
+*/
+public float getAttack()
+{
+return _attack;
+}
+
+/**
+* Gets the decay time.
+*
+* @return decay time in ms.
+*/
+public float getDecay()
+{
+return _decay;
+}
+
+/**
+* Gets the sustain level.
+*
+* @return sustain level.
+*/
+public float getSustainLevel()
+{
+return _sustain;
+}
+
+/**
+* Gets the release time.
+*
+* @return release time in ms.
+*/
+public float getRelease()
+{
+return _release;
+}
+
+/**
+* Gets the shape of the segments.
+*
+* @return curve type; see the <code>CurveType</code> class.
+*/
+public int getCurve()
+{
+return _curve;
+}
+
+
+/*
+* Enters a stage, computing the segment as level = base + level * coef.
+* Linear segments have coef = 1; exponential ones approach a target beyond their end, so they finish in time.
+*/
+private void enter(int stage)
+{
+_stage = stage;
+switch(stage)
+{
+	case ATTACK:
+	segment(_attack, 1.0f + ATTACK_RATIO, 1.0f / samples(_attack));
+	break;
+	case DECAY:
+	segment(_decay, _sustain - DECAY_RATIO, -(1.0f - _sustain) / samples(_decay));
+	break;
+	case RELEASE:
+	segment(_release, -DECAY_RATIO, -_level / samples(_release));
+	break;
+	default:
+	_base = 0.0f;
+	_coef = 1.0f;
+}
+}
+
+private void segment(float ms, float target, float increment)
+{
+if(_curve == CurveType.cExponential)
+{
+	float ratio = (_stage == ATTACK) ? ATTACK_RATIO : DECAY_RATIO;
+	_coef = (float)Math.exp(-Math.log((1.0 + ratio) / ratio) / samples(ms));
+	_base = target * (1.0f - _coef);
+}
+else
+{
+	_coef = 1.0f;
+	_base = increment;
+}
+}
+
+private float samples(float ms)
+{
+return Math.max(1.0f, ms * _sampleRate / 1000.0f);
+}
+
+
+private float _sampleRate;
+private float _attack;
+private float _decay;
+private float _sustain;
+private float _release;
+private int _curve;
+
+private int _stage;
+private float _level;
+private float _base;
+private float _coef;
+
+private static final int IDLE = 0;
+private static final int ATTACK = 1;
+private static final int DECAY = 2;
+private static final int SUSTAIN = 3;
+private static final int RELEASE = 4;
+
+private static final float ATTACK_RATIO = 0.3f;
+private static final float DECAY_RATIO = 0.0001f;
+}
+
+// END
@@ -0,0 +1,318 @@
+/*
+ * Copyright (c) 2026 Ismael Mosquera Rivera
+ *
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+/*
+* AdditiveSynthesizer.java
+*
+* imr-lib
+*
+* Author: Ismael Mosquera Rivera
+*/
+
+package imr.sound.audio.synthesis;
+
+import imr.sound.audio.analysis.Spectrum;
+
+/**
+* The <code>AdditiveSynthesizer</code> class generates a sound adding up any number of sinusoids ( partials ).
+* <p>
+* Each partial has its own frequency and amplitude, which can be set one by one, as harmonics of a fundamental frequency,
+* or taken from the peaks of a <code>Spectrum</code> object.
+* <p>
+* The partials are generated by recursive oscillators: each one rotates a two-dimensional vector a fixed angle per sample,
+* so a sample costs a few multiplications per partial and no cosine is computed.
+* Amplitude changes are ramped along the next block to avoid clicks, and frequency changes keep the phase.
+* Partials above the Nyquist frequency are muted.
+* <p>
+* All the memory is allocated in the constructor, so the <code>process</code> method does not allocate memory.
+* <p>
+* Example:
+* <code>
+* AdditiveSynthesizer synth = new AdditiveSynthesizer(200, 44100.0f);
+* float[] a = new float[100];
+* for(int k = 0; k &lt; a.length; k++) a[k] = 1.0f / (k+1);
+* synth.setHarmonics(110.0f, a);
+* synth.process(block, block.length);
+* </code>
+*
+* @see imr.sound.audio.analysis.Spectrum
+* @see imr.sound.audio.synthesis.SpectralSynthesizer
+*
+* @author Ismael Mosquera Rivera
+*
+*/
+public class AdditiveSynthesizer
+{
+
+/**
+* Constructor.
+* Makes a new instance of an <code>AdditiveSynthesizer</code> object.
+* @param maxPartials Max number of partials.
+* @param sampleRate Sample rate.
+*
+*/
+public AdditiveSynthesizer(int maxPartials, float sampleRate)
+{
+assert (maxPartials > 0): "bad number of partials; it must be greater than zero.";
+assert (sampleRate > 0.0f): "bad value for sample rate; it must be greater than zero.";
+_sampleRate = sampleRate;
+_amplitude = 1.0f;
+_partials = 0;
+_frequency = new float[maxPartials];
+_target = new float[maxPartials];
+_gain = new float[maxPartials];
+_cos = new double[maxPartials];
+_sin = new double[maxPartials];
+_x = new double[maxPartials];
+_y = new double[maxPartials];
+reset();
+}
+
+/**
+* Gets the max number of partials of this synthesizer.
+*
+* @return max number of partials.
+*/
+public int getMaxPartials()
+{
+return _frequency.length;
+}
+
+/**
+* Gets the number of partials in use.
+*
+* @return number of partials.
+*/
+public int getPartials()
+{
+return _partials;
+}
+
+/**
+* Sets the number of partials in use.
+* Partials which were not used start with zero amplitude.
+* @param n Number of partials.
+*
+*/
+public void setPartials(int n)
+{
+assert (n >= 0 && n <= _frequency.length): "bad number of partials; it must be in the range [0..getMaxPartials()].";
+for(int k = _partials; k < n; k++)
+{
+	_gain[k] = 0.0f;
+	_target[k] = 0.0f;
+}
+_partials = n;
+}
+
+/**
+* Sets the frequency and the amplitude of a partial.
+* @param k Index of the partial.
+* @param freq Frequency in Hz.
+* @param amp Amplitude.
+*
+*/
+public void setPartial(int k, float freq, float amp)
+{
+assert (k >= 0 && k < _partials): "bad partial index.";
+assert (freq >= 0.0f): "bad value for frequency; it must not be negative.";
+_frequency[k] = freq;
+_target[k] = (freq < 0.5f * _sampleRate) ? amp : 0.0f;
+double w = 2.0 * Math.PI * freq / _sampleRate;
+_cos[k] = Math.cos(w);
+_sin[k] = Math.sin(w);
+}
+
+/**
+* Gets the frequency of a partial.
+* @param k Index of the partial.
+*
+* @return frequency in Hz.
+*/
+public float getPartialFrequency(int k)
+{
+return _frequency[k];
+}
+
+/**
+* Gets the amplitude of a partial.
+* @param k Index of the partial.
+*
+* @return amplitude.
+*/
+public float getPartialAmplitude(int k)
+{
+return _target[k];
+}
+
+/**
+* Sets the partials as harmonics of a fundamental frequency.
+* @param f0 Fundamental frequency in Hz.
+* @param amplitudes Amplitudes of the harmonics: <code>amplitudes[0]</code> for the fundamental, and so on.
+*
+*/
+public void setHarmonics(float f0, float[] amplitudes)
+{
+assert (amplitudes.length <= _frequency.length): "too many harmonics for this synthesizer.";
+setPartials(amplitudes.length);
+for(int k = 0; k < amplitudes.length; k++) setPartial(k, f0 * (k+1), amplitudes[k]);
+}
+
+/**
+* Sets the partials from the peaks of a spectrum.
+* <p>
+* The local maxima of the magnitude spectrum are taken as partials, the highest ones first,
+* and their magnitudes are used as amplitudes, scaled so that the highest one is 1.
+* @param spec Spectrum, already computed.
+* @param n Max number of partials to take.
+*
+* @return number of partials set.
+*/
+public int setSpectrum(Spectrum spec, int n)
+{
+assert (n > 0 && n <= _frequency.length): "bad number of partials; it must be in the range [1..getMaxPartials()].";
+float[] mag = spec.getMagnitudeSpectrum();
+float range = spec.getSpectralRange();
+int size = mag.length;
+int bins = Math.min(size, (int)((double)size * (0.5 * _sampleRate) / range));
+// local maxima, sorted by magnitude
+int[] peaks = new int[bins];
+int count = 0;
+for(int i = 1; i < bins-1; i++)
+{
+	if(mag[i] > 0.0f && mag[i] >= mag[i-1] && mag[i] > mag[i+1]) peaks[count++] = i;
+}
+for(int i = 1; i < count; i++)
+{
+	int p = peaks[i];
+	int j = i;
+	while(j > 0 && mag[peaks[j-1]] < mag[p])
+	{
+		peaks[j] = peaks[j-1];
+		j--;
+	}
+	peaks[j] = p;
+}
+count = Math.min(count, n);
+float max = (count > 0) ? mag[peaks[0]] : 1.0f;
+setPartials(count);
+for(int k = 0; k < count; k++)
+{
+	int i = peaks[k];
+	setPartial(k, (float)i * range / (float)size, mag[i] / max);
+}
+return count;
+}
+
+/**
+* Gets the master amplitude.
+*
+* @return amplitude.
+*/
+public float getAmplitude()
+{
+return _amplitude;
+}
+
+/**
+* Sets the master amplitude, which scales the sum of the partials.
+* @param amp Amplitude.
+*
+*/
+public void setAmplitude(float amp)
+{
+assert (amp >= 0.0f): "bad amplitude; it must not be negative.";
+_amplitude = amp;
+}
+
+/**
+* Gets the sample rate of this synthesizer.
+*
+* @return sample rate.
+*/
+public float getSampleRate()
+{
+return _sampleRate;
+}
+
+/**
+* Sets the phases of all the partials to zero ( all of them start as sines ).
+*
+*/
+public void reset()
+{
+for(int k = 0; k < _x.length; k++)
+{
+	_x[k] = 1.0;
+	_y[k] = 0.0;
+}
+}
+
+/**
+* Generates a block adding up all the partials.
+* @param out Float array to be filled; its previous content is overwritten.
+* @param n Number of samples.
+*
+*/
+public void process(float[] out, int n)
+{
+for(int i = 0; i < n; i++) out[i] = 0.0f;
+float inv = (n > 0) ? 1.0f / n : 0.0f;
+for(int k = 0; k < _partials; k++)
+{
+	float g = _gain[k];
+	float target = _target[k];
+	if(g == 0.0f && target == 0.0f) continue;
+	float dg = (target - g) * inv;
+	double c = _cos[k];
+	double s = _sin[k];
+	double x = _x[k];
+	double y = _y[k];
+	for(int i = 0; i < n; i++)
+	{
+		out[i] += g * (float)y;
+		g += dg;
+		double t = x * c - y * s;
+		y = x * s + y * c;
+		x = t;
+	}
+	// keeps the vector on the unit circle, so rounding errors do not change the amplitude
+	double r = 1.5 - 0.5 * (x * x + y * y);
+	_x[k] = x * r;
+	_y[k] = y * r;
+	_gain[k] = target;
+}
+if(_amplitude != 1.0f) for(int i = 0; i < n; i++) out[i] *= _amplitude;
+}
+
+
+private float _sampleRate;
+private float _amplitude;
+private int _partials;
+private float[] _frequency;
+private float[] _target;  // amplitude at the end of the next block
+private float[] _gain;  // current amplitude
+private double[] _cos;  // rotation per sample
+private double[] _sin;
+private double[] _x;  // oscillator state: cos and sin of the phase
+private double[] _y;
+}
+
+// END
@@ -0,0 +1,366 @@
+/*
+ * Copyright (c) 2026 Ismael Mosquera Rivera
+ *
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+/*
+* BlepOscillator.java
+*
+* imr-lib
+*
+* Author: Ismael Mosquera Rivera
+*/
+
+package imr.sound.audio.synthesis;
+
+/**
+* The <code>BlepOscillator</code> class generates band-limited saw, square and triangular waves, computed sample by sample.
+* <p>
+* A naive wave, like the ones of the <code>SawWave</code>, <code>SquareWave</code> and <code>TriangularWave</code> classes,
+* has steps or corners that make aliasing, which is heard as inharmonic tones on high notes.
+* This oscillator computes the naive wave and, at the samples close to a step, adds a polynomial band-limited step ( PolyBLEP ),
+* and at the samples close to a corner, a polynomial band-limited ramp ( PolyBLAMP ).
+* So, the output is clean at the native sample rate, with no need to oversample and filter it.
+* <p>
+* Unlike the <code>WavetableOscillator</code> class, no tables are needed, the frequency can change on every sample at no cost,
+* and the width of the square wave can be set, to get pulse waves.
+* <p>
+* Samples are generated as floating point values in the range [-1 .. 1], and the phase goes on from one read to the next one.
+* <p>
+* Example:
+* <code>
+* BlepOscillator osc = new BlepOscillator(WaveType.wSquare, 0.8f, 3520.0f, 44100.0f);
+* osc.setPulseWidth(0.25f);
+* osc.read(frame, 0, frame.length);
+* </code>
+*
+* @see imr.sound.audio.synthesis.WaveType
+* @see imr.sound.audio.synthesis.WavetableOscillator
+*
+* @author Ismael Mosquera Rivera
+*
+*/
+public class BlepOscillator
+{
+
+/**
+* Constructor.
+* Makes a new instance of a <code>BlepOscillator</code> object.
+* Default values: saw wave, amplitude = 0.8, frequency = 440 Hz, sample rate = 44100.
+*
+*/
+public BlepOscillator()
+{
+this(WaveType.wSaw, 0.8f, 440.0f, 44100.0f);
+}
+
+/**
+* Constructor.
+* Makes a new instance of a <code>BlepOscillator</code> object.
+* @param waveType Wave type; see the <code>WaveType</code> class.
+* @param amp Amplitude ( must be in the range [0..1] ).
+* @param freq Frequency in Hz ( must be greater than zero and less than half the sample rate ).
+* @param sampleRate Sample rate.
+*
+*/
+public BlepOscillator(int waveType, float amp, float freq, float sampleRate)
+{
+assert (sampleRate > 0.0f): "bad value for sample rate; it must be greater than zero.";
+_sampleRate = sampleRate;
+_phase = 0.0;
+_width = 0.5;
+setWaveType(waveType);
+setAmplitude(amp);
+setFrequency(freq);
+}
+
+/**
+* Gets the amplitude of this oscillator.
+*
+* @return amplitude value.
+*/
+public float getAmplitude()
+{
+return _amplitude;
+}
+
+/**
+* Gets the frequency of this oscillator.
+*
+* @return frequency value.
+*/
+public float getFrequency()
+{
+return _frequency;
+}
+
+/**
+* Gets the sample rate of this oscillator.
+*
+* @return sample rate value.
+*/
+public float getSampleRate()
+{
+return _sampleRate;
+}
+
+/**
+* Gets the current phase of this oscillator.
+*
+* @return phase, in cycles, in the range [0 .. 1).
+*/
+public double getPhase()
+{
+return _phase;
+}
+
+/**
+* Gets the wave type of this oscillator.
+*
+* @return wave type; see the <code>WaveType</code> class.
+*/
+public int getWaveType()
+{
+return _waveType;
+}
+
+/**
+* Gets the pulse width of the square wave.
+*
+* @return pulse width, in cycles.
+*/
+public float getPulseWidth()
+{
+return (float)_width;
+}
+
+/**
+* Sets the amplitude of this oscillator.
+* @param amp Amplitude value ( must be in the range [0..1] ).
+*
+*/
+public void setAmplitude(float amp)
+{
+assert (amp >= 0.0f && amp <= 1.0f): "bad amplitude; allowed values: ( 0.0f .. 1.0f ).";
+_amplitude = amp;
+}
+
+/**
+* Sets the frequency of this oscillator.
+* <p>
+* The new frequency is used from the next generated sample, and the phase goes on, so there is no discontinuity.
+* @param freq Frequency value ( must be greater than zero and less than half the sample rate ).
+*
+*/
+public void setFrequency(float freq)
+{
+assert (freq > 0.0f && freq < 0.5f * _sampleRate): "bad value for frequency; it must be in the range ( 0 .. sampleRate/2 ).";
+_frequency = freq;
+_increment = (double)freq / (double)_sampleRate;
+}
+
+/**
+* Sets the sample rate of this oscillator.
+* @param sr Sample rate ( must be greater than zero ).
+*
+*/
+public void setSampleRate(float sr)
+{
+assert (sr > 0.0f): "bad value for sample rate; it must be greater than zero.";
+_sampleRate = sr;
+setFrequency(_frequency);
+}
+
+/**
+* Sets the phase of this oscillator.
+* @param phase Phase, in cycles; only its fractional part is used.
+*
+*/
+public void setPhase(double phase)
+{
+_phase = phase - Math.floor(phase);
+}
+
+/**
+* Sets the wave type of this oscillator.
+* <p>
+* The sine wave has no aliasing, so it is computed directly.
+* @param waveType Wave type; see the <code>WaveType</code> class.
+*
+*/
+public void setWaveType(int waveType)
+{
+assert (waveType >= WaveType.wSaw && waveType <= WaveType.wTriangular): "bad wave type; see the WaveType class.";
+_waveType = waveType;
+}
+
+/**
+* Sets the pulse width of the square wave, that is, the part of the cycle where the wave is high.
+* The default value is 0.5, a square wave.
+* @param width Pulse width, in cycles ( must be in the range ( 0 .. 1 ) ).
+*
+*/
+public void setPulseWidth(float width)
+{
+assert (width > 0.0f && width < 1.0f): "bad pulse width; it must be in the range ( 0 .. 1 ).";
+_width = width;
+}
+
+/**
+* Reads a floating point data frame generated by this oscillator.
+* @param frame A float array to fill.
+*
+* @return the number of samples generated ( the size of the array passed as parameter ).
+*/
+public int read(float[] frame)
+{
+return read(frame, 0, frame.length);
+}
+
+/**
+* Reads a segment of a floating point data frame generated by this oscillator.
+* <p>
+* This method does not allocate memory.
+* @param frame A float array to fill.
+* @param offset Index of the first sample to fill.
+* @param n Number of samples to generate.
+*
+* @return the number of samples generated.
+*/
+public int read(float[] frame, int offset, int n)
+{
+double phase = _phase;
+double dt = _increment;
+float amp = _amplitude;
+int end = offset + n;
+for(int i = offset; i < end; i++)
+{
+	frame[i] = amp * (float)value(phase, dt);
+	phase += dt;
+	if(phase >= 1.0) phase -= 1.0;
+}
+_phase = phase;
+return n;
+}
+
+/**
+* Reads a floating point data frame with a frequency per sample, for example to perform glides or vibrato.
+* <p>
+* The corrections are computed for the frequency of each sample, so the output is band-limited for each sample.
+* After this call, the frequency of this oscillator is the last one in the array.
+* This method does not allocate memory.
+* @param frame A float array to fill.
+* @param frequency Frequency in Hz for each sample.
+* @param n Number of samples to generate.
+*
+* @return the number of samples generated.
+*/
+public int read(float[] frame, float[] frequency, int n)
+{
+double phase = _phase;
+double sr = (double)_sampleRate;
+float amp = _amplitude;
+for(int i = 0; i < n; i++)
+{
+	double dt = (double)frequency[i] / sr;
+	frame[i] = amp * (float)value(phase, dt);
+	phase += dt;
+	if(phase >= 1.0) phase -= 1.0;
+	else if(phase < 0.0) phase += 1.0;
+}
+_phase = phase;
+if(n > 0) setFrequency(frequency[n-1]);
+return n;
+}
+
+
+/*
+* The band-limited wave at a given phase, for a phase increment dt.
+*/
+private double value(double t, double dt)
+{
+switch(_waveType)
+{
+	case WaveType.wSaw:
+	return 2.0 * t - 1.0 - blep(t, dt);
+	case WaveType.wSquare:
+	double w = _width;
+	double t2 = t + 1.0 - w;
+	if(t2 >= 1.0) t2 -= 1.0;
+	return ((t < w) ? 1.0 : -1.0) + blep(t, dt) - blep(t2, dt);
+	case WaveType.wTriangular:
+	// corners at 0.25 ( maximum ) and 0.75 ( minimum ); the slope changes by 8 per cycle, that is 8*dt per sample,
+	// and the PolyBLAMP below spans two samples, so it is scaled by half that change
+	double t1 = t + 0.75;
+	if(t1 >= 1.0) t1 -= 1.0;
+	double t3 = t + 0.25;
+	if(t3 >= 1.0) t3 -= 1.0;
+	double y = (t < 0.25) ? 4.0 * t : ((t < 0.75) ? 2.0 - 4.0 * t : 4.0 * t - 4.0);
+	return y + 4.0 * dt * (blamp(t3, dt) - blamp(t1, dt));
+	default:
+	return Math.sin(2.0 * Math.PI * t);
+}
+}
+
+/*
+* PolyBLEP: the difference between a band-limited step and an ideal step at phase 0, over the two samples around it.
+*/
+private static double blep(double t, double dt)
+{
+if(t < dt)
+{
+	double x = t / dt;
+	return x + x - x * x - 1.0;
+}
+if(t > 1.0 - dt)
+{
+	double x = (t - 1.0) / dt;
+	return x * x + x + x + 1.0;
+}
+return 0.0;
+}
+
+/*
+* PolyBLAMP: the integral of the PolyBLEP residual, to round a corner at phase 0.
+*/
+private static double blamp(double t, double dt)
+{
+if(t < dt)
+{
+	double x = t / dt - 1.0;
+	return -x * x * x / 3.0;
+}
+if(t > 1.0 - dt)
+{
+	double x = (t - 1.0) / dt + 1.0;
+	return x * x * x / 3.0;
+}
+return 0.0;
+}
+
+
+private float _amplitude;
+private float _frequency;
+private float _sampleRate;
+private int _waveType;
+private double _phase;
+private double _increment;
+private double _width;
+}
+
+// END
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2026 Ismael Mosquera Rivera
+ *
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+/*
+* CurveType.java
+*
+* imr-lib
+*
+* Author: Ismael Mosquera Rivera
+*/
+
+package imr.sound.audio.synthesis;
+
+/**
+* The <code>CurveType</code> class is a utility class with just 2 public constant fields.
+* They set the shape of the segments of an <code>ADSR</code> envelope.
+*
+* @see imr.sound.audio.synthesis.ADSR
+*
+* @author Ismael Mosquera Rivera
+*
+*/
+public class CurveType
+{
+
+/**
+* Constant to set linear segments.
+*
+*/
+public static final int cLinear = 0;
+
+/**
+* Constant to set exponential segments, like the ones of an analog envelope generator.
+*
+*/
+public static final int cExponential = 1;
+
+}
+
+// END
@@ -41,6 +41,10 @@ import imr.sigslot.Slot1;
 * Example:
 * <code>java -ea MyApp</code>
 *
+* To apply an envelope to notes of any length, opened and closed in real time, see the <code>ADSR</code> class.
+*
+* @see imr.sound.audio.synthesis.ADSR
+*
 * @author Ismael Mosquera Rivera
 *
 */
@@ -136,6 +140,8 @@ _mustUpdate = true;
 public void setDuration(float dur)
 {
 	assert (dur > 0.0f): "setDuration: bad parameter. Duration must be > 0.";
+	// the envelope is only rebuilt if something changed
+	if(dur == _duration && !_mustUpdate && _env != null) return;
 	_duration = dur;
 	updateDuration();
 	_mustUpdate = true;
@@ -181,6 +187,33 @@ for(int i = 0; i < data.length; i++)
 _signal.emit(_env);
 }
 
+/**
+* Applies a segment of this envelope to a floating point data frame.
+* <p>
+* This method is useful to process a long signal block by block:
+* the envelope value at index <code>position+i</code> is applied to <code>data[i]</code>,
+* and samples beyond the end of the envelope are set to zero.
+* The envelope is not emitted through the slot and no memory is allocated unless the envelope must be rebuilt.
+* @param data Float array data frame.
+* @param position Index in the envelope of the first sample in the frame.
+*
+* @return number of envelope values still remaining after this frame.
+*
+*/
+public int apply(float[] data, int position)
+{
+if(_mustUpdate) buildEnvelope();
+int n = data.length;
+int end = _env.length;
+for(int i = 0; i < n; i++)
+{
+	int k = position+i;
+	data[i] = (k < end) ? data[i] * _env[k] : 0.0f;
+}
+int remaining = end - (position+n);
+return (remaining > 0) ? remaining : 0;
+}
+
 /**
 * Sets a slot for this signal.
 * <p>
@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2026 Ismael Mosquera Rivera
+ *
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+/*
+* FMAlgorithm.java
+*
+* imr-lib
+*
+* Author: Ismael Mosquera Rivera
+*/
+
+package imr.sound.audio.synthesis;
+
+/**
+* The <code>FMAlgorithm</code> class describes how the operators of a <code>FMSynthesizer</code> object are connected.
+* <p>
+* An algorithm tells which operators modulate each one, and which operators are carriers, that is, which ones are heard.
+* Operators are computed from the highest index to the lowest one, so an operator should be modulated by operators with a higher index;
+* a connection from an operator with a lower or the same index is a feedback loop, and it uses the output of the previous sample.
+* <p>
+* Some common algorithms can be made through the static methods <code>stack</code>, <code>pairs</code> and <code>parallel</code>.
+* <p>
+* Example: operators 3 and 2 modulate operator 1, which modulates operator 0, the carrier.
+* <code>
+* FMAlgorithm alg = new FMAlgorithm(4);
+* alg.connect(3, 1);
+* alg.connect(2, 1);
+* alg.connect(1, 0);
+* alg.setCarrier(0, true);
+* </code>
+*
+* @see imr.sound.audio.synthesis.FMSynthesizer
+* @see imr.sound.audio.synthesis.FMOperator
+*
+* @author Ismael Mosquera Rivera
+*
+*/
+public class FMAlgorithm
+{
+
+/**
+* Max number of operators.
+*
+*/
+public static final int MAX_OPERATORS = 8;
+
+/**
+* Constructor.
+* Makes a new instance of a <code>FMAlgorithm</code> object with no connections and no carriers.
+* @param operators Number of operators, in the range [1..8].
+*
+*/
+public FMAlgorithm(int operators)
+{
+assert (operators > 0 && operators <= MAX_OPERATORS): "bad number of operators; it must be in the range [1..8].";
+_modulators = new int[operators];
+_carriers = 0;
+}
+
+/**
+* Gets the number of operators.
+*
+* @return number of operators.
+*/
+public int getOperators()
+{
+return _modulators.length;
+}
+
+/**
+* Connects an operator to another one, so that the first one modulates the second one.
+* @param modulator Index of the modulating operator.
+* @param target Index of the modulated operator.
+*
+*/
+public void connect(int modulator, int target)
+{
+check(modulator);
+check(target);
+_modulators[target] |= (1 << modulator);
+}
+
+/**
+* Removes the connection between two operators.
+* @param modulator Index of the modulating operator.
+* @param target Index of the modulated operator.
+*
+*/
+public void disconnect(int modulator, int target)
+{
+check(modulator);
+check(target);
+_modulators[target] &= ~(1 << modulator);
+}
+
+/**
+* Sets whether an operator is a carrier, that is, whether its output is heard.
+* @param op Index of the operator.
+* @param carrier <code>true</code> to make it a carrier.
+*
+*/
+public void setCarrier(int op, boolean carrier)
+{
+check(op);
+if(carrier) _carriers |= (1 << op);
+else _carriers &= ~(1 << op);
+}
+
+/**
+* Tells whether an operator is a carrier.
+* @param op Index of the operator.
+*
+* @return <code>true</code> if it is a carrier.
+*/
+public boolean isCarrier(int op)
+{
+check(op);
+return (_carriers & (1 << op)) != 0;
+}
+
+/**
+* Tells whether an operator modulates another one.
+* @param modulator Index of the modulating operator.
+* @param target Index of the modulated operator.
+*
+* @return <code>true</code> if they are connected.
+*/
+public boolean isConnected(int modulator, int target)
+{
+check(modulator);
+check(target);
+return (_modulators[target] & (1 << modulator)) != 0;
+}
+
+/**
+* Gets the operators modulating an operator, as a bit mask.
+* @param op Index of the operator.
+*
+* @return bit mask: bit i is set if the operator i modulates it.
+*/
+public int getModulators(int op)
+{
+check(op);
+return _modulators[op];
+}
+
+/**
+* Gets the carriers, as a bit mask.
+*
+* @return bit mask: bit i is set if the operator i is a carrier.
+*/
+public int getCarriers()
+{
+return _carriers;
+}
+
+/**
+* Makes a stack: each operator modulates the previous one, and operator 0 is the only carrier.
+* @param operators Number of operators.
+*
+* @return a new <code>FMAlgorithm</code> object.
+*/
+public static FMAlgorithm stack(int operators)
+{
+FMAlgorithm alg = new FMAlgorithm(operators);
+for(int i = 1; i < operators; i++) alg.connect(i, i-1);
+alg.setCarrier(0, true);
+return alg;
+}
+
+/**
+* Makes pairs: each odd operator modulates the previous even one, which is a carrier.
+* @param operators Number of operators.
+*
+* @return a new <code>FMAlgorithm</code> object.
+*/
+public static FMAlgorithm pairs(int operators)
+{
+FMAlgorithm alg = new FMAlgorithm(operators);
+for(int i = 0; i < operators; i += 2)
+{
+	alg.setCarrier(i, true);
+	if(i+1 < operators) alg.connect(i+1, i);
+}
+return alg;
+}
+
+/**
+* Makes an additive algorithm: all the operators are carriers and nobody modulates anybody.
+* @param operators Number of operators.
+*
+* @return a new <code>FMAlgorithm</code> object.
+*/
+public static FMAlgorithm parallel(int operators)
+{
+FMAlgorithm alg = new FMAlgorithm(operators);
+for(int i = 0; i < operators; i++) alg.setCarrier(i, true);
+return alg;
+}
+
+
+private void check(int op)
+{
+assert (op >= 0 && op < _modulators.length): "bad operator index.";
+}
+
+
+private int[] _modulators;  // per operator, bit mask of its modulators
+private int _carriers;  // bit mask
+}
+
+// END
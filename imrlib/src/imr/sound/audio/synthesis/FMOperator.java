@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2026 Ismael Mosquera Rivera
+ *
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+/*
+* FMOperator.java
+*
+* imr-lib
+*
+* Author: Ismael Mosquera Rivera
+*/
+
+package imr.sound.audio.synthesis;
+
+/**
+* The <code>FMOperator</code> class keeps the parameters of an operator of a <code>FMSynthesizer</code> object.
+* <p>
+* An operator is a sine oscillator with its own envelope. Its frequency is the frequency of the note multiplied by a ratio, plus a detune in Hz.
+* Its output level has two meanings:
+* for a carrier, it is the amplitude of its output; for a modulator, it is the modulation index, that is,
+* the max phase deviation, in radians, it produces in the operators it modulates.
+* An operator can also modulate itself ( feedback ).
+* <p>
+* Changes take effect on the next notes.
+*
+* @see imr.sound.audio.synthesis.FMSynthesizer
+* @see imr.sound.audio.synthesis.FMAlgorithm
+*
+* @author Ismael Mosquera Rivera
+*
+*/
+public class FMOperator
+{
+
+/**
+* Constructor.
+* Makes a new instance of a <code>FMOperator</code> object.
+* Default values: ratio = 1, detune = 0, level = 1, feedback = 0, envelope with attack = 10 ms, decay = 100 ms, sustain level = 0.7 and release = 200 ms.
+*
+*/
+public FMOperator()
+{
+_ratio = 1.0f;
+_detune = 0.0f;
+_level = 1.0f;
+_feedback = 0.0f;
+setEnvelope(10.0f, 100.0f, 0.7f, 200.0f);
+_curve = CurveType.cExponential;
+}
+
+/**
+* Gets the frequency ratio.
+*
+* @return ratio to the frequency of the note.
+*/
+public float getRatio()
+{
+return _ratio;
+}
+
+/**
+* Sets the frequency ratio.
+* @param ratio Ratio to the frequency of the note ( must be greater than zero ).
+*
+*/
+public void setRatio(float ratio)
+{
+assert (ratio > 0.0f): "bad ratio; it must be greater than zero.";
+_ratio = ratio;
+}
+
+/**
+* Gets the detune.
+*
+* @return detune in Hz.
+*/
+public float getDetune()
+{
+return _detune;
+}
+
+/**
+* Sets the detune, added to the frequency of the operator.
+* @param hz Detune in Hz.
+*
+*/
+public void setDetune(float hz)
+{
+_detune = hz;
+}
+
+/**
+* Gets the output level.
+*
+* @return output level.
+*/
+public float getLevel()
+{
+return _level;
+}
+
+/**
+* Sets the output level: the amplitude of a carrier, or the modulation index in radians of a modulator.
+* @param level Output level ( must not be negative ).
+*
+*/
+public void setLevel(float level)
+{
+assert (level >= 0.0f): "bad level; it must not be negative.";
+_level = level;
+}
+
+/**
+* Gets the feedback.
+*
+* @return feedback.
+*/
+public float getFeedback()
+{
+return _feedback;
+}
+
+/**
+* Sets the feedback: the modulation index, in radians, of the operator modulating itself.
+* @param feedback Feedback ( must not be negative ).
+*
+*/
+public void setFeedback(float feedback)
+{
+assert (feedback >= 0.0f): "bad feedback; it must not be negative.";
+_feedback = feedback;
+}
+
+/**
+* Sets the envelope of the operator.
+* @param attack Attack time in ms.
+* @param decay Decay time in ms.
+* @param sustain Sustain level, in the range [0..1].
+* @param release Release time in ms.
+*
+*/
+public void setEnvelope(float attack, float decay, float sustain, float release)
+{
+assert (attack >= 0.0f && decay >= 0.0f && release >= 0.0f): "bad envelope time; it must not be negative.";
+assert (sustain >= 0.0f && sustain <= 1.0f): "bad sustain level; it must be in the range [0..1].";
+_attack = attack;
+_decay = decay;
+_sustain = sustain;
+_release = release;
+}
+
+/**
+* Sets the shape of the envelope segments.
+* @param curve Curve type; see the <code>CurveType</code> class.
+*
+*/
+public void setCurve(int curve)
+{
+assert (curve == CurveType.cLinear || curve == CurveType.cExponential): "bad curve type; see the CurveType class.";
+_curve = curve;
+}
+
+/**
+* Gets the attack time.
+*
+* @return attack time in ms.
+*/
+public float getAttack()
+{
+return _attack;
+}
+
+/**
+* Gets the decay time.
+*
+* @return decay time in ms.
+*/
+public float getDecay()
+{
+return _decay;
+}
+
+/**
+* Gets the sustain level.
+*
+* @return sustain level.
+*/
+public float getSustainLevel()
+{
+return _sustain;
+}
+
+/**
+* Gets the release time.
+*
+* @return release time in ms.
+*/
+public float getRelease()
+{
+return _release;
+}
+
+/**
+* Gets the shape of the envelope segments.
+*
+* @return curve type; see the <code>CurveType</code> class.
+*/
+public int getCurve()
+{
+return _curve;
+}
+
+
+private float _ratio;
+private float _detune;
+private float _level;
+private float _feedback;
+private float _attack;
+private float _decay;
+private float _sustain;
+private float _release;
+private int _curve;
+}
+
+// END
@@ -0,0 +1,329 @@
+/*
+ * Copyright (c) 2026 Ismael Mosquera Rivera
+ *
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+/*
+* FMSynthesizer.java
+*
+* imr-lib
+*
+* Author: Ismael Mosquera Rivera
+*/
+
+package imr.sound.audio.synthesis;
+
+/**
+* The <code>FMSynthesizer</code> class is a polyphonic FM synthesizer with 1 to 8 operators per voice, in the style of the DX synthesizers.
+* <p>
+* Each voice has a sine oscillator and a streaming <code>ADSR</code> envelope per operator.
+* The parameters of the operators are kept in <code>FMOperator</code> objects, shared by all the voices,
+* and the way they modulate each other, including feedback, is set through a <code>FMAlgorithm</code> object.
+* <p>
+* Notes are played as in the <code>PolySynth</code> class: <code>noteOn</code> and <code>noteOff</code> events at sample offsets,
+* and blocks generated by the <code>process</code> method, without allocating memory.
+* <p>
+* The parameters of a <code>Modulator</code> object can be loaded as a 2 operators preset through the <code>setPreset</code> method.
+* <p>
+* Example:
+* <code>
+* FMSynthesizer fm = new FMSynthesizer(4, 32, 44100.0f);
+* fm.setAlgorithm(FMAlgorithm.stack(4));
+* fm.getOperator(1).setRatio(2.0f);
+* fm.getOperator(1).setLevel(3.0f);  // modulation index
+* fm.getOperator(3).setFeedback(0.5f);
+* fm.noteOn(57, 100, 0);
+* fm.process(block, block.length);
+* </code>
+*
+* @see imr.sound.audio.synthesis.FMOperator
+* @see imr.sound.audio.synthesis.FMAlgorithm
+* @see imr.sound.audio.synthesis.VoicePool
+* @see imr.sound.audio.synthesis.Modulator
+*
+* @author Ismael Mosquera Rivera
+*
+*/
+public class FMSynthesizer extends VoicePool
+{
+
+/**
+* Constructor.
+* Makes a new instance of a <code>FMSynthesizer</code> object with 4 operators in a stack, 32 voices, at 44100 Hz.
+*
+*/
+public FMSynthesizer()
+{
+this(4, 32, 44100.0f);
+}
+
+/**
+* Constructor.
+* Makes a new instance of a <code>FMSynthesizer</code> object.
+* The operators are connected in a stack, and the modulators have a level ( modulation index ) of 1.
+* @param operators Number of operators per voice, in the range [1..8].
+* @param voices Number of voices.
+* @param sampleRate Sample rate.
+*
+*/
+public FMSynthesizer(int operators, int voices, float sampleRate)
+{
+super(makeVoices(operators, voices, sampleRate), sampleRate);
+_operators = new FMOperator[operators];
+for(int i = 0; i < operators; i++) _operators[i] = new FMOperator();
+_algorithm = FMAlgorithm.stack(operators);
+for(int i = 0; i < _voices.length; i++) ((Voice)_voices[i]).synth = this;
+}
+
+/**
+* Gets an operator, to set its parameters.
+* @param i Index of the operator.
+*
+* @return <code>FMOperator</code> object.
+*/
+public FMOperator getOperator(int i)
+{
+return _operators[i];
+}
+
+/**
+* Gets the number of operators per voice.
+*
+* @return number of operators.
+*/
+public int getOperators()
+{
+return _operators.length;
+}
+
+/**
+* Gets the algorithm.
+*
+* @return <code>FMAlgorithm</code> object.
+*/
+public FMAlgorithm getAlgorithm()
+{
+return _algorithm;
+}
+
+/**
+* Sets the algorithm, used from the next notes.
+* @param alg <code>FMAlgorithm</code> object with the same number of operators as this synthesizer.
+*
+*/
+public void setAlgorithm(FMAlgorithm alg)
+{
+assert (alg.getOperators() == _operators.length): "bad algorithm; the number of operators does not match.";
+_algorithm = alg;
+}
+
+/**
+* Loads the parameters of a <code>Modulator</code> object as a preset.
+* <p>
+* Operator 1 modulates operator 0, the carrier, and the other operators are not heard nor used:
+* <ul>
+* <li>operator 0: ratio 1, level = carrier amplitude.</li>
+* <li>operator 1: ratio = modulator frequency / carrier frequency, level = modulation index.</li>
+* </ul>
+* The frequency of the played notes takes the place of the carrier frequency.
+* The operators are sines, whatever the wave type of the modulator is,
+* and their envelopes are kept, since the ones of a <code>Modulator</code> depend on the length of each frame.
+* This synthesizer must have at least 2 operators.
+* @param m <code>Modulator</code> object.
+*
+*/
+public void setPreset(Modulator m)
+{
+assert (_operators.length >= 2): "a preset needs at least 2 operators.";
+FMAlgorithm alg = new FMAlgorithm(_operators.length);
+alg.connect(1, 0);
+alg.setCarrier(0, true);
+FMOperator carrier = _operators[0];
+carrier.setRatio(1.0f);
+carrier.setDetune(0.0f);
+carrier.setFeedback(0.0f);
+carrier.setLevel(m.getCarrierAmplitude());
+FMOperator modulator = _operators[1];
+modulator.setRatio(m.getModulatorFrequency() / m.getCarrierFrequency());
+modulator.setDetune(0.0f);
+modulator.setFeedback(0.0f);
+modulator.setLevel(m.getModulationIndex());
+_algorithm = alg;
+}
+
+
+private static SynthVoice[] makeVoices(int operators, int voices, float sampleRate)
+{
+assert (operators > 0 && operators <= FMAlgorithm.MAX_OPERATORS): "bad number of operators; it must be in the range [1..8].";
+assert (voices > 0): "bad number of voices; it must be greater than zero.";
+SynthVoice[] v = new SynthVoice[voices];
+for(int i = 0; i < voices; i++) v[i] = new Voice(operators, sampleRate);
+return v;
+}
+
+
+private FMOperator[] _operators;
+private FMAlgorithm _algorithm;
+
+private static final int TABLE_SIZE = 4096;
+private static final float[] SINE = new float[TABLE_SIZE + 1];
+static
+{
+	for(int i = 0; i <= TABLE_SIZE; i++) SINE[i] = (float)Math.sin(2.0 * Math.PI * i / TABLE_SIZE);
+}
+
+
+/*
+* A voice: an oscillator and an envelope per operator.
+* The operators are computed from the highest index to the lowest one, sample by sample.
+*/
+private static final class Voice implements SynthVoice
+{
+public Voice(int operators, float sampleRate)
+{
+	sr = sampleRate;
+	env = new ADSR[operators];
+	for(int i = 0; i < operators; i++) env[i] = new ADSR(sampleRate);
+	phase = new double[operators];
+	inc = new double[operators];
+	level = new float[operators];
+	feedback = new float[operators];
+	modulators = new int[operators];
+	current = new float[operators];
+	last = new float[operators];
+	before = new float[operators];
+	carriers = 0;
+	scale = 1.0f;
+}
+
+public void start(int note, float frequency)
+{
+	FMAlgorithm alg = synth._algorithm;
+	carriers = alg.getCarriers();
+	scale = (carriers == 0) ? 0.0f : 1.0f / Integer.bitCount(carriers);
+	for(int i = 0; i < env.length; i++)
+	{
+		FMOperator op = synth._operators[i];
+		modulators[i] = alg.getModulators(i);
+		level[i] = op.getLevel();
+		feedback[i] = op.getFeedback();
+		inc[i] = (double)(frequency * op.getRatio() + op.getDetune()) / sr;
+		ADSR e = env[i];
+		e.setCurve(op.getCurve());
+		e.setAttack(op.getAttack());
+		e.setDecay(op.getDecay());
+		e.setSustainLevel(op.getSustainLevel());
+		e.setRelease(op.getRelease());
+		e.gateOn();
+	}
+}
+
+public void release()
+{
+	for(int i = 0; i < env.length; i++) env[i].gateOff();
+}
+
+public void stop()
+{
+	for(int i = 0; i < env.length; i++)
+	{
+		env[i].reset();
+		phase[i] = 0.0;
+		current[i] = 0.0f;
+		last[i] = 0.0f;
+		before[i] = 0.0f;
+	}
+}
+
+public boolean isActive()
+{
+	for(int i = 0; i < env.length; i++) if((carriers & (1 << i)) != 0 && env[i].isActive()) return true;
+	return false;
+}
+
+public boolean isReleasing()
+{
+	for(int i = 0; i < env.length; i++) if((carriers & (1 << i)) != 0 && env[i].isActive() && !env[i].isReleasing()) return false;
+	return true;
+}
+
+public float getLevel()
+{
+	float max = 0.0f;
+	for(int i = 0; i < env.length; i++) if((carriers & (1 << i)) != 0) max = Math.max(max, env[i].getLevel());
+	return max;
+}
+
+public void render(float[] buffer, int n)
+{
+	int ops = env.length;
+	for(int s = 0; s < n; s++)
+	{
+		float sum = 0.0f;
+		for(int i = ops-1; i >= 0; i--)
+		{
+			// phase modulation in radians: the operators above were already computed for this sample
+			float mod = 0.0f;
+			int mask = modulators[i];
+			while(mask != 0)
+			{
+				int j = Integer.numberOfTrailingZeros(mask);
+				mask &= mask - 1;
+				mod += (j > i) ? current[j] : last[j];
+			}
+			if(feedback[i] != 0.0f) mod += feedback[i] * 0.5f * (last[i] + before[i]);
+			double p = phase[i] + mod * INV_TWO_PI;
+			p -= (int)p;
+			if(p < 0.0) p += 1.0;
+			double x = p * TABLE_SIZE;
+			int k = (int)x;
+			float a = SINE[k];
+			float y = level[i] * env[i].next() * (a + (float)(x - k) * (SINE[k+1] - a));
+			current[i] = y;
+			if((carriers & (1 << i)) != 0) sum += y;
+			phase[i] += inc[i];
+			if(phase[i] >= 1.0) phase[i] -= 1.0;
+		}
+		for(int i = 0; i < ops; i++)
+		{
+			before[i] = last[i];
+			last[i] = current[i];
+		}
+		buffer[s] = scale * sum;
+	}
+}
+
+public FMSynthesizer synth;
+private float sr;
+private ADSR[] env;
+private double[] phase;  // in cycles
+private double[] inc;
+private float[] level;
+private float[] feedback;
+private int[] modulators;
+private float[] current;  // outputs of this sample
+private float[] last;  // outputs of the previous sample
+private float[] before;  // outputs of the sample before the previous one
+private int carriers;
+private float scale;
+
+private static final float INV_TWO_PI = (float)(1.0 / (2.0 * Math.PI));
+}
+}
+
+// END
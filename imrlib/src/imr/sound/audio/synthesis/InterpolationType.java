@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2026 Ismael Mosquera Rivera
+ *
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+/*
+* InterpolationType.java
+*
+* imr-lib
+*
+* Author: Ismael Mosquera Rivera
+*/
+
+package imr.sound.audio.synthesis;
+
+/**
+* The <code>InterpolationType</code> class is a utility class with just 2 public constant fields.
+* They set how a <code>WavetableOscillator</code> object reads its tables between two points.
+*
+* @see imr.sound.audio.synthesis.WavetableOscillator
+*
+* @author Ismael Mosquera Rivera
+*
+*/
+public class InterpolationType
+{
+
+/**
+* Constant to set linear interpolation.
+*
+*/
+public static final int iLinear = 0;
+
+/**
+* Constant to set cubic ( 4 points Hermite ) interpolation.
+*
+*/
+public static final int iCubic = 1;
+
+}
+
+// END
@@ -48,6 +48,7 @@ import imr.sound.audio.FrameFactory;
 * @see imr.sound.audio.synthesis.Envelope
 * @see imr.sound.audio.synthesis.Oscillator
 * @see imr.sound.audio.synthesis.WaveType
+* @see imr.sound.audio.synthesis.FMSynthesizer
 *
 * @author Ismael Mosquera Rivera
 *
@@ -199,6 +199,23 @@ for(int i = 0; i < _wave.length; i++)
 _mustUpdate = false;
 }
 
+/**
+* Gets the value of the wave at a given phase.
+* In this case, a 4-harmonic musical note.
+* @param phase Phase in cycles, in the range [0 .. 1).
+*
+* @return value of the wave.
+*
+* @see imr.sound.audio.synthesis.Wave
+*/
+protected float value(double phase)
+{
+double w = 2.0 * Math.PI * phase;
+double sum = _amplitude * Math.cos(w);
+for(int i = 0; i < _fh.length; i++) sum += _ah[i] * Math.cos(w * _fh[i]);
+return (float)(0.25 * sum);
+}
+
 
 {
 _ah = new float[3];
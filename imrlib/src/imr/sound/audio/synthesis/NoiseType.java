@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2026 Ismael Mosquera Rivera
+ *
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+/*
+* NoiseType.java
+*
+* imr-lib
+*
+* Author: Ismael Mosquera Rivera
+*/
+
+package imr.sound.audio.synthesis;
+
+/**
+* The <code>NoiseType</code> class is a utility class with just 3 public constant fields.
+* They set the color of the noise generated by a <code>RandomNoise</code> object.
+*
+* @see imr.sound.audio.synthesis.RandomNoise
+*
+* @author Ismael Mosquera Rivera
+*
+*/
+public class NoiseType
+{
+
+/**
+* Constant to set white noise: the same power at all the frequencies.
+*
+*/
+public static final int nWhite = 0;
+
+/**
+* Constant to set pink noise: the power decreases 3 dB per octave.
+*
+*/
+public static final int nPink = 1;
+
+/**
+* Constant to set brown noise: the power decreases 6 dB per octave.
+*
+*/
+public static final int nBrown = 2;
+
+}
+
+// END
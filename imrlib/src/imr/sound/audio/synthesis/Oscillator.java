@@ -128,6 +128,30 @@ if(flag) _m = null;
 return n;
 }
 
+/**
+* Reads a floating point data frame generated by an <code>Oscillator</code> object.
+* <p>
+* Samples are in the range [-1 .. 1] and they are not quantised.
+* The phase goes on from the last read frame, so consecutive frames do not have discontinuities.
+* This method does not allocate memory.
+* @param frame A float array to fill.
+*
+* @return the number of samples generated ( the size of the array passed as parameter ).
+*/
+public int read(float[] frame)
+{
+int n = frame.length;
+boolean modulated = (_m != null && _m.length >= n);
+for(int i = 0; i < n; i++)
+{
+double m = modulated ? (double)_m[i] : 0.0;
+frame[i] = _amplitude * (float)Math.cos((double)_phase+m);
+_phase += _dphase;
+if(_phase > 2.0f * Math.PI) _phase -= 2.0f * Math.PI;
+}
+return n;
+}
+
 /**
 * Sets the amplitude value for a <code>Oscillator</code> object.
 * @param amp Amplitude value ( must be in the range [0..1] ).
@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2026 Ismael Mosquera Rivera
+ *
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+/*
+* PolySynth.java
+*
+* imr-lib
+*
+* Author: Ismael Mosquera Rivera
+*/
+
+package imr.sound.audio.synthesis;
+
+/**
+* The <code>PolySynth</code> class is a polyphonic synthesizer driven by note events.
+* <p>
+* It has a fixed pool of voices, all of them allocated in the constructor;
+* each voice has a <code>WavetableOscillator</code> and an <code>ADSR</code> envelope.
+* Notes are started and stopped with the <code>noteOn</code> and <code>noteOff</code> methods,
+* at a sample offset inside the next processed block, so the timing is sample accurate.
+* When all the voices are busy, a new note takes the voice which is releasing with the lowest level or, if there is no one, the oldest voice.
+* <p>
+* The <code>process</code> method adds up all the active voices into a floating point block.
+* No memory is allocated per note nor per block.
+* <p>
+* Note events can be sent from a thread other than the one calling <code>process</code>, but just from one thread;
+* they are passed through a lock-free queue.
+* <p>
+* Example:
+* <code>
+* PolySynth synth = new PolySynth(64, 44100.0f);
+* synth.noteOn(60, 100, 0);
+* synth.noteOn(64, 100, 128);
+* synth.process(block, 512);
+* synth.noteOff(60, 0);
+* </code>
+*
+* @see imr.sound.audio.synthesis.VoicePool
+* @see imr.sound.audio.synthesis.WavetableOscillator
+* @see imr.sound.audio.synthesis.ADSR
+*
+* @author Ismael Mosquera Rivera
+*
+*/
+public class PolySynth extends VoicePool
+{
+
+/**
+* Constructor.
+* Makes a new instance of a <code>PolySynth</code> object with 64 voices at 44100 Hz.
+*
+*/
+public PolySynth()
+{
+this(64, 44100.0f);
+}
+
+/**
+* Constructor.
+* Makes a new instance of a <code>PolySynth</code> object.
+* Default values: saw wave, envelope with attack = 10 ms, decay = 100 ms, sustain level = 0.7 and release = 200 ms, amplitude = 0.5.
+* @param voices Number of voices.
+* @param sampleRate Sample rate.
+*
+*/
+public PolySynth(int voices, float sampleRate)
+{
+super(makeVoices(voices, sampleRate), sampleRate);
+}
+
+/**
+* Sets the wave type of all the voices.
+* @param waveType Wave type; see the <code>WaveType</code> class.
+*
+*/
+public void setWaveType(int waveType)
+{
+for(int i = 0; i < _voices.length; i++) ((Voice)_voices[i]).osc.setWaveType(waveType);
+}
+
+/**
+* Sets the interpolation type of all the voices.
+* @param type Interpolation type; see the <code>InterpolationType</code> class.
+*
+*/
+public void setInterpolation(int type)
+{
+for(int i = 0; i < _voices.length; i++) ((Voice)_voices[i]).osc.setInterpolation(type);
+}
+
+/**
+* Sets the envelope of all the voices.
+* @param attack Attack time in ms.
+* @param decay Decay time in ms.
+* @param sustain Sustain level, in the range [0..1].
+* @param release Release time in ms.
+*
+*/
+public void setEnvelope(float attack, float decay, float sustain, float release)
+{
+for(int i = 0; i < _voices.length; i++)
+{
+	ADSR env = ((Voice)_voices[i]).env;
+	env.setAttack(attack);
+	env.setDecay(decay);
+	env.setSustainLevel(sustain);
+	env.setRelease(release);
+}
+}
+
+/**
+* Sets the shape of the envelope segments of all the voices.
+* @param curve Curve type; see the <code>CurveType</code> class.
+*
+*/
+public void setCurve(int curve)
+{
+for(int i = 0; i < _voices.length; i++) ((Voice)_voices[i]).env.setCurve(curve);
+}
+
+
+private static SynthVoice[] makeVoices(int voices, float sampleRate)
+{
+assert (voices > 0): "bad number of voices; it must be greater than zero.";
+SynthVoice[] v = new SynthVoice[voices];
+for(int i = 0; i < voices; i++) v[i] = new Voice(sampleRate);
+return v;
+}
+
+
+/*
+* A voice: an oscillator and its envelope.
+*/
+private static final class Voice implements SynthVoice
+{
+public Voice(float sampleRate)
+{
+	osc = new WavetableOscillator(WaveType.wSaw, 1.0f, 440.0f, sampleRate);
+	env = new ADSR(sampleRate);
+}
+
+public void start(int note, float frequency)
+{
+	osc.setFrequency(frequency);
+	env.gateOn();
+}
+
+public void release()
+{
+	env.gateOff();
+}
+
+public void stop()
+{
+	env.reset();
+}
+
+public boolean isActive()
+{
+	return env.isActive();
+}
+
+public boolean isReleasing()
+{
+	return env.isReleasing();
+}
+
+public float getLevel()
+{
+	return env.getLevel();
+}
+
+public void render(float[] buffer, int n)
+{
+	osc.read(buffer, 0, n);
+	env.apply(buffer, 0, n);
+}
+
+public WavetableOscillator osc;
+public ADSR env;
+}
+}
+
+// END
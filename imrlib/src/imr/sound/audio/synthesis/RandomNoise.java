@@ -28,10 +28,20 @@
 
 package imr.sound.audio.synthesis;
 
-import imr.math.RandomNumberGenerator;
+import imr.math.Xoshiro256;
 
 /**
 * The <code>RandomNoise</code> class generates random noise signals.
+* <p>
+* The noise can be white, pink or brown; see the <code>NoiseType</code> class.
+* Pink noise is generated by the Voss-McCartney algorithm, and brown noise by integrating white noise.
+* <p>
+* Each object has its own <code>Xoshiro256</code> generator, so several objects can generate noise in parallel without contention,
+* and an object made with a seed always generates the same signal.
+* The <code>split</code> method gives an independent noise source, for example for another thread.
+*
+* @see imr.sound.audio.synthesis.NoiseType
+* @see imr.math.Xoshiro256
 *
 * @author Ismael Mosquera Rivera
 *
@@ -42,12 +52,36 @@ public class RandomNoise
 /**
 * Constructor.
 * Makes a new instance object of this class.
-* The default amplitude value is set to 1.0f
+* The default amplitude value is set to 1.0f, and the noise is white.
 *
 */
 public RandomNoise()
 {
+this(new Xoshiro256());
+}
+
+/**
+* Constructor.
+* Makes a new instance object of this class, with a seed, so that the generated noise can be reproduced.
+* The default amplitude value is set to 1.0f, and the noise is white.
+* @param seed Seed.
+*
+*/
+public RandomNoise(long seed)
+{
+this(new Xoshiro256(seed));
+}
+
+/*
+* Makes a noise source over a given generator.
+*/
+private RandomNoise(Xoshiro256 rng)
+{
+_rng = rng;
 _amplitude = 1.0f;
+_type = NoiseType.nWhite;
+_rows = new int[PINK_ROWS];
+reset();
 }
 
 /**
@@ -72,6 +106,52 @@ assert (amp >= 0.0f && amp <= 1.0f): "Bad amplitude value: the value must be in
 _amplitude = amp;
 }
 
+/**
+* Gets the noise type of this object.
+*
+* @return noise type; see the <code>NoiseType</code> class.
+*/
+public int getType()
+{
+return _type;
+}
+
+/**
+* Sets the noise type of this object.
+* @param type Noise type; see the <code>NoiseType</code> class.
+*
+*/
+public void setType(int type)
+{
+assert (type >= NoiseType.nWhite && type <= NoiseType.nBrown): "Bad noise type: see the NoiseType class.";
+_type = type;
+reset();
+}
+
+/**
+* Sets the seed of the generator of this object, and resets the pink and brown noise filters.
+* @param seed Seed.
+*
+*/
+public void setSeed(long seed)
+{
+_rng.setSeed(seed);
+reset();
+}
+
+/**
+* Makes a new noise source with the same type and amplitude, whose signal is independent of the one of this object.
+*
+* @return a new <code>RandomNoise</code> object.
+*/
+public RandomNoise split()
+{
+RandomNoise noise = new RandomNoise(_rng.split());
+noise._amplitude = _amplitude;
+noise._type = _type;
+return noise;
+}
+
 /**
 * Reads a random noise signal.
 * Actually, what this method does is to fill the frame passed
@@ -86,15 +166,97 @@ public int read(byte[] frame)
 if(frame == null || frame.length == 0) return -1;
 for(int i = 0; i < frame.length; i++)
 {
-frame[i] = (byte)(_amplitude * (float)RandomNumberGenerator.generate(MIN, MAX));
+frame[i] = (byte)(_amplitude * next() * 127.0f);
 }
 return frame.length;
 }
 
+/**
+* Reads a random noise signal as floating point samples in the range [-1 .. 1].
+* @param frame Float data frame to be filled
+*
+* @return number of samples read
+*
+*/
+public int read(float[] frame)
+{
+return read(frame, 0, frame.length);
+}
+
+/**
+* Reads a segment of a random noise signal as floating point samples in the range [-1 .. 1].
+* <p>
+* This method does not allocate memory.
+* @param frame Float data frame to be filled
+* @param offset Index of the first sample.
+* @param n Number of samples.
+*
+* @return number of samples read
+*
+*/
+public int read(float[] frame, int offset, int n)
+{
+if(_type == NoiseType.nWhite)
+{
+	_rng.fill(frame, offset, n, -_amplitude, _amplitude);
+	return n;
+}
+int end = offset + n;
+for(int i = offset; i < end; i++) frame[i] = _amplitude * next();
+return n;
+}
+
+
+/*
+* Generates the next sample, in the range [-1 .. 1].
+*/
+private float next()
+{
+float white = 2.0f * _rng.nextFloat() - 1.0f;
+switch(_type)
+{
+	case NoiseType.nPink:
+	// Voss-McCartney: the row given by the trailing zeros of the counter is updated, so row k changes every 2^(k+1) samples
+	_counter++;
+	int k = Integer.numberOfTrailingZeros(_counter);
+	if(k < PINK_ROWS)
+	{
+		// the rows are kept as integers, so their running sum is exact and it does not drift
+		int r = (int)(_rng.nextLong() >> 40);
+		_sum += r - _rows[k];
+		_rows[k] = r;
+	}
+	float p = PINK_GAIN * (ROW_SCALE * _sum + white);
+	return (p > 1.0f) ? 1.0f : ((p < -1.0f) ? -1.0f : p);
+	case NoiseType.nBrown:
+	_brown = (_brown + 0.02f * white) / 1.02f;
+	float b = 3.5f * _brown;
+	return (b > 1.0f) ? 1.0f : ((b < -1.0f) ? -1.0f : b);
+	default:
+	return white;
+}
+}
+
+private void reset()
+{
+for(int i = 0; i < _rows.length; i++) _rows[i] = 0;
+_sum = 0;
+_counter = 0;
+_brown = 0.0f;
+}
+
 
 private float _amplitude;
-private static final int MIN = -127;
-private static final int MAX = 127;
+private int _type;
+private Xoshiro256 _rng;
+private int[] _rows;  // pink noise rows, in the range [-2^23 .. 2^23)
+private int _sum;
+private int _counter;
+private float _brown;
+
+private static final int PINK_ROWS = 16;
+private static final float PINK_GAIN = 0.15f;  // about the same rms as the white noise
+private static final float ROW_SCALE = 1.0f / (1 << 23);
 }
 
 // END
@@ -34,6 +34,7 @@ package imr.sound.audio.synthesis;
 *
 * @see imr.sound.audio.synthesis.Modulator
 * @see imr.sound.audio.synthesis.Wave
+* @see imr.sound.audio.synthesis.BlepOscillator Band-limited version, without aliasing on high notes.
 *
 * @author Ismael Mosquera Rivera
 */
@@ -93,6 +94,20 @@ for(int i = 0; i < _wave.length; i++)
 _mustUpdate = false;
 }
 
+/**
+* Gets the value of the wave at a given phase.
+* In this case, a saw wave.
+* @param phase Phase in cycles, in the range [0 .. 1).
+*
+* @return value of the wave.
+*
+* @see imr.sound.audio.synthesis.Wave
+*/
+protected float value(double phase)
+{
+return _amplitude * (2.0f * (float)phase - 1.0f);
+}
+
 }
 
 // END
@@ -87,6 +87,20 @@ if(phase > 2.0f * Math.PI) phase -= 2.0f * Math.PI;
 _mustUpdate = false;
 }
 
+/**
+* Gets the value of the wave at a given phase.
+* In this case, a sine wave.
+* @param phase Phase in cycles, in the range [0 .. 1).
+*
+* @return value of the wave.
+*
+* @see imr.sound.audio.synthesis.Wave
+*/
+protected float value(double phase)
+{
+return _amplitude * (float)Math.cos(2.0 * Math.PI * phase);
+}
+
 }
 
 // END
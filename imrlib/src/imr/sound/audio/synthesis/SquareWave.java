@@ -34,6 +34,7 @@ package imr.sound.audio.synthesis;
 *
 * @see imr.sound.audio.synthesis.Modulator
 * @see imr.sound.audio.synthesis.Wave
+* @see imr.sound.audio.synthesis.BlepOscillator Band-limited version, without aliasing on high notes.
 *
 * @author Ismael Mosquera Rivera
 */
@@ -85,6 +86,20 @@ for(int i = kn; i < nsamples; i++) _wave[i] = (byte)(_amplitude * -127.0f);
 _mustUpdate = false;
 }
 
+/**
+* Gets the value of the wave at a given phase.
+* In this case, a square wave.
+* @param phase Phase in cycles, in the range [0 .. 1).
+*
+* @return value of the wave.
+*
+* @see imr.sound.audio.synthesis.Wave
+*/
+protected float value(double phase)
+{
+return (phase < 0.5) ? _amplitude : -_amplitude;
+}
+
 }
 
 // END
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2026 Ismael Mosquera Rivera
+ *
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+/*
+* SynthVoice.java
+*
+* imr-lib
+*
+* Author: Ismael Mosquera Rivera
+*/
+
+package imr.sound.audio.synthesis;
+
+/**
+* The <code>SynthVoice</code> interface is implemented by the voices of a <code>VoicePool</code> synthesizer.
+* <p>
+* A voice plays one note at a time. Its methods are called from the thread processing the blocks,
+* and they must not allocate memory.
+*
+* @see imr.sound.audio.synthesis.VoicePool
+*
+* @author Ismael Mosquera Rivera
+*
+*/
+public interface SynthVoice
+{
+
+/**
+* Starts a note, from the current state of the voice if it is still sounding.
+* @param note MIDI note number.
+* @param frequency Frequency of the note in Hz.
+*
+*/
+public void start(int note, float frequency);
+
+/**
+* Starts the release of the current note.
+*
+*/
+public void release();
+
+/**
+* Stops the voice at once.
+*
+*/
+public void stop();
+
+/**
+* Tells whether the voice is sounding.
+*
+* @return <code>true</code> if it is playing or releasing a note.
+*/
+public boolean isActive();
+
+/**
+* Tells whether the voice is releasing its note.
+*
+* @return <code>true</code> if it is releasing.
+*/
+public boolean isReleasing();
+
+/**
+* Gets the current level of the voice, used to choose a voice to be stolen.
+*
+* @return level, in the range [0..1].
+*/
+public float getLevel();
+
+/**
+* Generates the next samples of the voice.
+* @param buffer Float array to be filled; its previous content is overwritten.
+* @param n Number of samples.
+*
+*/
+public void render(float[] buffer, int n);
+
+}
+
+// END
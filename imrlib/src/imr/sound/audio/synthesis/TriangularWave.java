@@ -34,6 +34,7 @@ package imr.sound.audio.synthesis;
  *
  * @see imr.sound.audio.synthesis.Modulator
  * @see imr.sound.audio.synthesis.Wave
+ * @see imr.sound.audio.synthesis.BlepOscillator Band-limited version, without aliasing on high notes.
  *
  * @author Ismael Mosquera Rivera
  */
@@ -101,6 +102,23 @@ for(int j = 0; j < down.length; j++) _wave[i++] = (byte)(-down[j]);
 _mustUpdate = false;
 }
 
+/**
+* Gets the value of the wave at a given phase.
+* In this case, a triangular wave.
+* @param phase Phase in cycles, in the range [0 .. 1).
+*
+* @return value of the wave.
+*
+* @see imr.sound.audio.synthesis.Wave
+*/
+protected float value(double phase)
+{
+float p = (float)phase;
+if(p < 0.25f) return _amplitude * 4.0f * p;
+if(p < 0.75f) return _amplitude * (2.0f - 4.0f * p);
+return _amplitude * (4.0f * p - 4.0f);
+}
+
 }
 
 // END
@@ -0,0 +1,403 @@
+/*
+ * Copyright (c) 2026 Ismael Mosquera Rivera
+ *
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+/*
+* VoicePool.java
+*
+* imr-lib
+*
+* Author: Ismael Mosquera Rivera
+*/
+
+package imr.sound.audio.synthesis;
+
+/**
+* The <code>VoicePool</code> abstract class has all the functionality needed to implement a polyphonic synthesizer driven by note events.
+* <p>
+* It keeps a fixed pool of voices, given by the derived class in its constructor.
+* Notes are started and stopped with the <code>noteOn</code> and <code>noteOff</code> methods,
+* at a sample offset inside the next processed block, so the timing is sample accurate.
+* When all the voices are busy, a new note takes the voice which is releasing with the lowest level or, if there is no one, the oldest voice.
+* <p>
+* The <code>process</code> method adds up all the active voices into a floating point block.
+* No memory is allocated per note nor per block.
+* <p>
+* Note events can be sent from a thread other than the one calling <code>process</code>, but just from one thread;
+* they are passed through a lock-free queue.
+* <p>
+* The following classes are derived from this one:
+* <ul>
+* <li>PolySynth</li>
+* <li>FMSynthesizer</li>
+* </ul>
+*
+* @see imr.sound.audio.synthesis.SynthVoice
+*
+* @author Ismael Mosquera Rivera
+*
+*/
+public abstract class VoicePool
+{
+
+/**
+* Constructor.
+* Makes a new instance of a <code>VoicePool</code> object.
+* Since this is an abstract class, it cannot be instantiated directly, but through a class derived from this one.
+* @param voices The voices of the pool.
+* @param sampleRate Sample rate.
+*
+*/
+protected VoicePool(SynthVoice[] voices, float sampleRate)
+{
+assert (voices.length > 0): "bad number of voices; it must be greater than zero.";
+assert (sampleRate > 0.0f): "bad value for sample rate; it must be greater than zero.";
+_sampleRate = sampleRate;
+_amplitude = 0.5f;
+_voices = voices;
+_note = new int[voices.length];
+_gain = new float[voices.length];
+_start = new long[voices.length];
+for(int i = 0; i < voices.length; i++) _note[i] = -1;
+_scratch = new float[BLOCK_SIZE];
+_queueType = new int[QUEUE_SIZE];
+_queueNote = new int[QUEUE_SIZE];
+_queueVelocity = new int[QUEUE_SIZE];
+_queueOffset = new int[QUEUE_SIZE];
+_pendingType = new int[QUEUE_SIZE];
+_pendingNote = new int[QUEUE_SIZE];
+_pendingVelocity = new int[QUEUE_SIZE];
+_pendingOffset = new int[QUEUE_SIZE];
+_pending = 0;
+_write = 0;
+_read = 0;
+_clock = 0;
+}
+
+/**
+* Starts a note.
+* @param note MIDI note number [0..127].
+* @param velocity MIDI velocity [0..127]; zero velocity stops the note.
+* @param offset Sample offset in the next processed block; if it is beyond the block, the note starts in a later one.
+*
+* @return <code>true</code> if the event was queued or <code>false</code> if the queue is full.
+*/
+public boolean noteOn(int note, int velocity, int offset)
+{
+assert (note >= 0 && note < 128): "bad note; it must be in the range [0..127].";
+assert (velocity >= 0 && velocity < 128): "bad velocity; it must be in the range [0..127].";
+if(velocity == 0) return noteOff(note, offset);
+return post(NOTE_ON, note, velocity, offset);
+}
+
+/**
+* Stops a note: the voice playing it starts its release.
+* @param note MIDI note number [0..127].
+* @param offset Sample offset in the next processed block; if it is beyond the block, the note stops in a later one.
+*
+* @return <code>true</code> if the event was queued or <code>false</code> if the queue is full.
+*/
+public boolean noteOff(int note, int offset)
+{
+assert (note >= 0 && note < 128): "bad note; it must be in the range [0..127].";
+return post(NOTE_OFF, note, 0, offset);
+}
+
+/**
+* Stops all the notes: all the voices start their release.
+* @param offset Sample offset in the next processed block.
+*
+* @return <code>true</code> if the event was queued or <code>false</code> if the queue is full.
+*/
+public boolean allNotesOff(int offset)
+{
+return post(ALL_OFF, 0, 0, offset);
+}
+
+/**
+* Processes a block: applies the note events falling into it and adds up all the active voices.
+* @param out Float array to be filled; its previous content is overwritten.
+* @param n Number of samples.
+*
+*/
+public void process(float[] out, int n)
+{
+drain();
+int pos = 0;
+int e = 0;
+while(pos < n)
+{
+	// apply the events at this position
+	while(e < _pending && _pendingOffset[e] <= pos)
+	{
+		apply(_pendingType[e], _pendingNote[e], _pendingVelocity[e]);
+		e++;
+	}
+	int end = (e < _pending) ? Math.min(n, _pendingOffset[e]) : n;
+	render(out, pos, end - pos);
+	pos = end;
+}
+// events beyond this block are kept for the next ones
+int k = 0;
+for(int i = e; i < _pending; i++, k++)
+{
+	_pendingType[k] = _pendingType[i];
+	_pendingNote[k] = _pendingNote[i];
+	_pendingVelocity[k] = _pendingVelocity[i];
+	_pendingOffset[k] = _pendingOffset[i] - n;
+}
+_pending = k;
+}
+
+/**
+* Gets the number of voices playing or releasing a note.
+*
+* @return number of active voices.
+*/
+public int getActiveVoices()
+{
+int n = 0;
+for(int i = 0; i < _voices.length; i++) if(_voices[i].isActive()) n++;
+return n;
+}
+
+/**
+* Gets the number of voices of this synthesizer.
+*
+* @return number of voices.
+*/
+public int getVoices()
+{
+return _voices.length;
+}
+
+/**
+* Gets the sample rate of this synthesizer.
+*
+* @return sample rate.
+*/
+public float getSampleRate()
+{
+return _sampleRate;
+}
+
+/**
+* Gets the master amplitude of this synthesizer.
+*
+* @return amplitude.
+*/
+public float getAmplitude()
+{
+return _amplitude;
+}
+
+/**
+* Sets the master amplitude of this synthesizer.
+* @param amp Amplitude ( must be in the range [0..1] ).
+*
+*/
+public void setAmplitude(float amp)
+{
+assert (amp >= 0.0f && amp <= 1.0f): "bad amplitude; allowed values: ( 0.0f .. 1.0f ).";
+_amplitude = amp;
+}
+
+/**
+* Stops all the voices at once and discards the queued events.
+* It must not be called while a block is being processed.
+*
+*/
+public void reset()
+{
+for(int i = 0; i < _voices.length; i++) _voices[i].stop();
+_read = _write;
+_pending = 0;
+}
+
+/**
+* Gets the frequency of a MIDI note, in equal temperament with A4 = 440 Hz.
+* @param note MIDI note number.
+*
+* @return frequency in Hz.
+*/
+public static float getFrequency(int note)
+{
+return (float)(440.0 * Math.pow(2.0, (note - 69) / 12.0));
+}
+
+
+/*
+* Puts an event into the lock-free queue ( one producer, one consumer ).
+*/
+private boolean post(int type, int note, int velocity, int offset)
+{
+assert (offset >= 0): "bad offset; it must not be negative.";
+int w = _write;
+if(w - _read == QUEUE_SIZE) return false;
+int i = w & (QUEUE_SIZE - 1);
+_queueType[i] = type;
+_queueNote[i] = note;
+_queueVelocity[i] = velocity;
+_queueOffset[i] = offset;
+_write = w + 1;
+return true;
+}
+
+/*
+* Moves the queued events to the pending list, sorted by offset ( stable ).
+*/
+private void drain()
+{
+int w = _write;
+int r = _read;
+while(r != w && _pending < QUEUE_SIZE)
+{
+	int i = r & (QUEUE_SIZE - 1);
+	int k = _pending++;
+	int offset = _queueOffset[i];
+	while(k > 0 && _pendingOffset[k-1] > offset)
+	{
+		_pendingType[k] = _pendingType[k-1];
+		_pendingNote[k] = _pendingNote[k-1];
+		_pendingVelocity[k] = _pendingVelocity[k-1];
+		_pendingOffset[k] = _pendingOffset[k-1];
+		k--;
+	}
+	_pendingType[k] = _queueType[i];
+	_pendingNote[k] = _queueNote[i];
+	_pendingVelocity[k] = _queueVelocity[i];
+	_pendingOffset[k] = offset;
+	r++;
+}
+_read = r;
+}
+
+private void apply(int type, int note, int velocity)
+{
+switch(type)
+{
+	case NOTE_ON:
+	int v = allocate(note);
+	_note[v] = note;
+	_gain[v] = velocity / 127.0f;
+	_start[v] = _clock++;
+	_voices[v].start(note, FREQUENCIES[note]);
+	break;
+	case NOTE_OFF:
+	for(int i = 0; i < _voices.length; i++)
+	{
+		SynthVoice u = _voices[i];
+		if(_note[i] == note && u.isActive() && !u.isReleasing()) u.release();
+	}
+	break;
+	case ALL_OFF:
+	for(int i = 0; i < _voices.length; i++) if(_voices[i].isActive()) _voices[i].release();
+	break;
+	default:
+	break;
+}
+}
+
+/*
+* Finds a voice for a new note: the one already playing the same note, an idle one, or a stolen one.
+*/
+private int allocate(int note)
+{
+int idle = -1;
+int released = -1;
+int oldest = -1;
+for(int i = 0; i < _voices.length; i++)
+{
+	SynthVoice v = _voices[i];
+	if(!v.isActive())
+	{
+		if(idle < 0) idle = i;
+		continue;
+	}
+	if(_note[i] == note) return i;
+	if(v.isReleasing())
+	{
+		if(released < 0 || v.getLevel() < _voices[released].getLevel()) released = i;
+	}
+	if(oldest < 0 || _start[i] < _start[oldest]) oldest = i;
+}
+if(idle >= 0) return idle;
+if(released >= 0) return released;
+return oldest;
+}
+
+/*
+* Adds up the active voices into a segment of the output block.
+*/
+private void render(float[] out, int offset, int n)
+{
+int end = offset + n;
+for(int i = offset; i < end; i++) out[i] = 0.0f;
+for(int pos = offset; pos < end; pos += BLOCK_SIZE)
+{
+	int len = Math.min(BLOCK_SIZE, end - pos);
+	for(int k = 0; k < _voices.length; k++)
+	{
+		SynthVoice v = _voices[k];
+		if(!v.isActive()) continue;
+		v.render(_scratch, len);
+		float g = _gain[k] * _amplitude;
+		for(int i = 0; i < len; i++) out[pos+i] += g * _scratch[i];
+	}
+}
+}
+
+
+protected float _sampleRate;
+protected SynthVoice[] _voices;
+
+private float _amplitude;
+private int[] _note;
+private float[] _gain;
+private long[] _start;
+private float[] _scratch;
+private long _clock;
+
+private int[] _queueType;
+private int[] _queueNote;
+private int[] _queueVelocity;
+private int[] _queueOffset;
+private volatile int _write;
+private volatile int _read;
+
+private int[] _pendingType;
+private int[] _pendingNote;
+private int[] _pendingVelocity;
+private int[] _pendingOffset;
+private int _pending;
+
+private static final int NOTE_ON = 0;
+private static final int NOTE_OFF = 1;
+private static final int ALL_OFF = 2;
+private static final int QUEUE_SIZE = 1024;
+private static final int BLOCK_SIZE = 256;
+
+private static final float[] FREQUENCIES = new float[128];
+static
+{
+	for(int i = 0; i < FREQUENCIES.length; i++) FREQUENCIES[i] = getFrequency(i);
+}
+}
+
+// END
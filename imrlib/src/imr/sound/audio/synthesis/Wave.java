@@ -28,12 +28,17 @@
 
 package imr.sound.audio.synthesis;
 
-import java.io.ByteArrayOutputStream;
-
 /**
 * The <code>Wave</code> abstract class has all the functionallity needed to synthesize any kind of wave.
 * Classes derived from this one must implement its protected <code>buildWave()</code> abstract method
 * in order to synthesize the desired type of wave.
+* <p>
+* The wave keeps its phase from one call of the <code>get</code> methods to the next one,
+* so a long signal can be generated block by block without discontinuities.
+* Each period has exactly <code>sampleRate / frequency</code> samples on average, since the phase is not rounded to a whole number of samples.
+* <p>
+* Derived classes can override the protected <code>value</code> method to give the exact shape of the wave;
+* otherwise, the shape is taken from the single oscillation made by <code>buildWave()</code>.
 *
 * @author Ismael Mosquera Rivera
 */
@@ -74,6 +79,7 @@ setSampleRate(sr);
 * @param data Byte array to be filled.
 *
 * The length of the byte array passed as parameter must be according to the desired duration.
+* The wave goes on from the phase where the last call finished; this method does not allocate memory.
 *
 * @see imr.sound.audio.FrameFactory
 *
@@ -81,20 +87,73 @@ setSampleRate(sr);
 */
 public int get(byte[] data)
 {
-	if(_mustUpdate) buildWave();
-ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-int nchuncks = data.length / _wave.length;
-for(int i = 0; i < nchuncks; i++) buffer.write(_wave, 0, _wave.length);
-int tmpLen = nchuncks * _wave.length;
-if(tmpLen < data.length)
+update();
+float[] t = _table;
+double x = _phase * TABLE_SIZE;
+double dx = (double)_frequency / (double)_sampleRate * TABLE_SIZE;
+for(int i = 0; i < data.length; i++)
+{
+	int k = (int)x;
+	float a = t[k];
+	data[i] = (byte)((a + (float)(x - k) * (t[k+1] - a)) * 127.0f);
+	x += dx;
+	if(x >= TABLE_SIZE) x -= TABLE_SIZE;
+}
+_phase = x / TABLE_SIZE;
+return data.length;
+}
+
+/**
+* Gets the wave as floating point samples in the range [-1 .. 1].
+*
+* @param data Float array to be filled.
+*
+* The wave goes on from the phase where the last call finished; this method does not allocate memory.
+*
+* @return number of samples read
+*/
+public int get(float[] data)
+{
+return get(data, 0, data.length);
+}
+
+/**
+* Gets a segment of the wave as floating point samples in the range [-1 .. 1].
+*
+* @param data Float array to be filled.
+* @param offset Index of the first sample to fill.
+* @param n Number of samples to fill.
+*
+* The wave goes on from the phase where the last call finished; this method does not allocate memory.
+*
+* @return number of samples read
+*/
+public int get(float[] data, int offset, int n)
+{
+update();
+float[] t = _table;
+double x = _phase * TABLE_SIZE;
+double dx = (double)_frequency / (double)_sampleRate * TABLE_SIZE;
+int end = offset + n;
+for(int i = offset; i < end; i++)
 {
-byte[] end_frame = new byte[data.length - tmpLen];
-for(int i = 0; i < end_frame.length; i++) end_frame[i] = _wave[i];
-buffer.write(end_frame, 0, end_frame.length);
+	int k = (int)x;
+	float a = t[k];
+	data[i] = a + (float)(x - k) * (t[k+1] - a);
+	x += dx;
+	if(x >= TABLE_SIZE) x -= TABLE_SIZE;
 }
-byte[] b = buffer.toByteArray();
-for(int i = 0; i < b.length; i++) data[i] = b[i];
-return b.length;
+_phase = x / TABLE_SIZE;
+return n;
+}
+
+/**
+* Sets the phase of the wave back to zero, so the next call to <code>get</code> starts a new oscillation.
+*
+*/
+public void resetPhase()
+{
+_phase = 0.0;
 }
 
 /**
@@ -182,6 +241,39 @@ _mustUpdate = true;
 */
 protected abstract void buildWave();
 
+/**
+* Gets the value of the wave at a given phase, including its amplitude.
+* <p>
+* This method is used to build the table read by the <code>get</code> methods each time a parameter changes.
+* By default, it interpolates the single oscillation made by <code>buildWave()</code>;
+* derived classes can override it to give the exact shape of the wave.
+* @param phase Phase in cycles, in the range [0 .. 1).
+*
+* @return value of the wave, in the range [-1 .. 1].
+*/
+protected float value(double phase)
+{
+double x = phase * _wave.length;
+int i = (int)x;
+int j = (i + 1 < _wave.length) ? i + 1 : 0;
+float f = (float)(x - i);
+return ((float)_wave[i] + f * (float)(_wave[j] - _wave[i])) / 127.0f;
+}
+
+
+/*
+* Rebuilds the table of a single oscillation if a parameter changed.
+*/
+private void update()
+{
+if(!_mustUpdate) return;
+buildWave();
+if(_table == null) _table = new float[TABLE_SIZE + 1];
+for(int i = 0; i < TABLE_SIZE; i++) _table[i] = value((double)i / TABLE_SIZE);
+_table[TABLE_SIZE] = _table[0];
+_mustUpdate = false;
+}
+
 
 protected float _amplitude;
 protected float _frequency;
@@ -190,6 +282,10 @@ protected boolean _mustUpdate;
 
 protected byte[] _wave;
 
+private double _phase;  // in cycles
+private float[] _table;
+
+private static final int TABLE_SIZE = 4096;
 }
 
 // END
@@ -0,0 +1,450 @@
+/*
+ * Copyright (c) 2026 Ismael Mosquera Rivera
+ *
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+/*
+* WavetableOscillator.java
+*
+* imr-lib
+*
+* Author: Ismael Mosquera Rivera
+*/
+
+package imr.sound.audio.synthesis;
+
+/**
+* The <code>WavetableOscillator</code> class generates band-limited periodic waves reading precomputed tables.
+* <p>
+* Each wave is stored as a set of tables, one per octave, built adding sinusoids ( harmonics ):
+* the table used for a frequency only has the harmonics below the Nyquist frequency, so the output has no aliasing.
+* The tables of the saw, sine, square and triangular waves are built once and shared by all the oscillators.
+* <p>
+* The phase is kept as a double precision value, so the frequency is exact and long signals have no drift,
+* and the tables can be read with linear or cubic interpolation.
+* Reading a table is much faster than computing a cosine per sample, as the <code>Oscillator</code> class does.
+* <p>
+* Samples are generated as floating point values in the range [-1 .. 1], and the phase goes on from one read to the next one.
+* The frequency can be changed between two reads, or given per sample, so changes are sample accurate.
+* <p>
+* Example:
+* <code>
+* WavetableOscillator osc = new WavetableOscillator(WaveType.wSaw, 0.8f, 440.0f, 44100.0f);
+* osc.read(frame, 0, 100);
+* osc.setFrequency(880.0f);  // takes effect at sample 100
+* osc.read(frame, 100, frame.length-100);
+* </code>
+*
+* @see imr.sound.audio.synthesis.WaveType
+* @see imr.sound.audio.synthesis.InterpolationType
+*
+* @author Ismael Mosquera Rivera
+*
+*/
+public class WavetableOscillator
+{
+
+/**
+* Constructor.
+* Makes a new instance of a <code>WavetableOscillator</code> object.
+* Default values: saw wave, amplitude = 0.8, frequency = 440 Hz, sample rate = 44100.
+*
+*/
+public WavetableOscillator()
+{
+this(WaveType.wSaw, 0.8f, 440.0f, 44100.0f);
+}
+
+/**
+* Constructor.
+* Makes a new instance of a <code>WavetableOscillator</code> object.
+* @param waveType Wave type; see the <code>WaveType</code> class.
+* @param amp Amplitude ( must be in the range [0..1] ).
+* @param freq Frequency in Hz ( must be greater than zero ).
+* @param sampleRate Sample rate.
+*
+*/
+public WavetableOscillator(int waveType, float amp, float freq, float sampleRate)
+{
+assert (waveType >= WaveType.wSaw && waveType <= WaveType.wTriangular): "bad wave type; see the WaveType class.";
+init(getTables(waveType), amp, freq, sampleRate);
+}
+
+/**
+* Constructor.
+* Makes a new instance of a <code>WavetableOscillator</code> object generating a wave with arbitrary harmonics.
+* @param harmonics Amplitudes of the harmonics: <code>harmonics[0]</code> for the fundamental, <code>harmonics[1]</code> for the second harmonic and so on.
+* @param amp Amplitude ( must be in the range [0..1] ).
+* @param freq Frequency in Hz ( must be greater than zero ).
+* @param sampleRate Sample rate.
+*
+*/
+public WavetableOscillator(float[] harmonics, float amp, float freq, float sampleRate)
+{
+assert (harmonics.length > 0): "bad harmonics; there must be at least one.";
+double[] c = new double[harmonics.length];
+for(int i = 0; i < c.length; i++) c[i] = (double)harmonics[i];
+init(buildTables(c), amp, freq, sampleRate);
+}
+
+/**
+* Gets the amplitude of this oscillator.
+*
+* @return amplitude value.
+*/
+public float getAmplitude()
+{
+return _amplitude;
+}
+
+/**
+* Gets the frequency of this oscillator.
+*
+* @return frequency value.
+*/
+public float getFrequency()
+{
+return _frequency;
+}
+
+/**
+* Gets the sample rate of this oscillator.
+*
+* @return sample rate value.
+*/
+public float getSampleRate()
+{
+return _sampleRate;
+}
+
+/**
+* Gets the current phase of this oscillator.
+*
+* @return phase, in cycles, in the range [0 .. 1).
+*/
+public double getPhase()
+{
+return _phase;
+}
+
+/**
+* Gets the interpolation type of this oscillator.
+*
+* @return interpolation type; see the <code>InterpolationType</code> class.
+*/
+public int getInterpolation()
+{
+return _interpolation;
+}
+
+/**
+* Sets the amplitude of this oscillator.
+* @param amp Amplitude value ( must be in the range [0..1] ).
+*
+*/
+public void setAmplitude(float amp)
+{
+assert (amp >= 0.0f && amp <= 1.0f): "bad amplitude; allowed values: ( 0.0f .. 1.0f ).";
+_amplitude = amp;
+}
+
+/**
+* Sets the frequency of this oscillator.
+* <p>
+* The new frequency is used from the next generated sample, and the phase goes on, so there is no discontinuity.
+* @param freq Frequency value ( must be greater than zero ).
+*
+*/
+public void setFrequency(float freq)
+{
+assert (freq > 0.0f): "bad value for frequency; it must be greater than zero.";
+_frequency = freq;
+_increment = (double)freq / (double)_sampleRate;
+_table = _tables[level(freq)];
+}
+
+/**
+* Sets the sample rate of this oscillator.
+* @param sr Sample rate ( must be greater than zero ).
+*
+*/
+public void setSampleRate(float sr)
+{
+assert (sr > 0.0f): "bad value for sample rate; it must be greater than zero.";
+_sampleRate = sr;
+setFrequency(_frequency);
+}
+
+/**
+* Sets the phase of this oscillator.
+* @param phase Phase, in cycles; only its fractional part is used.
+*
+*/
+public void setPhase(double phase)
+{
+_phase = phase - Math.floor(phase);
+}
+
+/**
+* Sets the wave type of this oscillator.
+* <p>
+* The phase goes on, and no memory is allocated once the tables of the wave type were built.
+* @param waveType Wave type; see the <code>WaveType</code> class.
+*
+*/
+public void setWaveType(int waveType)
+{
+assert (waveType >= WaveType.wSaw && waveType <= WaveType.wTriangular): "bad wave type; see the WaveType class.";
+_tables = getTables(waveType);
+_table = _tables[level(_frequency)];
+}
+
+/**
+* Sets the interpolation type of this oscillator.
+* @param type Interpolation type; see the <code>InterpolationType</code> class.
+*
+*/
+public void setInterpolation(int type)
+{
+assert (type == InterpolationType.iLinear || type == InterpolationType.iCubic): "bad interpolation type; see the InterpolationType class.";
+_interpolation = type;
+}
+
+/**
+* Reads a floating point data frame generated by this oscillator.
+* @param frame A float array to fill.
+*
+* @return the number of samples generated ( the size of the array passed as parameter ).
+*/
+public int read(float[] frame)
+{
+return read(frame, 0, frame.length);
+}
+
+/**
+* Reads a segment of a floating point data frame generated by this oscillator.
+* <p>
+* This method does not allocate memory.
+* @param frame A float array to fill.
+* @param offset Index of the first sample to fill.
+* @param n Number of samples to generate.
+*
+* @return the number of samples generated.
+*/
+public int read(float[] frame, int offset, int n)
+{
+float[] t = _table;
+double phase = _phase;
+double inc = _increment;
+float amp = _amplitude;
+int end = offset + n;
+if(_interpolation == InterpolationType.iCubic)
+{
+	for(int i = offset; i < end; i++)
+	{
+		frame[i] = amp * cubic(t, phase);
+		phase += inc;
+		if(phase >= 1.0) phase -= 1.0;
+	}
+}
+else
+{
+	// the phase is kept in table points inside the loop
+	double x = phase * SIZE;
+	double dx = inc * SIZE;
+	for(int i = offset; i < end; i++)
+	{
+		int k = (int)x;
+		float a = t[k+1];
+		frame[i] = amp * (a + (float)(x - k) * (t[k+2] - a));
+		x += dx;
+		if(x >= SIZE) x -= SIZE;
+	}
+	phase = x / SIZE;
+}
+_phase = phase;
+return n;
+}
+
+/**
+* Reads a floating point data frame with a frequency per sample, for example to perform glides or vibrato.
+* <p>
+* The table is chosen again each time the frequency changes, so the output is band-limited for each sample.
+* After this call, the frequency of this oscillator is the last one in the array.
+* This method does not allocate memory.
+* @param frame A float array to fill.
+* @param frequency Frequency in Hz for each sample.
+* @param n Number of samples to generate.
+*
+* @return the number of samples generated.
+*/
+public int read(float[] frame, float[] frequency, int n)
+{
+double phase = _phase;
+float amp = _amplitude;
+float f = -1.0f;
+float[] t = _table;
+double inc = _increment;
+boolean cubic = (_interpolation == InterpolationType.iCubic);
+for(int i = 0; i < n; i++)
+{
+	if(frequency[i] != f)
+	{
+		f = frequency[i];
+		inc = (double)f / (double)_sampleRate;
+		t = _tables[level(f)];
+	}
+	frame[i] = amp * (cubic ? cubic(t, phase) : linear(t, phase));
+	phase += inc;
+	if(phase >= 1.0) phase -= 1.0;
+	else if(phase < 0.0) phase += 1.0;
+}
+_phase = phase;
+if(n > 0 && f > 0.0f) setFrequency(f);
+return n;
+}
+
+
+private void init(float[][] tables, float amp, float freq, float sampleRate)
+{
+assert (sampleRate > 0.0f): "bad value for sample rate; it must be greater than zero.";
+_tables = tables;
+_sampleRate = sampleRate;
+_phase = 0.0;
+_interpolation = InterpolationType.iLinear;
+setAmplitude(amp);
+setFrequency(freq);
+}
+
+/*
+* The first table whose harmonics are all below the Nyquist frequency.
+*/
+private int level(float freq)
+{
+double ratio = 0.5 * (double)_sampleRate / (double)freq;
+int k = 0;
+while(k < LEVELS-1 && (double)(MAX_HARMONICS >> k) > ratio) k++;
+return k;
+}
+
+private static float linear(float[] t, double phase)
+{
+double x = phase * SIZE;
+int i = (int)x;
+float f = (float)(x - i);
+float a = t[i+1];
+return a + f * (t[i+2] - a);
+}
+
+private static float cubic(float[] t, double phase)
+{
+double x = phase * SIZE;
+int i = (int)x;
+float f = (float)(x - i);
+float xm1 = t[i];
+float x0 = t[i+1];
+float x1 = t[i+2];
+float x2 = t[i+3];
+float c1 = 0.5f * (x1 - xm1);
+float c2 = xm1 - 2.5f * x0 + 2.0f * x1 - 0.5f * x2;
+float c3 = 0.5f * (x2 - xm1) + 1.5f * (x0 - x1);
+return ((c3 * f + c2) * f + c1) * f + x0;
+}
+
+/*
+* Gets the shared tables of a wave type, building them the first time.
+*/
+private static synchronized float[][] getTables(int waveType)
+{
+if(TABLES[waveType] == null)
+{
+	double[] c = new double[MAX_HARMONICS];
+	for(int k = 0; k < c.length; k++)
+	{
+		int h = k + 1;
+		switch(waveType)
+		{
+			case WaveType.wSaw:
+			c[k] = ((h % 2 == 0) ? -2.0 : 2.0) / (Math.PI * h);
+			break;
+			case WaveType.wSine:
+			c[k] = (h == 1) ? 1.0 : 0.0;
+			break;
+			case WaveType.wSquare:
+			c[k] = (h % 2 == 0) ? 0.0 : 4.0 / (Math.PI * h);
+			break;
+			case WaveType.wTriangular:
+			c[k] = (h % 2 == 0) ? 0.0 : (((h / 2) % 2 == 0) ? 8.0 : -8.0) / (Math.PI * Math.PI * h * h);
+		}
+	}
+	TABLES[waveType] = buildTables(c);
+}
+return TABLES[waveType];
+}
+
+/*
+* Builds one table per octave, adding sine harmonics; all of them are normalized by the same factor.
+* Each table has a guard point before and two after the period, so interpolation needs no wrapping.
+*/
+private static float[][] buildTables(double[] c)
+{
+double[] sin = new double[SIZE];
+for(int j = 0; j < SIZE; j++) sin[j] = Math.sin(2.0 * Math.PI * j / SIZE);
+double[][] w = new double[LEVELS][SIZE];
+double peak = 0.0;
+for(int k = 0; k < LEVELS; k++)
+{
+	int harmonics = Math.min(MAX_HARMONICS >> k, c.length);
+	for(int h = 1; h <= harmonics; h++)
+	{
+		double a = c[h-1];
+		if(a == 0.0) continue;
+		for(int j = 0; j < SIZE; j++) w[k][j] += a * sin[(int)(((long)h * j) % SIZE)];
+	}
+	for(int j = 0; j < SIZE; j++) peak = Math.max(peak, Math.abs(w[k][j]));
+}
+float scale = (peak > 0.0) ? (float)(1.0 / peak) : 1.0f;
+float[][] tables = new float[LEVELS][SIZE + 3];
+for(int k = 0; k < LEVELS; k++)
+{
+	float[] t = tables[k];
+	for(int j = 0; j < SIZE; j++) t[j+1] = scale * (float)w[k][j];
+	t[0] = t[SIZE];
+	t[SIZE+1] = t[1];
+	t[SIZE+2] = t[2];
+}
+return tables;
+}
+
+
+private float _amplitude;
+private float _frequency;
+private float _sampleRate;
+private double _phase;  // in cycles
+private double _increment;
+private int _interpolation;
+private float[][] _tables;
+private float[] _table;
+
+private static final int SIZE = 2048;
+private static final int MAX_HARMONICS = SIZE / 2;
+private static final int LEVELS = 11;
+private static final float[][][] TABLES = new float[4][][];
+}
+
+// END
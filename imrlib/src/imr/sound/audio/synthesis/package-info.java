@@ -7,6 +7,9 @@
  * <code>Envelope</code>
  * Using this class you can generate ADSR envelopes, for example, to apply to a wave generated by an <code>Oscillator</code> object.
  *
+ * <code>ADSR</code>
+ * A streaming ADSR envelope, computed sample by sample and driven by a gate, with linear or exponential segments ( see <code>CurveType</code> ).
+ *
  * <code>Wave</code>
  * This is an abstract class with all the functionallity needed to generate waves of any type.
  * The folloeing classes are derived from <code>Wave</code>
@@ -19,10 +22,18 @@
  * </ul>
  * You can guess what are the xxxWave classes; the <code>MusicalNote</code> one implements
  * a 4-harmonic musical note.
+ * Waves keep their phase from one block to the next one, and they can be read as bytes or as floating point samples.
  *
  * <code>WaveType</code>
  * This class just have 4 public fields useful to set a possible desired wave.
  *
+ * <code>WavetableOscillator</code>
+ * Generates band-limited waves, without aliasing, reading one table per octave with linear or cubic interpolation.
+ * The <code>InterpolationType</code> class has the constants to choose the interpolation.
+ *
+ * <code>BlepOscillator</code>
+ * Generates band-limited saw, square ( or pulse ) and triangular waves sample by sample, correcting the naive waves with PolyBLEP and PolyBLAMP.
+ *
  * <code>Synthesizer</code>
  * This abstract class has all the needed functionallity to implement a basic synthesizer.
  * To subclass this class, you only need to implement its protected <code>setWave()</code> abstract method.
@@ -32,6 +43,16 @@
  * </ul>
  * The <code>MusicalSynthesizer</code> class implements a basic instrument.
  *
+ * <code>VoicePool</code>
+ * An abstract class with a fixed pool of voices ( see <code>SynthVoice</code> ), driven by note on and note off events at sample offsets.
+ * The following classes are derived from it:
+ * <ul>
+ * <li>PolySynth</li>
+ * <li>FMSynthesizer</li>
+ * </ul>
+ * The <code>PolySynth</code> class plays wavetable oscillators; the <code>FMSynthesizer</code> one implements FM synthesis
+ * with up to 8 operators ( see <code>FMOperator</code> ) connected by an <code>FMAlgorithm</code> object.
+ *
  * <code>Modulator</code>
  * This is an abstract class with functionallity to easy subclass any modulator.
  * The following classes are derived from it.
@@ -44,11 +65,14 @@
  * That is: saw, sine, square or triangular.
  *
  * <code>RandomNoise</code>
- * A class to generate random noise signals.
+ * A class to generate white, pink or brown random noise signals ( see <code>NoiseType</code> ), reproducible from a seed.
  *
  * <code>SpectralSynthesizer</code>
  * A class suitable to perform spectral synthesis.
  *
+ * <code>AdditiveSynthesizer</code>
+ * Adds up any number of partials generated by recursive oscillators; they can be set as harmonics or from a <code>Spectrum</code>.
+ *
  * Some classes in this package use assertions. so, you have to run them with the 'ea' modifier
  * which enables assertions.
  * Example:
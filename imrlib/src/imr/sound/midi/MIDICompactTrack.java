@@ -0,0 +1,620 @@
+/*
+ * Copyright (c) 2026 Ismael Mosquera Rivera
+ *
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+/*
+* MIDICompactTrack.java
+*
+* imr-lib
+*
+* Author: Ismael Mosquera Rivera
+*/
+
+package imr.sound.midi;
+
+import java.util.ArrayList;
+import java.util.ListIterator;
+
+/**
+* A <code>MIDICompactTrack</code> stores the events of a track in columns, instead of a list of objects as <code>MIDITrack</code> does.
+* <p>
+* The events are kept in arrays:
+* <ul>
+* <li>a <code>long</code> array with the time stamp in ticks of each event.</li>
+* <li>an <code>int</code> array with each message packed: status in bits 7..0, data1 in bits 15..8 and data2 in bits 23..16.</li>
+* <li>for meta and sysex events, whose status is 0xff, 0xf0 or 0xf7, bits 31..8 have instead the index of the additional data,
+* stored one after another in a byte array with an offset table.</li>
+* </ul>
+* So, each event takes about 12 bytes instead of more than one hundred, and scanning a track reads contiguous memory.
+* <p>
+* The events must be added in time order, as they are in a MIDI file.
+* They can be read by index, with a <code>Cursor</code> object, which does not allocate memory per event,
+* or converted back to <code>MIDIEvent</code> objects.
+* <p>
+* Example:
+* <code>
+* MIDICompactTrack track = new MIDICompactTrack(midiTrack);
+* MIDICompactTrack.Cursor c = track.cursor(0, 1920);
+* while(c.next()) if(c.getCommand() == 0x90) count++;
+* </code>
+* @see imr.sound.midi.MIDITrack
+* @author Ismael Mosquera Rivera
+*/
+public final class MIDICompactTrack
+{
+
+/**
+* Makes a new instance of an empty <code>MIDICompactTrack</code> object.
+*/
+public MIDICompactTrack()
+{
+this(16);
+}
+
+/**
+* Makes a new instance of an empty <code>MIDICompactTrack</code> object with room for some events.
+* @param capacity number of events to store before the arrays must grow.
+*/
+public MIDICompactTrack(int capacity)
+{
+capacity = Math.max(capacity, 1);
+name = "";
+ticks = new long[capacity];
+messages = new int[capacity];
+payload = new byte[64];
+offsets = new int[9];
+size = 0;
+payloads = 0;
+}
+
+/**
+* Makes a new instance of a <code>MIDICompactTrack</code> object with the events of a <code>MIDITrack</code> object.
+* If the events of the track are not in time order, they are sorted; events at the same tick keep their order.
+* @param track a <code>MIDITrack</code> object.
+*/
+public MIDICompactTrack(MIDITrack track)
+{
+this(track.size());
+name = track.getName();
+ArrayList<MIDIEvent> events = new ArrayList<MIDIEvent>(track.size());
+ListIterator<MIDIEvent> it = track.getIterator();
+long last = Long.MIN_VALUE;
+boolean sorted = true;
+while(it.hasNext())
+{
+	MIDIEvent e = it.next();
+	if(e.getTicks() < last) sorted = false;
+	last = e.getTicks();
+	events.add(e);
+}
+if(!sorted) events.sort((a, b) -> Long.compare(a.getTicks(), b.getTicks()));
+for(int i = 0; i < events.size(); i++) add(events.get(i));
+}
+
+/**
+* Converts all the tracks of a song.
+* @param song a <code>MIDISong</code> object.
+* @return an array with a <code>MIDICompactTrack</code> object per track.
+*/
+public static MIDICompactTrack[] convert(MIDISong song)
+{
+MIDICompactTrack[] tracks = new MIDICompactTrack[song.tracks()];
+ListIterator<MIDITrack> it = song.getIterator();
+for(int i = 0; it.hasNext(); i++) tracks[i] = new MIDICompactTrack(it.next());
+return tracks;
+}
+
+/**
+* Makes a <code>MIDITrack</code> object with the events of this track.
+* @return a new <code>MIDITrack</code> object.
+*/
+public MIDITrack toTrack()
+{
+MIDITrack track = new MIDITrack();
+track.setName(name.toCharArray());
+for(int i = 0; i < size; i++) track.addEvent(getEvent(i));
+return track;
+}
+
+/**
+* Gets the name of this track.
+* @return name.
+*/
+public String getName()
+{
+return name;
+}
+
+/**
+* Sets the name of this track.
+* @param name name.
+*/
+public void setName(String name)
+{
+this.name = name;
+}
+
+/**
+* Adds a <code>MIDIEvent</code>, a <code>MIDIMetaEvent</code> or a <code>MIDISysExEvent</code> object to this track.
+* @param e the event to be added.
+*/
+public void add(MIDIEvent e)
+{
+int status = e.get(0) & 0xff;
+if(e instanceof MIDIMetaEvent)
+{
+	addMeta(e.getTicks(), e.get(1) & 0xff, ((MIDIMetaEvent)e).data);
+}
+else if(e instanceof MIDISysExEvent)
+{
+	addSysEx(e.getTicks(), status, ((MIDISysExEvent)e).data);
+}
+else
+{
+	add(e.getTicks(), status, e.get(1) & 0xff, e.get(2) & 0xff);
+}
+}
+
+/**
+* Adds a channel message to this track.
+* @param t time stamp in ticks; it must not be less than the one of the last event.
+* @param status status byte.
+* @param data1 data1 byte.
+* @param data2 data2 byte.
+*/
+public void add(long t, int status, int data1, int data2)
+{
+append(t, (status & 0xff) | ((data1 & 0xff) << 8) | ((data2 & 0xff) << 16));
+}
+
+/**
+* Adds a meta event to this track.
+* @param t time stamp in ticks; it must not be less than the one of the last event.
+* @param type meta event type, for example 0x51 for a tempo change.
+* @param data additional data.
+*/
+public void addMeta(long t, int type, byte[] data)
+{
+int index = store(type, data);
+append(t, META | (index << 8));
+}
+
+/**
+* Adds a sysex event to this track.
+* @param t time stamp in ticks; it must not be less than the one of the last event.
+* @param status status byte: 0xf0 or 0xf7.
+* @param data additional data.
+*/
+public void addSysEx(long t, int status, byte[] data)
+{
+assert (status == 0xf0 || status == 0xf7): "bad status; a sysex event has status 0xf0 or 0xf7.";
+int index = store(0, data);
+append(t, status | (index << 8));
+}
+
+/**
+* Gets the number of events in this track.
+* @return number of events.
+*/
+public int size()
+{
+return size;
+}
+
+/**
+* Gets the time stamp of an event.
+* @param i index of the event.
+* @return time stamp in ticks.
+*/
+public long getTicks(int i)
+{
+return ticks[i];
+}
+
+/**
+* Gets the packed message of an event: status in bits 7..0, data1 in bits 15..8 and data2 in bits 23..16;
+* for meta and sysex events, bits 31..8 have the index of the additional data.
+* @param i index of the event.
+* @return packed message.
+*/
+public int getMessage(int i)
+{
+return messages[i];
+}
+
+/**
+* Gets the status byte of an event.
+* @param i index of the event.
+* @return status byte, in the range [0x80 .. 0xff].
+*/
+public int getStatus(int i)
+{
+return messages[i] & 0xff;
+}
+
+/**
+* Gets the data1 byte of a channel message.
+* @param i index of the event.
+* @return data1 byte.
+*/
+public int getData1(int i)
+{
+return (messages[i] >>> 8) & 0xff;
+}
+
+/**
+* Gets the data2 byte of a channel message.
+* @param i index of the event.
+* @return data2 byte.
+*/
+public int getData2(int i)
+{
+return (messages[i] >>> 16) & 0xff;
+}
+
+/**
+* Checks if an event is a meta or sysex one, that is, if it has additional data.
+* @param i index of the event.
+* @return <code>true</code> if the event has additional data or <code>false</code> otherwise.
+*/
+public boolean hasData(int i)
+{
+return isPayload(messages[i] & 0xff);
+}
+
+/**
+* Gets the type of a meta event.
+* @param i index of the event.
+* @return meta event type, or -1 if the event is not a meta one.
+*/
+public int getMetaType(int i)
+{
+int m = messages[i];
+if((m & 0xff) != META) return -1;
+return payload[offsets[m >>> 8]] & 0xff;
+}
+
+/**
+* Gets the length of the additional data of a meta or sysex event.
+* @param i index of the event.
+* @return length, or zero if the event has no additional data.
+*/
+public int getDataLength(int i)
+{
+int m = messages[i];
+if(!isPayload(m & 0xff)) return 0;
+int k = m >>> 8;
+return offsets[k+1] - offsets[k] - 1;
+}
+
+/**
+* Copies the additional data of a meta or sysex event into an array.
+* @param i index of the event.
+* @param dst array to be filled.
+* @param offset index in the array of the first byte.
+* @return number of bytes copied.
+*/
+public int getData(int i, byte[] dst, int offset)
+{
+int n = getDataLength(i);
+if(n > 0) System.arraycopy(payload, offsets[messages[i] >>> 8] + 1, dst, offset, n);
+return n;
+}
+
+/**
+* Gets the tempo of a tempo meta event.
+* @param i index of the event.
+* @return tempo in microseconds per quarter note, or -1 if the event is not a tempo change.
+*/
+public int getTempo(int i)
+{
+if(getMetaType(i) != 0x51 || getDataLength(i) != 3) return -1;
+int k = offsets[messages[i] >>> 8] + 1;
+return ((payload[k] & 0xff) << 16) | ((payload[k+1] & 0xff) << 8) | (payload[k+2] & 0xff);
+}
+
+/**
+* Makes a <code>MIDIEvent</code> object, or a <code>MIDIMetaEvent</code> or <code>MIDISysExEvent</code> one, with an event of this track.
+* @param i index of the event.
+* @return a new event object.
+*/
+public MIDIEvent getEvent(int i)
+{
+int m = messages[i];
+int status = m & 0xff;
+long t = ticks[i];
+if(status == META)
+{
+	MIDIMetaEvent e = new MIDIMetaEvent(new MIDIMessage((byte)status, (byte)getMetaType(i)), t, getDataLength(i));
+	getData(i, e.data, 0);
+	return e;
+}
+if(isPayload(status))
+{
+	MIDISysExEvent e = new MIDISysExEvent(new MIDIMessage((byte)status), t, getDataLength(i));
+	getData(i, e.data, 0);
+	return e;
+}
+int type = (status >> 4) & 0x07;
+if(MIDIFile.bytesPerMsg[type] == 2) return new MIDIEvent(new MIDIMessage((byte)status, (byte)(m >>> 8)), t);
+return new MIDIEvent(new MIDIMessage((byte)status, (byte)(m >>> 8), (byte)(m >>> 16)), t);
+}
+
+/**
+* Finds the first event whose time stamp is not less than a given one, by binary search.
+* @param t time stamp in ticks.
+* @return index of the event, or the number of events if all of them are before the given time.
+*/
+public int find(long t)
+{
+int lo = 0;
+int hi = size;
+while(lo < hi)
+{
+	int mid = (lo + hi) >>> 1;
+	if(ticks[mid] < t) lo = mid + 1;
+	else hi = mid;
+}
+return lo;
+}
+
+/**
+* Gets a cursor to traverse all the events of this track.
+* @return a new <code>Cursor</code> object.
+*/
+public Cursor cursor()
+{
+return new Cursor(0, size);
+}
+
+/**
+* Gets a cursor to traverse the events of this track in a range of time.
+* @param from first time stamp, in ticks, included.
+* @param to last time stamp, in ticks, not included.
+* @return a new <code>Cursor</code> object.
+*/
+public Cursor cursor(long from, long to)
+{
+return new Cursor(find(from), find(to));
+}
+
+/**
+* Frees the memory not used by the arrays of this track.
+*/
+public void trim()
+{
+if(ticks.length > size)
+{
+	long[] t = new long[Math.max(size, 1)];
+	System.arraycopy(ticks, 0, t, 0, size);
+	ticks = t;
+	int[] m = new int[t.length];
+	System.arraycopy(messages, 0, m, 0, size);
+	messages = m;
+}
+int bytes = offsets[payloads];
+if(payload.length > bytes)
+{
+	byte[] p = new byte[bytes];
+	System.arraycopy(payload, 0, p, 0, bytes);
+	payload = p;
+}
+if(offsets.length > payloads + 1)
+{
+	int[] o = new int[payloads + 1];
+	System.arraycopy(offsets, 0, o, 0, payloads + 1);
+	offsets = o;
+}
+}
+
+/**
+* Clears this track.
+*/
+public void clear()
+{
+size = 0;
+payloads = 0;
+}
+
+/**
+* Gets the number of bytes used by the arrays of this track, not counting the object headers.
+* @return number of bytes.
+*/
+public long getMemory()
+{
+return 8L * ticks.length + 4L * messages.length + payload.length + 4L * offsets.length;
+}
+
+
+/**
+* A <code>Cursor</code> traverses the events of a <code>MIDICompactTrack</code> object in order, without allocating memory.
+* <p>
+* Call the <code>next</code> method to go to the next event, and then read it with the get methods.
+*/
+public final class Cursor
+{
+private Cursor(int first, int end)
+{
+	this.first = first;
+	this.end = end;
+	index = first - 1;
+}
+
+/**
+* Goes to the next event.
+* @return <code>true</code> if there is a next event or <code>false</code> at the end of the range.
+*/
+public boolean next()
+{
+	if(index + 1 >= end) return false;
+	index++;
+	return true;
+}
+
+/**
+* Positions this cursor so that the next event is the first one whose time stamp is not less than a given one.
+* @param t time stamp in ticks.
+*/
+public void seek(long t)
+{
+	index = Math.max(first, Math.min(end, find(t))) - 1;
+}
+
+/**
+* Goes back to the start of the range.
+*/
+public void rewind()
+{
+	index = first - 1;
+}
+
+/**
+* Gets the index in the track of the current event.
+* @return index of the event.
+*/
+public int index()
+{
+	return index;
+}
+
+/**
+* Gets the time stamp of the current event.
+* @return time stamp in ticks.
+*/
+public long getTicks()
+{
+	return ticks[index];
+}
+
+/**
+* Gets the status byte of the current event.
+* @return status byte.
+*/
+public int getStatus()
+{
+	return messages[index] & 0xff;
+}
+
+/**
+* Gets the command of the current event, that is, its status byte without the channel for channel messages: 0x80, 0x90 and so on.
+* @return command.
+*/
+public int getCommand()
+{
+	int status = messages[index] & 0xff;
+	return (status < 0xf0) ? (status & 0xf0) : status;
+}
+
+/**
+* Gets the channel of the current event.
+* @return channel, in the range [0..15], or -1 if the event is not a channel message.
+*/
+public int getChannel()
+{
+	int status = messages[index] & 0xff;
+	return (status < 0xf0) ? (status & 0x0f) : -1;
+}
+
+/**
+* Gets the data1 byte of the current event.
+* @return data1 byte.
+*/
+public int getData1()
+{
+	return (messages[index] >>> 8) & 0xff;
+}
+
+/**
+* Gets the data2 byte of the current event.
+* @return data2 byte.
+*/
+public int getData2()
+{
+	return (messages[index] >>> 16) & 0xff;
+}
+
+private int first;
+private int end;
+private int index;
+}
+
+
+private void append(long t, int message)
+{
+assert (size == 0 || t >= ticks[size-1]): "bad time stamp; the events must be added in time order.";
+if(size == ticks.length)
+{
+	int capacity = 2 * size;
+	long[] tk = new long[capacity];
+	System.arraycopy(ticks, 0, tk, 0, size);
+	ticks = tk;
+	int[] m = new int[capacity];
+	System.arraycopy(messages, 0, m, 0, size);
+	messages = m;
+}
+ticks[size] = t;
+messages[size] = message;
+size++;
+}
+
+/*
+* Stores the additional data of an event, after a byte with the meta type ( zero for sysex events ), and returns its index in the offset table.
+*/
+private int store(int type, byte[] data)
+{
+assert (payloads < MAX_PAYLOADS): "too many meta and sysex events in a track.";
+int start = offsets[payloads];
+int n = data.length + 1;
+if(start + n > payload.length)
+{
+	byte[] p = new byte[Math.max(2 * payload.length, start + n)];
+	System.arraycopy(payload, 0, p, 0, start);
+	payload = p;
+}
+payload[start] = (byte)type;
+System.arraycopy(data, 0, payload, start + 1, data.length);
+if(payloads + 2 > offsets.length)
+{
+	int[] o = new int[2 * offsets.length];
+	System.arraycopy(offsets, 0, o, 0, payloads + 1);
+	offsets = o;
+}
+offsets[payloads+1] = start + n;
+return payloads++;
+}
+
+private static boolean isPayload(int status)
+{
+return status == META || status == 0xf0 || status == 0xf7;
+}
+
+
+private String name;
+private long[] ticks;
+private int[] messages;
+private byte[] payload;
+private int[] offsets;
+private int size;
+private int payloads;
+
+private static final int META = 0xff;
+private static final int MAX_PAYLOADS = 1 << 24;
+}
+
+// END
@@ -0,0 +1,551 @@
+/*
+ * Copyright (c) 2026 Ismael Mosquera Rivera
+ *
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+/*
+* MIDICorpusScanner.java
+*
+* imr-lib
+*
+* Author: Ismael Mosquera Rivera
+*/
+
+package imr.sound.midi;
+
+import imr.sigslot.Signal1;
+import imr.sigslot.Slot1;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+* A <code>MIDICorpusScanner</code> computes statistics of all the MIDI files in a directory tree, parsing several files at the same time.
+* <p>
+* The files are parsed as a stream of bytes, with no <code>MIDISong</code>, <code>MIDITrack</code> nor <code>MIDIEvent</code> objects:
+* each file is loaded into a buffer, reused by the thread, and its events just update a <code>MIDIStats</code> accumulator.
+* Each thread of a fixed pool takes the next file of the list, and keeps its own accumulator,
+* so the threads do not wait for each other; the accumulators are merged when the scan ends.
+* <p>
+* The progress can be followed setting a slot, which receives a <code>MIDIStats</code> object with the statistics so far,
+* at most once per report interval.
+* <p>
+* Example:
+* <code>
+* MIDICorpusScanner scanner = new MIDICorpusScanner();
+* scanner.setSlot(s -&gt; System.out.println(s));
+* MIDIStats stats = scanner.run("corpus");
+* long c4 = stats.getNotes(60);
+* </code>
+* @see imr.sound.midi.MIDIStats
+* @author Ismael Mosquera Rivera
+*/
+public final class MIDICorpusScanner
+{
+
+/**
+* Makes a new instance of a <code>MIDICorpusScanner</code> object using as many threads as available processors.
+*/
+public MIDICorpusScanner()
+{
+this(Runtime.getRuntime().availableProcessors());
+}
+
+/**
+* Makes a new instance of a <code>MIDICorpusScanner</code> object.
+* @param threads number of files parsed at the same time.
+*/
+public MIDICorpusScanner(int threads)
+{
+assert (threads > 0): "bad number of threads; it must be greater than zero.";
+this.threads = threads;
+interval = 1000;
+signal = new Signal1<>();
+}
+
+/**
+* Gets the number of files parsed at the same time.
+* @return number of threads.
+*/
+public int getThreads()
+{
+return threads;
+}
+
+/**
+* Sets a <code>Slot1</code> object to wrap to an encapsulated <code>Signal1</code> object.
+* <p>
+* The statistics so far are emitted at most once per report interval. The slot is called from the scanning threads, one call at a time.
+* @param slot a <code>Slot1</code> with a <code>MIDIStats</code> as generic parameter.
+*/
+public void setSlot(Slot1<MIDIStats> slot)
+{
+signal.wrap(slot);
+}
+
+/**
+* Sets the minimum time between two progress reports.
+* @param ms time in ms. ( milliseconds ).
+*/
+public void setReportInterval(long ms)
+{
+assert (ms >= 0): "bad interval; it must not be negative.";
+interval = ms;
+}
+
+/**
+* Scans all the MIDI files ( *.mid, *.midi, *.kar ) in a directory and its subdirectories.
+* <p>
+* This method returns when all the files are done.
+* @param dir directory with the files.
+* @return the statistics of all the files.
+*/
+public MIDIStats run(String dir)
+{
+List<Path> files;
+try(Stream<Path> s = Files.walk(Paths.get(dir)))
+{
+	files = s.filter(p -> Files.isRegularFile(p) && isMIDI(p.toString())).sorted().collect(Collectors.toList());
+}
+catch(IOException e)
+{
+	System.out.println("MIDICorpusScanner::run: " + e);
+	files = new ArrayList<Path>();
+}
+String[] names = new String[files.size()];
+for(int i = 0; i < names.length; i++) names[i] = files.get(i).toString();
+return run(names);
+}
+
+/**
+* Scans a list of MIDI files.
+* <p>
+* This method returns when all the files are done.
+* @param files paths of the files.
+* @return the statistics of all the files.
+*/
+public MIDIStats run(String[] files)
+{
+start = System.nanoTime();
+lastReport.set(start);
+final AtomicInteger next = new AtomicInteger(0);
+final AtomicInteger count = new AtomicInteger(0);
+int n = Math.max(1, Math.min(threads, files.length));
+ExecutorService pool = Executors.newFixedThreadPool(n, r ->
+{
+	Thread t = new Thread(r, "imr-midi-scanner-" + count.getAndIncrement());
+	t.setDaemon(true);
+	return t;
+});
+// All the workers exist before any of them runs, as progress() walks the whole array.
+workers = new Worker[n];
+for(int i = 0; i < n; i++) workers[i] = new Worker(files, next);
+List<Future<?>> tasks = new ArrayList<Future<?>>(n);
+for(int i = 0; i < n; i++) tasks.add(pool.submit(workers[i]));
+for(int i = 0; i < tasks.size(); i++)
+{
+	try
+	{
+		tasks.get(i).get();
+	}
+	catch(InterruptedException e)
+	{
+		Thread.currentThread().interrupt();
+		break;
+	}
+	catch(ExecutionException e)
+	{
+		System.out.println("MIDICorpusScanner::run: " + e.getCause());
+	}
+}
+pool.shutdownNow();
+return snapshot();
+}
+
+/**
+* Computes the statistics of a single MIDI file, parsing it as a stream.
+* @param filename path of the file.
+* @return the statistics of the file.
+*/
+public static MIDIStats scan(String filename)
+{
+Parser parser = new Parser();
+MIDIStats stats = new MIDIStats();
+parser.scan(filename, stats);
+return stats;
+}
+
+
+/*
+* Merges the accumulators of the workers.
+*/
+private MIDIStats snapshot()
+{
+MIDIStats s = new MIDIStats();
+for(int i = 0; i < workers.length; i++)
+{
+	synchronized(workers[i].stats)
+	{
+		s.merge(workers[i].stats);
+	}
+}
+s.elapsed = System.nanoTime() - start;
+return s;
+}
+
+/*
+* Emits the statistics so far if the report interval is over; just one thread makes the report.
+*/
+private void progress()
+{
+long now = System.nanoTime();
+long last = lastReport.get();
+if(now - last < interval * 1000000L || !lastReport.compareAndSet(last, now)) return;
+MIDIStats s = snapshot();
+synchronized(signal)
+{
+	signal.emit(s);
+}
+}
+
+private static boolean isMIDI(String filename)
+{
+String f = filename.toLowerCase();
+return f.endsWith(".mid") || f.endsWith(".midi") || f.endsWith(".kar");
+}
+
+
+/*
+* Takes files from the list until it is empty.
+*/
+private final class Worker implements Runnable
+{
+public Worker(String[] files, AtomicInteger next)
+{
+	this.files = files;
+	this.next = next;
+	stats = new MIDIStats();
+	file = new MIDIStats();
+	parser = new Parser();
+}
+
+public void run()
+{
+	int i;
+	while((i = next.getAndIncrement()) < files.length)
+	{
+		file.reset();
+		parser.scan(files[i], file);
+		synchronized(stats)
+		{
+			stats.merge(file);
+		}
+		progress();
+	}
+}
+
+public MIDIStats stats;
+
+private String[] files;
+private AtomicInteger next;
+private MIDIStats file;
+private Parser parser;
+}
+
+
+/*
+* Parses a MIDI file from a buffer, updating the statistics of the file.
+* The buffer and the tempo list are reused from one file to the next one.
+*/
+private static final class Parser
+{
+public Parser()
+{
+	buffer = ByteBuffer.allocate(1 << 16);
+	tempoTicks = new long[64];
+	tempos = new int[64];
+}
+
+public void scan(String filename, MIDIStats s)
+{
+	s.files = 1;
+	try
+	{
+		ByteBuffer b = load(filename, s);
+		if(!parse(b, s)) fail(s);
+	}
+	catch(IOException | BufferUnderflowException | IllegalArgumentException e)
+	{
+		fail(s);
+	}
+}
+
+private ByteBuffer load(String filename, MIDIStats s) throws IOException
+{
+	try(RandomAccessFile file = new RandomAccessFile(filename, "r"))
+	{
+		FileChannel channel = file.getChannel();
+		long size = channel.size();
+		s.bytes = size;
+		if(size > Integer.MAX_VALUE) throw new IOException("file too big: " + size + " bytes");
+		if(size >= MIDIFile.MAP_THRESHOLD) return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+		if(buffer.capacity() < size) buffer = ByteBuffer.allocate((int)size);
+		buffer.clear();
+		buffer.limit((int)size);
+		while(buffer.hasRemaining() && channel.read(buffer, buffer.position()) >= 0) {}
+		buffer.flip();
+		return buffer;
+	}
+}
+
+/*
+* Keeps the files and bytes counts of a failed file, and clears the rest.
+*/
+private void fail(MIDIStats s)
+{
+	long bytes = s.bytes;
+	s.reset();
+	s.files = 1;
+	s.failed = 1;
+	s.bytes = bytes;
+}
+
+private boolean parse(ByteBuffer b, MIDIStats s)
+{
+	if(b.getInt() != MThd) return false;
+	int headerLength = b.getInt();
+	if(headerLength < 6) return false;
+	int format = b.getShort();
+	int tracks = b.getShort() & 0xffff;
+	int division = b.getShort();
+	if(format < 0 || format > 2) return false;
+	b.position(b.position() + headerLength - 6);
+	ntempos = 0;
+	long last = 0;
+	for(int k = 0; k < tracks && b.remaining() >= 8; )
+	{
+		int type = b.getInt();
+		int length = b.getInt();
+		if(length < 0 || length > b.remaining()) return false;
+		int end = b.position() + length;
+		if(type != MTrk)
+		{
+			// unknown chunks are skipped
+			b.position(end);
+			continue;
+		}
+		long t = parseTrack(b, end, s);
+		if(t < 0) return false;
+		// in format 2, the tracks are independent songs, one after another
+		last = (format == 2) ? last + t : Math.max(last, t);
+		b.position(end);
+		s.tracks++;
+		k++;
+	}
+	double seconds = seconds(last, division, format == 2);
+	s.duration = seconds;
+	s.minDuration = seconds;
+	s.maxDuration = seconds;
+	if(ntempos == 0)
+	{
+		s.minTempo = DEFAULT_BPM;
+		s.maxTempo = DEFAULT_BPM;
+	}
+	for(int i = 0; i < ntempos; i++)
+	{
+		double bpm = 60000000.0 / Math.max(tempos[i], 1);
+		s.minTempo = Math.min(s.minTempo, bpm);
+		s.maxTempo = Math.max(s.maxTempo, bpm);
+	}
+	return true;
+}
+
+/*
+* Parses the events of a track and returns its last tick, or -1 if it is malformed.
+*/
+private long parseTrack(ByteBuffer b, int end, MIDIStats s)
+{
+	long t = 0;
+	int running = 0;
+	while(b.position() < end)
+	{
+		long dt = readVarLen(b);
+		if(dt < 0) return -1;
+		t += dt;
+		int status = b.get() & 0xff;
+		if(status < 0x80)
+		{
+			// running status: this byte is the first data byte
+			if(running == 0) return -1;
+			channelMessage(b, running, status, s);
+			s.events++;
+			continue;
+		}
+		if(status == 0xff)
+		{
+			int type = b.get() & 0xff;
+			int length = (int)readVarLen(b);
+			if(length < 0 || length > end - b.position()) return -1;
+			if(type == 0x2f)
+			{
+				b.position(b.position() + length);
+				break;
+			}
+			if(type == 0x51 && length == 3)
+			{
+				int p = b.position();
+				addTempo(t, ((b.get(p) & 0xff) << 16) | ((b.get(p+1) & 0xff) << 8) | (b.get(p+2) & 0xff));
+			}
+			b.position(b.position() + length);
+			s.events++;
+			running = 0;
+		}
+		else if(status == 0xf0 || status == 0xf7)
+		{
+			int length = (int)readVarLen(b);
+			if(length < 0 || length > end - b.position()) return -1;
+			b.position(b.position() + length);
+			s.events++;
+			running = 0;
+		}
+		else if(status >= 0xf0)
+		{
+			return -1;  // system messages cannot be in a MIDI file
+		}
+		else
+		{
+			running = status;
+			channelMessage(b, status, b.get() & 0xff, s);
+			s.events++;
+		}
+	}
+	return t;
+}
+
+private void channelMessage(ByteBuffer b, int status, int data1, MIDIStats s)
+{
+	int command = status & 0xf0;
+	if(command == 0xc0 || command == 0xd0) return;
+	int data2 = b.get() & 0xff;
+	if(command == 0x90 && data2 > 0)
+	{
+		s.notes++;
+		s.velocities += data2;
+		s.pitches[data1 & 0x7f]++;
+		s.channels[status & 0x0f]++;
+	}
+}
+
+private void addTempo(long t, int tempo)
+{
+	if(ntempos == tempos.length)
+	{
+		long[] tk = new long[2 * ntempos];
+		System.arraycopy(tempoTicks, 0, tk, 0, ntempos);
+		tempoTicks = tk;
+		int[] v = new int[2 * ntempos];
+		System.arraycopy(tempos, 0, v, 0, ntempos);
+		tempos = v;
+	}
+	// insertion sort: the changes of a track come in order, and they are usually in just one track
+	int i = ntempos++;
+	while(i > 0 && tempoTicks[i-1] > t)
+	{
+		tempoTicks[i] = tempoTicks[i-1];
+		tempos[i] = tempos[i-1];
+		i--;
+	}
+	tempoTicks[i] = t;
+	tempos[i] = tempo;
+}
+
+/*
+* The duration of a number of ticks, with the tempo changes of the file.
+*/
+private double seconds(long ticks, int division, boolean sequential)
+{
+	if(division < 0)
+	{
+		int fps = -(division >> 8);
+		int tpf = division & 0xff;
+		return (double)ticks / (fps * tpf);
+	}
+	double q = (division > 0) ? division : 480.0;
+	if(sequential || ntempos == 0) return ticks * DEFAULT_TEMPO / q / 1.0e6;
+	double micros = 0.0;
+	long last = 0;
+	double tempo = DEFAULT_TEMPO;
+	for(int i = 0; i < ntempos && tempoTicks[i] < ticks; i++)
+	{
+		micros += (tempoTicks[i] - last) * tempo / q;
+		last = tempoTicks[i];
+		tempo = tempos[i];
+	}
+	micros += (ticks - last) * tempo / q;
+	return micros / 1.0e6;
+}
+
+private static long readVarLen(ByteBuffer b)
+{
+	long value = 0;
+	for(int i = 0; i < 4; i++)
+	{
+		int c = b.get() & 0xff;
+		value = (value << 7) | (c & 0x7f);
+		if((c & 0x80) == 0) return value;
+	}
+	return -1;
+}
+
+private ByteBuffer buffer;
+private long[] tempoTicks;
+private int[] tempos;
+private int ntempos;
+}
+
+
+private int threads;
+private long interval;
+private Signal1<MIDIStats> signal;
+private Worker[] workers;
+private long start;
+private final AtomicLong lastReport = new AtomicLong();
+
+private static final int MThd = 0x4d546864;
+private static final int MTrk = 0x4d54726b;
+private static final double DEFAULT_TEMPO = 500000.0;  // microseconds per quarter note
+private static final double DEFAULT_BPM = 120.0;
+}
+
+// END
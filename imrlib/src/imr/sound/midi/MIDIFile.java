@@ -30,12 +30,17 @@ package imr.sound.midi;
 
 import java.io.RandomAccessFile;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
 /**
 * The <code>MIDIFile</code> abstract class provides methods
 * to init an run a r/w process.
 * Also defines a method to close a file.
 * Classes that extends this one have to define the init and run methods that declares.
+* <p>
+* To parse a file, it is loaded at once into a <code>ByteBuffer</code> by the <code>load</code> method,
+* so the bytes are read from memory instead of with a system call each one.
 * @author Ismael Mosquera Rivera
 */
 public abstract class MIDIFile
@@ -57,6 +62,40 @@ public abstract boolean init(String fileName);
 */
 public abstract boolean run(MIDISong song);
 
+/**
+* Loads the whole file into the buffer and closes the file.
+* Small files are read with a single call; big ones are memory-mapped.
+* @return <code>true</code> if there was a success or <code>false</code> otherwise.
+*/
+protected boolean load()
+{
+try
+{
+	FileChannel channel = file.getChannel();
+	long size = channel.size();
+	if(size > Integer.MAX_VALUE) throw new IOException("file too big: " + size + " bytes");
+	if(size >= MAP_THRESHOLD)
+	{
+		buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+	}
+	else
+	{
+		buffer = ByteBuffer.allocate((int)size);
+		while(buffer.hasRemaining() && channel.read(buffer, buffer.position()) >= 0) {}
+		buffer.flip();
+	}
+}
+catch(IOException e)
+{
+	e.printStackTrace();
+	buffer = null;
+	fclose();
+	return false;
+}
+fclose();
+return true;
+}
+
 protected void fclose()
 {
 try
@@ -71,6 +110,8 @@ e.printStackTrace();
 
 protected boolean hasFile;
 protected RandomAccessFile file;
+protected ByteBuffer buffer;
+protected static final int MAP_THRESHOLD = 1 << 20;
 protected static final int[] bytesPerMsg = {3,3,3,3,2,3,3};
 }
 
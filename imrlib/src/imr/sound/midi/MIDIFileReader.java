@@ -30,10 +30,13 @@ package imr.sound.midi;
 
 import java.io.RandomAccessFile;
 import java.io.IOException;
+import java.nio.BufferUnderflowException;
 
 /**
 * A <code>MIDIFileReader</code> parses a MIDI file
 * and stores the result into a <code>MIDISong</code> object.
+* <p>
+* The file is loaded into memory before parsing it ( see the <code>MIDIFile</code> class ), so parsing does not make a system call per byte.
 * @see imr.sound.midi.MIDISong
 * @author Ismael Mosquera Rivera
 */
@@ -65,7 +68,6 @@ public MIDIFileReader(String fileName)
 */
 public boolean init(String fileName)
 {
-bytesRead = 0;
 try
 {
 	file=null;
@@ -90,6 +92,27 @@ public boolean run(MIDISong song)
 {
 if(!hasFile) return false;
 	song.clear();
+if(!load()) return false;
+try
+{
+	return parse(song);
+}
+catch(BufferUnderflowException e)
+{
+	System.out.println("MIDIFileReader::run: unexpected end of file.");
+	return false;
+}
+finally
+{
+	buffer = null;
+}
+}
+
+/*
+* Parses the data loaded into the buffer; a truncated file throws a BufferUnderflowException.
+*/
+private boolean parse(MIDISong song)
+{
 MIDIChunkType chunkType = getChunkType();
 int headerLength;
 short format;
@@ -106,11 +129,12 @@ for(int i=0;i<tracks;i++)
 chunkType = getChunkType();
 if(!chunkType.equals(MTrk)) return false;
 int chunkTypeLength = readInt();
+if(chunkTypeLength < 0 || chunkTypeLength > buffer.remaining()) return false;
+int chunkEnd = buffer.position() + chunkTypeLength;
 byte runningStatus = 0;
 long t=0; // ticks
 MIDITrack track = new MIDITrack();
-bytesRead = 0;
-while(bytesRead != chunkTypeLength)
+while(buffer.position() < chunkEnd)
 {
 	long dt = readVarLen();
 	t += dt;
@@ -127,7 +151,7 @@ int length = (int)readVarLen();
 if(metaType != 0x2f)
 {
 MIDIMetaEvent e = new MIDIMetaEvent(new MIDIMessage(b,metaType),t,length);
-for(int j=0;j<length;j++) e.data[j] = readByte();
+if(!readBytes(e.data)) return false;
 track.addEvent(e);
 if(metaType==3)
 {
@@ -136,15 +160,13 @@ for(int k=0;k<length;k++) name[k]=(char)e.data[k];
 track.setName(name);
 }
 }
+else if(!skip(length)) return false;
 }
 else if(b==(byte)0xf0 || b==(byte)0xf7)
 {
 int length = (int)readVarLen();
 MIDISysExEvent sysex = new MIDISysExEvent(new MIDIMessage(b),t,length+1);
-for(int q=0;q<sysex.data.length;q++)
-{
-sysex.data[q]=readByte();
-}
+if(!readBytes(sysex.data)) return false;
 track.addEvent(sysex);
 if(sysex.data[length] != (byte)0xf7)
 {
@@ -189,56 +211,36 @@ else
 }
 song.addTrack(track);
 }
-fclose();
 return true;
 }
 
 private byte readByte()
 {
-byte b=0;
-try
-{
-	b = (byte)file.readUnsignedByte();
+return buffer.get();
 }
-catch(IOException e)
+
+private boolean readBytes(byte[] data)
 {
-	e.printStackTrace();
-	return b;
+if(data.length > buffer.remaining()) return false;
+buffer.get(data);
+return true;
 }
-bytesRead++;
-return b;
+
+private boolean skip(int length)
+{
+if(length < 0 || length > buffer.remaining()) return false;
+buffer.position(buffer.position() + length);
+return true;
 }
 
 private int readInt()
 {
-	int val=0;
-	try
-	{
-		val = file.readInt();
-	}
-	catch(IOException e)
-	{
-	e.printStackTrace();
-	return val;
-	}
-	bytesRead += 4;
-	return val;
+return buffer.getInt();
 }
 
 private short readShort()
 {
-short val=0;
-try
-{
-	val = file.readShort();
-}
-catch(IOException e)
-{
-e.printStackTrace();
-return val;
-}
-bytesRead +=2;
-return val;
+return buffer.getShort();
 }
 
 private MIDIChunkType getChunkType()
@@ -264,7 +266,6 @@ long ret = 0;
 			return ret;
 }
 
-private int bytesRead;
 private static final char[] MThd = {'M','T','h','d'};
 private static final char[] MTrk = {'M','T','r','k'};
 
@@ -28,13 +28,23 @@
 
 package imr.sound.midi;
 
+import imr.sound.audio.AudioExecutor;
+
 import java.util.ListIterator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.io.RandomAccessFile;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
 /**
 * A <code>MIDIFileWriter</code> object writes a MIDI file
 * according to the data stored in a <code>MIDISong</code> object.
+* <p>
+* Each track is encoded into a growable byte array in memory, so its length is known before writing it,
+* and then the header and all the tracks are written at once with a gathering write to the file channel.
+* Big songs have their tracks encoded in parallel, by tasks of the <code>AudioExecutor</code>.
 * @see imr.sound.midi.MIDISong
 * @author Ismael Mosquera Rivera
 */
@@ -66,7 +76,6 @@ public MIDIFileWriter(String fileName)
 */
 public boolean init(String fileName)
 {
-bytesWritten = 0;
 	try
 	{
 		file=null;
@@ -94,169 +103,222 @@ if(!hasFile) return false;
 tracks = song.tracks();
 format = (tracks > 1) ? 1 : 0;
 division = song.getTicksPerQ();
-writeHeader();
-long offset;
-long end;
-long t0,t1;
+MIDITrack[] list = new MIDITrack[tracks];
 ListIterator<MIDITrack> songIterator = song.getIterator();
-while(songIterator.hasNext())
+int events = 0;
+for(int i = 0; songIterator.hasNext(); i++)
+{
+	list[i] = songIterator.next();
+	events += list[i].size();
+}
+// the header, and the chunk header and data of each track
+ByteBuffer[] buffers = new ByteBuffer[2 * tracks + 1];
+Encoder header = new Encoder(14);
+writeHeader(header);
+buffers[0] = header.wrap();
+Encoder[] encoders = new Encoder[tracks];
+Future<?>[] tasks = new Future<?>[tracks];
+boolean parallel = (tracks > 1 && events >= PARALLEL_EVENTS);
+for(int i = 0; i < tracks; i++)
+{
+	encoders[i] = new Encoder(4 * list[i].size() + 16);
+	final MIDITrack t = list[i];
+	final Encoder out = encoders[i];
+	if(parallel && i > 0) tasks[i] = AudioExecutor.submit(() -> encode(t, out));
+	else encode(t, out);
+}
+boolean ok = true;
+for(int i = 0; i < tracks; i++)
+{
+	if(tasks[i] != null)
+	{
+		try
+		{
+			tasks[i].get();
+		}
+		catch(ExecutionException e)
+		{
+			System.out.println("MIDIFileWriter::run: " + e.getCause());
+			ok = false;
+		}
+		catch(InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			ok = false;
+		}
+	}
+	Encoder chunk = new Encoder(8);
+	chunk.put32(MTrk);
+	chunk.put32(encoders[i].size());
+	buffers[2*i+1] = chunk.wrap();
+	buffers[2*i+2] = encoders[i].wrap();
+}
+if(ok)
+{
+	try
+	{
+		FileChannel channel = file.getChannel();
+		long total = 0;
+		for(int i = 0; i < buffers.length; i++) total += buffers[i].remaining();
+		channel.position(0);
+		long written = 0;
+		while(written < total) written += channel.write(buffers);
+		// a longer file could be there before
+		channel.truncate(total);
+	}
+	catch(IOException e)
+	{
+		e.printStackTrace();
+		ok = false;
+	}
+}
+fclose();
+return ok;
+}
+
+private void writeHeader(Encoder out)
 {
-	write32Bits(MTrk);
-	offset = ftell();
-	write32Bits(0);
-bytesWritten = 0;
-t0=t1=0;
-MIDITrack t = songIterator.next();
+out.put32(MThd);
+out.put32(6);
+out.put16(format);
+out.put16(tracks);
+out.put16(division);
+}
+
+/*
+* Encodes the events of a track, and the end of track meta event.
+*/
+private static void encode(MIDITrack t, Encoder out)
+{
+long t0 = 0;
 ListIterator<MIDIEvent> it = t.getIterator();
 while(it.hasNext())
 {
 MIDIEvent e = it.next();
-t1 = e.getTicks();
+long t1 = e.getTicks();
 int type = (byte)((e.get(0)>>4)&0x07);
 if(type==7)
 {
 if(e.get(0)==(byte)0xff)
 {
-	writeVarLen(t1-t0);
+	out.putVarLen(t1-t0);
 	// write midi meta event information
 	MIDIMetaEvent me = (MIDIMetaEvent)e;
-writeByte(me.get(0));
-writeByte(me.get(1));
-writeVarLen(me.data.length);
-for(int k=0;k<me.data.length;k++)
-{
-writeByte(me.data[k]);
-}
+	out.put(me.get(0));
+	out.put(me.get(1));
+	out.putVarLen(me.data.length);
+	out.put(me.data);
 }
 else if(e.get(0)==(byte)0xf0 || e.get(0)==(byte)0xf7)
 {
-	writeVarLen(t1-t0);
+	out.putVarLen(t1-t0);
 	MIDISysExEvent sysex = (MIDISysExEvent)e;
-	writeByte(sysex.get(0));
-	writeVarLen(sysex.data.length-1);
-	for(int q=0;q<sysex.data.length;q++)
-	{
-		writeByte(sysex.data[q]);
-	}
+	out.put(sysex.get(0));
+	out.putVarLen(sysex.data.length-1);
+	out.put(sysex.data);
 }
 }
 else
 {
-writeVarLen(t1-t0); // write delta time
+out.putVarLen(t1-t0); // write delta time
 int msgLen = bytesPerMsg[type];
 for(int j=0;j<msgLen;j++)
 {
-	writeByte(e.get(j));
+	out.put(e.get(j));
 }
 }
 t0=t1;
 }
 // write end of track
-writeByte(0);
-			writeByte(0xFF);
-			writeByte(0x2f);
-			writeByte(0);
-end = ftell();
-fseek(offset);
-// write track length
-write32Bits(bytesWritten);
-// retrieve position
-fseek(end);
-}
-fclose();
-return true;
+out.put(0);
+out.put(0xFF);
+out.put(0x2f);
+out.put(0);
 }
 
-private void writeHeader()
+/*
+* A growable byte array.
+*/
+private static final class Encoder
 {
-write32Bits(MThd);
-write32Bits(6);
-write16Bits(format);
-write16Bits(tracks);
-write16Bits(division);
-}
-
-private void writeVarLen(long value)
+public Encoder(int capacity)
 {
-long buffer;
-		buffer = value & 0x7F;
-
-		while((value >>= 7) != 0)
-		{
-			buffer <<= 8;
-			buffer |= ((value & 0x7F) | 0x80);
-		}
-
-		while(true)
-		{
-			writeByte((byte)buffer);
-			if((buffer & 0x80) != 0)
-				buffer >>= 8;
-			else
-				break;
-		}
-	}
+	data = new byte[Math.max(capacity, 16)];
+	size = 0;
+}
 
-private void write32Bits(long data)
+public void put(int b)
 {
-writeByte((byte)((data >> 24) & 0xff));
-		writeByte((byte)((data >> 16) & 0xff));
-		writeByte((byte)((data >> 8 ) & 0xff));
-		writeByte((byte)(data & 0xff));
+	if(size == data.length) grow(1);
+	data[size++] = (byte)b;
 }
 
-private void write16Bits(int data)
+public void put(byte[] b)
 {
-writeByte((byte)((data & 0xff00) >> 8));
-		writeByte((byte)(data & 0xff));
+	if(size + b.length > data.length) grow(b.length);
+	System.arraycopy(b, 0, data, size, b.length);
+	size += b.length;
 }
 
-private void writeByte(int b)
+public void putVarLen(long value)
 {
-	try
+	long buffer = value & 0x7F;
+	while((value >>= 7) != 0)
 	{
-file.writeByte((byte)b);
+		buffer <<= 8;
+		buffer |= ((value & 0x7F) | 0x80);
+	}
+	while(true)
+	{
+		put((byte)buffer);
+		if((buffer & 0x80) != 0)
+			buffer >>= 8;
+		else
+			break;
+	}
 }
-catch(IOException e)
+
+public void put32(long value)
 {
-	e.printStackTrace();
-}
-bytesWritten++;
+	put((byte)((value >> 24) & 0xff));
+	put((byte)((value >> 16) & 0xff));
+	put((byte)((value >> 8) & 0xff));
+	put((byte)(value & 0xff));
 }
 
-private long ftell()
+public void put16(int value)
 {
-	long offset=0;
-try
-{
-	offset = file.getFilePointer();
+	put((byte)((value & 0xff00) >> 8));
+	put((byte)(value & 0xff));
 }
-catch(IOException e)
+
+public int size()
 {
-	e.printStackTrace();
-	return 0;
-}
-return offset;
+	return size;
 }
 
-private void fseek(long offset)
-{
-try
+public ByteBuffer wrap()
 {
-	file.seek(offset);
+	return ByteBuffer.wrap(data, 0, size);
 }
-catch(IOException e)
+
+private void grow(int n)
 {
-	e.printStackTrace();
+	byte[] d = new byte[Math.max(2 * data.length, size + n)];
+	System.arraycopy(data, 0, d, 0, size);
+	data = d;
 }
+
+private byte[] data;
+private int size;
 }
 
-private int bytesWritten;
 private int tracks;
 private int format;
 private int division;
 private final int MThd = 0x4d546864;
 private final int MTrk = 0x4d54726b;
+private static final int PARALLEL_EVENTS = 1 << 16;
 
 }
 
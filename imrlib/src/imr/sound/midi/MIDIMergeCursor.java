@@ -0,0 +1,282 @@
+/*
+ * Copyright (c) 2026 Ismael Mosquera Rivera
+ *
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+/*
+* MIDIMergeCursor.java
+*
+* imr-lib
+*
+* Author: Ismael Mosquera Rivera
+*/
+
+package imr.sound.midi;
+
+/**
+* A <code>MIDIMergeCursor</code> traverses the events of all the tracks of a song as a single stream in time order.
+* <p>
+* The tracks are merged with a binary heap of track indices, kept in an <code>int</code> array and keyed by the time stamp
+* of the next event of each track. So, going to the next event costs O(log T), being T the number of tracks,
+* and no memory is allocated per event.
+* <p>
+* The order is stable: events at the same tick come in track order and, inside a track, in the order they were stored.
+* <p>
+* Call the <code>next</code> method to go to the next event, and then read it with the get methods.
+* <p>
+* Example:
+* <code>
+* MIDIMergeCursor c = new MIDIMergeCursor(MIDICompactTrack.convert(song));
+* c.seek(tempoMap.toTicks(30000000.0));  // 30 seconds
+* while(c.next()) if(c.getCommand() == 0x90) play(c.getTicks(), c.getData1(), c.getData2());
+* </code>
+* @see imr.sound.midi.MIDICompactTrack
+* @see imr.sound.midi.TempoMap
+* @author Ismael Mosquera Rivera
+*/
+public final class MIDIMergeCursor
+{
+
+/**
+* Makes a new instance of a <code>MIDIMergeCursor</code> object, positioned before the first event.
+* @param tracks the tracks to be merged; they must not change while the cursor is used.
+*/
+public MIDIMergeCursor(MIDICompactTrack[] tracks)
+{
+this.tracks = tracks;
+position = new int[tracks.length];
+key = new long[tracks.length];
+heap = new int[tracks.length];
+rewind();
+}
+
+/**
+* Makes a new instance of a <code>MIDIMergeCursor</code> object over the tracks of a song, positioned before the first event.
+* The tracks are converted to <code>MIDICompactTrack</code> objects.
+* @param song a <code>MIDISong</code> object.
+*/
+public MIDIMergeCursor(MIDISong song)
+{
+this(MIDICompactTrack.convert(song));
+}
+
+/**
+* Gets the number of merged tracks.
+* @return number of tracks.
+*/
+public int tracks()
+{
+return tracks.length;
+}
+
+/**
+* Gets a merged track.
+* @param i index of the track.
+* @return the track.
+*/
+public MIDICompactTrack getTrack(int i)
+{
+return tracks[i];
+}
+
+/**
+* Goes to the next event.
+* @return <code>true</code> if there is a next event or <code>false</code> at the end of the song.
+*/
+public boolean next()
+{
+if(current >= 0)
+{
+	// the current track is at the top of the heap: its key is updated or it is removed
+	int t = current;
+	position[t]++;
+	if(position[t] < tracks[t].size())
+	{
+		key[t] = tracks[t].getTicks(position[t]);
+	}
+	else
+	{
+		heap[0] = heap[--count];
+	}
+	if(count > 0) siftDown(0);
+}
+if(count == 0)
+{
+	current = -1;
+	return false;
+}
+current = heap[0];
+index = position[current];
+return true;
+}
+
+/**
+* Positions this cursor so that the next event is the first one whose time stamp is not less than a given one.
+* It costs O(T log n), being n the number of events of a track.
+* @param t time stamp in ticks.
+*/
+public void seek(long t)
+{
+for(int i = 0; i < tracks.length; i++) position[i] = tracks[i].find(t);
+build();
+}
+
+/**
+* Goes back to the start of the song.
+*/
+public void rewind()
+{
+for(int i = 0; i < tracks.length; i++) position[i] = 0;
+build();
+}
+
+/**
+* Gets the track of the current event.
+* @return index of the track.
+*/
+public int getTrackIndex()
+{
+return current;
+}
+
+/**
+* Gets the index of the current event in its track.
+* @return index of the event.
+*/
+public int index()
+{
+return index;
+}
+
+/**
+* Gets the time stamp of the current event.
+* @return time stamp in ticks.
+*/
+public long getTicks()
+{
+return key[current];
+}
+
+/**
+* Gets the packed message of the current event; see the <code>MIDICompactTrack</code> class.
+* @return packed message.
+*/
+public int getMessage()
+{
+return tracks[current].getMessage(index);
+}
+
+/**
+* Gets the status byte of the current event.
+* @return status byte.
+*/
+public int getStatus()
+{
+return tracks[current].getStatus(index);
+}
+
+/**
+* Gets the command of the current event, that is, its status byte without the channel for channel messages: 0x80, 0x90 and so on.
+* @return command.
+*/
+public int getCommand()
+{
+int status = tracks[current].getStatus(index);
+return (status < 0xf0) ? (status & 0xf0) : status;
+}
+
+/**
+* Gets the channel of the current event.
+* @return channel, in the range [0..15], or -1 if the event is not a channel message.
+*/
+public int getChannel()
+{
+int status = tracks[current].getStatus(index);
+return (status < 0xf0) ? (status & 0x0f) : -1;
+}
+
+/**
+* Gets the data1 byte of the current event.
+* @return data1 byte.
+*/
+public int getData1()
+{
+return tracks[current].getData1(index);
+}
+
+/**
+* Gets the data2 byte of the current event.
+* @return data2 byte.
+*/
+public int getData2()
+{
+return tracks[current].getData2(index);
+}
+
+
+/*
+* Builds the heap with the tracks having events left.
+*/
+private void build()
+{
+count = 0;
+current = -1;
+index = -1;
+for(int i = 0; i < tracks.length; i++)
+{
+	if(position[i] >= tracks[i].size()) continue;
+	key[i] = tracks[i].getTicks(position[i]);
+	heap[count++] = i;
+}
+for(int i = (count >> 1) - 1; i >= 0; i--) siftDown(i);
+}
+
+private void siftDown(int i)
+{
+int t = heap[i];
+while(true)
+{
+	int child = 2 * i + 1;
+	if(child >= count) break;
+	if(child + 1 < count && less(heap[child+1], heap[child])) child++;
+	if(!less(heap[child], t)) break;
+	heap[i] = heap[child];
+	i = child;
+}
+heap[i] = t;
+}
+
+/*
+* Orders by tick and then by track index, so equal ticks keep the track order.
+*/
+private boolean less(int a, int b)
+{
+return key[a] < key[b] || (key[a] == key[b] && a < b);
+}
+
+
+private MIDICompactTrack[] tracks;
+private int[] position;  // next event of each track
+private long[] key;      // its time stamp
+private int[] heap;
+private int count;
+private int current;
+private int index;
+}
+
+// END
@@ -34,6 +34,7 @@ import javax.sound.midi.MidiSystem;
 import javax.sound.midi.Sequence;
 import javax.sound.midi.Sequencer;
 import javax.sound.midi.Synthesizer;
+import javax.sound.midi.Receiver;
 import javax.sound.midi.InvalidMidiDataException;
 import javax.sound.midi.MidiUnavailableException;
 import javax.sound.midi.MetaEventListener;
@@ -41,6 +42,11 @@ import javax.sound.midi.MetaEventListener;
 /**
 * The <code>MIDIPlayer</code> class provides functionality
 * to play MIDI files.
+* <p>
+* By default, the MIDI messages are played by the default synthesizer, which needs a sound card.
+* Passing a <code>Receiver</code> to the constructor, the messages are sent to it instead
+* and no synthesizer is opened, so a <code>MIDIPlayer</code> can run in a machine without audio hardware.
+* @see imr.sound.midi.MIDISequencer
 * @author Ismael Mosquera Rivera
 */
 public class MIDIPlayer implements Player
@@ -65,6 +71,40 @@ catch(MidiUnavailableException e)
 }
 }
 
+/**
+* Makes a new instance of a <code>MIDIPlayer</code> object
+* which sends the MIDI messages to the given receiver instead of the default synthesizer.
+* @param receiver a <code>Receiver</code> object.
+* @see javax.sound.midi.Receiver
+*/
+public MIDIPlayer(Receiver receiver)
+{
+hasSequence = false;
+isPaused = false;
+synth = null;
+try
+{
+sequencer = MidiSystem.getSequencer(false);
+sequencer.getTransmitter().setReceiver(receiver);
+}
+catch(MidiUnavailableException e)
+{
+	e.printStackTrace();
+}
+}
+
+/**
+* Makes a new instance of a <code>MIDIPlayer</code> object
+* which sends the MIDI messages to the given receiver, and sets a <code>MetaEventListener</code> to it.
+* @param receiver a <code>Receiver</code> object.
+* @param listener a <code>MetaEventListener</code> object.
+*/
+public MIDIPlayer(Receiver receiver, MetaEventListener listener)
+{
+	this(receiver);
+	sequencer.addMetaEventListener(listener);
+}
+
 /**
 * Makes a new instance of a <code>MIDIPlayer</code> object.
 * and sets a <code>MetaEventListener</code> to it.
@@ -105,7 +145,7 @@ if(!isPaused)
 	try
 	{
 	if(!sequencer.isOpen()) sequencer.open();
-	if(!synth.isOpen())
+	if(synth != null && !synth.isOpen())
 {
 synth.open();
 synth.loadAllInstruments(synth.getDefaultSoundbank());
@@ -145,7 +185,7 @@ if(!hasSequence) return;
 	if(sequencer.isRunning()) sequencer.stop();
 		isPaused = false;
 	if(sequencer.isOpen()) sequencer.close();
-	if(synth.isOpen()) synth.close();
+	if(synth != null && synth.isOpen()) synth.close();
 }
 
 private MIDISong getSong(String fileName)
@@ -0,0 +1,586 @@
+/*
+ * Copyright (c) 2026 Ismael Mosquera Rivera
+ *
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+/*
+* MIDIRenderer.java
+*
+* imr-lib
+*
+* Author: Ismael Mosquera Rivera
+*/
+
+package imr.sound.midi;
+
+import imr.sound.audio.WaveFileWriter;
+import imr.sound.audio.synthesis.PolySynth;
+import imr.sound.audio.synthesis.VoicePool;
+import imr.sound.audio.synthesis.WaveType;
+
+import java.util.ArrayList;
+import java.util.ListIterator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+* A <code>MIDIRenderer</code> renders a <code>MIDISong</code> to a *.wav file with the synthesizers of this library,
+* so no MIDI device nor sound card is involved.
+* <p>
+* The time stamps are converted to samples with the <code>TempoMap</code> of the song.
+* The song is rendered in chunks of some thousands of samples.
+* For each chunk, every track is rendered by its own task in a pool of threads owned by the render call, so tracks are rendered in parallel,
+* and then the tracks are mixed and the chunk is written to the file. So, the memory used does not depend on the length of the song.
+* <p>
+* All the state of a render is kept by the render call, so several songs can be rendered at the same time with one instance.
+* <p>
+* Each channel of a track plays its notes with a <code>VoicePool</code> per program, made by the <code>makeSynthesizer</code> method.
+* By default, it is a <code>PolySynth</code> object whose wave and envelope depend on the family of the General MIDI program;
+* override that method to play the songs with other synthesizers.
+* The program change, volume, expression, pan, sustain pedal and all notes off messages are handled; the other ones are ignored.
+* <p>
+* Example:
+* <code>
+* MIDIRenderer renderer = new MIDIRenderer(44100.0f, 32);
+* renderer.render("song.mid", "song.wav");
+* </code>
+* @see imr.sound.midi.MIDISong
+* @see imr.sound.midi.TempoMap
+* @see imr.sound.audio.synthesis.VoicePool
+* @see imr.sound.audio.WaveFileWriter
+* @author Ismael Mosquera Rivera
+*/
+public class MIDIRenderer
+{
+
+/**
+* Makes a new instance of a <code>MIDIRenderer</code> object at 44100 Hz, with 32 voices per synthesizer.
+*/
+public MIDIRenderer()
+{
+this(44100.0f, 32);
+}
+
+/**
+* Makes a new instance of a <code>MIDIRenderer</code> object.
+* @param sampleRate sample rate of the rendered audio.
+* @param voices number of voices of each synthesizer.
+*/
+public MIDIRenderer(float sampleRate, int voices)
+{
+assert (sampleRate > 0.0f): "bad value for sample rate; it must be greater than zero.";
+assert (voices > 0): "bad number of voices; it must be greater than zero.";
+this.sampleRate = sampleRate;
+this.voices = voices;
+amplitude = 0.5f;
+frames = 0;
+}
+
+/**
+* Gets the sample rate of the rendered audio.
+* @return sample rate.
+*/
+public float getSampleRate()
+{
+return sampleRate;
+}
+
+/**
+* Gets the number of voices of each synthesizer.
+* @return number of voices.
+*/
+public int getVoices()
+{
+return voices;
+}
+
+/**
+* Gets the master amplitude applied to the mix of the tracks.
+* @return amplitude.
+*/
+public float getAmplitude()
+{
+return amplitude;
+}
+
+/**
+* Sets the master amplitude applied to the mix of the tracks.
+* The mix is clipped to the range [-1 .. 1] when it is written, so lower it for songs with many loud tracks.
+* @param amp amplitude ( must be in the range [0..1] ).
+*/
+public void setAmplitude(float amp)
+{
+assert (amp >= 0.0f && amp <= 1.0f): "bad amplitude; allowed values: ( 0.0f .. 1.0f ).";
+amplitude = amp;
+}
+
+/**
+* Gets the number of frames written by the last render which finished.
+* @return number of frames.
+*/
+public long getFrames()
+{
+return frames;
+}
+
+/**
+* Reads a MIDI file and renders it to a stereo *.wav file.
+* @param midiFile the MIDI file to be rendered.
+* @param waveFile the *.wav file to be written.
+* @return <code>true</code> if there was a success or <code>false</code> otherwise.
+*/
+public boolean render(String midiFile, String waveFile)
+{
+MIDIFileReader reader = new MIDIFileReader();
+if(!reader.init(midiFile)) return false;
+MIDISong song = new MIDISong();
+if(!reader.run(song)) return false;
+return render(song, waveFile);
+}
+
+/**
+* Renders a song to a stereo *.wav file.
+* @param song the song to be rendered.
+* @param waveFile the *.wav file to be written.
+* @return <code>true</code> if there was a success or <code>false</code> otherwise.
+*/
+public boolean render(MIDISong song, String waveFile)
+{
+WaveFileWriter writer = new WaveFileWriter(sampleRate, 2);
+if(!writer.open(waveFile)) return false;
+TempoMap tempoMap = new TempoMap(song);
+ArrayList<TrackRenderer> tracks = new ArrayList<TrackRenderer>();
+long end = 0;
+ListIterator<MIDITrack> it = song.getIterator();
+while(it.hasNext())
+{
+	TrackRenderer t = new TrackRenderer(it.next(), tempoMap);
+	if(t.end < 0) continue;  // no channel messages
+	tracks.add(t);
+	end = Math.max(end, t.end);
+}
+float[] left = new float[CHUNK];
+float[] right = new float[CHUNK];
+Future<?>[] tasks = new Future<?>[tracks.size()];
+int threads = Math.min(tracks.size(), Runtime.getRuntime().availableProcessors());
+ExecutorService pool = (tracks.size() > 1) ? Executors.newFixedThreadPool(threads, r ->
+{
+	Thread t = new Thread(r, "MIDIRenderer");
+	t.setDaemon(true);
+	return t;
+}) : null;
+long tail = end + (long)(MAX_TAIL * sampleRate);
+boolean ok = true;
+boolean active = false;
+long pos = 0;
+// the song ends when its last event is rendered and the voices are released, but no later than the maximum tail
+while(ok && (pos < end || (active && pos < tail)))
+{
+	// all the tracks render this chunk, then they are mixed
+	for(int i = 0; i < tracks.size(); i++)
+	{
+		tracks.get(i).start = pos;
+		tasks[i] = (pool != null) ? pool.submit(tracks.get(i)) : null;
+	}
+	if(tracks.size() == 1) tracks.get(0).run();
+	active = false;
+	for(int i = 0; i < tracks.size(); i++)
+	{
+		if(tasks[i] != null)
+		{
+			try
+			{
+				tasks[i].get();
+			}
+			catch(ExecutionException e)
+			{
+				System.out.println("MIDIRenderer::render: " + e.getCause());
+				ok = false;
+			}
+			catch(InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				ok = false;
+			}
+		}
+		active |= tracks.get(i).active;
+	}
+	if(!ok) break;
+	float amp = amplitude;
+	for(int k = 0; k < CHUNK; k++)
+	{
+		left[k] = 0.0f;
+		right[k] = 0.0f;
+	}
+	for(int i = 0; i < tracks.size(); i++)
+	{
+		TrackRenderer t = tracks.get(i);
+		for(int k = 0; k < CHUNK; k++)
+		{
+			left[k] += amp * t.left[k];
+			right[k] += amp * t.right[k];
+		}
+	}
+	if(writer.write(left, right, CHUNK) < 0) ok = false;
+	pos += CHUNK;
+}
+if(pool != null) pool.shutdown();
+frames = pos;
+return writer.close() && ok;
+}
+
+
+/**
+* Makes the synthesizer for a program of a channel.
+* <p>
+* It is called once for each pair of channel and program found in a track, from the task rendering that track.
+* The default one makes a <code>PolySynth</code> object with a wave and an envelope chosen by the family of the General MIDI program
+* ( piano, organ, strings, brass and so on ); the percussion channel ( channel 10 ) is played with short triangular blips.
+* @param channel MIDI channel, in the range [0..15].
+* @param program General MIDI program, in the range [0..127].
+* @return the synthesizer.
+*/
+protected VoicePool makeSynthesizer(int channel, int program)
+{
+PolySynth synth = new PolySynth(voices, sampleRate);
+if(channel == PERCUSSION)
+{
+	synth.setWaveType(WaveType.wTriangular);
+	synth.setEnvelope(1.0f, 120.0f, 0.0f, 60.0f);
+	return synth;
+}
+int f = program >> 3;
+synth.setWaveType(WAVES[f]);
+synth.setEnvelope(ENVELOPES[f][0], ENVELOPES[f][1], ENVELOPES[f][2], ENVELOPES[f][3]);
+return synth;
+}
+
+
+/*
+* Renders the chunks of a track.
+* The fields start, left, right and active are read and written by the render method before and after the task runs.
+*/
+private class TrackRenderer implements Runnable
+{
+public TrackRenderer(MIDITrack track, TempoMap tempoMap)
+{
+	this.track = track;
+	this.tempoMap = tempoMap;
+	left = new float[CHUNK];
+	right = new float[CHUNK];
+	block = new float[BLOCK];
+	channels = new Channel[16];
+	end = -1;
+	// the last sample of the track
+	ListIterator<MIDIEvent> it = track.getIterator();
+	while(it.hasNext())
+	{
+		MIDIEvent e = it.next();
+		int status = e.get(0) & 0xff;
+		if(status >= 0x80 && status < 0xf0) end = toSample(e.getTicks());
+	}
+	events = track.getIterator();
+	next = nextEvent();
+}
+
+public void run()
+{
+	for(int k = 0; k < CHUNK; k++)
+	{
+		left[k] = 0.0f;
+		right[k] = 0.0f;
+	}
+	active = false;
+	for(int pos = 0; pos < CHUNK; pos += BLOCK)
+	{
+		long blockEnd = start + pos + BLOCK;
+		// the events falling into this block are sent at their sample offset
+		while(next != null && nextSample < blockEnd)
+		{
+			dispatch(next, (int)Math.max(0, nextSample - start - pos));
+			next = nextEvent();
+		}
+		for(int c = 0; c < channels.length; c++)
+		{
+			Channel ch = channels[c];
+			if(ch == null) continue;
+			for(int p = 0; p < ch.synths.size(); p++)
+			{
+				VoicePool synth = ch.synths.get(p);
+				if(synth.getActiveVoices() == 0 && !ch.posted[p]) continue;
+				ch.posted[p] = false;
+				synth.process(block, BLOCK);
+				float gl = ch.gain * ch.left;
+				float gr = ch.gain * ch.right;
+				for(int i = 0; i < BLOCK; i++)
+				{
+					left[pos+i] += gl * block[i];
+					right[pos+i] += gr * block[i];
+				}
+				if(synth.getActiveVoices() > 0) active = true;
+			}
+		}
+	}
+	if(next != null) active = true;
+}
+
+/*
+* Sends a channel message to the synthesizers.
+*/
+private void dispatch(MIDIEvent e, int offset)
+{
+	int status = e.get(0) & 0xff;
+	int c = status & 0x0f;
+	int d1 = e.get(1) & 0x7f;
+	int d2 = e.get(2) & 0x7f;
+	Channel ch = channels[c];
+	if(ch == null) ch = channels[c] = new Channel();
+	switch(status & 0xf0)
+	{
+		case 0x90:
+		if(d2 > 0)
+		{
+			int p = ch.synth(c);
+			ch.owner[d1] = p;
+			ch.held[d1] = false;
+			ch.synths.get(p).noteOn(d1, d2, offset);
+			ch.posted[p] = true;
+		}
+		else
+		{
+			// note on with zero velocity is a note off
+			noteOff(ch, d1, offset);
+		}
+		break;
+		case 0x80:
+		noteOff(ch, d1, offset);
+		break;
+		case 0xb0:
+		control(ch, d1, d2, offset);
+		break;
+		case 0xc0:
+		ch.program = d1;
+		break;
+		default:
+		break;
+	}
+}
+
+private void noteOff(Channel ch, int note, int offset)
+{
+	int p = ch.owner[note];
+	if(p < 0) return;
+	if(ch.sustain)
+	{
+		ch.held[note] = true;
+		return;
+	}
+	ch.synths.get(p).noteOff(note, offset);
+	ch.posted[p] = true;
+	ch.owner[note] = -1;
+}
+
+private void control(Channel ch, int controller, int value, int offset)
+{
+	switch(controller)
+	{
+		case 7:
+		ch.volume = value;
+		ch.update();
+		break;
+		case 10:
+		ch.pan = value;
+		ch.update();
+		break;
+		case 11:
+		ch.expression = value;
+		ch.update();
+		break;
+		case 64:
+		ch.sustain = (value >= 64);
+		if(!ch.sustain)
+		{
+			// the notes released while the pedal was down stop now
+			for(int note = 0; note < 128; note++)
+			{
+				if(!ch.held[note]) continue;
+				ch.held[note] = false;
+				int p = ch.owner[note];
+				if(p < 0) continue;
+				ch.synths.get(p).noteOff(note, offset);
+				ch.posted[p] = true;
+				ch.owner[note] = -1;
+			}
+		}
+		break;
+		case 120:
+		case 123:
+		for(int p = 0; p < ch.synths.size(); p++)
+		{
+			ch.synths.get(p).allNotesOff(offset);
+			ch.posted[p] = true;
+		}
+		for(int note = 0; note < 128; note++)
+		{
+			ch.owner[note] = -1;
+			ch.held[note] = false;
+		}
+		break;
+		default:
+		break;
+	}
+}
+
+/*
+* The next channel message of the track, setting the sample where it is.
+*/
+private MIDIEvent nextEvent()
+{
+	while(events.hasNext())
+	{
+		MIDIEvent e = events.next();
+		int status = e.get(0) & 0xff;
+		if(status < 0x80 || status >= 0xf0) continue;
+		nextSample = toSample(e.getTicks());
+		return e;
+	}
+	return null;
+}
+
+/*
+* Converts ticks to samples.
+*/
+private long toSample(long ticks)
+{
+	return (long)(tempoMap.toMicros(ticks) * sampleRate / 1000000.0 + 0.5);
+}
+
+/*
+* The state of a MIDI channel in this track.
+*/
+private class Channel
+{
+	public Channel()
+	{
+		synths = new ArrayList<VoicePool>();
+		programs = new ArrayList<Integer>();
+		posted = new boolean[128];
+		owner = new int[128];
+		held = new boolean[128];
+		for(int i = 0; i < 128; i++) owner[i] = -1;
+		program = 0;
+		volume = 100;
+		expression = 127;
+		pan = 64;
+		sustain = false;
+		update();
+	}
+
+	/*
+	* The index of the synthesizer of the current program, which is made the first time it is used.
+	*/
+	public int synth(int c)
+	{
+		int p = programs.indexOf(program);
+		if(p >= 0) return p;
+		synths.add(makeSynthesizer(c, program));
+		programs.add(program);
+		return synths.size() - 1;
+	}
+
+	public void update()
+	{
+		// volume and expression follow the General MIDI curve; pan is constant power
+		float v = (volume / 127.0f) * (expression / 127.0f);
+		gain = v * v;
+		double angle = 0.5 * Math.PI * Math.max(0, pan - 1) / 126.0;
+		left = (float)Math.cos(angle);
+		right = (float)Math.sin(angle);
+	}
+
+	public ArrayList<VoicePool> synths;
+	public ArrayList<Integer> programs;
+	public boolean[] posted;
+	public int[] owner;
+	public boolean[] held;
+	public int program;
+	public int volume;
+	public int expression;
+	public int pan;
+	public boolean sustain;
+	public float gain;
+	public float left;
+	public float right;
+}
+
+public long start;
+public long end;
+public boolean active;
+public float[] left;
+public float[] right;
+
+private MIDITrack track;
+private TempoMap tempoMap;
+private ListIterator<MIDIEvent> events;
+private MIDIEvent next;
+private long nextSample;
+private float[] block;
+private Channel[] channels;
+}
+
+
+private float sampleRate;
+private int voices;
+private float amplitude;
+private volatile long frames;
+
+private static final int CHUNK = 16384;
+private static final int BLOCK = 256;
+private static final int PERCUSSION = 9;
+private static final float MAX_TAIL = 5.0f;  // seconds
+
+// wave and envelope ( attack ms, decay ms, sustain level, release ms ) of the 16 General MIDI program families
+private static final int[] WAVES = {
+WaveType.wTriangular, WaveType.wSine, WaveType.wSquare, WaveType.wTriangular,
+WaveType.wTriangular, WaveType.wSaw, WaveType.wSaw, WaveType.wSaw,
+WaveType.wSquare, WaveType.wSine, WaveType.wSaw, WaveType.wSaw,
+WaveType.wSquare, WaveType.wTriangular, WaveType.wSine, WaveType.wSquare
+};
+private static final float[][] ENVELOPES = {
+{2.0f, 900.0f, 0.25f, 300.0f},    // piano
+{1.0f, 500.0f, 0.0f, 400.0f},     // chromatic percussion
+{5.0f, 10.0f, 1.0f, 60.0f},       // organ
+{2.0f, 700.0f, 0.2f, 200.0f},     // guitar
+{5.0f, 300.0f, 0.6f, 100.0f},     // bass
+{80.0f, 200.0f, 0.8f, 400.0f},    // strings
+{120.0f, 300.0f, 0.8f, 500.0f},   // ensemble
+{30.0f, 150.0f, 0.8f, 150.0f},    // brass
+{20.0f, 100.0f, 0.8f, 120.0f},    // reed
+{40.0f, 100.0f, 0.8f, 200.0f},    // pipe
+{5.0f, 100.0f, 0.8f, 100.0f},     // synth lead
+{300.0f, 500.0f, 0.7f, 800.0f},   // synth pad
+{100.0f, 400.0f, 0.5f, 600.0f},   // synth effects
+{2.0f, 400.0f, 0.3f, 200.0f},     // ethnic
+{1.0f, 200.0f, 0.0f, 100.0f},     // percussive
+{50.0f, 300.0f, 0.5f, 300.0f}     // sound effects
+};
+}
+
+// END
@@ -0,0 +1,656 @@
+/*
+ * Copyright (c) 2026 Ismael Mosquera Rivera
+ *
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+/*
+* MIDISequencer.java
+*
+* imr-lib
+*
+* Author: Ismael Mosquera Rivera
+*/
+
+package imr.sound.midi;
+
+import imr.sound.Player;
+import imr.sound.audio.synthesis.VoicePool;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.sound.midi.MidiMessage;
+import javax.sound.midi.ShortMessage;
+import javax.sound.midi.SysexMessage;
+import javax.sound.midi.Receiver;
+import javax.sound.midi.InvalidMidiDataException;
+
+/**
+* The <code>MIDISequencer</code> class plays MIDI songs with its own timing thread, without any <code>javax.sound.midi.Sequencer</code>.
+* <p>
+* A song is loaded as <code>MIDICompactTrack</code> objects traversed by a <code>MIDIMergeCursor</code>,
+* and the time of each event is computed with the <code>TempoMap</code> of the song;
+* so, unlike the <code>MIDIPlayer</code> class, nothing is converted to a <code>javax.sound.midi.Sequence</code> object.
+* <p>
+* The events are played by a dedicated thread, with the maximum priority. It schedules the events falling into a lookahead window,
+* 10 ms by default: they are decoded and their messages are built before their time.
+* Then, it waits for each event parking itself until a short time before, 500 us by default, and spinning on <code>System.nanoTime</code>
+* the rest of the time, so the messages are sent with sub millisecond jitter.
+* <p>
+* The messages are sent to a <code>Receiver</code> object or, with no MIDI device at all, to a synthesizer of the imr.sound.audio.synthesis package;
+* in this case, the note events are posted to the synthesizer at offset zero, so they start at the next block it processes.
+* Meta events are not sent. When playing is paused or stopped, an all notes off message is sent to each channel;
+* when it starts at a position other than zero, the program changes, controllers and pitch bends before that position are sent first.
+* <p>
+* The jitter, that is, the time from the scheduled time of an event to the moment its message was sent, is measured for every event:
+* see the <code>getMeanJitter</code>, <code>getMaxJitter</code> and <code>getJitterHistogram</code> methods.
+* <p>
+* Example:
+* <code>
+* MIDISequencer sequencer = new MIDISequencer(MidiSystem.getReceiver());
+* sequencer.set("song.mid");
+* sequencer.play();
+* // later
+* System.out.println(sequencer.getMaxJitter());
+* </code>
+* @see imr.sound.midi.MIDIPlayer
+* @see imr.sound.midi.MIDIMergeCursor
+* @see imr.sound.midi.TempoMap
+* @author Ismael Mosquera Rivera
+*/
+public class MIDISequencer implements Player
+{
+
+/**
+* Makes a new instance of a <code>MIDISequencer</code> object which sends the MIDI messages to a receiver.
+* @param receiver a <code>Receiver</code> object.
+* @see javax.sound.midi.Receiver
+*/
+public MIDISequencer(Receiver receiver)
+{
+this.receiver = receiver;
+lookahead = LOOKAHEAD;
+spin = SPIN;
+due = new long[RING];
+times = new double[RING];
+ticks = new long[RING];
+messages = new MidiMessage[RING];
+histogram = new AtomicLongArray(BINS);
+resetMetrics();
+}
+
+/**
+* Makes a new instance of a <code>MIDISequencer</code> object which plays the notes with a synthesizer.
+* Just note on, note off and all notes off messages are played; the synthesizer must be processed by the audio thread.
+* @param synth a <code>VoicePool</code> object, such as a <code>PolySynth</code> one.
+* @see imr.sound.audio.synthesis.VoicePool
+*/
+public MIDISequencer(VoicePool synth)
+{
+this(new SynthReceiver(synth));
+}
+
+/**
+* Sets a MIDI file to be played.
+* @param fileName path to a MIDI file.
+*/
+public void set(String fileName)
+{
+MIDIFileReader reader = new MIDIFileReader();
+MIDISong song = new MIDISong();
+if(!reader.init(fileName) || !reader.run(song))
+{
+	System.out.println("MIDISequencer::set: cannot read " + fileName);
+	return;
+}
+setSong(song);
+}
+
+/**
+* Sets a song to be played.
+* The tracks of the song are converted to <code>MIDICompactTrack</code> objects, so the song can be changed later.
+* @param song a <code>MIDISong</code> object.
+*/
+public synchronized void setSong(MIDISong song)
+{
+stop();
+MIDICompactTrack[] tracks = MIDICompactTrack.convert(song);
+cursor = new MIDIMergeCursor(tracks);
+tempoMap = new TempoMap(tracks, song.getTicksPerQ());
+length = 0.0;
+for(int i = 0; i < tracks.length; i++)
+{
+	int n = tracks[i].size();
+	if(n > 0) length = Math.max(length, tempoMap.toMicros(tracks[i].getTicks(n-1)));
+}
+}
+
+/**
+* Starts playing, from the position where it was paused or from the start of the song.
+*/
+public synchronized void play()
+{
+if(cursor == null || isRunning()) return;
+if(position >= length) locate(0.0);
+origin = System.nanoTime() - (long)(position * 1000.0);
+running = true;
+thread = new Thread(new Scheduler(), "MIDISequencer");
+thread.setDaemon(true);
+thread.setPriority(Thread.MAX_PRIORITY);
+thread.start();
+}
+
+/**
+* Pauses playing; the next call to <code>play</code> goes on from the same position.
+*/
+public synchronized void pause()
+{
+halt();
+}
+
+/**
+* Stops playing and goes back to the start of the song.
+*/
+public synchronized void stop()
+{
+halt();
+if(cursor != null) locate(0.0);
+}
+
+/**
+* Sets the playing position.
+* @param time position in microseconds.
+*/
+public synchronized void setPosition(double time)
+{
+if(cursor == null) return;
+boolean wasRunning = isRunning();
+halt();
+locate(Math.max(0.0, Math.min(time, length)));
+if(wasRunning) play();
+}
+
+/**
+* Gets the playing position.
+* @return position in microseconds.
+*/
+public double getPosition()
+{
+Thread t = thread;
+if(t != null && t.isAlive()) return Math.min(length, (System.nanoTime() - origin) / 1000.0);
+return position;
+}
+
+/**
+* Gets the length of the song, that is, the time of its last event.
+* @return length in microseconds.
+*/
+public double getLength()
+{
+return length;
+}
+
+/**
+* Tells whether this sequencer is playing.
+* @return <code>true</code> if it is playing or <code>false</code> otherwise.
+*/
+public boolean isRunning()
+{
+Thread t = thread;
+return t != null && t.isAlive();
+}
+
+/**
+* Gets the lookahead window.
+* @return lookahead time in microseconds.
+*/
+public long getLookahead()
+{
+return lookahead / 1000;
+}
+
+/**
+* Sets the lookahead window: the events falling into it are decoded and their messages built before their time.
+* @param us lookahead time in microseconds.
+*/
+public void setLookahead(long us)
+{
+assert (us > 0): "bad lookahead; it must be greater than zero.";
+lookahead = us * 1000;
+}
+
+/**
+* Gets the spin time.
+* @return spin time in microseconds.
+*/
+public long getSpinTime()
+{
+return spin / 1000;
+}
+
+/**
+* Sets the spin time: the timing thread parks itself until this time before an event, and then it spins.
+* A longer time lowers the jitter at the cost of CPU time.
+* @param us spin time in microseconds.
+*/
+public void setSpinTime(long us)
+{
+assert (us >= 0): "bad spin time; it must not be negative.";
+spin = us * 1000;
+}
+
+/**
+* Gets the number of messages sent since the metrics were reset.
+* @return number of messages.
+*/
+public long getEvents()
+{
+return events;
+}
+
+/**
+* Gets the mean jitter, that is, the mean time from the scheduled time of an event to the moment its message was sent.
+* @return mean jitter in microseconds.
+*/
+public double getMeanJitter()
+{
+long n = events;
+return (n > 0) ? (jitter / 1000.0) / n : 0.0;
+}
+
+/**
+* Gets the maximum jitter.
+* @return maximum jitter in microseconds.
+*/
+public double getMaxJitter()
+{
+return maxJitter / 1000.0;
+}
+
+/**
+* Gets a histogram of the jitter. The bin 0 counts the events sent less than 2 us late,
+* and the bin k, for k greater than zero, those sent from 2^k to 2^(k+1) us late; the last bin counts all the later ones.
+* @return array with the counts of each bin.
+*/
+public long[] getJitterHistogram()
+{
+long[] h = new long[BINS];
+for(int i = 0; i < BINS; i++) h[i] = histogram.get(i);
+return h;
+}
+
+/**
+* Sets all the jitter metrics to zero.
+*/
+public void resetMetrics()
+{
+events = 0;
+jitter = 0;
+maxJitter = 0;
+for(int i = 0; i < BINS; i++) histogram.set(i, 0);
+}
+
+
+/*
+* Stops the timing thread and waits for it.
+*/
+private void halt()
+{
+Thread t = thread;
+if(t == null) return;
+running = false;
+LockSupport.unpark(t);
+try
+{
+	t.join();
+}
+catch(InterruptedException e)
+{
+	Thread.currentThread().interrupt();
+}
+thread = null;
+}
+
+/*
+* Positions the cursor at the first event not before a given time.
+*/
+private void locate(double time)
+{
+long t = tempoMap.toTicks(time);
+if(tempoMap.toMicros(t) < time) t++;
+position = time;
+nextTick = t;
+skip = 0;
+}
+
+/*
+* Records the jitter of a message.
+*/
+private void measure(long nanos)
+{
+events++;
+jitter += nanos;
+if(nanos > maxJitter) maxJitter = nanos;
+long us = nanos / 1000;
+int bin = (us <= 0) ? 0 : 63 - Long.numberOfLeadingZeros(us);
+if(bin >= BINS) bin = BINS-1;
+histogram.incrementAndGet(bin);
+}
+
+/*
+* Builds the message of the current event of the cursor, or returns null if it cannot be sent.
+*/
+private MidiMessage getMessage()
+{
+int status = cursor.getStatus();
+try
+{
+	if(status < 0xf0) return new ShortMessage(status, cursor.getData1(), cursor.getData2());
+	if(status == 0xf0 || status == 0xf7)
+	{
+		MIDICompactTrack track = cursor.getTrack(cursor.getTrackIndex());
+		byte[] data = new byte[track.getDataLength(cursor.index())];
+		track.getData(cursor.index(), data, 0);
+		return new SysexMessage(status, data, data.length);
+	}
+}
+catch(InvalidMidiDataException e)
+{
+	System.out.println("MIDISequencer::getMessage: " + e);
+}
+return null;
+}
+
+/*
+* Sends the state of each channel before the next event to be played: bank select, program change, the last value of
+* the other controllers, the RPN and NRPN messages in file order, and pitch bend. The channel mode messages are not sent.
+*/
+private void chase()
+{
+if(nextTick == 0) return;
+int[] program = new int[16];
+int[] bend = new int[16];
+int[] controllers = new int[16*128];
+Arrays.fill(program, -1);
+Arrays.fill(bend, -1);
+Arrays.fill(controllers, -1);
+// the parameter numbers and their data entries, packed as channel << 14 | controller << 7 | value
+ArrayList<Integer> parameters = new ArrayList<Integer>();
+cursor.rewind();
+while(cursor.next() && cursor.getTicks() < nextTick)
+{
+	int channel = cursor.getChannel();
+	switch(cursor.getCommand())
+	{
+		case ShortMessage.PROGRAM_CHANGE:
+		program[channel] = cursor.getData1();
+		break;
+		case ShortMessage.CONTROL_CHANGE:
+		int k = cursor.getData1();
+		int v = cursor.getData2();
+		if(isParameter(k))
+		{
+			parameters.add((channel << 14) | (k << 7) | v);
+		}
+		else if(k == 121)
+		{
+			// reset all controllers: the values before it are not sent
+			for(int i = 0; i < 120; i++) if(i != 0 && i != 32 && !isParameter(i)) controllers[channel*128 + i] = -1;
+			bend[channel] = -1;
+		}
+		else if(k < 120)
+		{
+			controllers[channel*128 + k] = v;
+		}
+		break;
+		case ShortMessage.PITCH_BEND:
+		bend[channel] = cursor.getData1() | (cursor.getData2() << 7);
+		break;
+		default:
+		break;
+	}
+}
+for(int c = 0; c < 16; c++)
+{
+	// the bank is selected before the program change
+	if(controllers[c*128] >= 0) send(ShortMessage.CONTROL_CHANGE, c, 0, controllers[c*128]);
+	if(controllers[c*128 + 32] >= 0) send(ShortMessage.CONTROL_CHANGE, c, 32, controllers[c*128 + 32]);
+	if(program[c] >= 0) send(ShortMessage.PROGRAM_CHANGE, c, program[c], 0);
+	for(int k = 1; k < 120; k++)
+	{
+		int v = controllers[c*128 + k];
+		if(v >= 0 && k != 32) send(ShortMessage.CONTROL_CHANGE, c, k, v);
+	}
+}
+for(int i = 0; i < parameters.size(); i++)
+{
+	int m = parameters.get(i);
+	send(ShortMessage.CONTROL_CHANGE, m >> 14, (m >> 7) & 0x7f, m & 0x7f);
+}
+for(int c = 0; c < 16; c++)
+{
+	if(bend[c] >= 0) send(ShortMessage.PITCH_BEND, c, bend[c] & 0x7f, bend[c] >> 7);
+}
+}
+
+/*
+* Tells whether a controller selects a registered or non-registered parameter or sets its value:
+* data entry ( 6 and 38 ), data increment and decrement ( 96 and 97 ), NRPN ( 98 and 99 ) and RPN ( 100 and 101 ).
+*/
+private static boolean isParameter(int controller)
+{
+return controller == 6 || controller == 38 || (controller >= 96 && controller <= 101);
+}
+
+/*
+* Releases the sustain pedal and sends an all notes off message to each channel.
+*/
+private void allNotesOff()
+{
+for(int c = 0; c < 16; c++)
+{
+	send(ShortMessage.CONTROL_CHANGE, c, 64, 0);
+	send(ShortMessage.CONTROL_CHANGE, c, 123, 0);
+}
+}
+
+private void send(int command, int channel, int data1, int data2)
+{
+try
+{
+	receiver.send(new ShortMessage(command, channel, data1, data2), -1);
+}
+catch(InvalidMidiDataException e)
+{
+	System.out.println("MIDISequencer::send: " + e);
+}
+}
+
+
+/*
+* The timing thread: it fills the lookahead window and sends each message at its time.
+*/
+private final class Scheduler implements Runnable
+{
+public void run()
+{
+	chase();
+	cursor.seek(nextTick);
+	boolean more = cursor.next();
+	// the events at the next tick which were already sent before pausing
+	for(int i = 0; more && i < skip && cursor.getTicks() == nextTick; i++) more = cursor.next();
+	origin = System.nanoTime() - (long)(position * 1000.0);
+	int head = 0;
+	int count = 0;
+	long sentTick = -1;
+	int sentAtTick = 0;
+	while(running)
+	{
+		// the events falling into the lookahead window, which starts now or at the next event to be sent, are scheduled
+		long now = System.nanoTime();
+		while(more && count < RING)
+		{
+			double time = tempoMap.toMicros(cursor.getTicks());
+			long t = origin + (long)(time * 1000.0);
+			if(t > Math.max(now, (count > 0) ? due[head] : t) + lookahead) break;
+			// the events which are not sent, such as meta events, are scheduled too, with no message
+			int k = (head + count) & (RING-1);
+			due[k] = t;
+			times[k] = time;
+			ticks[k] = cursor.getTicks();
+			messages[k] = getMessage();
+			count++;
+			more = cursor.next();
+		}
+		if(count == 0) break;  // end of the song
+		if(!waitUntil(due[head])) break;
+		// all the events already due are sent in a burst; the metrics are updated after it, so they do not delay it
+		int first = head;
+		int n = 0;
+		long sent = System.nanoTime();
+		do
+		{
+			if(messages[head] != null) receiver.send(messages[head], -1);
+			due[head] = sent - due[head];
+			head = (head + 1) & (RING-1);
+			count--;
+			n++;
+			sent = System.nanoTime();
+		}
+		while(count > 0 && due[head] <= sent);
+		for(int i = 0; i < n; i++)
+		{
+			int k = (first + i) & (RING-1);
+			if(messages[k] != null) measure(due[k]);
+			if(ticks[k] == sentTick) sentAtTick++;
+			else
+			{
+				sentTick = ticks[k];
+				sentAtTick = 1;
+			}
+			messages[k] = null;
+		}
+	}
+	// the position is kept just after the last event sent
+	if(count > 0 || more)
+	{
+		long t = (count > 0) ? ticks[head] : cursor.getTicks();
+		double time = (count > 0) ? times[head] : tempoMap.toMicros(t);
+		position = Math.min(time, Math.max(0.0, (System.nanoTime() - origin) / 1000.0));
+		nextTick = t;
+		skip = (t == sentTick) ? sentAtTick : 0;
+		for(int i = 0; i < count; i++) messages[(head + i) & (RING-1)] = null;
+	}
+	else
+	{
+		position = length;
+		nextTick = Long.MAX_VALUE;
+		skip = 0;
+	}
+	allNotesOff();
+	running = false;
+}
+
+/*
+* Parks the thread until a short time before a deadline, and spins the rest of the time.
+*/
+private boolean waitUntil(long deadline)
+{
+	while(running)
+	{
+		long remaining = deadline - System.nanoTime();
+		if(remaining <= 0) return true;
+		if(remaining > spin) LockSupport.parkNanos(remaining - spin);
+		else Thread.onSpinWait();
+	}
+	return false;
+}
+}
+
+
+/*
+* Plays the note messages with a synthesizer.
+*/
+private static final class SynthReceiver implements Receiver
+{
+public SynthReceiver(VoicePool synth)
+{
+	this.synth = synth;
+}
+
+public void send(MidiMessage message, long timeStamp)
+{
+	if(!(message instanceof ShortMessage)) return;
+	ShortMessage m = (ShortMessage)message;
+	switch(m.getCommand())
+	{
+		case ShortMessage.NOTE_ON:
+		synth.noteOn(m.getData1(), m.getData2(), 0);
+		break;
+		case ShortMessage.NOTE_OFF:
+		synth.noteOff(m.getData1(), 0);
+		break;
+		case ShortMessage.CONTROL_CHANGE:
+		if(m.getData1() == 120 || m.getData1() == 123) synth.allNotesOff(0);
+		break;
+		default:
+		break;
+	}
+}
+
+public void close()
+{
+}
+
+private final VoicePool synth;
+}
+
+
+private final Receiver receiver;
+private MIDIMergeCursor cursor;
+private TempoMap tempoMap;
+private double length;
+private volatile Thread thread;
+private volatile boolean running;
+private volatile long origin;
+private volatile double position;
+private long nextTick;
+private int skip;
+private volatile long lookahead;
+private volatile long spin;
+
+// the lookahead window, a ring of scheduled events
+private final long[] due;
+private final double[] times;
+private final long[] ticks;
+private final MidiMessage[] messages;
+
+private volatile long events;
+private volatile long jitter;
+private volatile long maxJitter;
+private final AtomicLongArray histogram;
+
+private static final long LOOKAHEAD = 10000000L;
+private static final long SPIN = 500000L;
+private static final int RING = 1024;
+private static final int BINS = 16;
+}
+
+// END
@@ -28,7 +28,7 @@
 
 package imr.sound.midi;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.ListIterator;
 
 /**
@@ -45,7 +45,7 @@ public final class MIDISong
 public MIDISong()
 {
 ticksPerQ=0;
-trackList = new LinkedList<MIDITrack>();
+trackList = new ArrayList<MIDITrack>();
 }
 
 /**
@@ -107,7 +107,7 @@ trackList.clear();
 }
 
 private int ticksPerQ;
-private LinkedList<MIDITrack> trackList;
+private ArrayList<MIDITrack> trackList;
 }
 
 // END
@@ -0,0 +1,314 @@
+/*
+ * Copyright (c) 2026 Ismael Mosquera Rivera
+ *
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+/*
+* MIDIStats.java
+*
+* imr-lib
+*
+* Author: Ismael Mosquera Rivera
+*/
+
+package imr.sound.midi;
+
+/**
+* A <code>MIDIStats</code> object accumulates statistics of a set of MIDI files:
+* number of files, tracks, events and notes, pitch and channel histograms, durations and tempo range.
+* <p>
+* Accumulators can be merged, so each thread of a <code>MIDICorpusScanner</code> fills its own one and they are merged at the end.
+* Merging is associative and commutative: the result does not depend on how the files were split among the threads.
+* <p>
+* The objects emitted and returned by a <code>MIDICorpusScanner</code> also have the time elapsed since the scan started,
+* to compute the throughput.
+* This class is not thread-safe.
+* @see imr.sound.midi.MIDICorpusScanner
+* @author Ismael Mosquera Rivera
+*/
+public final class MIDIStats
+{
+
+/**
+* Makes a new instance of an empty <code>MIDIStats</code> object.
+*/
+public MIDIStats()
+{
+pitches = new long[128];
+channels = new long[16];
+reset();
+}
+
+/**
+* Clears this accumulator.
+*/
+public void reset()
+{
+files = 0;
+failed = 0;
+bytes = 0;
+tracks = 0;
+events = 0;
+notes = 0;
+velocities = 0;
+for(int i = 0; i < pitches.length; i++) pitches[i] = 0;
+for(int i = 0; i < channels.length; i++) channels[i] = 0;
+duration = 0.0;
+minDuration = Double.POSITIVE_INFINITY;
+maxDuration = 0.0;
+minTempo = Double.POSITIVE_INFINITY;
+maxTempo = 0.0;
+elapsed = 0;
+}
+
+/**
+* Adds the statistics of another accumulator to this one.
+* @param s a <code>MIDIStats</code> object; it is not changed.
+*/
+public void merge(MIDIStats s)
+{
+files += s.files;
+failed += s.failed;
+bytes += s.bytes;
+tracks += s.tracks;
+events += s.events;
+notes += s.notes;
+velocities += s.velocities;
+for(int i = 0; i < pitches.length; i++) pitches[i] += s.pitches[i];
+for(int i = 0; i < channels.length; i++) channels[i] += s.channels[i];
+duration += s.duration;
+minDuration = Math.min(minDuration, s.minDuration);
+maxDuration = Math.max(maxDuration, s.maxDuration);
+minTempo = Math.min(minTempo, s.minTempo);
+maxTempo = Math.max(maxTempo, s.maxTempo);
+elapsed = Math.max(elapsed, s.elapsed);
+}
+
+/**
+* Gets the number of files scanned, including the failed ones.
+* @return number of files.
+*/
+public long getFiles()
+{
+return files;
+}
+
+/**
+* Gets the number of files which could not be parsed; they are not counted in the other statistics but the bytes.
+* @return number of failed files.
+*/
+public long getFailed()
+{
+return failed;
+}
+
+/**
+* Gets the number of bytes read.
+* @return number of bytes.
+*/
+public long getBytes()
+{
+return bytes;
+}
+
+/**
+* Gets the number of tracks.
+* @return number of tracks.
+*/
+public long getTracks()
+{
+return tracks;
+}
+
+/**
+* Gets the number of events, not counting the end of track ones.
+* @return number of events.
+*/
+public long getEvents()
+{
+return events;
+}
+
+/**
+* Gets the number of notes, that is, of note on messages with a velocity greater than zero.
+* @return number of notes.
+*/
+public long getNotes()
+{
+return notes;
+}
+
+/**
+* Gets the number of notes of a pitch.
+* @param pitch MIDI note number [0..127].
+* @return number of notes.
+*/
+public long getNotes(int pitch)
+{
+return pitches[pitch];
+}
+
+/**
+* Gets the pitch histogram.
+* @return a copy of the array with the number of notes of each MIDI note number.
+*/
+public long[] getPitchHistogram()
+{
+return pitches.clone();
+}
+
+/**
+* Gets the channel histogram.
+* @return a copy of the array with the number of notes of each channel.
+*/
+public long[] getChannelHistogram()
+{
+return channels.clone();
+}
+
+/**
+* Gets the mean velocity of the notes.
+* @return mean velocity, or zero if there are no notes.
+*/
+public double getMeanVelocity()
+{
+return (notes == 0) ? 0.0 : (double)velocities / notes;
+}
+
+/**
+* Gets the total duration of the files, up to their last event.
+* @return duration in seconds.
+*/
+public double getTotalDuration()
+{
+return duration;
+}
+
+/**
+* Gets the mean duration of the files.
+* @return duration in seconds, or zero if no file was parsed.
+*/
+public double getMeanDuration()
+{
+long n = files - failed;
+return (n == 0) ? 0.0 : duration / n;
+}
+
+/**
+* Gets the duration of the shortest file.
+* @return duration in seconds, or zero if no file was parsed.
+*/
+public double getMinDuration()
+{
+return (minDuration == Double.POSITIVE_INFINITY) ? 0.0 : minDuration;
+}
+
+/**
+* Gets the duration of the longest file.
+* @return duration in seconds.
+*/
+public double getMaxDuration()
+{
+return maxDuration;
+}
+
+/**
+* Gets the lowest tempo found; files without tempo changes have the default tempo of 120 beats per minute.
+* @return tempo in beats per minute, or zero if no file was parsed.
+*/
+public double getMinTempo()
+{
+return (minTempo == Double.POSITIVE_INFINITY) ? 0.0 : minTempo;
+}
+
+/**
+* Gets the highest tempo found.
+* @return tempo in beats per minute.
+*/
+public double getMaxTempo()
+{
+return maxTempo;
+}
+
+/**
+* Gets the time elapsed since the scan started.
+* @return elapsed time in seconds.
+*/
+public double getElapsedTime()
+{
+return elapsed / 1.0e9;
+}
+
+/**
+* Gets the number of files scanned per second.
+* @return files per second.
+*/
+public double getFilesPerSecond()
+{
+return (elapsed <= 0) ? 0.0 : files / getElapsedTime();
+}
+
+/**
+* Gets the number of bytes read per second.
+* @return megabytes per second.
+*/
+public double getMegabytesPerSecond()
+{
+return (elapsed <= 0) ? 0.0 : bytes / 1.0e6 / getElapsedTime();
+}
+
+/**
+* Gets the number of events parsed per second.
+* @return events per second.
+*/
+public double getEventsPerSecond()
+{
+return (elapsed <= 0) ? 0.0 : events / getElapsedTime();
+}
+
+/**
+* Gets a summary of these statistics.
+* @return a string with the summary.
+*/
+public String toString()
+{
+return String.format("%d files ( %d failed ), %d tracks, %d events, %d notes, %.1f h, tempo %.0f-%.0f bpm in %.1f s: %.1f files/s, %.1f MB/s, %.2f M events/s",
+files, failed, tracks, events, notes, duration / 3600.0, getMinTempo(), maxTempo,
+getElapsedTime(), getFilesPerSecond(), getMegabytesPerSecond(), getEventsPerSecond() / 1.0e6);
+}
+
+
+// they are set by the scanner
+long files;
+long failed;
+long bytes;
+long tracks;
+long events;
+long notes;
+long velocities;
+long[] pitches;
+long[] channels;
+double duration;
+double minDuration;
+double maxDuration;
+double minTempo;
+double maxTempo;
+long elapsed;
+}
+
+// END
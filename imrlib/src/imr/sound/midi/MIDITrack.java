@@ -28,12 +28,15 @@
 
 package imr.sound.midi;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.ListIterator;
 
 /**
 * A <code>MIDITrack</code> is a list of <code>MIDIEvent</code> objects.
+* <p>
+* To store big tracks with much less memory, see the <code>MIDICompactTrack</code> class.
 * @see imr.sound.midi.MIDIEvent
+* @see imr.sound.midi.MIDICompactTrack
 * @author Ismael Mosquera Rivera
 */
 public final class MIDITrack
@@ -45,7 +48,7 @@ public final class MIDITrack
 public MIDITrack()
 {
 	name="";
-eventList = new LinkedList<MIDIEvent>();
+eventList = new ArrayList<MIDIEvent>();
 }
 
 /**
@@ -61,6 +64,15 @@ public void setName(char[] aname)
 	}
 }
 
+/**
+* Gets the name of the <code>MIDITrack</code> object.
+* @return the name of the track.
+*/
+public String getName()
+{
+return name;
+}
+
 /**
 * Adds a new event to the track.
 * @param e a <code>MIDIEvent</code> object to be added.
@@ -79,6 +91,35 @@ public ListIterator<MIDIEvent> getIterator()
 return eventList.listIterator();
 }
 
+/**
+* Returns an iterator positioned at a given time, found by binary search.
+* The first call to <code>next</code> returns the first event not before that time.
+* The events must be in time order, as they are when the track is read from a MIDI file.
+* @param ticks time stamp in ticks.
+* @return a list iterator to traverse the track from that time.
+*/
+public ListIterator<MIDIEvent> getIterator(long ticks)
+{
+int lo = 0;
+int hi = eventList.size();
+while(lo < hi)
+{
+	int mid = (lo + hi) >>> 1;
+	if(eventList.get(mid).getTicks() < ticks) lo = mid + 1;
+	else hi = mid;
+}
+return eventList.listIterator(lo);
+}
+
+/**
+* Gets the number of events in the track.
+* @return the number of events.
+*/
+public int size()
+{
+return eventList.size();
+}
+
 /**
 * Checks if the track has tempo events.
 * @return <code>true</code> if there are any tempo event in the list,
@@ -105,7 +146,7 @@ eventList.clear();
 }
 
 private String name;
-private LinkedList<MIDIEvent> eventList;
+private ArrayList<MIDIEvent> eventList;
 }
 
 // END
@@ -0,0 +1,294 @@
+/*
+ * Copyright (c) 2026 Ismael Mosquera Rivera
+ *
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+
+/*
+* TempoMap.java
+*
+* imr-lib
+*
+* Author: Ismael Mosquera Rivera
+*/
+
+package imr.sound.midi;
+
+import java.util.ArrayList;
+import java.util.ListIterator;
+
+/**
+* A <code>TempoMap</code> converts time stamps in ticks to time in microseconds, and back, for a song.
+* <p>
+* It is built once per song, collecting the tempo changes of all its tracks into a sorted array,
+* with the time in microseconds where each one starts. So, each conversion is a binary search, in O(log n),
+* instead of a walk through all the tempo events.
+* <p>
+* Before the first tempo change, the tempo is 120 beats per minute, as the MIDI specification sets.
+* If the division of the song is in SMPTE format, the ticks have a fixed duration and there are no tempo changes.
+* <p>
+* The <code>seek</code> methods position the iterators of the tracks at a given time, also in O(log n).
+* <p>
+* Example:
+* <code>
+* TempoMap map = new TempoMap(song);
+* double seconds = map.toMicros(lastTick) / 1000000.0;
+* ArrayList&lt;ListIterator&lt;MIDIEvent&gt;&gt; its = map.seek(song, 30000000.0);  // 30 seconds
+* </code>
+* @see imr.sound.midi.MIDISong
+* @author Ismael Mosquera Rivera
+*/
+public final class TempoMap
+{
+
+/**
+* Makes a new instance of a <code>TempoMap</code> object with the tempo changes of a song.
+* @param song a <code>MIDISong</code> object.
+*/
+public TempoMap(MIDISong song)
+{
+ArrayList<MIDIEvent> changes = new ArrayList<MIDIEvent>();
+ListIterator<MIDITrack> it = song.getIterator();
+while(it.hasNext())
+{
+	ListIterator<MIDIEvent> events = it.next().getIterator();
+	while(events.hasNext())
+	{
+		MIDIEvent e = events.next();
+		if(e.get(0) == (byte)0xff && e.get(1) == (byte)0x51 && ((MIDIMetaEvent)e).data.length == 3) changes.add(e);
+	}
+}
+// the sort is stable, so of two changes at the same tick the one in the latest track wins
+changes.sort((a, b) -> Long.compare(a.getTicks(), b.getTicks()));
+long[] t = new long[changes.size()];
+int[] tempo = new int[changes.size()];
+for(int i = 0; i < t.length; i++)
+{
+	byte[] d = ((MIDIMetaEvent)changes.get(i)).data;
+	t[i] = changes.get(i).getTicks();
+	tempo[i] = ((d[0] & 0xff) << 16) | ((d[1] & 0xff) << 8) | (d[2] & 0xff);
+}
+build(song.getTicksPerQ(), t, tempo);
+}
+
+/**
+* Makes a new instance of a <code>TempoMap</code> object with the tempo changes of some compact tracks.
+* @param tracks the tracks of a song.
+* @param division the division of the song, that is, its ticks per quarter.
+* @see imr.sound.midi.MIDICompactTrack
+*/
+public TempoMap(MIDICompactTrack[] tracks, int division)
+{
+int n = 0;
+for(int k = 0; k < tracks.length; k++)
+{
+	for(int i = 0; i < tracks[k].size(); i++) if(tracks[k].getTempo(i) >= 0) n++;
+}
+long[] t = new long[n];
+int[] tempo = new int[n];
+int[] order = new int[n];
+n = 0;
+for(int k = 0; k < tracks.length; k++)
+{
+	for(int i = 0; i < tracks[k].size(); i++)
+	{
+		int v = tracks[k].getTempo(i);
+		if(v < 0) continue;
+		// insertion sort: the changes are few and each track is already sorted
+		int j = n++;
+		long tk = tracks[k].getTicks(i);
+		while(j > 0 && t[j-1] > tk)
+		{
+			t[j] = t[j-1];
+			tempo[j] = tempo[j-1];
+			j--;
+		}
+		t[j] = tk;
+		tempo[j] = v;
+	}
+}
+build(division, t, tempo);
+}
+
+/**
+* Gets the division of the song.
+* @return ticks per quarter, or a negative value for SMPTE format.
+*/
+public int getDivision()
+{
+return division;
+}
+
+/**
+* Gets the number of tempo segments, that is, the tempo changes plus the initial tempo.
+* @return number of segments.
+*/
+public int size()
+{
+return ticks.length;
+}
+
+/**
+* Gets the tempo at a given time.
+* @param t time stamp in ticks.
+* @return tempo in microseconds per quarter note.
+*/
+public int getTempo(long t)
+{
+return tempos[segment(t)];
+}
+
+/**
+* Converts a time stamp in ticks to microseconds.
+* @param t time stamp in ticks.
+* @return time in microseconds.
+*/
+public double toMicros(long t)
+{
+int i = segment(t);
+return micros[i] + (t - ticks[i]) * microsPerTick[i];
+}
+
+/**
+* Converts a time in microseconds to a time stamp in ticks.
+* @param time time in microseconds.
+* @return the last time stamp in ticks not after the given time.
+*/
+public long toTicks(double time)
+{
+int lo = 0;
+int hi = micros.length - 1;
+while(lo < hi)
+{
+	int mid = (lo + hi + 1) >>> 1;
+	if(micros[mid] <= time) lo = mid;
+	else hi = mid - 1;
+}
+if(time <= micros[lo]) return ticks[lo];
+return ticks[lo] + (long)Math.floor((time - micros[lo]) / microsPerTick[lo] + 1e-9);
+}
+
+/**
+* Positions an iterator per track at a given time.
+* The first call to <code>next</code> of each iterator returns the first event of its track not before that time.
+* @param song the song used to build this map.
+* @param time time in microseconds.
+* @return a list with an iterator per track.
+*/
+public ArrayList<ListIterator<MIDIEvent>> seek(MIDISong song, double time)
+{
+long t = ceilTicks(time);
+ArrayList<ListIterator<MIDIEvent>> list = new ArrayList<ListIterator<MIDIEvent>>(song.tracks());
+ListIterator<MIDITrack> it = song.getIterator();
+while(it.hasNext()) list.add(it.next().getIterator(t));
+return list;
+}
+
+/**
+* Positions a cursor per compact track at a given time.
+* The first call to <code>next</code> of each cursor goes to the first event of its track not before that time.
+* @param cursors the cursors of the tracks.
+* @param time time in microseconds.
+* @return the time stamp in ticks where the cursors were positioned.
+*/
+public long seek(MIDICompactTrack.Cursor[] cursors, double time)
+{
+long t = ceilTicks(time);
+for(int i = 0; i < cursors.length; i++) cursors[i].seek(t);
+return t;
+}
+
+
+/*
+* The first tick not before a given time.
+*/
+private long ceilTicks(double time)
+{
+long t = toTicks(time);
+if(toMicros(t) < time) t++;
+return t;
+}
+
+/*
+* The segment with the last tempo change not after a given tick.
+*/
+private int segment(long t)
+{
+int lo = 0;
+int hi = ticks.length - 1;
+while(lo < hi)
+{
+	int mid = (lo + hi + 1) >>> 1;
+	if(ticks[mid] <= t) lo = mid;
+	else hi = mid - 1;
+}
+return lo;
+}
+
+/*
+* Builds the segments from the sorted tempo changes; a change at tick zero replaces the default tempo.
+*/
+private void build(int division, long[] t, int[] tempo)
+{
+this.division = division;
+if(division < 0)
+{
+	// SMPTE division: frames per second and ticks per frame
+	int fps = -(division >> 8);
+	int tpf = division & 0xff;
+	ticks = new long[] {0};
+	micros = new double[] {0.0};
+	microsPerTick = new double[] {1000000.0 / (fps * tpf)};
+	tempos = new int[] {(int)(microsPerTick[0] * DEFAULT_DIVISION)};
+	return;
+}
+double q = (division > 0) ? division : DEFAULT_DIVISION;
+// a change at the same tick as the previous one replaces it
+int n = 1;
+for(int i = 0; i < t.length; i++) if(t[i] > 0 && (i == 0 || t[i] != t[i-1])) n++;
+ticks = new long[n];
+tempos = new int[n];
+micros = new double[n];
+microsPerTick = new double[n];
+ticks[0] = 0;
+tempos[0] = DEFAULT_TEMPO;
+int k = 0;
+for(int i = 0; i < t.length; i++)
+{
+	if(t[i] > ticks[k]) k++;
+	ticks[k] = t[i];
+	tempos[k] = tempo[i];
+}
+for(int i = 0; i < n; i++)
+{
+	microsPerTick[i] = tempos[i] / q;
+	if(i > 0) micros[i] = micros[i-1] + (ticks[i] - ticks[i-1]) * microsPerTick[i-1];
+}
+}
+
+
+private int division;
+private long[] ticks;
+private int[] tempos;
+private double[] micros;
+private double[] microsPerTick;
+
+private static final int DEFAULT_TEMPO = 500000;  // microseconds per quarter note: 120 bpm
+private static final int DEFAULT_DIVISION = 480;
+}
+
+// END
@@ -3,6 +3,20 @@
 * javax.sound.midi classes.
 * <p>
 * In addition, also implements a MIDI file reader and writer and a MIDI player.
+* <p>
+* The <code>MIDICompactTrack</code> class stores the events of a track in arrays, using much less memory than a <code>MIDITrack</code> object.
+* The <code>MIDIMergeCursor</code> class traverses all the tracks of a song as a single stream of events in time order.
+* <p>
+* The <code>TempoMap</code> class converts ticks to microseconds and back, and seeks the tracks of a song to a given time.
+* <p>
+* The <code>MIDICorpusScanner</code> class computes statistics ( see <code>MIDIStats</code> ) of many MIDI files in parallel,
+* parsing them as streams of bytes.
+* <p>
+* The <code>MIDIRenderer</code> class renders MIDI songs to *.wav files with the synthesizers of the imr.sound.audio.synthesis package,
+* without any MIDI device.
+* <p>
+* The <code>MIDISequencer</code> class plays MIDI songs with its own high priority timing thread, instead of a <code>javax.sound.midi.Sequencer</code> object,
+* to a <code>Receiver</code> object or to a synthesizer of the imr.sound.audio.synthesis package, and measures its timing jitter.
 *
 * @author Ismael Mosquera Rivera
 *